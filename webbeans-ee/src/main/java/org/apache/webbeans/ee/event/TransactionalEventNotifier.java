@@ -33,6 +33,9 @@ import org.apache.webbeans.event.EventContextImpl;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.spi.TransactionService;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.logging.Level;
 
 @SuppressWarnings("unchecked")
@@ -61,10 +64,16 @@ public final class TransactionalEventNotifier
      * For AFTER_COMPLETION, BEFORE_COMPLETION and AFTER_FAILURE we will deliver the event immediately.
      * For AFTER_SUCCESS we copmletely skip the event. It will not get invoked at all because the transaction
      * will not succeed.
+     *
+     * Instead of registering one Synchronization per observer and event we only register a single
+     * {@link TransactionalEventQueue} per transaction and queue the observer notifications in it.
+     * They get dispatched in the order they got fired once the transaction completes.
+     * The queues are held per {@link WebBeansContext} in {@link TransactionalEventQueues}.
      */
     public static void registerTransactionSynchronization(TransactionPhase phase, ObserverMethod<? super Object> observer, Object event, EventMetadata metadata) throws Exception
     {
-        TransactionService transactionService = WebBeansContext.currentInstance().getService(TransactionService.class);
+        WebBeansContext webBeansContext = WebBeansContext.currentInstance();
+        TransactionService transactionService = webBeansContext.getService(TransactionService.class);
         
         Transaction transaction = null;
         if(transactionService != null)
@@ -74,9 +83,10 @@ public final class TransactionalEventNotifier
         
         if(transaction != null)
         {
+            TransactionalEventQueues queues = webBeansContext.get(TransactionalEventQueues.class);
             if (phase == TransactionPhase.AFTER_COMPLETION)
             {
-                registerEvent(transaction, new AfterCompletion(observer, event, metadata), true);
+                registerEvent(queues, transaction, new AfterCompletion(observer, event, metadata), true);
             }
             else if (phase == TransactionPhase.AFTER_SUCCESS)
             {
@@ -87,16 +97,16 @@ public final class TransactionalEventNotifier
                 }
                 else
                 {
-                    registerEvent(transaction, new AfterCompletionSuccess(observer, event, metadata), false);
+                    registerEvent(queues, transaction, new AfterCompletionSuccess(observer, event, metadata), false);
                 }
             }
             else if (phase == TransactionPhase.AFTER_FAILURE)
             {
-                registerEvent(transaction, new AfterCompletionFailure(observer, event, metadata), true);
+                registerEvent(queues, transaction, new AfterCompletionFailure(observer, event, metadata), true);
             }
             else if (phase == TransactionPhase.BEFORE_COMPLETION)
             {
-                registerEvent(transaction, new BeforeCompletion(observer, event, metadata), true);
+                registerEvent(queues, transaction, new BeforeCompletion(observer, event, metadata), true);
             }
             else
             {
@@ -109,9 +119,34 @@ public final class TransactionalEventNotifier
         }
     }
 
-    private static void registerEvent(Transaction transaction, AbstractSynchronization synchronization, boolean immediateOnError)
+    private static void registerEvent(TransactionalEventQueues queues, Transaction transaction,
+                                      AbstractSynchronization synchronization, boolean immediateOnError)
         throws SystemException
     {
+        if (transaction.getStatus() == Status.STATUS_ACTIVE)
+        {
+            TransactionalEventQueue queue = (TransactionalEventQueue) queues.get(transaction);
+            if (queue == null)
+            {
+                queue = new TransactionalEventQueue(queues, transaction);
+                try
+                {
+                    transaction.registerSynchronization(queue);
+                    queues.put(transaction, queue);
+                }
+                catch (RollbackException | IllegalStateException re)
+                {
+                    queue = null;
+                }
+            }
+
+            if (queue != null && queue.add(synchronization))
+            {
+                return;
+            }
+        }
+
+        // the transaction is not active anymore, let the TM decide whether it still accepts the Synchronization
         try
         {
             transaction.registerSynchronization(synchronization);
@@ -125,6 +160,90 @@ public final class TransactionalEventNotifier
         }
     }
 
+    /**
+     * Collects all transactional observer notifications of a single transaction.
+     * BEFORE_COMPLETION notifications get dispatched in {@link #beforeCompletion()},
+     * all the AFTER_* notifications in {@link #afterCompletion(int)}.
+     */
+    private static final class TransactionalEventQueue implements Synchronization
+    {
+        private final TransactionalEventQueues queues;
+
+        // weak to not keep the key of the WeakHashMap in TransactionalEventQueues alive
+        private final WeakReference<Transaction> transaction;
+        private final List<AbstractSynchronization> beforeCompletion = new ArrayList<>();
+        private final List<AbstractSynchronization> afterCompletion = new ArrayList<>();
+        private boolean completed;
+
+        private TransactionalEventQueue(TransactionalEventQueues queues, Transaction transaction)
+        {
+            this.queues = queues;
+            this.transaction = new WeakReference<>(transaction);
+        }
+
+        private synchronized boolean add(AbstractSynchronization synchronization)
+        {
+            if (completed)
+            {
+                return false;
+            }
+
+            if (synchronization instanceof BeforeCompletion)
+            {
+                beforeCompletion.add(synchronization);
+            }
+            else
+            {
+                afterCompletion.add(synchronization);
+            }
+            return true;
+        }
+
+        private synchronized AbstractSynchronization nextBeforeCompletion(int index)
+        {
+            return index < beforeCompletion.size() ? beforeCompletion.get(index) : null;
+        }
+
+        @Override
+        public void beforeCompletion()
+        {
+            // observers might fire further events, so we need to pick up entries added during the loop
+            for (int i = 0; ; i++)
+            {
+                AbstractSynchronization synchronization = nextBeforeCompletion(i);
+                if (synchronization == null)
+                {
+                    break;
+                }
+                synchronization.beforeCompletion();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status)
+        {
+            Transaction tx = transaction.get();
+            if (tx != null)
+            {
+                queues.remove(tx, this);
+            }
+
+            List<AbstractSynchronization> synchronizations;
+            synchronized (this)
+            {
+                completed = true;
+                synchronizations = new ArrayList<>(afterCompletion);
+                beforeCompletion.clear();
+                afterCompletion.clear();
+            }
+
+            for (AbstractSynchronization synchronization : synchronizations)
+            {
+                synchronization.afterCompletion(status);
+            }
+        }
+    }
+
     private static class AbstractSynchronization<T> implements Synchronization
     {
 
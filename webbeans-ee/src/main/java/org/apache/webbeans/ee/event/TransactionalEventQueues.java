@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.ee.event;
+
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transaction;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Holds the single {@link Synchronization} {@link TransactionalEventNotifier} registered
+ * for each running transaction of a {@link org.apache.webbeans.config.WebBeansContext}.
+ *
+ * Entries get removed as soon as the transaction completes. Transactions which never
+ * complete are only weakly referenced and all remaining entries get dropped once the
+ * WebBeansContext gets cleared, so neither leaks across deployments.
+ */
+public final class TransactionalEventQueues implements Closeable
+{
+    private final Map<Transaction, Synchronization> queues = Collections.synchronizedMap(new WeakHashMap<>());
+
+    Synchronization get(Transaction transaction)
+    {
+        return queues.get(transaction);
+    }
+
+    void put(Transaction transaction, Synchronization queue)
+    {
+        queues.put(transaction, queue);
+    }
+
+    void remove(Transaction transaction, Synchronization queue)
+    {
+        queues.remove(transaction, queue);
+    }
+
+    int size()
+    {
+        return queues.size();
+    }
+
+    @Override
+    public void close()
+    {
+        queues.clear();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.ee.event;
+
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
+import jakarta.transaction.UserTransaction;
+import javax.transaction.xa.XAResource;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.config.WebBeansFinder;
+import org.apache.webbeans.spi.TransactionService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class TransactionalEventNotifierTest
+{
+    private final List<String> notifications = new ArrayList<>();
+    private final MockTransaction transaction = new MockTransaction();
+    private WebBeansContext webBeansContext;
+
+    @Before
+    public void registerTransactionService()
+    {
+        webBeansContext = WebBeansContext.currentInstance();
+        webBeansContext.registerService(TransactionService.class, new MockTransactionService(transaction));
+    }
+
+    @After
+    public void clearWebBeansContext()
+    {
+        webBeansContext.clear();
+        WebBeansFinder.clearInstances(WebBeansFinder.getCurrentKey());
+    }
+
+    @Test
+    public void testSingleSynchronizationPerTransaction() throws Exception
+    {
+        fire(TransactionPhase.AFTER_SUCCESS, "success-1");
+        fire(TransactionPhase.BEFORE_COMPLETION, "before-1");
+        fire(TransactionPhase.AFTER_FAILURE, "failure-1");
+        fire(TransactionPhase.AFTER_COMPLETION, "completion-1");
+        fire(TransactionPhase.BEFORE_COMPLETION, "before-2");
+        fire(TransactionPhase.AFTER_SUCCESS, "success-2");
+
+        Assert.assertEquals(1, transaction.synchronizations.size());
+        Assert.assertEquals(1, webBeansContext.get(TransactionalEventQueues.class).size());
+        Assert.assertTrue(notifications.isEmpty());
+
+        transaction.complete(Status.STATUS_COMMITTED);
+
+        Assert.assertEquals(Arrays.asList("before-1", "before-2", "success-1", "completion-1", "success-2"), notifications);
+        Assert.assertEquals(0, webBeansContext.get(TransactionalEventQueues.class).size());
+    }
+
+    @Test
+    public void testRollback() throws Exception
+    {
+        fire(TransactionPhase.AFTER_SUCCESS, "success");
+        fire(TransactionPhase.AFTER_FAILURE, "failure");
+        fire(TransactionPhase.AFTER_COMPLETION, "completion");
+
+        transaction.complete(Status.STATUS_ROLLEDBACK);
+
+        Assert.assertEquals(Arrays.asList("failure", "completion"), notifications);
+    }
+
+    @Test
+    public void testEventsFiredInBeforeCompletionObserver() throws Exception
+    {
+        TransactionalEventNotifier.registerTransactionSynchronization(TransactionPhase.BEFORE_COMPLETION,
+            new RecordingObserver(TransactionPhase.BEFORE_COMPLETION)
+            {
+                @Override
+                public void notify(Object event)
+                {
+                    super.notify(event);
+                    try
+                    {
+                        fire(TransactionPhase.BEFORE_COMPLETION, "nested-before");
+                        fire(TransactionPhase.AFTER_SUCCESS, "nested-success");
+                    }
+                    catch (Exception e)
+                    {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }, "before", null);
+
+        transaction.complete(Status.STATUS_COMMITTED);
+
+        Assert.assertEquals(1, transaction.synchronizations.size());
+        Assert.assertEquals(Arrays.asList("before", "nested-before", "nested-success"), notifications);
+    }
+
+    @Test
+    public void testQueuesOfUnfinishedTransactionsGetDroppedWithTheContext() throws Exception
+    {
+        fire(TransactionPhase.AFTER_SUCCESS, "never");
+
+        TransactionalEventQueues queues = webBeansContext.get(TransactionalEventQueues.class);
+        Assert.assertEquals(1, queues.size());
+
+        webBeansContext.clear();
+
+        Assert.assertEquals(0, queues.size());
+        Assert.assertNotSame(queues, webBeansContext.get(TransactionalEventQueues.class));
+    }
+
+    private void fire(TransactionPhase phase, String event) throws Exception
+    {
+        TransactionalEventNotifier.registerTransactionSynchronization(phase, new RecordingObserver(phase), event, null);
+    }
+
+    private class RecordingObserver implements ObserverMethod<Object>
+    {
+        private final TransactionPhase phase;
+
+        private RecordingObserver(TransactionPhase phase)
+        {
+            this.phase = phase;
+        }
+
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return TransactionalEventNotifierTest.class;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return String.class;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return phase;
+        }
+
+        @Override
+        public void notify(Object event)
+        {
+            notifications.add(String.valueOf(event));
+        }
+    }
+
+    private static final class MockTransaction implements Transaction
+    {
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+        private int status = Status.STATUS_ACTIVE;
+
+        private void complete(int outcome)
+        {
+            // like a real TM the transaction is still active while the Synchronizations get prepared
+            for (Synchronization synchronization : synchronizations)
+            {
+                synchronization.beforeCompletion();
+            }
+            status = outcome;
+            for (Synchronization synchronization : synchronizations)
+            {
+                synchronization.afterCompletion(outcome);
+            }
+        }
+
+        @Override
+        public void registerSynchronization(Synchronization synchronization)
+        {
+            if (status != Status.STATUS_ACTIVE)
+            {
+                throw new IllegalStateException("transaction is not active");
+            }
+            synchronizations.add(synchronization);
+        }
+
+        @Override
+        public int getStatus()
+        {
+            return status;
+        }
+
+        @Override
+        public void commit()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean delistResource(XAResource xaResource, int flag)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean enlistResource(XAResource xaResource)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void rollback()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRollbackOnly()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class MockTransactionService implements TransactionService
+    {
+        private final Transaction transaction;
+
+        private MockTransactionService(Transaction transaction)
+        {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public TransactionManager getTransactionManager()
+        {
+            return null;
+        }
+
+        @Override
+        public Transaction getTransaction()
+        {
+            return transaction;
+        }
+
+        @Override
+        public UserTransaction getUserTransaction()
+        {
+            return null;
+        }
+
+        @Override
+        public void registerTransactionSynchronization(TransactionPhase phase, ObserverMethod<? super Object> observer, Object event)
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.webbeans.component.creation.ProducerMethodBeansBuilder;
 import org.apache.webbeans.configurator.AnnotatedTypeConfiguratorImpl;
 import org.apache.webbeans.container.AnnotatedTypeWrapper;
 import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.container.DirectInjectionAnalyzer;
 import org.apache.webbeans.container.InjectableBeanManager;
 import org.apache.webbeans.container.InjectionResolver;
 import org.apache.webbeans.context.control.ActivateRequestContextInterceptorBean;
@@ -78,6 +79,7 @@ import org.apache.webbeans.portable.events.discovery.BeforeBeanDiscoveryImpl;
 import org.apache.webbeans.portable.events.generics.GProcessAnnotatedType;
 import org.apache.webbeans.portable.events.generics.GProcessBean;
 import org.apache.webbeans.portable.events.generics.GProcessManagedBean;
+import org.apache.webbeans.proxy.ParallelProxyGenerator;
 import org.apache.webbeans.spi.BdaScannerService;
 import org.apache.webbeans.spi.BeanArchiveService;
 import org.apache.webbeans.spi.JNDIService;
@@ -375,6 +377,20 @@ public class BeansDeployer
                     });
                 }
 
+                if (Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration().getProperty(
+                        OpenWebBeansConfiguration.PARALLEL_PROXY_GENERATION)))
+                {
+                    new ParallelProxyGenerator(webBeansContext).generate(webBeansContext.getBeanManagerImpl().getBeans());
+                }
+
+                DirectInjectionAnalyzer directInjectionAnalyzer = new DirectInjectionAnalyzer(webBeansContext);
+                Set<Bean<?>> directlyInjectedBeans = Collections.emptySet();
+                if (directInjectionAnalyzer.isEnabled())
+                {
+                    directlyInjectedBeans = directInjectionAnalyzer.findDirectlyInjectableBeans(webBeansContext.getBeanManagerImpl().getBeans());
+                    webBeansContext.getBeanManagerImpl().setDirectlyInjectedBeans(directlyInjectedBeans);
+                }
+
                 if (webBeansContext.getNotificationManager().getObserverMethods().stream()
                         .anyMatch(ObserverMethod::isAsync))
                 {
@@ -386,12 +402,15 @@ public class BeansDeployer
                 // fire event
                 fireAfterDeploymentValidationEvent();
 
+                // create the beans which get injected without a proxy upfront instead of during the first injection
+                directInjectionAnalyzer.createInstances(directlyInjectedBeans);
 
                 // do some cleanup after the deployment
                 scanner.release();
                 webBeansContext.getAnnotatedElementFactory().clear();
                 webBeansContext.getNotificationManager().clearCaches();
                 webBeansContext.getAnnotationManager().clearCaches();
+                webBeansContext.getNotificationManager().initContextLifecycleObservers();
             }
         }
         catch (UnsatisfiedResolutionException | UnproxyableResolutionException | AmbiguousResolutionException e)
@@ -197,6 +197,171 @@ public class OpenWebBeansConfiguration
      */
     public static final String EAGER_SESSION_INITIALISATION = "org.apache.webbeans.web.eagerSessionInitialisation";
 
+    /**
+     * If set to {@code true} the SessionContext tracks which &#064;SessionScoped Contextual Instances
+     * got accessed or changed during a request. Those get additionally stored as separate HttpSession attributes
+     * at the end of the request instead of re-setting the whole SessionContext attribute.
+     * This allows delta-replication mechanisms of servlet containers to only replicate the changed beans.
+     * Methods annotated with {@link org.apache.webbeans.spi.api.ReadOnly} do not mark a bean as dirty.
+     * Default is {@code false}.
+     */
+    public static final String SESSION_DIRTY_TRACKING = "org.apache.webbeans.web.sessionDirtyTracking";
+
+    /**
+     * If set to {@code true} serialized proxies, interceptor handlers and beans do not contain the full
+     * passivation id of the bean but its index in the sorted passivation ids of the deployment
+     * together with the hash of the id, which gets validated when reading it.
+     * If the index points to another bean, e.g. because the id got written by a different deployment,
+     * the bean gets looked up by the hash. Ids whose hash collides with another id of the deployment
+     * always get written in full. Reading compact ids is always supported.
+     * Default is {@code false}.
+     */
+    public static final String COMPACT_PASSIVATION_IDS = "org.apache.webbeans.passivation.compactIds";
+
+    /**
+     * If set to {@code true} the &#064;ApplicationScoped and &#064;Singleton beans get destroyed in parallel at shutdown.
+     * A bean only gets destroyed after all beans which inject it got destroyed.
+     * Default is {@code false}.
+     */
+    public static final String PARALLEL_CONTEXT_DESTRUCTION = "org.apache.webbeans.context.parallelDestruction";
+
+    /**
+     * Maximum time in milliseconds to wait for the destruction of a single bean
+     * if {@link #PARALLEL_CONTEXT_DESTRUCTION} is enabled. Default is 30000.
+     * Once a bean exceeds it the remaining beans get destroyed sequentially,
+     * the beans it uses only after it finished.
+     */
+    public static final String CONTEXT_DESTRUCTION_TIMEOUT = "org.apache.webbeans.context.destructionTimeout";
+
+    /**
+     * Maximum time in milliseconds the destruction of a context waits for beans which exceeded
+     * {@link #CONTEXT_DESTRUCTION_TIMEOUT}, counted from the start of the destruction.
+     * Beans which did not finish by then get abandoned and logged, their threads destroy
+     * the beans they use once they finished. Default is twice the {@link #CONTEXT_DESTRUCTION_TIMEOUT}.
+     */
+    public static final String CONTEXT_DESTRUCTION_DEADLINE = "org.apache.webbeans.context.destructionDeadline";
+
+    /**
+     * Number of threads used if {@link #PARALLEL_CONTEXT_DESTRUCTION} is enabled.
+     * Default is the number of available processors.
+     */
+    public static final String CONTEXT_DESTRUCTION_THREADS = "org.apache.webbeans.context.destructionThreads";
+
+    /**
+     * The built-in Executor used for asynchronous observer methods if no {@link java.util.concurrent.Executor}
+     * SPI service got registered.
+     * Either {@code commonPool} (default) to use the {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     * or {@code virtual} to run each asynchronous observer method on an own virtual thread.
+     * The latter requires Java 21 or later, otherwise we fall back to the common pool.
+     */
+    public static final String ASYNC_EVENT_EXECUTOR = "org.apache.webbeans.event.asyncExecutor";
+
+    /**
+     * Maximum number of asynchronous observer method invocations which might run in parallel
+     * on the built-in Executor. If the limit is reached further invocations get queued and start
+     * once a running observer method finished. The thread firing the event never waits for a free slot,
+     * thus asynchronous observer methods can fire asynchronous events themselves.
+     * A value of 0 means no limit.
+     * Default is 0 for the {@code commonPool} and 1000 for the {@code virtual} Executor.
+     */
+    public static final String ASYNC_EVENT_MAX_IN_FLIGHT = "org.apache.webbeans.event.asyncMaxInFlight";
+
+    /**
+     * Maximum number of pending asynchronous observer method invocations.
+     * If the limit is reached the {@link #ASYNC_EVENT_OVERFLOW_POLICY} gets applied.
+     * The key can be suffixed with {@code .} and the fully qualified name of an event class or qualifier
+     * to configure a separate limit for those events.
+     * Default is 0 which means no limit.
+     */
+    public static final String ASYNC_EVENT_MAX_PENDING = "org.apache.webbeans.event.asyncMaxPending";
+
+    /**
+     * What to do if {@link #ASYNC_EVENT_MAX_PENDING} is reached. One of
+     * {@code block}, {@code caller_runs}, {@code drop_oldest} or {@code fail} (default).
+     * The key can be suffixed like {@link #ASYNC_EVENT_MAX_PENDING}.
+     * @see org.apache.webbeans.event.AsyncEventBackpressure.OverflowPolicy
+     */
+    public static final String ASYNC_EVENT_OVERFLOW_POLICY = "org.apache.webbeans.event.asyncOverflowPolicy";
+
+    /**
+     * Maximum time in milliseconds the {@code block} {@link #ASYNC_EVENT_OVERFLOW_POLICY} waits for a free slot.
+     * Afterwards the CompletionStage of the event fails with a {@link java.util.concurrent.RejectedExecutionException}.
+     * A value of 0 or less means waiting without a limit.
+     * The key can be suffixed like {@link #ASYNC_EVENT_MAX_PENDING}.
+     * Default is 30000.
+     */
+    public static final String ASYNC_EVENT_BLOCK_TIMEOUT = "org.apache.webbeans.event.asyncBlockTimeout";
+
+    /**
+     * Number of serial lanes for asynchronous events with a {@link org.apache.webbeans.spi.api.PartitionKey}.
+     * All events with the same key get delivered in order on the same lane.
+     * Those events are not limited by {@link #ASYNC_EVENT_MAX_PENDING}, since the overflow policies
+     * would break the order, e.g. by running an event on the firing thread.
+     * Default is four times the number of available processors.
+     */
+    public static final String ASYNC_EVENT_PARTITIONS = "org.apache.webbeans.event.asyncPartitions";
+
+    /**
+     * If set to {@code true} the invocation count, latency and exceptions of each observer method
+     * get recorded by the {@link org.apache.webbeans.spi.ObserverMetricsService}.
+     * Default is {@code false}.
+     */
+    public static final String OBSERVER_METRICS = "org.apache.webbeans.event.observerMetrics";
+
+    /**
+     * Directory in which the bytecode of generated proxies gets cached across restarts.
+     * Cached proxies get invalidated automatically if the proxied class, one of its superclasses or interfaces
+     * or the {@link #GENERATOR_JAVA_VERSION} changes.
+     * Default is no caching.
+     */
+    public static final String PROXY_CACHE_DIRECTORY = "org.apache.webbeans.proxy.cacheDirectory";
+
+    /**
+     * If set to {@code true} the normal-scope, interceptor and decorator proxy classes of all beans
+     * get generated in parallel after the deployment got validated and before the
+     * AfterDeploymentValidation event gets fired, instead of one by one on first use.
+     * Default is {@code false}.
+     */
+    public static final String PARALLEL_PROXY_GENERATION = "org.apache.webbeans.proxy.parallelGeneration";
+
+    /**
+     * Number of threads used if {@link #PARALLEL_PROXY_GENERATION} is enabled.
+     * Default is the number of available processors.
+     */
+    public static final String PROXY_GENERATION_THREADS = "org.apache.webbeans.proxy.generationThreads";
+
+    /**
+     * If set to {@code true} intercepted beans which are neither decorated, Serializable, abstract
+     * nor use &#064;AroundConstruct get instantiated as a generated subclass which runs the
+     * interceptor chain itself instead of getting wrapped into a separate interceptor proxy.
+     * Note that self-invocations of intercepted methods get intercepted in this mode.
+     * Default is {@code false}.
+     */
+    public static final String INTERCEPTED_SUBCLASS = "org.apache.webbeans.proxy.interceptedSubclass";
+
+    /**
+     * Either {@code true} for all &#064;ApplicationScoped managed beans or a comma separated list
+     * of bean class names which get injected as their contextual instance instead of a normal scoping proxy.
+     * This only happens if the bean is not part of a circular dependency, does not look up other beans
+     * dynamically during its creation and the injection point does not belong to a passivating bean.
+     * Those beans get created eagerly after the AfterDeploymentValidation event.
+     * Default is {@code false}.
+     */
+    public static final String DIRECT_APPLICATION_SCOPED_INJECTION = "org.apache.webbeans.proxy.directApplicationScopedInjection";
+
+    /**
+     * Time window in milliseconds in which events fired via
+     * {@link org.apache.webbeans.spi.api.BatchEvent#fireCoalesced(Object)} get collected into one batch.
+     * Default is 50.
+     */
+    public static final String EVENT_COALESCE_WINDOW = "org.apache.webbeans.event.coalesceWindow";
+
+    /**
+     * Maximum number of events in a coalesced batch. If reached the batch gets delivered immediately.
+     * Default is 1000.
+     */
+    public static final String EVENT_COALESCE_MAX_SIZE = "org.apache.webbeans.event.coalesceMaxSize";
+
     /**
      * The Java Version to use for the generated proxy classes.
      * If "auto" then we will pick the version of the current JVM.
@@ -55,6 +55,8 @@ import org.apache.webbeans.plugins.PluginLoader;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
 import org.apache.webbeans.portable.events.ExtensionLoader;
 import org.apache.webbeans.proxy.SubclassProxyFactory;
+import org.apache.webbeans.proxy.InterceptedSubclassFactory;
+import org.apache.webbeans.proxy.ProxyClassStatistics;
 import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.NormalScopeProxyFactory;
 import org.apache.webbeans.service.DefaultInjectionPointService;
@@ -98,6 +100,8 @@ public class WebBeansContext
     private final InterceptorDecoratorProxyFactory interceptorDecoratorProxyFactory;
     private final NormalScopeProxyFactory normalScopeProxyFactory;
     private final SubclassProxyFactory subclassProxyFactory;
+    private final InterceptedSubclassFactory interceptedSubclassFactory;
+    private final ProxyClassStatistics proxyClassStatistics = new ProxyClassStatistics();
     private final OpenWebBeansConfiguration openWebBeansConfiguration;
     private final PluginLoader pluginLoader = new PluginLoader();
     private final SerializableBeanVault serializableBeanVault = new SerializableBeanVault();
@@ -170,6 +174,7 @@ public class WebBeansContext
         interceptorDecoratorProxyFactory = new InterceptorDecoratorProxyFactory(this);
         normalScopeProxyFactory = new NormalScopeProxyFactory(this);
         subclassProxyFactory = new SubclassProxyFactory(this);
+        interceptedSubclassFactory = new InterceptedSubclassFactory(this);
 
         beanArchiveService = getService(BeanArchiveService.class);
         conversationManager = new ConversationManager(this);
@@ -359,6 +364,19 @@ public class WebBeansContext
         return subclassProxyFactory;
     }
 
+    public InterceptedSubclassFactory getInterceptedSubclassFactory()
+    {
+        return interceptedSubclassFactory;
+    }
+
+    /**
+     * @return the classes generated by the proxy factories of this deployment
+     */
+    public ProxyClassStatistics getProxyClassStatistics()
+    {
+        return proxyClassStatistics;
+    }
+
     public TransactionService getTransactionService() // used in event bus so ensure it is a plain getter at runtime
     {
         if (transactionService == null)
@@ -531,6 +549,10 @@ public class WebBeansContext
         {
             return clazz.cast(subclassProxyFactory);
         }
+        if (clazz == InterceptedSubclassFactory.class)
+        {
+            return clazz.cast(interceptedSubclassFactory);
+        }
         if (clazz == OpenWebBeansConfiguration.class)
         {
             return clazz.cast(openWebBeansConfiguration);
@@ -636,6 +658,13 @@ public class WebBeansContext
 
         managerMap.clear();
         serviceMap.clear();
+
+        // release the generated proxy classes
+        interceptorDecoratorProxyFactory.clear();
+        normalScopeProxyFactory.clear();
+        subclassProxyFactory.clear();
+        interceptedSubclassFactory.clear();
+        proxyClassStatistics.clear();
     }
 
     private void destroyServices(Collection<Object> services)
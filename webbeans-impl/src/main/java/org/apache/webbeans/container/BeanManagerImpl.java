@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -79,6 +80,7 @@ import org.apache.webbeans.component.creation.FieldProducerFactory;
 import org.apache.webbeans.component.creation.MethodProducerFactory;
 import org.apache.webbeans.component.third.PassivationCapableThirdpartyBeanImpl;
 import org.apache.webbeans.component.third.ThirdpartyBeanImpl;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.CustomAlterablePassivatingContextImpl;
 import org.apache.webbeans.context.CustomPassivatingContextImpl;
@@ -214,6 +216,20 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     private boolean afterDeploymentValidationFired;
 
+    /**
+     * The &#064;ApplicationScoped beans which get injected without a proxy,
+     * see {@link org.apache.webbeans.config.OpenWebBeansConfiguration#DIRECT_APPLICATION_SCOPED_INJECTION}
+     */
+    private volatile Set<Bean<?>> directlyInjectedBeans = Collections.emptySet();
+
+    /**
+     * Lazily created index of the {@link #passivationBeans} ids,
+     * see {@link org.apache.webbeans.config.OpenWebBeansConfiguration#COMPACT_PASSIVATION_IDS}.
+     * Once compact ids got handed out it doesn't change anymore, beans added later just keep their full id.
+     */
+    private volatile PassivationIdIndex passivationIdIndex;
+    private volatile Boolean compactPassivationIds;
+
     /**
      * we cache results of calls to {@link #isNormalScope(Class)} because
      * this doesn't change at runtime.
@@ -420,6 +436,11 @@ public class BeanManagerImpl implements BeanManager, Referenceable
                 throw new DuplicateDefinitionException("PassivationCapable bean id is not unique: " +
                         id + " bean:" + bean + ", existing: " + oldBean);
             }
+            if (!afterDeploymentValidationFired)
+            {
+                // no compact id got handed out yet
+                passivationIdIndex = null;
+            }
         }
     }
 
@@ -484,10 +505,15 @@ public class BeanManagerImpl implements BeanManager, Referenceable
      */
     public void fireContextLifecyleEvent(Object payload, Annotation lifecycleQualifier)
     {
-        if (webBeansContext.getNotificationManager().hasContextLifecycleObserver(lifecycleQualifier))
-        {
-            fireEvent(payload, lifecycleQualifier);
-        }
+        webBeansContext.getNotificationManager().fireContextLifecycleEvent(payload, lifecycleQualifier);
+    }
+
+    /**
+     * Like {@link #fireContextLifecyleEvent(Object, Annotation)} but the payload only gets created if needed.
+     */
+    public void fireContextLifecyleEvent(Supplier<?> payload, Annotation lifecycleQualifier)
+    {
+        webBeansContext.getNotificationManager().fireContextLifecycleEvent(payload, lifecycleQualifier);
     }
 
     /**
@@ -687,6 +713,15 @@ public class BeanManagerImpl implements BeanManager, Referenceable
                 ((CreationalContextImpl<?>)ownerCreationalContext).removeInjectionPoint();
             }
         }
+        else if (isDirectlyInjectable(injectedBean, injectionPoint))
+        {
+            Context context = getContext(injectedBean.getScope());
+            instance = context.get(injectedBean);
+            if (instance == null)
+            {
+                instance = context.get(injectedBean, createCreationalContext(injectedBean));
+            }
+        }
         else
         {
             //New creational context for normal scoped beans
@@ -705,6 +740,33 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         return instance;
     }
 
+    /**
+     * The contextual instance can only replace the proxy if the owner never gets serialized.
+     */
+    private boolean isDirectlyInjectable(Bean<?> injectedBean, InjectionPoint injectionPoint)
+    {
+        if (!directlyInjectedBeans.contains(injectedBean) || injectionPoint.isDelegate())
+        {
+            return false;
+        }
+
+        Bean<?> owner = injectionPoint.getBean();
+        if (owner == null)
+        {
+            return false;
+        }
+        if (isNormalScope(owner.getScope()))
+        {
+            return !isPassivatingScope(owner.getScope());
+        }
+        return !(owner instanceof OwbBean && ((OwbBean<?>) owner).isPassivationCapable());
+    }
+
+    public void setDirectlyInjectedBeans(Set<Bean<?>> directlyInjectedBeans)
+    {
+        this.directlyInjectedBeans = directlyInjectedBeans;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -725,9 +787,48 @@ public class BeanManagerImpl implements BeanManager, Referenceable
     @Override
     public Bean<?> getPassivationCapableBean(String id)
     {
+        if (PassivationIdIndex.isCompactId(id))
+        {
+            String passivationId = getPassivationIdIndex().toPassivationId(id);
+            return passivationId != null ? passivationBeans.get(passivationId) : null;
+        }
         return passivationBeans.get(id);
     }
 
+    /**
+     * @param passivationId the passivation id of a bean
+     * @return the id to serialize for the bean, it can get resolved via {@link #getPassivationCapableBean(String)}
+     */
+    public String getSerializablePassivationId(String passivationId)
+    {
+        if (passivationId == null || !afterDeploymentValidationFired || !isCompactPassivationIds())
+        {
+            return passivationId;
+        }
+        return getPassivationIdIndex().toCompactId(passivationId);
+    }
+
+    private boolean isCompactPassivationIds()
+    {
+        if (compactPassivationIds == null)
+        {
+            compactPassivationIds = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration()
+                    .getProperty(OpenWebBeansConfiguration.COMPACT_PASSIVATION_IDS));
+        }
+        return compactPassivationIds;
+    }
+
+    private PassivationIdIndex getPassivationIdIndex()
+    {
+        PassivationIdIndex index = passivationIdIndex;
+        if (index == null)
+        {
+            index = new PassivationIdIndex(passivationBeans.keySet());
+            passivationIdIndex = index;
+        }
+        return index;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -1467,6 +1568,7 @@ public class BeanManagerImpl implements BeanManager, Referenceable
         errorStack.clear();
         producersForJavaEeComponents.clear();
         passivationBeans.clear();
+        passivationIdIndex = null;
         webBeansContext.getInterceptorsManager().clear();
         webBeansContext.getDecoratorsManager().clear();
         webBeansContext.getAnnotatedElementFactory().clear();
@@ -0,0 +1,265 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.spi.Context;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.Producer;
+
+import org.apache.webbeans.component.AbstractProducerBean;
+import org.apache.webbeans.component.BeanManagerBean;
+import org.apache.webbeans.component.InjectionTargetBean;
+import org.apache.webbeans.component.InstanceBean;
+import org.apache.webbeans.component.ManagedBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.portable.AbstractProducer;
+
+/**
+ * Detects the &#064;ApplicationScoped beans which can get injected as their contextual instance
+ * instead of a normal scoping proxy, see {@link OpenWebBeansConfiguration#DIRECT_APPLICATION_SCOPED_INJECTION}.
+ *
+ * <p>A proxy is still needed if the bean can reach itself via the injection points of the beans it injects,
+ * regardless of whether those get injected as proxy or not, as a callback during its creation would otherwise
+ * create a second instance. As we cannot know which beans get looked up dynamically,
+ * beans which use {@link jakarta.enterprise.inject.Instance}, {@link jakarta.inject.Provider} or the
+ * BeanManager while getting created are never injected directly.</p>
+ */
+public class DirectInjectionAnalyzer
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DirectInjectionAnalyzer.class);
+
+    private final WebBeansContext webBeansContext;
+
+    public DirectInjectionAnalyzer(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+    }
+
+    /**
+     * @return whether {@link OpenWebBeansConfiguration#DIRECT_APPLICATION_SCOPED_INJECTION} is enabled for any bean
+     */
+    public boolean isEnabled()
+    {
+        String config = getConfig();
+        return config != null && !config.isEmpty() && !"false".equalsIgnoreCase(config);
+    }
+
+    /**
+     * @param beans all the beans of the deployment
+     * @return the &#064;ApplicationScoped beans which can get injected without a proxy
+     */
+    public Set<Bean<?>> findDirectlyInjectableBeans(Collection<Bean<?>> beans)
+    {
+        String config = getConfig();
+        Set<String> beanClassNames = null;
+        if (!"true".equalsIgnoreCase(config))
+        {
+            beanClassNames = new HashSet<>();
+            for (String beanClassName : config.split(","))
+            {
+                beanClassNames.add(beanClassName.trim());
+            }
+        }
+
+        Set<Bean<?>> candidates = new HashSet<>();
+        for (Bean<?> bean : beans)
+        {
+            if (bean instanceof ManagedBean && ApplicationScoped.class == bean.getScope()
+                    && (beanClassNames == null || beanClassNames.contains(bean.getBeanClass().getName())))
+            {
+                candidates.add(bean);
+            }
+        }
+
+        // which other candidates are needed to create a candidate
+        Map<Bean<?>, Set<Bean<?>>> dependencies = new HashMap<>();
+        for (Bean<?> candidate : candidates)
+        {
+            Set<Bean<?>> candidateDependencies = new HashSet<>();
+            if (collectDependencies(candidate, candidates, candidateDependencies, new HashSet<>()))
+            {
+                dependencies.put(candidate, candidateDependencies);
+            }
+        }
+
+        Set<Bean<?>> directlyInjectable = new HashSet<>(dependencies.keySet());
+        for (Iterator<Bean<?>> it = directlyInjectable.iterator(); it.hasNext();)
+        {
+            Bean<?> bean = it.next();
+            if (isInCycle(bean, dependencies))
+            {
+                it.remove();
+            }
+        }
+
+        if (logger.isLoggable(Level.FINE))
+        {
+            logger.fine("Injecting " + directlyInjectable.size() + " of " + candidates.size() +
+                    " @ApplicationScoped beans without a proxy: " + directlyInjectable);
+        }
+        return directlyInjectable.isEmpty() ? Collections.emptySet() : directlyInjectable;
+    }
+
+    /**
+     * Creates the contextual instances of the given beans.
+     */
+    public void createInstances(Set<Bean<?>> beans)
+    {
+        Context applicationContext = webBeansContext.getContextsService().getCurrentContext(ApplicationScoped.class);
+        if (applicationContext == null || !applicationContext.isActive())
+        {
+            // the instances get created on first injection then
+            return;
+        }
+
+        BeanManagerImpl beanManager = webBeansContext.getBeanManagerImpl();
+        for (Bean<?> bean : beans)
+        {
+            try
+            {
+                createInstance(beanManager, bean);
+            }
+            catch (RuntimeException e)
+            {
+                // the instance gets created on first use then
+                logger.log(Level.WARNING, "Can't eagerly create " + bean + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private <T> void createInstance(BeanManagerImpl beanManager, Bean<T> bean)
+    {
+        Context context = beanManager.getContext(bean.getScope());
+        if (context.get(bean) == null)
+        {
+            context.get(bean, beanManager.createCreationalContext(bean));
+        }
+    }
+
+    /**
+     * @return {@code false} if the given bean might dynamically look up other beans while getting created
+     */
+    private boolean collectDependencies(Bean<?> bean, Set<Bean<?>> candidates, Set<Bean<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (!visited.add(bean))
+        {
+            return true;
+        }
+
+        if (bean instanceof AbstractProducerBean && !addDependency(((AbstractProducerBean<?>) bean).getOwnerComponent(),
+                candidates, dependencies, visited))
+        {
+            return false;
+        }
+
+        for (InjectionPoint injectionPoint : bean.getInjectionPoints())
+        {
+            if (injectionPoint.isDelegate())
+            {
+                continue;
+            }
+            Bean<?> injectedBean = webBeansContext.getBeanManagerImpl().getInjectionResolver().getInjectionPointBean(injectionPoint);
+            if (!addDependency(injectedBean, candidates, dependencies, visited))
+            {
+                return false;
+            }
+        }
+
+        // the interceptors and decorators get created together with the bean
+        if (bean instanceof InjectionTargetBean)
+        {
+            Producer<?> producer = ((InjectionTargetBean<?>) bean).getProducer();
+            BeanInterceptorInfo interceptorInfo = producer instanceof AbstractProducer ? ((AbstractProducer<?>) producer).getInterceptorInfo() : null;
+            if (interceptorInfo != null)
+            {
+                Set<Bean<?>> interceptorsAndDecorators = new HashSet<>();
+                interceptorsAndDecorators.addAll(interceptorInfo.getEjbInterceptors());
+                interceptorsAndDecorators.addAll(interceptorInfo.getCdiInterceptors());
+                interceptorsAndDecorators.addAll(interceptorInfo.getConstructorCdiInterceptors());
+                interceptorsAndDecorators.addAll(interceptorInfo.getDecorators());
+                for (Bean<?> interceptorOrDecorator : interceptorsAndDecorators)
+                {
+                    if (!collectDependencies(interceptorOrDecorator, candidates, dependencies, visited))
+                    {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean addDependency(Bean<?> injectedBean, Set<Bean<?>> candidates, Set<Bean<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (injectedBean instanceof InstanceBean || injectedBean instanceof BeanManagerBean)
+        {
+            return false;
+        }
+        if (candidates.contains(injectedBean))
+        {
+            dependencies.add(injectedBean);
+            return true;
+        }
+        // dependent instances get created together with the bean, other beans might get created
+        // via their proxy while the bean gets created and would then receive the instance directly
+        return collectDependencies(injectedBean, candidates, dependencies, visited);
+    }
+
+    private boolean isInCycle(Bean<?> bean, Map<Bean<?>, Set<Bean<?>>> dependencies)
+    {
+        Set<Bean<?>> visited = new HashSet<>();
+        Deque<Bean<?>> toVisit = new ArrayDeque<>(dependencies.getOrDefault(bean, Collections.emptySet()));
+        while (!toVisit.isEmpty())
+        {
+            Bean<?> dependency = toVisit.pop();
+            if (dependency == bean)
+            {
+                return true;
+            }
+            if (visited.add(dependency))
+            {
+                toVisit.addAll(dependencies.getOrDefault(dependency, Collections.emptySet()));
+            }
+        }
+        return false;
+    }
+
+    private String getConfig()
+    {
+        String config = webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.DIRECT_APPLICATION_SCOPED_INJECTION);
+        return config != null ? config.trim() : null;
+    }
+}
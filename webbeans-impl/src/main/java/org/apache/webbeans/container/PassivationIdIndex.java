@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.webbeans.hash.XxHash64;
+
+/**
+ * Maps the passivation ids of all beans of a deployment to short ids which get serialized instead,
+ * see {@link org.apache.webbeans.config.OpenWebBeansConfiguration#COMPACT_PASSIVATION_IDS}.
+ *
+ * <p>A compact id consists of the index of the passivation id in the sorted ids of the deployment
+ * and the {@link XxHash64} of the passivation id. The index is only stable as long as
+ * the same beans get deployed, thus the hash gets validated when resolving a compact id.
+ * If it does not match, e.g. because the compact id got written before a redeployment which added or removed beans,
+ * the passivation id gets looked up by its hash. Passivation ids whose hashes collide
+ * with another id of the deployment never get compacted, so a hash resolves to exactly one id.</p>
+ *
+ * <p>The index is immutable: passivation ids which are not part of it just don't get compacted.</p>
+ */
+public class PassivationIdIndex
+{
+    /**
+     * A passivation id starting with this char is a compact id.
+     */
+    private static final char COMPACT_ID_PREFIX = '\u0001';
+    private static final char SEPARATOR = ':';
+
+    private final String[] passivationIds;
+    private final Map<String, Integer> indexes;
+    private final long[] hashes;
+    private final Map<Long, String> idsByHash;
+
+    public PassivationIdIndex(Collection<String> passivationIds)
+    {
+        this.passivationIds = passivationIds.toArray(new String[0]);
+        Arrays.sort(this.passivationIds);
+
+        int capacity = this.passivationIds.length * 4 / 3 + 1;
+        indexes = new HashMap<>(capacity);
+        idsByHash = new HashMap<>(capacity);
+        hashes = new long[this.passivationIds.length];
+        Set<Long> collisions = new HashSet<>();
+        for (int i = 0; i < this.passivationIds.length; i++)
+        {
+            hashes[i] = XxHash64.apply(this.passivationIds[i]);
+            if (idsByHash.putIfAbsent(hashes[i], this.passivationIds[i]) != null)
+            {
+                collisions.add(hashes[i]);
+            }
+        }
+        idsByHash.keySet().removeAll(collisions);
+
+        for (int i = 0; i < this.passivationIds.length; i++)
+        {
+            if (!collisions.contains(hashes[i]))
+            {
+                indexes.put(this.passivationIds[i], i);
+            }
+        }
+    }
+
+    public static boolean isCompactId(String id)
+    {
+        return id != null && !id.isEmpty() && id.charAt(0) == COMPACT_ID_PREFIX;
+    }
+
+    /**
+     * @return the compact id or the given passivation id if it is not part of this index or its hash is not unique
+     */
+    public String toCompactId(String passivationId)
+    {
+        Integer index = indexes.get(passivationId);
+        if (index == null)
+        {
+            return passivationId;
+        }
+        return COMPACT_ID_PREFIX + Integer.toString(index, Character.MAX_RADIX)
+                + SEPARATOR + Long.toString(hashes[index], Character.MAX_RADIX);
+    }
+
+    /**
+     * @return the passivation id or {@code null} if the compact id refers to a bean which is not part of this deployment
+     */
+    public String toPassivationId(String compactId)
+    {
+        int separator = compactId.indexOf(SEPARATOR, 1);
+        if (separator < 0)
+        {
+            return null;
+        }
+
+        int index;
+        long hash;
+        try
+        {
+            index = Integer.parseInt(compactId.substring(1, separator), Character.MAX_RADIX);
+            hash = Long.parseLong(compactId.substring(separator + 1), Character.MAX_RADIX);
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+
+        if (index >= 0 && index < passivationIds.length && hashes[index] == hash)
+        {
+            return passivationIds[index];
+        }
+
+        // written by a deployment with other beans, the index moved
+        return idsByHash.get(hash);
+    }
+}
@@ -144,7 +144,7 @@ public final class SerializableBean<T> implements Bean<T>, PassivationCapable, S
             throw new NotSerializableException();
         }
         
-        s.writeObject(id);
+        s.writeObject(WebBeansContext.currentInstance().getBeanManagerImpl().getSerializablePassivationId(id));
     }
 
 
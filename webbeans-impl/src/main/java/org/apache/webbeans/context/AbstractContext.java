@@ -24,10 +24,10 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 
 import jakarta.enterprise.context.ContextNotActiveException;
@@ -59,6 +59,12 @@ public abstract class AbstractContext implements AlterableContext, Serializable
     /**Context contextual instances*/
     protected Map<Contextual<?>, BeanInstanceBag<?>> componentInstanceMap;
 
+    /**
+     * If set all Contextual Instances get destroyed in parallel when the context gets destroyed.
+     * Only used if the componentInstanceMap is a concurrent map.
+     */
+    private transient ParallelContextDestroyer contextDestroyer;
+
     /**Contextual Scope Type*/
     protected Class<? extends Annotation> scopeType;
 
@@ -212,12 +218,30 @@ public abstract class AbstractContext implements AlterableContext, Serializable
      */
     public void destroy()
     {
-        Set<Contextual<?>> keySet = new HashSet<>(componentInstanceMap.keySet());
-        for (Contextual<?> contextual: keySet)
+        destroyInstances(new HashSet<>(componentInstanceMap.keySet()));
+        setActive(false);
+    }
+
+    /**
+     * Destroy the Contextual Instances of all the given Contextuals.
+     */
+    protected void destroyInstances(Collection<Contextual<?>> contextuals)
+    {
+        if (contextDestroyer != null && componentInstanceMap instanceof ConcurrentMap)
+        {
+            contextDestroyer.destroy(this, contextuals);
+            return;
+        }
+
+        for (Contextual<?> contextual: contextuals)
         {
             destroyInstance(contextual);
         }
-        setActive(false);
+    }
+
+    public void setContextDestroyer(ParallelContextDestroyer contextDestroyer)
+    {
+        this.contextDestroyer = contextDestroyer;
     }
 
     /**
@@ -19,8 +19,6 @@
 package org.apache.webbeans.context;
 
 import java.lang.annotation.Annotation;
-import java.util.Iterator;
-import java.util.Set;
 
 import jakarta.enterprise.context.ContextException;
 import jakarta.enterprise.context.SessionScoped;
@@ -29,8 +27,8 @@ import jakarta.enterprise.context.spi.Context;
 import org.apache.webbeans.annotation.BeforeDestroyedLiteral;
 import org.apache.webbeans.annotation.DestroyedLiteral;
 import org.apache.webbeans.annotation.InitializedLiteral;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
-import org.apache.webbeans.conversation.ConversationImpl;
 import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.event.NotificationManager;
 import org.apache.webbeans.spi.ContextsService;
@@ -43,10 +41,20 @@ public abstract class AbstractContextsService implements ContextsService
 
     protected Boolean fireRequestLifecycleEvents;
 
+    /**
+     * Used for the application wide contexts if
+     * {@link OpenWebBeansConfiguration#PARALLEL_CONTEXT_DESTRUCTION} is enabled, {@code null} otherwise.
+     */
+    protected final ParallelContextDestroyer contextDestroyer;
+
     protected AbstractContextsService(WebBeansContext webBeansContext)
     {
         this.webBeansContext = webBeansContext;
         supportsConversation = webBeansContext.getOpenWebBeansConfiguration().supportsConversation();
+        contextDestroyer = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration().getProperty(
+                OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION))
+                ? new ParallelContextDestroyer(webBeansContext)
+                : null;
 
     }
 
@@ -109,22 +117,7 @@ public abstract class AbstractContextsService implements ContextsService
         if (sessionContext != null && sessionContext.isActive())
         {
             conversationManager = webBeansContext.getConversationManager();
-            Set<ConversationContext> conversationContexts = conversationManager.getSessionConversations(sessionContext, false);
-            if (conversationContexts != null)
-            {
-                Iterator<ConversationContext> convIt = conversationContexts.iterator();
-                while (convIt.hasNext())
-                {
-                    ConversationContext conversationContext = convIt.next();
-
-                    ConversationImpl conv = conversationContext.getConversation();
-                    if (conversationManager.conversationTimedOut(conv))
-                    {
-                        conversationManager.destroyConversationContext(conversationContext);
-                        convIt.remove();
-                    }
-                }
-            }
+            conversationManager.destroyTimedOutConversations(sessionContext);
         }
 
         if (currentConversationContext != null)
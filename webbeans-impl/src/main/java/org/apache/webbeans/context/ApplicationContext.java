@@ -18,8 +18,8 @@
  */
 package org.apache.webbeans.context;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.enterprise.context.ApplicationScoped;
@@ -60,8 +60,8 @@ public class ApplicationContext extends AbstractContext
     @Override
     public void destroy()
     {
-        Set<Contextual<?>> keySet = new HashSet<>(componentInstanceMap.keySet());
-        for (Contextual<?> contextual: keySet)
+        List<Contextual<?>> customBeans = new ArrayList<>(componentInstanceMap.size());
+        for (Contextual<?> contextual: componentInstanceMap.keySet())
         {
             if (contextual instanceof BuiltInOwbBean)
             {
@@ -69,8 +69,9 @@ public class ApplicationContext extends AbstractContext
                 continue;
             }
 
-            destroyInstance(contextual);
+            customBeans.add(contextual);
         }
+        destroyInstances(customBeans);
 
         destroyed = true;
     }
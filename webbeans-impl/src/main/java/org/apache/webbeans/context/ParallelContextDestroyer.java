@@ -0,0 +1,642 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.inject.Provider;
+
+import org.apache.webbeans.component.AbstractProducerBean;
+import org.apache.webbeans.component.BuiltInOwbBean;
+import org.apache.webbeans.component.InjectionTargetBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.portable.InjectionTargetImpl;
+
+/**
+ * Destroys the Contextual Instances of a context in parallel while respecting their dependencies.
+ *
+ * A bean gets only destroyed after all beans of the same context which use it are destroyed,
+ * so it is still usable in their &#064;PreDestroy methods. A bean uses the beans it injects, also
+ * indirectly via &#064;Dependent beans or {@link Instance}, and producer beans additionally use their
+ * declaring bean. Each bean gets submitted as soon as all of its users are destroyed.
+ * Beans without any &#064;PreDestroy callback, also none of their &#064;Dependent instances,
+ * are cheap to destroy and get handled directly.
+ * Beans with cyclic dependencies get destroyed sequentially at the end.
+ *
+ * The timeout applies to each single bean, starting when its destruction starts.
+ * If a bean exceeds it, it gets interrupted and all further beans get destroyed sequentially.
+ * The beans it uses only get destroyed once it really finished. The calling thread waits for that
+ * until {@link OpenWebBeansConfiguration#CONTEXT_DESTRUCTION_DEADLINE}. Afterwards it logs the abandoned beans
+ * and returns, the thread which destroys such a bean takes care of the beans it uses then.
+ *
+ * Only gets used if {@link OpenWebBeansConfiguration#PARALLEL_CONTEXT_DESTRUCTION} is enabled
+ * and only for contexts which are backed by a concurrent map.
+ */
+public class ParallelContextDestroyer
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ParallelContextDestroyer.class);
+
+    private final WebBeansContext webBeansContext;
+    private final long timeoutMillis;
+    private final long deadlineMillis;
+    private final int threads;
+
+    /**
+     * All Contextuals which got handed to this destroyer and didn't get destroyed yet.
+     * Destroying a context again, e.g. at shutdown, must not destroy the beans a bean which
+     * exceeded the timeout still uses, nor that bean itself a second time.
+     */
+    private final Set<Contextual<?>> pending = ConcurrentHashMap.newKeySet();
+
+    public ParallelContextDestroyer(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        timeoutMillis = Long.parseLong(configuration.getProperty(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_TIMEOUT, "30000"));
+        String deadline = configuration.getProperty(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_DEADLINE);
+        deadlineMillis = deadline != null ? Long.parseLong(deadline.trim()) : 2 * timeoutMillis;
+        String threadCount = configuration.getProperty(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS);
+        threads = threadCount != null ? Integer.parseInt(threadCount.trim()) : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Destroy the instances of the given Contextuals of the context.
+     */
+    public void destroy(AbstractContext context, Collection<Contextual<?>> allContextuals)
+    {
+        List<Contextual<?>> contextuals = new ArrayList<>(allContextuals.size());
+        for (Contextual<?> contextual : allContextuals)
+        {
+            if (pending.add(contextual))
+            {
+                contextuals.add(contextual);
+            }
+        }
+
+        if (contextuals.size() < 2 || threads < 2)
+        {
+            for (Contextual<?> contextual : contextuals)
+            {
+                destroyInstance(context, contextual);
+            }
+            return;
+        }
+
+        Set<Contextual<?>> candidates = new HashSet<>(contextuals);
+        Map<Contextual<?>, Set<Contextual<?>>> dependencies = new HashMap<>();
+        for (Contextual<?> contextual : contextuals)
+        {
+            dependencies.put(contextual, getDependencies(contextual, candidates));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, contextuals.size()), new DestroyerThreadFactory());
+        try
+        {
+            new Destruction(context, executor, contextuals, dependencies).run();
+        }
+        finally
+        {
+            // don't interrupt beans which exceeded the timeout again, they still need to destroy the beans they use
+            executor.shutdown();
+        }
+    }
+
+    private void destroyInstance(AbstractContext context, Contextual<?> contextual)
+    {
+        try
+        {
+            context.destroyInstance(contextual);
+        }
+        catch (RuntimeException e)
+        {
+            logger.log(Level.SEVERE, "Error while destroying " + contextual, e);
+        }
+        finally
+        {
+            pending.remove(contextual);
+        }
+    }
+
+    /**
+     * @return all Contextuals of the given candidates which get used by the given contextual
+     */
+    private Set<Contextual<?>> getDependencies(Contextual<?> contextual, Set<Contextual<?>> candidates)
+    {
+        if (!(contextual instanceof Bean))
+        {
+            return Collections.emptySet();
+        }
+
+        Set<Contextual<?>> dependencies = new HashSet<>();
+        collectDependencies((Bean<?>) contextual, candidates, dependencies, new HashSet<>());
+        dependencies.remove(contextual);
+        return dependencies;
+    }
+
+    private void collectDependencies(Bean<?> bean, Set<Contextual<?>> candidates, Set<Contextual<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (!visited.add(bean))
+        {
+            return;
+        }
+
+        if (bean instanceof AbstractProducerBean)
+        {
+            addDependency(((AbstractProducerBean<?>) bean).getOwnerComponent(), candidates, dependencies, visited);
+        }
+
+        BeanManagerImpl beanManager = webBeansContext.getBeanManagerImpl();
+        for (InjectionPoint injectionPoint : bean.getInjectionPoints())
+        {
+            try
+            {
+                Type lookupType = getLookupType(injectionPoint.getType());
+                if (lookupType != null)
+                {
+                    // all beans which might get resolved dynamically
+                    Annotation[] qualifiers = injectionPoint.getQualifiers().toArray(new Annotation[0]);
+                    for (Bean<?> dependency : beanManager.getBeans(lookupType, qualifiers))
+                    {
+                        addDependency(dependency, candidates, dependencies, visited);
+                    }
+                }
+                else
+                {
+                    addDependency(beanManager.getInjectionResolver().getInjectionPointBean(injectionPoint), candidates, dependencies, visited);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                // e.g. unresolvable at this point, ignore
+            }
+        }
+    }
+
+    private void addDependency(Bean<?> dependency, Set<Contextual<?>> candidates, Set<Contextual<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (dependency == null)
+        {
+            return;
+        }
+
+        if (candidates.contains(dependency))
+        {
+            dependencies.add(dependency);
+        }
+        else if (Dependent.class == dependency.getScope())
+        {
+            // the @Dependent instance belongs to the bean, so the beans it uses are used by the bean as well
+            collectDependencies(dependency, candidates, dependencies, visited);
+        }
+    }
+
+    /**
+     * @return the type of the beans which might get looked up via an {@link Instance} or {@link Provider}
+     *         injection point or {@code null} for all other injection points.
+     */
+    private Type getLookupType(Type injectionPointType)
+    {
+        if (injectionPointType instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType) injectionPointType;
+            if (parameterizedType.getRawType() == Instance.class || parameterizedType.getRawType() == Provider.class)
+            {
+                return parameterizedType.getActualTypeArguments()[0];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return whether destroying the Contextual might invoke any callback, including the ones
+     *         of the &#064;Dependent instances which get destroyed together with it
+     */
+    private boolean hasPreDestroy(Contextual<?> contextual)
+    {
+        return hasPreDestroy(contextual, new HashSet<>());
+    }
+
+    private boolean hasPreDestroy(Contextual<?> contextual, Set<Contextual<?>> visited)
+    {
+        if (!visited.add(contextual) || contextual instanceof BuiltInOwbBean)
+        {
+            return false;
+        }
+        if (!(contextual instanceof InjectionTargetBean))
+        {
+            // we don't know what happens, e.g. disposal methods or 3rd party beans
+            return true;
+        }
+
+        Object producer = ((InjectionTargetBean<?>) contextual).getProducer();
+        if (!(producer instanceof InjectionTargetImpl) || ((InjectionTargetImpl<?>) producer).hasPreDestroy())
+        {
+            return true;
+        }
+
+        BeanManagerImpl beanManager = webBeansContext.getBeanManagerImpl();
+        for (InjectionPoint injectionPoint : ((Bean<?>) contextual).getInjectionPoints())
+        {
+            try
+            {
+                Type lookupType = getLookupType(injectionPoint.getType());
+                Collection<Bean<?>> dependencies = lookupType != null
+                    ? beanManager.getBeans(lookupType, injectionPoint.getQualifiers().toArray(new Annotation[0]))
+                    : Collections.singleton(beanManager.getInjectionResolver().getInjectionPointBean(injectionPoint));
+                for (Bean<?> dependency : dependencies)
+                {
+                    if (dependency != null && Dependent.class == dependency.getScope() && hasPreDestroy(dependency, visited))
+                    {
+                        return true;
+                    }
+                }
+            }
+            catch (RuntimeException e)
+            {
+                // unresolvable at this point, so we don't know what gets destroyed
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The state of a single parallel destruction of a context.
+     * All fields are guarded by this instance.
+     */
+    private final class Destruction
+    {
+        private final AbstractContext context;
+        private final ExecutorService executor;
+        private final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        // for each Contextual the Contextuals it uses
+        private final Map<Contextual<?>, Set<Contextual<?>>> dependencies;
+        // for each Contextual the number of not yet destroyed Contextuals which use it
+        private final Map<Contextual<?>, Integer> pendingDependents = new HashMap<>();
+        // all Contextuals which are not ready yet
+        private final Set<Contextual<?>> remaining;
+        // ready Contextuals which get destroyed sequentially
+        private final List<Contextual<?>> queued = new ArrayList<>();
+
+        private final Map<DestroyTask, Future<?>> running = new HashMap<>();
+        private final Set<DestroyTask> exceeded = new HashSet<>();
+
+        private final long deadline = System.currentTimeMillis() + deadlineMillis;
+
+        // once a bean exceeded the timeout nothing gets submitted anymore
+        private boolean sequential;
+        // the calling thread returned, the beans which exceeded the timeout finish the destruction
+        private boolean handedOver;
+
+        private Destruction(AbstractContext context, ExecutorService executor, Collection<Contextual<?>> contextuals,
+                            Map<Contextual<?>, Set<Contextual<?>>> dependencies)
+        {
+            this.context = context;
+            this.executor = executor;
+            this.dependencies = dependencies;
+            this.remaining = new LinkedHashSet<>(contextuals);
+
+            for (Contextual<?> contextual : contextuals)
+            {
+                pendingDependents.put(contextual, 0);
+            }
+            for (Set<Contextual<?>> beanDependencies : dependencies.values())
+            {
+                for (Contextual<?> dependency : beanDependencies)
+                {
+                    pendingDependents.put(dependency, pendingDependents.get(dependency) + 1);
+                }
+            }
+        }
+
+        private void run()
+        {
+            synchronized (this)
+            {
+                for (Contextual<?> contextual : new ArrayList<>(remaining))
+                {
+                    if (pendingDependents.get(contextual) == 0)
+                    {
+                        schedule(contextual);
+                    }
+                }
+            }
+
+            while (true)
+            {
+                destroyQueued();
+
+                synchronized (this)
+                {
+                    if (!queued.isEmpty())
+                    {
+                        continue;
+                    }
+
+                    if (running.isEmpty())
+                    {
+                        if (!exceeded.isEmpty())
+                        {
+                            if (!awaitExceeded())
+                            {
+                                return;
+                            }
+                            continue;
+                        }
+                        if (remaining.isEmpty())
+                        {
+                            return;
+                        }
+                        queueCyclicLeftovers();
+                        continue;
+                    }
+
+                    try
+                    {
+                        awaitProgress();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        sequential = true;
+                        exceeded.addAll(running.keySet());
+                        running.clear();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Wait until a running bean got destroyed or exceeded the timeout.
+         * Beans which exceeded the timeout get interrupted and the beans which didn't start yet
+         * get queued for the sequential destruction.
+         */
+        private void awaitProgress() throws InterruptedException
+        {
+            long now = System.currentTimeMillis();
+            long nextDeadline = Long.MAX_VALUE;
+            List<DestroyTask> timedOut = new ArrayList<>();
+            for (DestroyTask task : running.keySet())
+            {
+                if (task.started == 0L)
+                {
+                    // still waiting for a free thread
+                    continue;
+                }
+
+                long deadline = task.started + timeoutMillis;
+                if (deadline <= now)
+                {
+                    timedOut.add(task);
+                }
+                else
+                {
+                    nextDeadline = Math.min(nextDeadline, deadline);
+                }
+            }
+
+            if (timedOut.isEmpty())
+            {
+                wait(nextDeadline == Long.MAX_VALUE ? timeoutMillis : nextDeadline - now);
+                return;
+            }
+
+            sequential = true;
+            for (DestroyTask task : timedOut)
+            {
+                logger.log(Level.WARNING, "Destroying " + task.contextual + " did not finish within " + timeoutMillis +
+                    "ms, the beans it uses get destroyed once it finished");
+                running.remove(task).cancel(true);
+                exceeded.add(task);
+            }
+            for (DestroyTask task : new ArrayList<>(running.keySet()))
+            {
+                // only succeeds if the task didn't start yet
+                if (running.get(task).cancel(false))
+                {
+                    running.remove(task);
+                    queued.add(task.contextual);
+                }
+            }
+        }
+
+        /**
+         * Wait until a bean which exceeded the timeout finished or the deadline is reached.
+         * @return {@code false} if the deadline is reached and the remaining beans got handed over
+         */
+        private boolean awaitExceeded()
+        {
+            long left = deadline - System.currentTimeMillis();
+            if (left > 0)
+            {
+                try
+                {
+                    wait(left);
+                    return true;
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            handedOver = true;
+            List<Contextual<?>> abandoned = new ArrayList<>();
+            for (DestroyTask task : exceeded)
+            {
+                abandoned.add(task.contextual);
+            }
+            logger.log(Level.WARNING, "Destroying " + abandoned + " did not finish within the " + deadlineMillis +
+                "ms of the context destruction, giving up on them. The beans they use get destroyed once they finished: " +
+                remaining);
+            return false;
+        }
+
+        /**
+         * Submit the given ready Contextual or queue it for the sequential destruction.
+         */
+        private void schedule(Contextual<?> contextual)
+        {
+            remaining.remove(contextual);
+            if (sequential || !hasPreDestroy(contextual))
+            {
+                queued.add(contextual);
+                notifyAll();
+                return;
+            }
+
+            DestroyTask task = new DestroyTask(contextual);
+            running.put(task, executor.submit(task));
+        }
+
+        /**
+         * Mark the given Contextual as destroyed and schedule all Contextuals which are ready now.
+         */
+        private void release(Contextual<?> destroyed)
+        {
+            for (Contextual<?> dependency : dependencies.get(destroyed))
+            {
+                int pending = pendingDependents.get(dependency) - 1;
+                pendingDependents.put(dependency, pending);
+                if (pending == 0 && remaining.contains(dependency))
+                {
+                    schedule(dependency);
+                }
+            }
+        }
+
+        /**
+         * Whatever is left has cyclic dependencies, those get destroyed sequentially.
+         */
+        private void queueCyclicLeftovers()
+        {
+            sequential = true;
+            queued.addAll(remaining);
+            remaining.clear();
+        }
+
+        /**
+         * Destroy all queued Contextuals, including the ones which get ready meanwhile, on the current thread.
+         */
+        private void destroyQueued()
+        {
+            while (true)
+            {
+                List<Contextual<?>> batch;
+                synchronized (this)
+                {
+                    if (queued.isEmpty())
+                    {
+                        return;
+                    }
+                    batch = new ArrayList<>(queued);
+                    queued.clear();
+                }
+
+                for (Contextual<?> contextual : batch)
+                {
+                    destroyInstance(context, contextual);
+                    synchronized (this)
+                    {
+                        release(contextual);
+                    }
+                }
+            }
+        }
+
+        private final class DestroyTask implements Runnable
+        {
+            private final Contextual<?> contextual;
+            private volatile long started;
+
+            private DestroyTask(Contextual<?> contextual)
+            {
+                this.contextual = contextual;
+            }
+
+            @Override
+            public void run()
+            {
+                Destruction destruction = Destruction.this;
+                synchronized (destruction)
+                {
+                    started = System.currentTimeMillis();
+                    destruction.notifyAll();
+                }
+
+                Thread thread = Thread.currentThread();
+                ClassLoader oldClassLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try
+                {
+                    destroyInstance(context, contextual);
+
+                    boolean finishDestruction;
+                    synchronized (destruction)
+                    {
+                        release(contextual);
+                        running.remove(this);
+                        finishDestruction = exceeded.remove(this) && handedOver;
+                        destruction.notifyAll();
+                    }
+
+                    if (finishDestruction)
+                    {
+                        // the calling thread already returned, so the beans this one uses get destroyed here
+                        destroyQueued();
+                        synchronized (destruction)
+                        {
+                            if (exceeded.isEmpty())
+                            {
+                                queueCyclicLeftovers();
+                            }
+                        }
+                        destroyQueued();
+                    }
+                }
+                finally
+                {
+                    thread.setContextClassLoader(oldClassLoader);
+                }
+            }
+        }
+    }
+
+    private static final class DestroyerThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "OwbContextDestroyer-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
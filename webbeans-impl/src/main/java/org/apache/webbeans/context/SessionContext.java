@@ -18,20 +18,43 @@
  */
 package org.apache.webbeans.context;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.enterprise.context.spi.Contextual;
+import jakarta.enterprise.context.spi.CreationalContext;
 
+import org.apache.webbeans.context.creational.BeanInstanceBag;
 import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
 
 /**
  * Session context implementation.
+ *
+ * If dirty tracking is enabled this context remembers all Contextual Instances
+ * which got accessed via {@link #get(Contextual)} or {@link #get(Contextual, CreationalContext)}
+ * (which is what our normal scoping proxies do), got created or got destroyed.
+ * Contextual Instances resolved via {@link #getReadOnly(Contextual)} do not get marked dirty.
  */
 public class SessionContext extends PassivatingContext
 {
     private static final long serialVersionUID = 2L;
 
+    /**
+     * Whether we should track which Contextual Instances got touched.
+     * This is transient as the flag gets set again by the ContextsService
+     * when a deserialized context gets attached to a new HttpSession.
+     */
+    private transient volatile boolean dirtyTracking;
+
+    /**
+     * All Contextuals which got touched since the last {@link #consumeDirtyContextuals()}
+     */
+    private transient Set<Contextual<?>> dirtyContextuals = ConcurrentHashMap.newKeySet();
+
     public SessionContext()
     {
         super(SessionScoped.class);
@@ -43,10 +66,122 @@ public class SessionContext extends PassivatingContext
         componentInstanceMap = new ConcurrentHashMap<>();
     }
 
+    @Override
+    public <T> T get(Contextual<T> component)
+    {
+        T instance = super.get(component);
+        if (dirtyTracking && instance != null)
+        {
+            dirtyContextuals.add(component);
+        }
+        return instance;
+    }
+
+    @Override
+    public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext)
+    {
+        T instance = super.get(contextual, creationalContext);
+        if (dirtyTracking && instance != null)
+        {
+            dirtyContextuals.add(contextual);
+        }
+        return instance;
+    }
+
+    /**
+     * Resolve an already existing Contextual Instance without marking it dirty.
+     * @return the Contextual Instance or {@code null} if it doesn't exist yet.
+     * @see org.apache.webbeans.spi.api.ReadOnly
+     */
+    public <T> T getReadOnly(Contextual<T> contextual)
+    {
+        return super.get(contextual);
+    }
+
     @Override
     public void destroy(Contextual<?> contextual)
     {
         super.destroy(contextual);
+        if (dirtyTracking)
+        {
+            dirtyContextuals.add(contextual);
+        }
         SessionScopedBeanInterceptorHandler.removeThreadLocals();
     }
+
+    public boolean isDirtyTracking()
+    {
+        return dirtyTracking;
+    }
+
+    public void setDirtyTracking(boolean dirtyTracking)
+    {
+        this.dirtyTracking = dirtyTracking;
+    }
+
+    /**
+     * Explicitly mark the Contextual Instance of the given Contextual as dirty.
+     */
+    public void markDirty(Contextual<?> contextual)
+    {
+        if (dirtyTracking)
+        {
+            dirtyContextuals.add(contextual);
+        }
+    }
+
+    /**
+     * @return all Contextuals which got marked dirty since the last invocation.
+     *         The returned Contextuals are not dirty anymore afterwards.
+     */
+    public Set<Contextual<?>> consumeDirtyContextuals()
+    {
+        if (dirtyContextuals.isEmpty())
+        {
+            return Collections.emptySet();
+        }
+
+        Set<Contextual<?>> consumed = new HashSet<>();
+        Iterator<Contextual<?>> it = dirtyContextuals.iterator();
+        while (it.hasNext())
+        {
+            consumed.add(it.next());
+            it.remove();
+        }
+        return consumed;
+    }
+
+    /**
+     * @return the BeanInstanceBag of the given Contextual or {@code null} if there is no Contextual Instance.
+     */
+    public BeanInstanceBag<?> getBeanInstanceBag(Contextual<?> contextual)
+    {
+        return componentInstanceMap.get(contextual);
+    }
+
+    /**
+     * Replace the BeanInstanceBag for the given Contextual.
+     * This is used to merge separately replicated Contextual Instances back into the context.
+     */
+    public void restoreBeanInstanceBag(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        componentInstanceMap.put(contextual, bag);
+    }
+
+    /**
+     * @return all Contextuals which currently have a BeanInstanceBag in this context
+     */
+    public Set<Contextual<?>> getContextuals()
+    {
+        return new HashSet<>(componentInstanceMap.keySet());
+    }
+
+    /**
+     * Drop the BeanInstanceBag of the given Contextual <b>without</b> destroying its Contextual Instance.
+     * This is used to prune Contextual Instances which already got destroyed in another JVM.
+     */
+    public void discardBeanInstanceBag(Contextual<?> contextual)
+    {
+        componentInstanceMap.remove(contextual);
+    }
 }
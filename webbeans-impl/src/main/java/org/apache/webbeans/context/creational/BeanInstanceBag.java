@@ -34,7 +34,10 @@ public class BeanInstanceBag<T> implements Serializable
     private static final long serialVersionUID = 1656996021599122499L;
     private final CreationalContext<T> beanCreationalContext;
     
-    private T beanInstance;
+    /**
+     * volatile as it gets read without holding the lock
+     */
+    private volatile T beanInstance;
     
     private final Lock lock = new ReentrantLock();
     
@@ -60,12 +63,20 @@ public class BeanInstanceBag<T> implements Serializable
     }
 
     /**
-     * Create the contextual instance in a thread safe fashion
+     * Create the contextual instance in a thread safe fashion.
+     * Each bag has its own lock, so different beans of the same context
+     * can get created in parallel.
      * @param contextual
      * @return the single contextual instance for the context
      */
     public T create(Contextual<T> contextual)
     {
+        T instance = beanInstance;
+        if (instance != null)
+        {
+            return instance;
+        }
+
         try
         {
             lock.lock();
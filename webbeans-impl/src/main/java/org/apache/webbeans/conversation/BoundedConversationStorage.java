@@ -0,0 +1,641 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.context.BusyConversationException;
+import jakarta.enterprise.context.spi.Context;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.util.OwbCustomObjectInputStream;
+import org.apache.webbeans.util.TimingWheel;
+import org.apache.webbeans.util.WebBeansUtil;
+
+/**
+ * {@link ConversationStorage} which keeps the long running ConversationContexts
+ * in memory outside of the HttpSession.
+ *
+ * <ul>
+ *     <li>Timed out conversations get detected via a hierarchical {@link TimingWheel}.
+ *     The wheel gets advanced by the requests of the application, so abandoned conversations
+ *     get destroyed even if their session never gets accessed again.</li>
+ *     <li>The number of conversations per session is limited. If the limit gets exceeded
+ *     the least recently used conversation which is not in use gets evicted.</li>
+ *     <li>If a spill directory is configured, evicted conversations get serialized to disk
+ *     instead of being destroyed and get restored once they get accessed again.</li>
+ * </ul>
+ *
+ * The session itself only contains the empty Set created by the {@link ConversationStorageBean}
+ * which serves as key for the conversations of the session.
+ * Conversations stored here are <b>not</b> replicated with the session.
+ *
+ * To enable this storage configure
+ * <pre>
+ * org.apache.webbeans.conversation.ConversationStorage=org.apache.webbeans.conversation.BoundedConversationStorage
+ * </pre>
+ */
+public class BoundedConversationStorage implements ConversationStorage, Closeable
+{
+    /**
+     * Maximum number of conversations per session which are kept in memory. Default is 100.
+     */
+    public static final String MAX_CONVERSATIONS_PER_SESSION = BoundedConversationStorage.class.getName() + ".maxConversationsPerSession";
+
+    /**
+     * The resolution of the timeout detection in milliseconds. Default is 1000.
+     */
+    public static final String TICK_MILLIS = BoundedConversationStorage.class.getName() + ".tickMillis";
+
+    /**
+     * Directory to spill evicted conversations to. If not set, evicted conversations get destroyed.
+     */
+    public static final String SPILL_DIRECTORY = BoundedConversationStorage.class.getName() + ".spillDirectory";
+
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(BoundedConversationStorage.class);
+
+    private final WebBeansContext webBeansContext;
+    private final int maxConversationsPerSession;
+    private final long tickMillis;
+    private final File spillDirectory;
+
+    private final TimingWheel<ExpiryEntry> timingWheel;
+    private final Lock expiryLock = new ReentrantLock();
+    private final ConcurrentMap<SessionKey, SessionConversations> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong spillCounter = new AtomicLong();
+
+    public BoundedConversationStorage(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        maxConversationsPerSession = Integer.parseInt(configuration.getProperty(MAX_CONVERSATIONS_PER_SESSION, "100"));
+        tickMillis = Long.parseLong(configuration.getProperty(TICK_MILLIS, "1000"));
+
+        String spillDir = configuration.getProperty(SPILL_DIRECTORY);
+        if (spillDir != null && !spillDir.trim().isEmpty())
+        {
+            spillDirectory = new File(spillDir.trim());
+            if (!spillDirectory.isDirectory() && !spillDirectory.mkdirs())
+            {
+                throw new IllegalArgumentException("Cannot create conversation spill directory " + spillDirectory.getAbsolutePath());
+            }
+        }
+        else
+        {
+            spillDirectory = null;
+        }
+
+        timingWheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    @Override
+    public ConversationContext getConversationContext(Context sessionContext, String conversationId)
+    {
+        expireConversations();
+
+        SessionConversations conversations = getSessionConversations(sessionContext, false);
+        return conversations != null ? conversations.get(conversationId) : null;
+    }
+
+    @Override
+    public void addConversationContext(Context sessionContext, ConversationContext conversationContext)
+    {
+        expireConversations();
+
+        String conversationId = conversationContext.getConversation().getId();
+        List<ConversationContext> evicted;
+        SessionConversations conversations;
+        do
+        {
+            conversations = getSessionConversations(sessionContext, true);
+            evicted = conversations.add(conversationId, conversationContext);
+        }
+        while (evicted == null);
+
+        schedule(conversations, conversationId, getDeadline(conversationContext.getConversation()));
+        destroy(evicted);
+    }
+
+    @Override
+    public boolean removeConversationContext(Context sessionContext, ConversationContext conversationContext)
+    {
+        SessionConversations conversations = getSessionConversations(sessionContext, false);
+        return conversations != null && conversations.remove(conversationContext);
+    }
+
+    @Override
+    public Collection<ConversationContext> removeTimedOutConversationContexts(Context sessionContext)
+    {
+        // timed out conversations of all sessions get destroyed by the timing wheel
+        expireConversations();
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Collection<ConversationContext> removeSessionConversationContexts(Set<ConversationContext> sessionConversations)
+    {
+        SessionConversations conversations = sessions.remove(new SessionKey(sessionConversations));
+        if (conversations == null)
+        {
+            return Collections.emptyList();
+        }
+        return conversations.removeAll();
+    }
+
+    /**
+     * Forget all conversations and remove all spilled conversations from disk.
+     * The conversations are not getting destroyed as this happens when the container shuts down.
+     */
+    @Override
+    public void close()
+    {
+        timingWheel.clear();
+        for (SessionConversations conversations : sessions.values())
+        {
+            conversations.discard();
+        }
+        sessions.clear();
+    }
+
+    /**
+     * @return the number of sessions which currently have conversations in this storage
+     */
+    public int getSessionCount()
+    {
+        return sessions.size();
+    }
+
+    private SessionConversations getSessionConversations(Context sessionContext, boolean create)
+    {
+        Set<ConversationContext> sessionMarker = webBeansContext.getConversationManager().getSessionConversations(sessionContext, create);
+        if (sessionMarker == null)
+        {
+            return null;
+        }
+
+        SessionKey key = new SessionKey(sessionMarker);
+        SessionConversations conversations = sessions.get(key);
+        if (conversations == null && create)
+        {
+            conversations = new SessionConversations(key);
+            SessionConversations existing = sessions.putIfAbsent(key, conversations);
+            if (existing != null)
+            {
+                conversations = existing;
+            }
+        }
+        return conversations;
+    }
+
+    /**
+     * Advance the timing wheel and destroy all timed out conversations.
+     * Only one thread at a time does this, all others just continue.
+     */
+    private void expireConversations()
+    {
+        if (!expiryLock.tryLock())
+        {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        List<ExpiryEntry> expired;
+        try
+        {
+            expired = timingWheel.advance(now);
+        }
+        finally
+        {
+            expiryLock.unlock();
+        }
+
+        for (ExpiryEntry entry : expired)
+        {
+            ConversationContext timedOut = entry.conversations.expire(entry.conversationId, now);
+            if (timedOut != null)
+            {
+                destroy(Collections.singletonList(timedOut));
+            }
+        }
+    }
+
+    private void schedule(SessionConversations conversations, String conversationId, long deadline)
+    {
+        if (deadline != Long.MAX_VALUE)
+        {
+            timingWheel.schedule(new ExpiryEntry(conversations, conversationId), deadline);
+        }
+    }
+
+    /**
+     * @return the time at which the conversation will time out or {@link Long#MAX_VALUE} if it never times out
+     */
+    private long getDeadline(ConversationImpl conversation)
+    {
+        long timeout;
+        try
+        {
+            timeout = conversation.getTimeout();
+        }
+        catch (BusyConversationException bce)
+        {
+            // used concurrently, so surely not timed out yet
+            return System.currentTimeMillis() + tickMillis;
+        }
+
+        if (timeout <= 0L)
+        {
+            return Long.MAX_VALUE;
+        }
+        return conversation.getLastAccessTime() + timeout;
+    }
+
+    private void destroy(List<ConversationContext> conversationContexts)
+    {
+        if (conversationContexts.isEmpty())
+        {
+            return;
+        }
+
+        ConversationManager conversationManager = webBeansContext.getConversationManager();
+        for (ConversationContext conversationContext : conversationContexts)
+        {
+            try
+            {
+                conversationManager.destroyConversationContext(conversationContext);
+            }
+            catch (RuntimeException e)
+            {
+                logger.log(Level.WARNING, "Error while destroying " + conversationContext.getConversation(), e);
+            }
+        }
+    }
+
+    /**
+     * All conversations of a single session.
+     */
+    private final class SessionConversations
+    {
+        private final SessionKey key;
+        private final String id = UUID.randomUUID().toString();
+
+        /**
+         * The conversations in memory in least recently used order.
+         */
+        private final LinkedHashMap<String, ConversationContext> active = new LinkedHashMap<>();
+
+        private final Map<String, SpilledConversation> spilled = new HashMap<>();
+
+        /**
+         * Set once this instance got removed from the storage
+         */
+        private boolean removed;
+
+        private SessionConversations(SessionKey key)
+        {
+            this.key = key;
+        }
+
+        private ConversationContext get(String conversationId)
+        {
+            List<ConversationContext> evicted;
+            ConversationContext conversationContext;
+            synchronized (this)
+            {
+                conversationContext = active.remove(conversationId);
+                if (conversationContext != null)
+                {
+                    // mark it as most recently used
+                    active.put(conversationId, conversationContext);
+                    return conversationContext;
+                }
+
+                SpilledConversation spilledConversation = spilled.remove(conversationId);
+                if (spilledConversation == null)
+                {
+                    return null;
+                }
+
+                conversationContext = spilledConversation.load();
+                if (conversationContext == null)
+                {
+                    return null;
+                }
+
+                active.put(conversationId, conversationContext);
+                evicted = evict();
+            }
+
+            destroy(evicted);
+            return conversationContext;
+        }
+
+        /**
+         * @return the ConversationContexts which got evicted and need to get destroyed
+         *         or {@code null} if this instance got removed in the meantime
+         */
+        private synchronized List<ConversationContext> add(String conversationId, ConversationContext conversationContext)
+        {
+            if (removed)
+            {
+                return null;
+            }
+            if (active.containsKey(conversationId) || spilled.containsKey(conversationId))
+            {
+                throw new IllegalArgumentException("Conversation with id=" + conversationId + " already exists!");
+            }
+
+            active.put(conversationId, conversationContext);
+            return evict();
+        }
+
+        private synchronized boolean remove(ConversationContext conversationContext)
+        {
+            String conversationId = conversationContext.getConversation().getId();
+            if (conversationId != null)
+            {
+                if (active.remove(conversationId, conversationContext))
+                {
+                    return true;
+                }
+            }
+
+            // the id is already gone after Conversation#end()
+            Iterator<ConversationContext> it = active.values().iterator();
+            while (it.hasNext())
+            {
+                if (it.next() == conversationContext)
+                {
+                    it.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Check whether the given conversation is really timed out.
+         * If not it gets re-scheduled.
+         * @return the ConversationContext to destroy or {@code null}
+         */
+        private ConversationContext expire(String conversationId, long now)
+        {
+            ConversationContext timedOut = null;
+            long deadline = Long.MAX_VALUE;
+            synchronized (this)
+            {
+                ConversationContext conversationContext = active.get(conversationId);
+                if (conversationContext != null)
+                {
+                    ConversationImpl conversation = conversationContext.getConversation();
+                    if (!conversation.isInUse() && webBeansContext.getConversationManager().conversationTimedOut(conversation))
+                    {
+                        active.remove(conversationId);
+                        timedOut = conversationContext;
+                    }
+                    else
+                    {
+                        deadline = Math.max(getDeadline(conversation), now + tickMillis);
+                    }
+                }
+                else
+                {
+                    SpilledConversation spilledConversation = spilled.get(conversationId);
+                    if (spilledConversation != null)
+                    {
+                        if (spilledConversation.deadline <= now)
+                        {
+                            spilled.remove(conversationId);
+                            timedOut = spilledConversation.load();
+                        }
+                        else
+                        {
+                            deadline = spilledConversation.deadline;
+                        }
+                    }
+                }
+
+                if (active.isEmpty() && spilled.isEmpty() && deadline == Long.MAX_VALUE)
+                {
+                    removed = true;
+                    sessions.remove(key, this);
+                }
+            }
+
+            schedule(this, conversationId, deadline);
+            return timedOut;
+        }
+
+        /**
+         * Evict the least recently used conversations which are not in use
+         * until the limit is satisfied again.
+         * @return the evicted ConversationContexts which could not be spilled to disk
+         */
+        private List<ConversationContext> evict()
+        {
+            if (maxConversationsPerSession <= 0 || active.size() <= maxConversationsPerSession)
+            {
+                return Collections.emptyList();
+            }
+
+            List<ConversationContext> evicted = new ArrayList<>();
+            Iterator<Map.Entry<String, ConversationContext>> it = active.entrySet().iterator();
+            while (active.size() > maxConversationsPerSession && it.hasNext())
+            {
+                Map.Entry<String, ConversationContext> entry = it.next();
+                ConversationImpl conversation = entry.getValue().getConversation();
+                if (conversation.isInUse())
+                {
+                    continue;
+                }
+
+                it.remove();
+                if (spillDirectory == null || !spill(entry.getKey(), entry.getValue()))
+                {
+                    evicted.add(entry.getValue());
+                }
+            }
+
+            return evicted;
+        }
+
+        private boolean spill(String conversationId, ConversationContext conversationContext)
+        {
+            File file = new File(spillDirectory, id + "-" + spillCounter.incrementAndGet() + ".conversation");
+            try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(file))))
+            {
+                oos.writeObject(conversationContext);
+            }
+            catch (IOException | RuntimeException e)
+            {
+                logger.log(Level.FINE, "Cannot spill " + conversationContext.getConversation() + " to disk", e);
+                if (file.exists() && !file.delete())
+                {
+                    file.deleteOnExit();
+                }
+                return false;
+            }
+
+            spilled.put(conversationId, new SpilledConversation(file, getDeadline(conversationContext.getConversation())));
+            return true;
+        }
+
+        /**
+         * @return all ConversationContexts, spilled ones get loaded from disk
+         */
+        private synchronized List<ConversationContext> removeAll()
+        {
+            removed = true;
+            List<ConversationContext> all = new ArrayList<>(active.values());
+            active.clear();
+            for (SpilledConversation spilledConversation : spilled.values())
+            {
+                ConversationContext conversationContext = spilledConversation.load();
+                if (conversationContext != null)
+                {
+                    all.add(conversationContext);
+                }
+            }
+            spilled.clear();
+            return all;
+        }
+
+        private synchronized void discard()
+        {
+            removed = true;
+            active.clear();
+            for (SpilledConversation spilledConversation : spilled.values())
+            {
+                spilledConversation.delete();
+            }
+            spilled.clear();
+        }
+    }
+
+    /**
+     * A ConversationContext which got serialized to disk.
+     */
+    private static final class SpilledConversation
+    {
+        private final File file;
+        private final long deadline;
+
+        private SpilledConversation(File file, long deadline)
+        {
+            this.file = file;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Read the ConversationContext back and delete the file.
+         * @return the ConversationContext or {@code null} if it could not be read
+         */
+        private ConversationContext load()
+        {
+            try (ObjectInputStream ois = new OwbCustomObjectInputStream(
+                    new BufferedInputStream(new FileInputStream(file)), WebBeansUtil.getCurrentClassLoader()))
+            {
+                return (ConversationContext) ois.readObject();
+            }
+            catch (IOException | ClassNotFoundException | RuntimeException e)
+            {
+                logger.log(Level.WARNING, "Cannot restore spilled conversation from " + file.getAbsolutePath(), e);
+                return null;
+            }
+            finally
+            {
+                delete();
+            }
+        }
+
+        private void delete()
+        {
+            if (file.exists() && !file.delete())
+            {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    private static final class ExpiryEntry
+    {
+        private final SessionConversations conversations;
+        private final String conversationId;
+
+        private ExpiryEntry(SessionConversations conversations, String conversationId)
+        {
+            this.conversations = conversations;
+            this.conversationId = conversationId;
+        }
+    }
+
+    /**
+     * Identity based key for the session scoped conversation Set.
+     */
+    private static final class SessionKey
+    {
+        private final Set<ConversationContext> sessionMarker;
+
+        private SessionKey(Set<ConversationContext> sessionMarker)
+        {
+            this.sessionMarker = sessionMarker;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            return o instanceof SessionKey && ((SessionKey) o).sessionMarker == sessionMarker;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return System.identityHashCode(sessionMarker);
+        }
+    }
+}
@@ -196,6 +196,14 @@ public class ConversationImpl implements Conversation, Serializable
         }
     }
 
+    /**
+     * @return {@code true} if this Conversation is currently used by any request
+     */
+    public synchronized boolean isInUse()
+    {
+        return !threadsUsingIt.isEmpty();
+    }
+
     /**
      * {@inheritDoc}
      */
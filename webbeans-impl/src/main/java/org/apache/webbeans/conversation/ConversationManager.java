@@ -18,6 +18,7 @@
  */
 package org.apache.webbeans.conversation;
 
+import java.util.Collection;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -60,6 +61,11 @@ public class ConversationManager
     private final WebBeansContext webBeansContext;
     private final Bean<Set<ConversationContext>> conversationStorageBean;
 
+    /**
+     * @see ConversationStorage
+     */
+    private volatile ConversationStorage conversationStorage;
+
     /**
      * Creates new conversation manager
      */
@@ -88,34 +94,29 @@ public class ConversationManager
     {
         ConversationService conversationService = webBeansContext.getConversationService();
 
-        Set<ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
-
         RuntimeException problem = null;
         String conversationId = conversationService.getConversationId();
         if (conversationId != null && conversationId.length() > 0)
         {
-            if (conversationContexts != null)
+            ConversationContext conversationContext = sessionContext != null
+                ? getConversationStorage().getConversationContext(sessionContext, conversationId)
+                : null;
+            if (conversationContext != null)
             {
-                for (ConversationContext conversationContext : conversationContexts)
+                if (conversationContext.getConversation().iUseIt() > 1)
                 {
-                    if (conversationId.equals(conversationContext.getConversation().getId()))
-                    {
-                        if (conversationContext.getConversation().iUseIt() > 1)
-                        {
-                            problem =  new BusyConversationException("Propogated conversation with cid=" +
-                                    conversationContext.getConversation().getId() +
-                                    " is used by other request. It creates a new transient conversation");
-                            conversationContext.getConversation().setProblemDuringCreation(problem);
-                        }
-                        else
-                        {
-                            conversationContext.getConversation().updateLastAccessTime();
-                        }
-
-                        conversationContext.setActive(true);
-                        return conversationContext;
-                    }
+                    problem =  new BusyConversationException("Propogated conversation with cid=" +
+                            conversationContext.getConversation().getId() +
+                            " is used by other request. It creates a new transient conversation");
+                    conversationContext.getConversation().setProblemDuringCreation(problem);
                 }
+                else
+                {
+                    conversationContext.getConversation().updateLastAccessTime();
+                }
+
+                conversationContext.setActive(true);
+                return conversationContext;
             }
 
             problem = new NonexistentConversationException("Propogated conversation with cid=" + conversationId +
@@ -137,19 +138,7 @@ public class ConversationManager
     {
         Asserts.assertNotNull(conversationId, "conversationId");
         Context sessionContext = webBeansContext.getContextsService().getCurrentContext(SessionScoped.class, true);
-        Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
-
-        // check whether this conversation already exists
-        for (ConversationContext sessionConversation : sessionConversations)
-        {
-            if (conversationId.equals(sessionConversation.getConversation().getId()))
-            {
-                throw new IllegalArgumentException("Conversation with id=" + conversationId + " already exists!");
-            }
-        }
-
-        // if not, then simply add this conversation
-        sessionConversations.add(conversationContext);
+        getConversationStorage().addConversationContext(sessionContext, conversationContext);
     }
 
     /**
@@ -163,13 +152,50 @@ public class ConversationManager
         Context sessionContext = webBeansContext.getContextsService().getCurrentContext(SessionScoped.class);
         if (sessionContext != null)
         {
-            Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
-            return sessionConversations.remove(conversationContext);
+            return getConversationStorage().removeConversationContext(sessionContext, conversationContext);
         }
 
         return false;
     }
 
+    /**
+     * Destroy all timed out ConversationContexts of the given session.
+     */
+    public void destroyTimedOutConversations(Context sessionContext)
+    {
+        destroyConversationContexts(getConversationStorage().removeTimedOutConversationContexts(sessionContext));
+    }
+
+    /**
+     * Destroy all ConversationContexts of a session.
+     * This gets invoked when the {@link ConversationStorageBean} instance of the session gets destroyed.
+     */
+    public void destroySessionConversations(Set<ConversationContext> sessionConversations)
+    {
+        destroyConversationContexts(getConversationStorage().removeSessionConversationContexts(sessionConversations));
+    }
+
+    /**
+     * @return the configured {@link ConversationStorage}, {@link SessionConversationStorage} by default
+     */
+    public ConversationStorage getConversationStorage()
+    {
+        if (conversationStorage == null)
+        {
+            ConversationStorage storage = webBeansContext.getService(ConversationStorage.class);
+            conversationStorage = storage != null ? storage : new SessionConversationStorage(webBeansContext);
+        }
+        return conversationStorage;
+    }
+
+    private void destroyConversationContexts(Collection<ConversationContext> conversationContexts)
+    {
+        for (ConversationContext conversationContext : conversationContexts)
+        {
+            destroyConversationContext(conversationContext);
+        }
+    }
+
 
     /**
      * Gets conversation instance from conversation bean.
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.util.Collection;
+import java.util.Set;
+
+import jakarta.enterprise.context.spi.Context;
+
+import org.apache.webbeans.context.ConversationContext;
+
+/**
+ * Pluggable storage for the long running ConversationContexts of a session.
+ *
+ * The implementation to use can be configured via the key
+ * {@code org.apache.webbeans.conversation.ConversationStorage}.
+ * If nothing is configured the {@link SessionConversationStorage} will be used
+ * which stores all ConversationContexts in the SessionContext.
+ *
+ * ConversationContexts which get returned from one of the {@code remove*} methods
+ * will get destroyed by the {@link ConversationManager}.
+ */
+public interface ConversationStorage
+{
+    /**
+     * @param sessionContext the SessionContext of the current session
+     * @param conversationId the id of the conversation
+     * @return the ConversationContext with the given id or {@code null} if there is none
+     */
+    ConversationContext getConversationContext(Context sessionContext, String conversationId);
+
+    /**
+     * Store the given long running ConversationContext.
+     * @throws IllegalArgumentException if a ConversationContext with the same conversation id already exists
+     */
+    void addConversationContext(Context sessionContext, ConversationContext conversationContext);
+
+    /**
+     * Remove the given ConversationContext from the storage.
+     * This does <b>not</b> destroy the ConversationContext.
+     * @return {@code true} if the conversationContext got removed
+     */
+    boolean removeConversationContext(Context sessionContext, ConversationContext conversationContext);
+
+    /**
+     * Remove all ConversationContexts of the given session which are timed out.
+     * @return the removed ConversationContexts which need to get destroyed, never {@code null}
+     */
+    Collection<ConversationContext> removeTimedOutConversationContexts(Context sessionContext);
+
+    /**
+     * Gets invoked when the session scoped conversation storage of a session gets destroyed.
+     * @param sessionConversations the session scoped Set created by {@link ConversationStorageBean}
+     * @return all ConversationContexts of that session which need to get destroyed, never {@code null}
+     */
+    Collection<ConversationContext> removeSessionConversationContexts(Set<ConversationContext> sessionConversations);
+}
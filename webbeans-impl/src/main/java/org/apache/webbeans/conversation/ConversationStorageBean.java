@@ -62,16 +62,13 @@ public class ConversationStorageBean implements Bean<Set<ConversationContext>>,
     @Override
     public void destroy(Set<ConversationContext> instance, CreationalContext<Set<ConversationContext>> context)
     {
-        if (instance == null || instance.isEmpty())
+        if (instance == null)
         {
             return;
         }
 
-        ConversationManager conversationManager = webBeansContext.getConversationManager();
-        for (ConversationContext conversationContext : instance)
-        {
-            conversationManager.destroyConversationContext(conversationContext);
-        }
+        // the ConversationStorage decides which ConversationContexts belong to this session
+        webBeansContext.getConversationManager().destroySessionConversations(instance);
     }
 
     @Override
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.enterprise.context.spi.Context;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.ConversationContext;
+
+/**
+ * Default {@link ConversationStorage} which stores all long running
+ * ConversationContexts in a Set inside the SessionContext.
+ */
+public class SessionConversationStorage implements ConversationStorage
+{
+    private final WebBeansContext webBeansContext;
+
+    public SessionConversationStorage(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+    }
+
+    @Override
+    public ConversationContext getConversationContext(Context sessionContext, String conversationId)
+    {
+        Set<ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
+        if (conversationContexts != null)
+        {
+            for (ConversationContext conversationContext : conversationContexts)
+            {
+                if (conversationId.equals(conversationContext.getConversation().getId()))
+                {
+                    return conversationContext;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void addConversationContext(Context sessionContext, ConversationContext conversationContext)
+    {
+        String conversationId = conversationContext.getConversation().getId();
+        Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
+
+        // check whether this conversation already exists
+        for (ConversationContext sessionConversation : sessionConversations)
+        {
+            if (conversationId.equals(sessionConversation.getConversation().getId()))
+            {
+                throw new IllegalArgumentException("Conversation with id=" + conversationId + " already exists!");
+            }
+        }
+
+        // if not, then simply add this conversation
+        sessionConversations.add(conversationContext);
+    }
+
+    @Override
+    public boolean removeConversationContext(Context sessionContext, ConversationContext conversationContext)
+    {
+        Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
+        return sessionConversations.remove(conversationContext);
+    }
+
+    @Override
+    public Collection<ConversationContext> removeTimedOutConversationContexts(Context sessionContext)
+    {
+        Set<ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
+        if (conversationContexts == null || conversationContexts.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        ConversationManager conversationManager = webBeansContext.getConversationManager();
+        List<ConversationContext> timedOut = null;
+        Iterator<ConversationContext> convIt = conversationContexts.iterator();
+        while (convIt.hasNext())
+        {
+            ConversationContext conversationContext = convIt.next();
+            if (conversationManager.conversationTimedOut(conversationContext.getConversation()))
+            {
+                if (timedOut == null)
+                {
+                    timedOut = new ArrayList<>();
+                }
+                timedOut.add(conversationContext);
+                convIt.remove();
+            }
+        }
+
+        return timedOut != null ? timedOut : Collections.<ConversationContext>emptyList();
+    }
+
+    @Override
+    public Collection<ConversationContext> removeSessionConversationContexts(Set<ConversationContext> sessionConversations)
+    {
+        return sessionConversations;
+    }
+
+    private Set<ConversationContext> getSessionConversations(Context sessionContext, boolean create)
+    {
+        return webBeansContext.getConversationManager().getSessionConversations(sessionContext, create);
+    }
+}
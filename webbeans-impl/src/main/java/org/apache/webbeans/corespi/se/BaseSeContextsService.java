@@ -293,6 +293,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
 
         ApplicationContext ctx = new ApplicationContext();
         ctx.setActive(true);
+        ctx.setContextDestroyer(contextDestroyer);
 
         applicationContext = ctx;
 
@@ -320,7 +321,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         if (conversation.isTransient())
         {
             webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
-                conversationManager.getLifecycleEventPayload(ctx), InitializedLiteral.INSTANCE_CONVERSATION_SCOPED);
+                () -> conversationManager.getLifecycleEventPayload(ctx), InitializedLiteral.INSTANCE_CONVERSATION_SCOPED);
         }
         else
         {
@@ -62,6 +62,7 @@ public class DefaultContextsService extends BaseSeContextsService
     {
         final SingletonContext ctx = new SingletonContext();
         ctx.setActive(true);
+        ctx.setContextDestroyer(contextDestroyer);
         
         singletonContext.set(ctx);
     }
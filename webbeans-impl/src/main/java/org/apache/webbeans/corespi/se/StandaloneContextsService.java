@@ -37,6 +37,7 @@ public class StandaloneContextsService extends BaseSeContextsService
     {
         singletonContext = new SingletonContext();
         singletonContext.setActive(true);
+        singletonContext.setContextDestroyer(contextDestroyer);
     }
 
     @Override
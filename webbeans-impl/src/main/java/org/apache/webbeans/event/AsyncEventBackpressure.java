@@ -0,0 +1,495 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.enterprise.inject.Any;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.exception.WebBeansConfigurationException;
+
+/**
+ * Limits the number of pending asynchronous observer method invocations.
+ *
+ * The limit gets configured via {@link OpenWebBeansConfiguration#ASYNC_EVENT_MAX_PENDING} and
+ * {@link OpenWebBeansConfiguration#ASYNC_EVENT_OVERFLOW_POLICY}. Both keys can get suffixed with
+ * the fully qualified name of the class of the event object or a qualifier to configure a separate limit for those events.
+ * The event class wins over the qualifiers and both win over the global configuration.
+ * All events which resolve to the same configuration share the same {@link Channel}.
+ * Events with a {@link org.apache.webbeans.spi.api.PartitionKey} don't get limited,
+ * see {@link OpenWebBeansConfiguration#ASYNC_EVENT_PARTITIONS}.
+ *
+ * Independent of those policies the built-in Executor limits the invocations running in parallel via
+ * {@link OpenWebBeansConfiguration#ASYNC_EVENT_MAX_IN_FLIGHT}. Invocations beyond that limit get queued
+ * instead of blocking the firing thread, which might be an asynchronous observer method itself.
+ */
+public class AsyncEventBackpressure
+{
+    /**
+     * What to do if the maximum number of pending invocations is reached
+     */
+    public enum OverflowPolicy
+    {
+        /**
+         * Wait until a pending invocation finished, at most {@link OpenWebBeansConfiguration#ASYNC_EVENT_BLOCK_TIMEOUT}.
+         * An observer method of the channel which fires another event into it doesn't wait for itself,
+         * it invokes the observer method like {@link #CALLER_RUNS}.
+         */
+        BLOCK,
+
+        /**
+         * Invoke the observer method on the thread which fires the event
+         */
+        CALLER_RUNS,
+
+        /**
+         * Drop the oldest invocation which did not yet start. Its CompletionStage fails with a {@link RejectedExecutionException}
+         */
+        DROP_OLDEST,
+
+        /**
+         * Fail the CompletionStage of the new invocation with a {@link RejectedExecutionException}
+         */
+        FAIL
+    }
+
+    private static final String GLOBAL = "";
+
+    private final OpenWebBeansConfiguration configuration;
+
+    private final ConcurrentMap<ChannelKey, Channel> channelsByEvent = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Channel> channels = new ConcurrentHashMap<>();
+
+    public AsyncEventBackpressure(OpenWebBeansConfiguration configuration)
+    {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Execute the given task or apply the overflow policy.
+     * The future gets completed exceptionally if the task doesn't get executed.
+     */
+    public void execute(Object event, EventMetadataImpl metadata, Runnable task, CompletableFuture<?> future, Executor executor)
+    {
+        Channel channel = getChannel(event.getClass(), metadata);
+        if (channel == Channel.UNBOUNDED)
+        {
+            CompletableFuture.runAsync(task, executor);
+            return;
+        }
+        channel.execute(task, future, executor);
+    }
+
+    /**
+     * @return the statistics of all channels which have a limit, by their configuration suffix. The global channel has an empty name.
+     */
+    public Map<String, Channel> getChannels()
+    {
+        Map<String, Channel> boundedChannels = new TreeMap<>();
+        channels.forEach((name, channel) ->
+        {
+            if (channel != Channel.UNBOUNDED)
+            {
+                boundedChannels.put(name, channel);
+            }
+        });
+        return Collections.unmodifiableMap(boundedChannels);
+    }
+
+    private Channel getChannel(Class<?> eventClass, EventMetadataImpl metadata)
+    {
+        int qualifiersId = metadata.getQualifiersId();
+        if (qualifiersId == NotificationManager.UNCACHED_QUALIFIER_SET_ID)
+        {
+            return resolveChannel(eventClass, metadata);
+        }
+
+        ChannelKey key = new ChannelKey(eventClass, qualifiersId);
+        Channel channel = channelsByEvent.get(key);
+        if (channel == null)
+        {
+            channel = resolveChannel(eventClass, metadata);
+            Channel existing = channelsByEvent.putIfAbsent(key, channel);
+            if (existing != null)
+            {
+                channel = existing;
+            }
+        }
+        return channel;
+    }
+
+    private Channel resolveChannel(Class<?> eventClass, EventMetadataImpl metadata)
+    {
+        if (isConfigured(eventClass.getName()))
+        {
+            return channels.computeIfAbsent(eventClass.getName(), this::createChannel);
+        }
+        for (Annotation qualifier : metadata.getQualifiers())
+        {
+            String qualifierName = qualifier.annotationType().getName();
+            if (qualifier.annotationType() != Any.class && isConfigured(qualifierName))
+            {
+                return channels.computeIfAbsent(qualifierName, this::createChannel);
+            }
+        }
+        return channels.computeIfAbsent(GLOBAL, this::createChannel);
+    }
+
+    private boolean isConfigured(String name)
+    {
+        return configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING + '.' + name) != null
+            || configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY + '.' + name) != null;
+    }
+
+    private Channel createChannel(String name)
+    {
+        String suffix = GLOBAL.equals(name) ? "" : '.' + name;
+
+        String maxPendingValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING + suffix);
+        if (maxPendingValue == null)
+        {
+            maxPendingValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING, "0");
+        }
+        int maxPending = Integer.parseInt(maxPendingValue.trim());
+        if (maxPending <= 0)
+        {
+            return Channel.UNBOUNDED;
+        }
+
+        String policyValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY + suffix);
+        if (policyValue == null)
+        {
+            policyValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY, OverflowPolicy.FAIL.name());
+        }
+        OverflowPolicy policy;
+        try
+        {
+            policy = OverflowPolicy.valueOf(policyValue.trim().toUpperCase(Locale.ENGLISH).replace('-', '_'));
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new WebBeansConfigurationException("Unknown value for " + OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY + suffix
+                + ": " + policyValue);
+        }
+        String blockTimeoutValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_BLOCK_TIMEOUT + suffix);
+        if (blockTimeoutValue == null)
+        {
+            blockTimeoutValue = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_BLOCK_TIMEOUT, "30000");
+        }
+        return new Channel(maxPending, policy, Long.parseLong(blockTimeoutValue.trim()));
+    }
+
+    /**
+     * The pending invocations of all events sharing the same limit.
+     */
+    public static final class Channel
+    {
+        private static final Channel UNBOUNDED = new Channel(0, OverflowPolicy.FAIL, 0);
+
+        private final int maxPending;
+        private final OverflowPolicy policy;
+        private final long blockTimeoutMillis;
+        private final Semaphore permits;
+
+        // set while the thread runs an invocation of this channel and thus holds one of its permits
+        private final ThreadLocal<Boolean> runningInvocation = new ThreadLocal<>();
+
+        // only used for DROP_OLDEST, contains the tasks in submission order
+        private final Queue<PendingTask> pendingTasks;
+
+        private final AtomicInteger queueDepth = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong callerRuns = new AtomicLong();
+
+        private Channel(int maxPending, OverflowPolicy policy, long blockTimeoutMillis)
+        {
+            this.maxPending = maxPending;
+            this.policy = policy;
+            this.blockTimeoutMillis = blockTimeoutMillis;
+            this.permits = new Semaphore(maxPending);
+            this.pendingTasks = policy == OverflowPolicy.DROP_OLDEST ? new ConcurrentLinkedQueue<>() : null;
+        }
+
+        public int getMaxPending()
+        {
+            return maxPending;
+        }
+
+        public OverflowPolicy getPolicy()
+        {
+            return policy;
+        }
+
+        /**
+         * @return how long {@link OverflowPolicy#BLOCK} waits for a free slot, 0 or less for no limit
+         */
+        public long getBlockTimeoutMillis()
+        {
+            return blockTimeoutMillis;
+        }
+
+        /**
+         * @return the number of invocations which got handed over to the Executor but did not yet start
+         */
+        public int getQueueDepth()
+        {
+            return queueDepth.get();
+        }
+
+        /**
+         * @return the number of invocations which did not yet finish, including the queued ones
+         */
+        public int getPending()
+        {
+            return maxPending - permits.availablePermits();
+        }
+
+        public long getRejectedCount()
+        {
+            return rejected.get();
+        }
+
+        public long getDroppedCount()
+        {
+            return dropped.get();
+        }
+
+        public long getCallerRunsCount()
+        {
+            return callerRuns.get();
+        }
+
+        private void execute(Runnable task, CompletableFuture<?> future, Executor executor)
+        {
+            if (!permits.tryAcquire() && !handleOverflow(task, future))
+            {
+                return;
+            }
+
+            PendingTask pendingTask = new PendingTask(task, future);
+            queueDepth.incrementAndGet();
+            if (pendingTasks != null)
+            {
+                pendingTasks.add(pendingTask);
+                // remove the already started tasks, they usually start in submission order
+                PendingTask head = pendingTasks.peek();
+                while (head != null && head.isStarted())
+                {
+                    pendingTasks.remove(head);
+                    head = pendingTasks.peek();
+                }
+            }
+
+            try
+            {
+                executor.execute(pendingTask);
+            }
+            catch (RuntimeException e)
+            {
+                if (pendingTask.start())
+                {
+                    queueDepth.decrementAndGet();
+                    permits.release();
+                    rejected.incrementAndGet();
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if the task got a permit and should be executed
+         */
+        private boolean handleOverflow(Runnable task, CompletableFuture<?> future)
+        {
+            switch (policy)
+            {
+                case BLOCK:
+                    if (runningInvocation.get() != null)
+                    {
+                        // the permit we would wait for might be our own
+                        callerRuns.incrementAndGet();
+                        runTask(task, future);
+                        return false;
+                    }
+                    try
+                    {
+                        if (blockTimeoutMillis <= 0)
+                        {
+                            permits.acquire();
+                            return true;
+                        }
+                        if (permits.tryAcquire(blockTimeoutMillis, TimeUnit.MILLISECONDS))
+                        {
+                            return true;
+                        }
+                        reject(future, "No free slot for the asynchronous event within " + blockTimeoutMillis
+                            + "ms, maximum is " + maxPending);
+                        return false;
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        reject(future, "Interrupted while waiting for a free slot for the asynchronous event");
+                        return false;
+                    }
+                case CALLER_RUNS:
+                    callerRuns.incrementAndGet();
+                    runTask(task, future);
+                    return false;
+                case DROP_OLDEST:
+                    PendingTask oldest = pendingTasks.poll();
+                    while (oldest != null)
+                    {
+                        if (oldest.start())
+                        {
+                            // the permit of the dropped task gets reused for the new one
+                            queueDepth.decrementAndGet();
+                            dropped.incrementAndGet();
+                            oldest.future.completeExceptionally(
+                                new RejectedExecutionException("Asynchronous event got dropped because of too many pending events"));
+                            return true;
+                        }
+                        oldest = pendingTasks.poll();
+                    }
+                    reject(future, "Too many pending asynchronous events, maximum is " + maxPending);
+                    return false;
+                default:
+                    reject(future, "Too many pending asynchronous events, maximum is " + maxPending);
+                    return false;
+            }
+        }
+
+        private void reject(CompletableFuture<?> future, String message)
+        {
+            rejected.incrementAndGet();
+            future.completeExceptionally(new RejectedExecutionException(message));
+        }
+
+        private static void runTask(Runnable task, CompletableFuture<?> future)
+        {
+            try
+            {
+                task.run();
+            }
+            catch (RuntimeException e)
+            {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private final class PendingTask implements Runnable
+        {
+            private final Runnable task;
+            private final CompletableFuture<?> future;
+            private final AtomicBoolean started = new AtomicBoolean();
+
+            private PendingTask(Runnable task, CompletableFuture<?> future)
+            {
+                this.task = task;
+                this.future = future;
+            }
+
+            private boolean start()
+            {
+                return started.compareAndSet(false, true);
+            }
+
+            private boolean isStarted()
+            {
+                return started.get();
+            }
+
+            @Override
+            public void run()
+            {
+                if (!start())
+                {
+                    // got dropped
+                    return;
+                }
+                queueDepth.decrementAndGet();
+                Boolean outerInvocation = runningInvocation.get();
+                runningInvocation.set(Boolean.TRUE);
+                try
+                {
+                    runTask(task, future);
+                }
+                finally
+                {
+                    permits.release();
+                    if (outerInvocation == null)
+                    {
+                        runningInvocation.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class ChannelKey
+    {
+        private final Class<?> eventClass;
+        private final int qualifiersId;
+
+        private ChannelKey(Class<?> eventClass, int qualifiersId)
+        {
+            this.eventClass = eventClass;
+            this.qualifiersId = qualifiersId;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof ChannelKey))
+            {
+                return false;
+            }
+            ChannelKey that = (ChannelKey) o;
+            return qualifiersId == that.qualifiersId && eventClass == that.eventClass;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * eventClass.hashCode() + qualifiersId;
+        }
+    }
+}
@@ -71,6 +71,12 @@ public class ContainerEventObserverMethodImpl<T> extends ObserverMethodImpl<T>
         // all fine
     }
 
+    @Override
+    protected void invokeWithEvent(Object object, Object event) throws IllegalAccessException, InvocationTargetException
+    {
+        invoke(object, new Object[]{event});
+    }
+
     @Override
     protected void invoke(Object object, Object[] args) throws IllegalAccessException, InvocationTargetException
     {
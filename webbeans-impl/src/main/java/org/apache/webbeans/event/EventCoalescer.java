@@ -0,0 +1,301 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.io.Closeable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jakarta.enterprise.event.NotificationOptions;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+
+/**
+ * Collects the events fired via {@link org.apache.webbeans.spi.api.BatchEvent#fireCoalesced(Object)}
+ * and delivers them as one batch via {@link NotificationManager#fireBatchAsync(java.util.Collection, EventMetadataImpl, NotificationOptions)}.
+ *
+ * Events get collected per event type, qualifiers and notification executor. A batch gets delivered
+ * once {@link OpenWebBeansConfiguration#EVENT_COALESCE_WINDOW} elapsed since its first event
+ * or if it reached {@link OpenWebBeansConfiguration#EVENT_COALESCE_MAX_SIZE} events.
+ * Pending batches get delivered when the container shuts down.
+ *
+ * The {@link EventMetadataImpl} and {@link NotificationOptions} are per batch: the observers of a batch
+ * see the metadata (e.g. the injection point) and the options of the first event which got added to it.
+ */
+public class EventCoalescer implements Closeable
+{
+    private static final AtomicInteger POOL_COUNTER = new AtomicInteger();
+
+    private final WebBeansContext webBeansContext;
+    private final long windowMillis;
+    private final int maxSize;
+
+    private final ConcurrentMap<BufferKey, Buffer> buffers = new ConcurrentHashMap<>();
+    private volatile ScheduledThreadPoolExecutor scheduler;
+
+    // fire() holds the read lock while adding an event, so close() can't miss it when flushing the buffers
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public EventCoalescer(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        windowMillis = Long.parseLong(configuration.getProperty(OpenWebBeansConfiguration.EVENT_COALESCE_WINDOW, "50").trim());
+        maxSize = Integer.parseInt(configuration.getProperty(OpenWebBeansConfiguration.EVENT_COALESCE_MAX_SIZE, "1000").trim());
+    }
+
+    /**
+     * Add the event to the batch of its type and qualifiers.
+     * @return a CompletionStage which completes after the batch got delivered
+     */
+    public <T> CompletionStage<T> fire(T event, EventMetadataImpl metadata, NotificationOptions notificationOptions)
+    {
+        if (event == null)
+        {
+            throw new IllegalArgumentException("The event must not be null");
+        }
+
+        BufferKey key = new BufferKey(metadata.validatedType(), metadata.getQualifiersId(), metadata.getQualifiers(),
+                notificationOptions == null ? null : notificationOptions.getExecutor());
+        CompletableFuture<T> future = new CompletableFuture<>();
+        closeLock.readLock().lock();
+        try
+        {
+            if (closed)
+            {
+                throw new RejectedExecutionException("EventCoalescer is shutdown");
+            }
+
+            Buffer buffer = buffers.get(key);
+            if (buffer == null)
+            {
+                buffer = new Buffer(metadata, notificationOptions);
+                Buffer existing = buffers.putIfAbsent(key, buffer);
+                if (existing != null)
+                {
+                    buffer = existing;
+                }
+            }
+            buffer.add(event, future);
+        }
+        finally
+        {
+            closeLock.readLock().unlock();
+        }
+        return future;
+    }
+
+    @Override
+    public void close()
+    {
+        List<Buffer> pending;
+        closeLock.writeLock().lock();
+        try
+        {
+            closed = true;
+            pending = new ArrayList<>(buffers.values());
+            buffers.clear();
+        }
+        finally
+        {
+            closeLock.writeLock().unlock();
+        }
+
+        for (Buffer buffer : pending)
+        {
+            buffer.flush();
+        }
+
+        ScheduledThreadPoolExecutor executor = scheduler;
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private ScheduledThreadPoolExecutor getScheduler()
+    {
+        ScheduledThreadPoolExecutor executor = scheduler;
+        if (executor == null)
+        {
+            synchronized (this)
+            {
+                executor = scheduler;
+                if (executor == null)
+                {
+                    executor = new ScheduledThreadPoolExecutor(1, r ->
+                    {
+                        Thread thread = new Thread(r, "OwbEventCoalescer-" + POOL_COUNTER.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor.setRemoveOnCancelPolicy(true);
+                    scheduler = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * The pending events of one event type, qualifiers and executor.
+     */
+    private final class Buffer
+    {
+        private final EventMetadataImpl metadata;
+        private final NotificationOptions notificationOptions;
+
+        private List<Object> events = new ArrayList<>();
+        private List<CompletableFuture<Object>> futures = new ArrayList<>();
+        private ScheduledFuture<?> scheduledFlush;
+
+        private Buffer(EventMetadataImpl metadata, NotificationOptions notificationOptions)
+        {
+            this.metadata = metadata;
+            this.notificationOptions = notificationOptions;
+        }
+
+        private void add(Object event, CompletableFuture<?> future)
+        {
+            boolean full;
+            synchronized (this)
+            {
+                events.add(event);
+                futures.add((CompletableFuture<Object>) future);
+                full = events.size() >= maxSize;
+                if (!full && scheduledFlush == null)
+                {
+                    scheduledFlush = getScheduler().schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (full)
+            {
+                flush();
+            }
+        }
+
+        private void flush()
+        {
+            List<Object> batch;
+            List<CompletableFuture<Object>> batchFutures;
+            synchronized (this)
+            {
+                if (events.isEmpty())
+                {
+                    return;
+                }
+                batch = events;
+                batchFutures = futures;
+                events = new ArrayList<>();
+                futures = new ArrayList<>();
+                if (scheduledFlush != null)
+                {
+                    scheduledFlush.cancel(false);
+                    scheduledFlush = null;
+                }
+            }
+
+            CompletionStage<Void> delivery;
+            try
+            {
+                delivery = webBeansContext.getNotificationManager().fireBatchAsync(batch, metadata, notificationOptions);
+            }
+            catch (RuntimeException e)
+            {
+                batchFutures.forEach(f -> f.completeExceptionally(e));
+                return;
+            }
+            delivery.whenComplete((result, error) ->
+            {
+                for (int i = 0; i < batchFutures.size(); i++)
+                {
+                    if (error != null)
+                    {
+                        batchFutures.get(i).completeExceptionally(error);
+                    }
+                    else
+                    {
+                        batchFutures.get(i).complete(batch.get(i));
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class BufferKey
+    {
+        private final Type type;
+        private final int qualifiersId;
+
+        // only compared if the qualifier set has no id
+        private final Set<Annotation> qualifiers;
+
+        // a batch must not run on the executor of another caller
+        private final Executor executor;
+
+        private BufferKey(Type type, int qualifiersId, Set<Annotation> qualifiers, Executor executor)
+        {
+            this.type = type;
+            this.qualifiersId = qualifiersId;
+            this.qualifiers = qualifiersId == NotificationManager.UNCACHED_QUALIFIER_SET_ID ? qualifiers : null;
+            this.executor = executor;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof BufferKey))
+            {
+                return false;
+            }
+            BufferKey that = (BufferKey) o;
+            return qualifiersId == that.qualifiersId && type.equals(that.type) && executor == that.executor
+                    && Objects.equals(qualifiers, that.qualifiers);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * type.hashCode() + qualifiersId;
+        }
+    }
+}
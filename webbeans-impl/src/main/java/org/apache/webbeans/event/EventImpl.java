@@ -22,22 +22,18 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import jakarta.enterprise.event.Event;
 import jakarta.enterprise.event.NotificationOptions;
 import jakarta.enterprise.inject.spi.EventMetadata;
-import jakarta.enterprise.inject.spi.ObserverMethod;
 import jakarta.enterprise.util.TypeLiteral;
 
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.spi.api.BatchEvent;
 import org.apache.webbeans.util.Asserts;
 
 /**
@@ -45,8 +41,9 @@ import org.apache.webbeans.util.Asserts;
  * 
  * @param <T> event type
  * @see Event
+ * @see BatchEvent
  */
-public class EventImpl<T> implements Event<T>, Serializable
+public class EventImpl<T> implements Event<T>, BatchEvent<T>, Serializable
 {
     private static final long serialVersionUID = 393021493190378023L;
 
@@ -54,12 +51,11 @@ public class EventImpl<T> implements Event<T>, Serializable
 
     private transient WebBeansContext webBeansContext;
 
-    // cache for metadata != this.metadata
-    private volatile transient ConcurrentMap<ObserverCacheKey, List<ObserverMethod<? super Object>>> observers;
-    private volatile transient ConcurrentMap<ObserverCacheKey, List<ObserverMethod<? super Object>>> asyncObservers;
-    // cache for metadata == this.metadata (fast path)
-    private volatile transient List<ObserverMethod<? super Object>> defaultMetadataObservers;
-    private volatile transient List<ObserverMethod<? super Object>> defaultMetadataAsyncObservers;
+    // cache for metadata == this.metadata (fast path), all other lookups use the dispatch table of the NotificationManager
+    private volatile transient ObserverDispatch defaultMetadataDispatch;
+
+    // (observer generation << 1) | 1 if an observer might match, 0 if not yet computed
+    private volatile transient int possibleObservers;
 
     /**
      * Creates a new event.
@@ -102,12 +98,22 @@ public class EventImpl<T> implements Event<T>, Serializable
         if (metadata.validatedType() == eventType)
         {
             // already validated so don't recall validEventType()
-            doFireSyncEvent(event, metadata);
+            if (hasPossibleObservers())
+            {
+                doFireSyncEvent(event, metadata);
+            }
         }
         else
         {
             webBeansContext.getWebBeansUtil().validEventType(eventType.getClass(), metadata.getType());
-            doFireSyncEvent(event, metadata.select(eventType));
+            if (hasPossibleObservers())
+            {
+                doFireSyncEvent(event, metadata.select(eventType));
+            }
+            else
+            {
+                checkNoContainerEvent(event);
+            }
         }
     }
 
@@ -121,6 +127,15 @@ public class EventImpl<T> implements Event<T>, Serializable
     public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions notificationOptions)
     {
         Type eventType = event.getClass();
+        if (!hasPossibleObservers())
+        {
+            if (eventType != metadata.validatedType())
+            {
+                webBeansContext.getWebBeansUtil().validEventType(eventType.getClass(), metadata.getType());
+                checkNoContainerEvent(event);
+            }
+            return CompletableFuture.completedFuture(event);
+        }
         if (eventType != metadata.validatedType())
         {
             webBeansContext.getWebBeansUtil().validEventType(eventType.getClass(), metadata.getType());
@@ -130,6 +145,31 @@ public class EventImpl<T> implements Event<T>, Serializable
         return doFireAsyncEvent(event, metadata, notificationOptions);
     }
 
+    @Override
+    public void fireAll(Collection<? extends T> events)
+    {
+        webBeansContext.getNotificationManager().fireBatch(events, metadata);
+    }
+
+    @Override
+    public CompletionStage<Void> fireAllAsync(Collection<? extends T> events)
+    {
+        return fireAllAsync(events, webBeansContext.getNotificationManager().getDefaultNotificationOptions());
+    }
+
+    @Override
+    public CompletionStage<Void> fireAllAsync(Collection<? extends T> events, NotificationOptions notificationOptions)
+    {
+        return webBeansContext.getNotificationManager().fireBatchAsync(events, metadata, notificationOptions);
+    }
+
+    @Override
+    public <U extends T> CompletionStage<U> fireCoalesced(U event)
+    {
+        NotificationManager notificationManager = webBeansContext.getNotificationManager();
+        return notificationManager.getEventCoalescer().fire(event, metadata, notificationManager.getDefaultNotificationOptions());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -170,133 +210,65 @@ public class EventImpl<T> implements Event<T>, Serializable
 
     private void doFireSyncEvent(T event, EventMetadataImpl metadata)
     {
-        final NotificationManager notificationManager = webBeansContext.getNotificationManager();
-        List<ObserverMethod<? super Object>> observerMethods;
-        if (metadata == this.metadata) // no validation of isContainerEventType, already done
-        {
-            if (defaultMetadataObservers == null)
-            {
-                final List<ObserverMethod<? super Object>> tmp = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, false, tmp);
-                this.defaultMetadataObservers = tmp;
-            }
-            observerMethods = defaultMetadataObservers;
-        }
-        else
-        {
-            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
-            {
-                throw new IllegalArgumentException("Firing container events is forbidden");
-            }
-
-            if (observers == null)
-            {
-                synchronized (this)
-                {
-                    if (observers == null)
-                    {
-                        observers = new ConcurrentHashMap<>();
-                    }
-                }
-            }
-            final ObserverCacheKey key = new ObserverCacheKey(
-                    event.getClass(), metadata.validatedType(), metadata.getQualifiers());
-            observerMethods = observers.get(key);
-            if (observerMethods == null)
-            {
-                observerMethods = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, false, observerMethods);
-                this.observers.putIfAbsent(key, observerMethods);
-            }
-        }
-        notificationManager.doFireSync(new EventContextImpl<>(event, metadata), false, observerMethods);
+        webBeansContext.getNotificationManager().doFireSync(
+                new EventContextImpl<>(event, metadata), false, getObserverDispatch(event, metadata).getSyncObservers());
     }
 
     private <U extends T> CompletionStage<U> doFireAsyncEvent(T event, EventMetadataImpl metadata, NotificationOptions options)
     {
-        final NotificationManager notificationManager = webBeansContext.getNotificationManager();
-        List<ObserverMethod<? super Object>> observerMethods;
+        return webBeansContext.getNotificationManager().doFireAsync(
+                new EventContextImpl<>(event, metadata), false, options, getObserverDispatch(event, metadata).getAsyncObservers());
+    }
+
+    private ObserverDispatch getObserverDispatch(T event, EventMetadataImpl metadata)
+    {
         if (metadata == this.metadata) // no validation of isContainerEventType, already done
         {
-            if (defaultMetadataAsyncObservers == null)
+            ObserverDispatch dispatch = defaultMetadataDispatch;
+            if (dispatch == null)
             {
-                final List<ObserverMethod<? super Object>> tmp = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, true, tmp);
-                this.defaultMetadataAsyncObservers = tmp;
+                dispatch = webBeansContext.getNotificationManager().getObserverDispatch(event, metadata);
+                defaultMetadataDispatch = dispatch;
             }
-            observerMethods = defaultMetadataAsyncObservers;
+            return dispatch;
         }
-        else
-        {
-            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
-            {
-                throw new IllegalArgumentException("Firing container events is forbidden");
-            }
 
-            if (asyncObservers == null)
-            {
-                synchronized (this)
-                {
-                    if (asyncObservers == null)
-                    {
-                        asyncObservers = new ConcurrentHashMap<>();
-                    }
-                }
-            }
-            final ObserverCacheKey key = new ObserverCacheKey(
-                    event.getClass(), metadata.validatedType(), metadata.getQualifiers());
-            observerMethods = asyncObservers.get(key);
-            if (observerMethods == null)
-            {
-                observerMethods = new ArrayList<>( // faster than LinkedList
-                        notificationManager.resolveObservers(event, metadata, false));
-                notificationManager.prepareObserverListForFire(false, true, observerMethods);
-                this.asyncObservers.putIfAbsent(key, observerMethods);
-            }
-        }
-        return notificationManager.doFireAsync(
-                new EventContextImpl<>(event, metadata), false, options, observerMethods);
+        checkNoContainerEvent(event);
+        return webBeansContext.getNotificationManager().getObserverDispatch(event, metadata);
     }
 
-    private static class ObserverCacheKey
+    private void checkNoContainerEvent(Object event)
     {
-        private final Class<?> clazz;
-        private final Type type;
-        private final Collection<Annotation> qualifiers;
-        private final int hash;
-
-        private ObserverCacheKey(Class<?> clazz, Type type, Collection<Annotation> qualifiers)
+        if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
         {
-            this.clazz = clazz;
-            this.type = type;
-            this.qualifiers = qualifiers;
-            this.hash = Objects.hash(clazz, type, qualifiers);
+            throw new IllegalArgumentException("Firing container events is forbidden");
         }
+    }
 
-        @Override
-        public boolean equals(final Object o)
+    /**
+     * Cheap check whether firing an event through this instance could notify any observer at all.
+     * The result only gets recomputed if observer methods got added in the meantime.
+     */
+    private boolean hasPossibleObservers()
+    {
+        NotificationManager notificationManager = webBeansContext.getNotificationManager();
+        int generation = notificationManager.getObserverGeneration();
+        int state = possibleObservers;
+        if (state >>> 1 == generation)
         {
-            if (this == o)
-            {
-                return true;
-            }
-            if (o == null || getClass() != o.getClass())
-            {
-                return false;
-            }
-            ObserverCacheKey that = ObserverCacheKey.class.cast(o);
-            return Objects.equals(clazz, that.clazz) &&
-                    Objects.equals(type, that.type) &&
-                    Objects.equals(qualifiers, that.qualifiers);
+            return (state & 1) == 1;
         }
 
-        @Override
-        public int hashCode()
+        // observers changed, so the cached dispatch might be outdated as well
+        defaultMetadataDispatch = null;
+        boolean hasObservers = notificationManager.hasPossibleObservers(metadata.validatedType());
+        if (!hasObservers)
         {
-            return hash;
+            // same validation as done if the observer resolution finds no observer
+            EventUtil.checkEventBindings(webBeansContext, metadata.getQualifiers());
+            EventUtil.checkQualifierImplementations(metadata.getQualifiers());
         }
+        possibleObservers = generation << 1 | (hasObservers ? 1 : 0);
+        return hasObservers;
     }
 }
@@ -41,6 +41,7 @@ import jakarta.enterprise.util.TypeLiteral;
 import org.apache.webbeans.annotation.AnyLiteral;
 import org.apache.webbeans.config.OwbParametrizedTypeImpl;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.spi.api.Batched;
 import org.apache.webbeans.util.ArrayUtil;
 
 public class EventMetadataImpl implements EventMetadata, Serializable
@@ -53,6 +54,16 @@ public class EventMetadataImpl implements EventMetadata, Serializable
     private final Set<Annotation> qualifiers;
     private transient WebBeansContext webBeansContext;
 
+    /**
+     * @see NotificationManager#getQualifierSetId(Set)
+     */
+    private transient volatile int qualifiersId;
+
+    /**
+     * @see #getBatchMetadata()
+     */
+    private transient volatile EventMetadataImpl batchMetadata;
+
     public EventMetadataImpl(Type selectType, Type type, InjectionPoint injectionPoint, Annotation[] qualifiers, WebBeansContext context)
     {
         context.getAnnotationManager().checkQualifierConditions(qualifiers);
@@ -126,6 +137,39 @@ public class EventMetadataImpl implements EventMetadata, Serializable
         return qualifiers;
     }
 
+    /**
+     * @return the id of the qualifier set, see {@link NotificationManager#getQualifierSetId(Set)}
+     */
+    public int getQualifiersId()
+    {
+        int id = qualifiersId;
+        if (id == 0)
+        {
+            id = webBeansContext.getNotificationManager().getQualifierSetId(qualifiers);
+            qualifiersId = id;
+        }
+        return id;
+    }
+
+    /**
+     * @return the metadata for delivering a whole batch of events of this type to the
+     *         observer methods of {@code @Batched List<type>}. Resolving it also matches observer methods
+     *         without qualifiers, the NotificationManager only delivers the batch to the ones declaring {@link Batched}.
+     */
+    public EventMetadataImpl getBatchMetadata()
+    {
+        EventMetadataImpl metadata = batchMetadata;
+        if (metadata == null)
+        {
+            Set<Annotation> batchQualifiers = new HashSet<>(qualifiers);
+            batchQualifiers.add(Batched.Literal.INSTANCE);
+            metadata = new EventMetadataImpl(null, new OwbParametrizedTypeImpl(null, List.class, validatedType()), injectionPoint,
+                    batchQualifiers.toArray(new Annotation[batchQualifiers.size()]), webBeansContext);
+            batchMetadata = metadata;
+        }
+        return metadata;
+    }
+
     public EventMetadataImpl select(Annotation... bindings)
     {
         return select(type, bindings);
@@ -142,7 +186,13 @@ public class EventMetadataImpl implements EventMetadata, Serializable
         webBeansContext.getAnnotationManager().checkQualifierConditions(bindings);
         Set<Annotation> newQualifiers = ArrayUtil.asSet(bindings);
         newQualifiers.addAll(qualifiers);
-        return new EventMetadataImpl(type, subtype, injectionPoint, newQualifiers.toArray(new Annotation[newQualifiers.size()]), webBeansContext);
+        EventMetadataImpl selected = new EventMetadataImpl(type, subtype, injectionPoint, newQualifiers.toArray(new Annotation[newQualifiers.size()]), webBeansContext);
+        if (bindings.length == 0)
+        {
+            // same qualifiers, so we can keep the id
+            selected.qualifiersId = qualifiersId;
+        }
+        return selected;
     }
     
     private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException
@@ -23,30 +23,40 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.spi.Context;
 import jakarta.enterprise.event.NotificationOptions;
 import jakarta.enterprise.event.ObserverException;
 import jakarta.enterprise.event.TransactionPhase;
@@ -73,8 +83,12 @@ import jakarta.enterprise.inject.spi.ProcessProducerMethod;
 import jakarta.enterprise.inject.spi.ProcessSyntheticBean;
 import jakarta.enterprise.inject.spi.ProcessSyntheticObserverMethod;
 
+import org.apache.webbeans.annotation.BeforeDestroyedLiteral;
+import org.apache.webbeans.annotation.DestroyedLiteral;
+import org.apache.webbeans.annotation.InitializedLiteral;
 import org.apache.webbeans.component.AbstractOwbBean;
 import org.apache.webbeans.config.OWBLogConst;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
@@ -86,7 +100,9 @@ import org.apache.webbeans.portable.events.generics.GenericBeanEvent;
 import org.apache.webbeans.portable.events.generics.GenericProducerObserverEvent;
 import org.apache.webbeans.portable.events.generics.TwoParametersGenericBeanEvent;
 import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.ObserverMetricsService;
 import org.apache.webbeans.spi.TransactionService;
+import org.apache.webbeans.spi.api.Batched;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ClassUtil;
@@ -99,15 +115,31 @@ import static java.util.stream.Collectors.toMap;
 
 public class NotificationManager
 {
+    /**
+     * Protects the dispatch table from growing endlessly, e.g. if qualifiers with changing values get used
+     */
+    private static final int MAX_DISPATCH_TABLE_SIZE = 4096;
+
+    /**
+     * Returned by {@link #getQualifierSetId(Set)} once {@link #MAX_DISPATCH_TABLE_SIZE} qualifier sets got an id.
+     * Caches keyed by the qualifier set id must not be used for such events.
+     */
+    public static final int UNCACHED_QUALIFIER_SET_ID = -1;
+
+    /**
+     * Default for {@link OpenWebBeansConfiguration#ASYNC_EVENT_MAX_IN_FLIGHT} if virtual threads are used
+     */
+    private static final int DEFAULT_VIRTUAL_MAX_IN_FLIGHT = 1000;
+
     private final Map<Type, Set<ObserverMethod<?>>> observers = new ConcurrentHashMap<>();
     private final WebBeansContext webBeansContext;
 
     private final NotificationOptions defaultNotificationOptions;
 
     /**
-     * Contains information whether certain Initialized and Destroyed events have observer methods.
+     * Contains the observer methods of the Initialized, BeforeDestroyed and Destroyed events.
      */
-    private final ConcurrentMap<Annotation, Boolean> hasContextLifecycleEventObservers
+    private final ConcurrentMap<Annotation, ContextLifecycleObservers> contextLifecycleObservers
         = new ConcurrentHashMap<>();
 
     /**
@@ -116,6 +148,37 @@ public class NotificationManager
     private final ConcurrentHashMap<Class<?>, Set<ObserverMethod<?>>> observersByRawType
         = new ConcurrentHashMap<>();
 
+    /**
+     * Dispatch table for non-lifecycle events.
+     * This map is immutable and gets replaced on each change (copy-on-write),
+     * so a lookup never needs any locking.
+     */
+    private volatile Map<DispatchKey, ObserverDispatch> dispatchTable = Collections.emptyMap();
+
+    /**
+     * Ids for the distinct qualifier sets of events.
+     * This avoids hashing the qualifier annotations on each lookup in the dispatch table.
+     */
+    private final ConcurrentMap<Set<Annotation>, Integer> qualifierSetIds = new ConcurrentHashMap<>();
+    private final AtomicInteger qualifierSetIdSequence = new AtomicInteger();
+
+    /**
+     * Gets incremented whenever the registered observer methods change.
+     * @see #hasPossibleObservers(Type)
+     */
+    private final AtomicInteger observerGeneration = new AtomicInteger(1);
+
+    private volatile EventCoalescer eventCoalescer;
+
+    private final AsyncEventBackpressure asyncEventBackpressure;
+
+    private final PartitionedEventDelivery partitionedEventDelivery;
+
+    /**
+     * {@code null} if {@link OpenWebBeansConfiguration#OBSERVER_METRICS} is disabled
+     */
+    private final ObserverMetricsService observerMetrics;
+
     // this is actually faster than a lambda Comparator.comparingInt(ObserverMethod::getPriority)
     private Comparator<? super ObserverMethod<? super Object>> observerMethodComparator
         = new Comparator<ObserverMethod<? super Object>>()
@@ -146,6 +209,10 @@ public class NotificationManager
     {
         this.webBeansContext = webBeansContext;
         this.defaultNotificationOptions = NotificationOptions.ofExecutor(getDefaultExecutor());
+        this.asyncEventBackpressure = new AsyncEventBackpressure(webBeansContext.getOpenWebBeansConfiguration());
+        this.partitionedEventDelivery = new PartitionedEventDelivery(webBeansContext);
+        this.observerMetrics = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.OBSERVER_METRICS))
+                ? webBeansContext.getService(ObserverMetricsService.class) : null;
     }
 
     private Executor getDefaultExecutor()
@@ -155,7 +222,52 @@ public class NotificationManager
         //
         // logic is: if an Executor is registered as a spi use it, otherwise use JVM default one
         Executor service = webBeansContext.getService(Executor.class);
-        return service != null ? service : new CloseableExecutor();
+        return service != null ? service : createBuiltInExecutor();
+    }
+
+    private Executor createBuiltInExecutor()
+    {
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        String executorType = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR, "commonPool").trim();
+        String maxInFlight = configuration.getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_IN_FLIGHT);
+
+        if ("virtual".equalsIgnoreCase(executorType))
+        {
+            ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null)
+            {
+                return new CloseableExecutor(virtualThreadExecutor,
+                        maxInFlight != null ? Integer.parseInt(maxInFlight.trim()) : DEFAULT_VIRTUAL_MAX_IN_FLIGHT);
+            }
+            WebBeansLoggerFacade.getLogger(NotificationManager.class).warning("Virtual threads are not supported by this JVM, using the common pool for asynchronous events");
+        }
+        else if (!"commonPool".equalsIgnoreCase(executorType))
+        {
+            throw new WebBeansConfigurationException("Unknown value for " + OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR + ": " + executorType);
+        }
+
+        return new CloseableExecutor(null, maxInFlight != null ? Integer.parseInt(maxInFlight.trim()) : 0);
+    }
+
+    /**
+     * We still compile against Java 8, so Executors#newVirtualThreadPerTaskExecutor gets looked up reflectively.
+     * @return the virtual thread per task Executor or {@code null} if the JVM doesn't support virtual threads
+     */
+    private static ExecutorService createVirtualThreadExecutor()
+    {
+        try
+        {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (NoSuchMethodException | IllegalAccessException e)
+        {
+            return null;
+        }
+        catch (InvocationTargetException e)
+        {
+            // e.g. preview feature on Java 19 and 20 not enabled
+            return null;
+        }
     }
 
     /**
@@ -166,7 +278,9 @@ public class NotificationManager
     public void clearCaches()
     {
         observersByRawType.clear();
-        hasContextLifecycleEventObservers.clear();
+        contextLifecycleObservers.clear();
+        dispatchTable = Collections.emptyMap();
+        observerGeneration.incrementAndGet();
 
         processAnnotatedTypeObservers = null;
         processBeanAttributesObservers = null;
@@ -189,22 +303,101 @@ public class NotificationManager
      */
     public boolean hasContextLifecycleObserver(Annotation lifecycleEvent)
     {
-        Boolean hasObserver = hasContextLifecycleEventObservers.get(lifecycleEvent);
-        if (hasObserver == null)
+        return getContextLifecycleObservers(lifecycleEvent).hasObservers;
+    }
+
+    /**
+     * Resolve the observer methods of the context lifecycle events of the built-in scopes upfront,
+     * so starting and ending a request or session doesn't need to look at all the observer methods.
+     * Lifecycle events of custom scopes get resolved on their first usage.
+     */
+    public void initContextLifecycleObservers()
+    {
+        Annotation[] lifecycleEvents =
+        {
+            InitializedLiteral.INSTANCE_APPLICATION_SCOPED, BeforeDestroyedLiteral.INSTANCE_APPLICATION_SCOPED,
+            DestroyedLiteral.INSTANCE_APPLICATION_SCOPED,
+            InitializedLiteral.INSTANCE_SINGLETON_SCOPED, BeforeDestroyedLiteral.INSTANCE_SINGLETON_SCOPED,
+            DestroyedLiteral.INSTANCE_SINGLETON_SCOPED,
+            InitializedLiteral.INSTANCE_SESSION_SCOPED, BeforeDestroyedLiteral.INSTANCE_SESSION_SCOPED,
+            DestroyedLiteral.INSTANCE_SESSION_SCOPED,
+            InitializedLiteral.INSTANCE_CONVERSATION_SCOPED, BeforeDestroyedLiteral.INSTANCE_CONVERSATION_SCOPED,
+            DestroyedLiteral.INSTANCE_CONVERSATION_SCOPED,
+            InitializedLiteral.INSTANCE_REQUEST_SCOPED, BeforeDestroyedLiteral.INSTANCE_REQUEST_SCOPED,
+            DestroyedLiteral.INSTANCE_REQUEST_SCOPED
+        };
+        for (Annotation lifecycleEvent : lifecycleEvents)
+        {
+            getContextLifecycleObservers(lifecycleEvent);
+        }
+    }
+
+    /**
+     * Fire the given &#064;Initialized, &#064;BeforeDestroyed or &#064;Destroyed event, but only IF any observers do exist.
+     */
+    public void fireContextLifecycleEvent(Object payload, Annotation lifecycleEvent)
+    {
+        ContextLifecycleObservers lifecycleObservers = getContextLifecycleObservers(lifecycleEvent);
+        if (lifecycleObservers.hasObservers)
+        {
+            fireContextLifecycleEvent(lifecycleObservers, payload);
+        }
+    }
+
+    /**
+     * Like {@link #fireContextLifecycleEvent(Object, Annotation)} but the payload only gets created
+     * if there are observers for the event.
+     */
+    public void fireContextLifecycleEvent(Supplier<?> payload, Annotation lifecycleEvent)
+    {
+        ContextLifecycleObservers lifecycleObservers = getContextLifecycleObservers(lifecycleEvent);
+        if (lifecycleObservers.hasObservers)
+        {
+            fireContextLifecycleEvent(lifecycleObservers, payload.get());
+        }
+    }
+
+    private void fireContextLifecycleEvent(ContextLifecycleObservers lifecycleObservers, Object payload)
+    {
+        Class<?> payloadClass = payload.getClass();
+        ContextLifecycleDispatch dispatch = lifecycleObservers.dispatches.get(payloadClass);
+        if (dispatch == null)
+        {
+            Type type = payloadClass;
+            if (GenericsUtil.hasTypeParameters(type))
+            {
+                type = GenericsUtil.getParameterizedType(type);
+            }
+            EventMetadataImpl metadata = new EventMetadataImpl(
+                    null, type, null, new Annotation[]{lifecycleObservers.lifecycleEvent}, webBeansContext);
+            dispatch = new ContextLifecycleDispatch(metadata, getObserverDispatch(payload, metadata).getSyncObservers());
+            lifecycleObservers.dispatches.putIfAbsent(payloadClass, dispatch);
+        }
+        fireEvent(payload, dispatch.metadata, null, dispatch.observerMethods);
+    }
+
+    private ContextLifecycleObservers getContextLifecycleObservers(Annotation lifecycleEvent)
+    {
+        ContextLifecycleObservers lifecycleObservers = contextLifecycleObservers.get(lifecycleEvent);
+        if (lifecycleObservers == null)
         {
-            hasObserver = Boolean.FALSE;
+            boolean hasObserver = false;
             for (ObserverMethod<?> observerMethod : getObserverMethods())
             {
                 if (observerMethod.getObservedQualifiers().contains(lifecycleEvent))
                 {
-                    hasObserver = Boolean.TRUE;
+                    hasObserver = true;
                     break;
                 }
             }
-            hasContextLifecycleEventObservers.putIfAbsent(lifecycleEvent, hasObserver);
+            lifecycleObservers = new ContextLifecycleObservers(lifecycleEvent, hasObserver);
+            ContextLifecycleObservers existing = contextLifecycleObservers.putIfAbsent(lifecycleEvent, lifecycleObservers);
+            if (existing != null)
+            {
+                lifecycleObservers = existing;
+            }
         }
-
-        return hasObserver;
+        return lifecycleObservers;
     }
     
     public List<ObserverMethod<?>> getObserverMethods()
@@ -227,6 +420,136 @@ public class NotificationManager
         Set<ObserverMethod<?>> set = observers.computeIfAbsent(observer.getObservedType(), k -> new HashSet<>());
 
         set.add(observer);
+
+        observersByRawType.clear();
+        contextLifecycleObservers.clear();
+        dispatchTable = Collections.emptyMap();
+        observerGeneration.incrementAndGet();
+    }
+
+    /**
+     * @return a number which changes whenever observer methods get added
+     */
+    public int getObserverGeneration()
+    {
+        return observerGeneration.get();
+    }
+
+    /**
+     * Whether any registered observer method might get notified about an event
+     * of the given declared type or one of its subtypes.
+     * Only the raw types get compared and qualifiers are ignored, so this is a cheap
+     * but conservative check: {@code false} means that no observer will ever match
+     * unless further observer methods get added.
+     * Observers of container lifecycle events get ignored, as those events can't get fired by the application.
+     */
+    public boolean hasPossibleObservers(Type declaredEventType)
+    {
+        Class<?> eventClass = ClassUtil.getClass(declaredEventType);
+        if (eventClass == null)
+        {
+            return true;
+        }
+        WebBeansUtil webBeansUtil = webBeansContext.getWebBeansUtil();
+        for (Type observedType : observers.keySet())
+        {
+            Class<?> observedClass = ClassUtil.getClass(observedType);
+            if (observedClass != null && webBeansUtil.isContainerEventType(observedClass))
+            {
+                continue;
+            }
+            if (observedClass == null || isPossiblyAssignable(observedClass, eventClass))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPossiblyAssignable(Class<?> observedClass, Class<?> eventClass)
+    {
+        if (observedClass.isAssignableFrom(eventClass) || eventClass.isAssignableFrom(observedClass))
+        {
+            return true;
+        }
+        if (Modifier.isFinal(observedClass.getModifiers()) || Modifier.isFinal(eventClass.getModifiers()))
+        {
+            return false;
+        }
+        // a subclass of the event type might still implement the observed interface
+        return observedClass.isInterface() || eventClass.isInterface();
+    }
+
+    /**
+     * @return an id which is the same for all equal qualifier sets
+     *         or {@link #UNCACHED_QUALIFIER_SET_ID} if too many different qualifier sets got used,
+     *         e.g. because of qualifiers with changing member values
+     */
+    public int getQualifierSetId(Set<Annotation> qualifiers)
+    {
+        Integer id = qualifierSetIds.get(qualifiers);
+        if (id == null)
+        {
+            if (qualifierSetIds.size() >= MAX_DISPATCH_TABLE_SIZE)
+            {
+                return UNCACHED_QUALIFIER_SET_ID;
+            }
+            Integer newId = qualifierSetIdSequence.incrementAndGet();
+            id = qualifierSetIds.putIfAbsent(qualifiers, newId);
+            if (id == null)
+            {
+                id = newId;
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Resolve the observer methods for the given non-lifecycle event.
+     * The result gets cached in the dispatch table, so firing an event
+     * with a known type only needs a single map lookup.
+     */
+    public ObserverDispatch getObserverDispatch(Object event, EventMetadataImpl metadata)
+    {
+        int qualifiersId = metadata.getQualifiersId();
+        if (qualifiersId == UNCACHED_QUALIFIER_SET_ID)
+        {
+            return resolveObserverDispatch(event, metadata);
+        }
+
+        DispatchKey key = new DispatchKey(event.getClass(), metadata.validatedType(), qualifiersId);
+        ObserverDispatch dispatch = dispatchTable.get(key);
+        if (dispatch == null)
+        {
+            dispatch = resolveObserverDispatch(event, metadata);
+
+            synchronized (this)
+            {
+                Map<DispatchKey, ObserverDispatch> table = dispatchTable;
+                ObserverDispatch existing = table.get(key);
+                if (existing != null)
+                {
+                    return existing;
+                }
+                if (table.size() < MAX_DISPATCH_TABLE_SIZE)
+                {
+                    Map<DispatchKey, ObserverDispatch> newTable = new HashMap<>(table);
+                    newTable.put(key, dispatch);
+                    dispatchTable = Collections.unmodifiableMap(newTable);
+                }
+            }
+        }
+        return dispatch;
+    }
+
+    private ObserverDispatch resolveObserverDispatch(Object event, EventMetadataImpl metadata)
+    {
+        List<ObserverMethod<? super Object>> observerMethods = new ArrayList<>(resolveObservers(event, metadata, false));
+        if (observerMethods.size() > 1)
+        {
+            observerMethods.sort(observerMethodComparator);
+        }
+        return new ObserverDispatch(observerMethods);
     }
 
     public boolean hasProcessAnnotatedTypeObservers()
@@ -921,9 +1244,13 @@ public class NotificationManager
                                             NotificationOptions notificationOptions)
     {
         boolean async = notificationOptions != null;
-        if (!isLifecycleEvent && webBeansContext.getWebBeansUtil().isContainerEventType(event))
+        if (!isLifecycleEvent)
         {
-            throw new IllegalArgumentException("Firing container events is forbidden");
+            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
+            {
+                throw new IllegalArgumentException("Firing container events is forbidden");
+            }
+            return fireEvent(event, metadata, notificationOptions, getObserverDispatch(event, metadata).getObservers(async));
         }
         return doFireEvent(
                 event, metadata, isLifecycleEvent, notificationOptions, async,
@@ -931,6 +1258,29 @@ public class NotificationManager
 
     }
 
+    /**
+     * Fire a non-lifecycle event to the given already prepared observer methods.
+     * @param notificationOptions if {@code null} then this is a synchronous event. Otherwise fireAsync
+     * @param observerMethods the sorted observer methods from the {@link ObserverDispatch}
+     */
+    public <T> CompletionStage<T> fireEvent(Object event, EventMetadataImpl metadata, NotificationOptions notificationOptions,
+                                            List<ObserverMethod<? super Object>> observerMethods)
+    {
+        boolean async = notificationOptions != null;
+        if (observerMethods.isEmpty())
+        {
+            return async ? completedFuture((T) event) : null;
+        }
+
+        EventContextImpl<Object> context = new EventContextImpl<>(event, metadata);
+        if (async)
+        {
+            return doFireAsync(context, false, notificationOptions, observerMethods);
+        }
+        doFireSync(context, false, observerMethods);
+        return null;
+    }
+
     public <T> CompletionStage<T> doFireEvent(Object event, EventMetadataImpl metadata, boolean isLifecycleEvent,
                                               NotificationOptions notificationOptions, boolean async,
                                               List<ObserverMethod<? super Object>> observerMethods)
@@ -958,6 +1308,15 @@ public class NotificationManager
                                               boolean isLifecycleEvent, NotificationOptions notificationOptions,
                                               List<ObserverMethod<? super Object>> observerMethods)
     {
+        if (!isLifecycleEvent && !observerMethods.isEmpty())
+        {
+            Object partitionKey = partitionedEventDelivery.getPartitionKey(context.getEvent());
+            if (partitionKey != null)
+            {
+                return doFirePartitioned(context, partitionKey, notificationOptions, observerMethods);
+            }
+        }
+
         List<CompletableFuture<Void>> completableFutures = new ArrayList<>();
         for (ObserverMethod<? super Object> observer : observerMethods)
         {
@@ -990,6 +1349,57 @@ public class NotificationManager
         return complete(completableFutures, (T) context.getEvent());
     }
 
+    /**
+     * Invoke all the observer methods in a single task on the serial lane of the partition key.
+     * @see PartitionedEventDelivery
+     */
+    private <T> CompletionStage<T> doFirePartitioned(EventContext<?> context, Object partitionKey,
+                                                     NotificationOptions notificationOptions,
+                                                     List<ObserverMethod<? super Object>> observerMethods)
+    {
+        List<CompletableFuture<Void>> completableFutures = new ArrayList<>(observerMethods.size());
+        for (ObserverMethod<? super Object> observer : observerMethods)
+        {
+            TransactionPhase phase = observer.getTransactionPhase();
+            if (phase != null && phase != TransactionPhase.IN_PROGRESS)
+            {
+                throw new WebBeansConfigurationException("Async Observer Methods can only use TransactionPhase.IN_PROGRESS!");
+            }
+            completableFutures.add(new CompletableFuture<>());
+        }
+
+        partitionedEventDelivery.execute(partitionKey, () ->
+        {
+            for (int i = 0; i < observerMethods.size(); i++)
+            {
+                CompletableFuture<Void> future = completableFutures.get(i);
+                try
+                {
+                    runAsync(context, observerMethods.get(i));
+                    future.complete(null);
+                }
+                catch (WebBeansException wbe)
+                {
+                    future.completeExceptionally(wbe.getCause() != null ? wbe.getCause() : wbe);
+                }
+                catch (RuntimeException e)
+                {
+                    future.completeExceptionally(e);
+                }
+            }
+        }, notificationOptions.getExecutor() == null ? defaultNotificationOptions.getExecutor() : notificationOptions.getExecutor());
+
+        return complete(completableFutures, (T) context.getEvent());
+    }
+
+    /**
+     * @return the partitioned delivery of asynchronous events, e.g. to register a partition key function
+     */
+    public PartitionedEventDelivery getPartitionedEventDelivery()
+    {
+        return partitionedEventDelivery;
+    }
+
     public void doFireSync(EventContext<?> context, boolean isLifecycleEvent,
                            List<ObserverMethod<? super Object>> observerMethods)
     {
@@ -1107,12 +1517,224 @@ public class NotificationManager
         return future;
     }
 
+    /**
+     * Fire all the given events synchronously.
+     * Observer methods qualified with {@link org.apache.webbeans.spi.api.Batched} get notified once with the whole batch
+     * after all other observer methods got notified for each single event.
+     * @see org.apache.webbeans.spi.api.BatchEvent#fireAll(Collection)
+     */
+    public void fireBatch(Collection<?> events, EventMetadataImpl metadata)
+    {
+        if (events.isEmpty())
+        {
+            return;
+        }
+        List<Object> batch = toBatch(events);
+
+        Class<?> lastEventClass = null;
+        BatchGroup group = null;
+        for (Object event : batch)
+        {
+            if (event.getClass() != lastEventClass)
+            {
+                lastEventClass = event.getClass();
+                group = createBatchGroup(event, metadata);
+            }
+            List<ObserverMethod<? super Object>> observerMethods = group.dispatch.getSyncObservers();
+            if (!observerMethods.isEmpty())
+            {
+                doFireSync(new EventContextImpl<>(event, group.metadata), false, observerMethods);
+            }
+        }
+
+        EventMetadataImpl batchMetadata = metadata.getBatchMetadata();
+        List<ObserverMethod<? super Object>> batchObservers = onlyBatchObservers(getObserverDispatch(batch, batchMetadata).getSyncObservers());
+        if (!batchObservers.isEmpty())
+        {
+            doFireSync(new EventContextImpl<>(batch, batchMetadata), false, batchObservers);
+        }
+    }
+
+    /**
+     * Observer methods without qualifiers, e.g. {@code @Observes Object}, would match the batch List as well.
+     * Only the ones which explicitly declare {@link Batched} opted in to get the whole batch.
+     */
+    private static List<ObserverMethod<? super Object>> onlyBatchObservers(List<ObserverMethod<? super Object>> observers)
+    {
+        List<ObserverMethod<? super Object>> batchObservers = null;
+        for (ObserverMethod<? super Object> observer : observers)
+        {
+            for (Annotation qualifier : observer.getObservedQualifiers())
+            {
+                if (qualifier.annotationType() == Batched.class)
+                {
+                    if (batchObservers == null)
+                    {
+                        batchObservers = new ArrayList<>(observers.size());
+                    }
+                    batchObservers.add(observer);
+                    break;
+                }
+            }
+        }
+        return batchObservers == null ? Collections.emptyList() : batchObservers;
+    }
+
+    private static List<Object> toBatch(Collection<?> events)
+    {
+        List<Object> batch = new ArrayList<>(events);
+        for (int i = 0; i < batch.size(); i++)
+        {
+            if (batch.get(i) == null)
+            {
+                throw new IllegalArgumentException("Event " + i + " of the batch is null");
+            }
+        }
+        return Collections.unmodifiableList(batch);
+    }
+
+    /**
+     * Fire all the given events asynchronously.
+     * Each asynchronous observer method gets a single executor task for all the events it observes.
+     * @see org.apache.webbeans.spi.api.BatchEvent#fireAllAsync(Collection, NotificationOptions)
+     */
+    public CompletionStage<Void> fireBatchAsync(Collection<?> events, EventMetadataImpl metadata, NotificationOptions notificationOptions)
+    {
+        if (events.isEmpty())
+        {
+            return completedFuture(null);
+        }
+        List<Object> batch = toBatch(events);
+
+        Map<Class<?>, BatchGroup> groups = new LinkedHashMap<>();
+        for (Object event : batch)
+        {
+            BatchGroup group = groups.get(event.getClass());
+            if (group == null)
+            {
+                group = createBatchGroup(event, metadata);
+                groups.put(event.getClass(), group);
+            }
+            if (!group.dispatch.getAsyncObservers().isEmpty())
+            {
+                group.contexts.add(new EventContextImpl<>(event, group.metadata));
+            }
+        }
+
+        List<CompletableFuture<Void>> completableFutures = new ArrayList<>();
+        for (BatchGroup group : groups.values())
+        {
+            for (ObserverMethod<? super Object> observer : group.dispatch.getAsyncObservers())
+            {
+                completableFutures.add(invokeObserverMethodAsync(group.contexts, observer, notificationOptions));
+            }
+        }
+
+        EventMetadataImpl batchMetadata = metadata.getBatchMetadata();
+        List<ObserverMethod<? super Object>> batchObservers = onlyBatchObservers(getObserverDispatch(batch, batchMetadata).getAsyncObservers());
+        if (!batchObservers.isEmpty())
+        {
+            List<EventContext<?>> batchContext = Collections.singletonList(new EventContextImpl<>(batch, batchMetadata));
+            for (ObserverMethod<? super Object> observer : batchObservers)
+            {
+                completableFutures.add(invokeObserverMethodAsync(batchContext, observer, notificationOptions));
+            }
+        }
+
+        return complete(completableFutures, null);
+    }
+
+    /**
+     * @return the EventCoalescer which collects the events for {@link org.apache.webbeans.spi.api.BatchEvent#fireCoalesced(Object)}
+     */
+    public EventCoalescer getEventCoalescer()
+    {
+        EventCoalescer coalescer = eventCoalescer;
+        if (coalescer == null)
+        {
+            synchronized (this)
+            {
+                coalescer = eventCoalescer;
+                if (coalescer == null)
+                {
+                    // registered as manager, so it gets closed on shutdown
+                    coalescer = webBeansContext.get(EventCoalescer.class);
+                    eventCoalescer = coalescer;
+                }
+            }
+        }
+        return coalescer;
+    }
+
+    private BatchGroup createBatchGroup(Object event, EventMetadataImpl metadata)
+    {
+        EventMetadataImpl eventMetadata = metadata;
+        if (event.getClass() != metadata.validatedType())
+        {
+            if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
+            {
+                throw new IllegalArgumentException("Firing container events is forbidden");
+            }
+            webBeansContext.getWebBeansUtil().validEventType(event.getClass(), metadata.getType());
+            eventMetadata = metadata.select(event.getClass());
+        }
+        return new BatchGroup(eventMetadata, getObserverDispatch(event, eventMetadata));
+    }
+
+    private CompletableFuture<Void> invokeObserverMethodAsync(List<? extends EventContext<?>> contexts,
+                                                              ObserverMethod<? super Object> observer,
+                                                              NotificationOptions notificationOptions)
+    {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        executeAsync(contexts.get(0), () -> {
+            final ContextsService contextsService = webBeansContext.getContextsService();
+            boolean requestContextStarted = startAsyncRequestContext(contextsService);
+            CompletionException error = null;
+            try
+            {
+                for (EventContext<?> context : contexts)
+                {
+                    try
+                    {
+                        invokeObserverMethod(context, observer);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        // notify the observer about the remaining events nevertheless
+                        Throwable cause = e instanceof WebBeansException && e.getCause() != null ? e.getCause() : e;
+                        if (error == null)
+                        {
+                            error = new CompletionException(cause);
+                        }
+                        error.addSuppressed(cause);
+                    }
+                }
+            }
+            finally
+            {
+                if (requestContextStarted)
+                {
+                    contextsService.endContext(RequestScoped.class, null);
+                }
+            }
+            if (error != null)
+            {
+                future.completeExceptionally(error);
+            }
+            else
+            {
+                future.complete(null);
+            }
+        }, future, notificationOptions);
+        return future;
+    }
+
     private CompletableFuture invokeObserverMethodAsync(EventContext<?> context,
                                            ObserverMethod<? super Object> observer,
                                            NotificationOptions notificationOptions)
     {
         CompletableFuture<?> future = new CompletableFuture<>();
-        CompletableFuture.runAsync(() -> {
+        executeAsync(context, () -> {
             try
             {
                 runAsync(context, observer);
@@ -1122,28 +1744,89 @@ public class NotificationManager
             {
                 future.completeExceptionally(wbe.getCause());
             }
-        }, notificationOptions.getExecutor() == null ? defaultNotificationOptions.getExecutor() : notificationOptions.getExecutor());
+        }, future, notificationOptions);
         return future;
     }
 
+    private void executeAsync(EventContext<?> context, Runnable task, CompletableFuture<?> future, NotificationOptions notificationOptions)
+    {
+        Executor executor = notificationOptions.getExecutor() == null ? defaultNotificationOptions.getExecutor() : notificationOptions.getExecutor();
+        if (context.getMetadata() instanceof EventMetadataImpl)
+        {
+            asyncEventBackpressure.execute(context.getEvent(), (EventMetadataImpl) context.getMetadata(), task, future, executor);
+        }
+        else
+        {
+            CompletableFuture.runAsync(task, executor);
+        }
+    }
+
+    /**
+     * @return the limits and statistics of the pending asynchronous observer method invocations
+     */
+    public AsyncEventBackpressure getAsyncEventBackpressure()
+    {
+        return asyncEventBackpressure;
+    }
+
     private void runAsync(EventContext<?> context, ObserverMethod<? super Object> observer)
     {
         //X TODO set up threads, requestcontext etc
         final ContextsService contextsService = webBeansContext.getContextsService();
-        contextsService.startContext(RequestScoped.class, null);
+        boolean requestContextStarted = startAsyncRequestContext(contextsService);
         try
         {
             invokeObserverMethod(context, observer);
         }
         finally
         {
-            contextsService.endContext(RequestScoped.class, null);
+            if (requestContextStarted)
+            {
+                contextsService.endContext(RequestScoped.class, null);
+            }
         }
     }
 
+    /**
+     * Start a new request context for an asynchronous observer method,
+     * except if it gets invoked on a thread which already has an active one.
+     * This happens e.g. for {@link AsyncEventBackpressure.OverflowPolicy#CALLER_RUNS}.
+     * @return {@code true} if a new request context got started
+     */
+    private boolean startAsyncRequestContext(ContextsService contextsService)
+    {
+        Context requestContext = contextsService.getCurrentContext(RequestScoped.class, false);
+        if (requestContext != null && requestContext.isActive())
+        {
+            return false;
+        }
+        contextsService.startContext(RequestScoped.class, null);
+        return true;
+    }
+
     private void invokeObserverMethod(EventContext context, ObserverMethod<?> observer)
     {
-        observer.notify(context);
+        if (observerMetrics == null)
+        {
+            observer.notify(context);
+            return;
+        }
+
+        Throwable failure = null;
+        long start = System.nanoTime();
+        try
+        {
+            observer.notify(context);
+        }
+        catch (RuntimeException | Error e)
+        {
+            failure = e;
+            throw e;
+        }
+        finally
+        {
+            observerMetrics.recordInvocation(observer, System.nanoTime() - start, failure);
+        }
     }
 
     /**
@@ -1204,6 +1887,94 @@ public class NotificationManager
                 .collect(toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
 
+    /**
+     * All events of a batch with the same event class.
+     */
+    private static final class BatchGroup
+    {
+        private final EventMetadataImpl metadata;
+        private final ObserverDispatch dispatch;
+        private final List<EventContext<?>> contexts = new ArrayList<>();
+
+        private BatchGroup(EventMetadataImpl metadata, ObserverDispatch dispatch)
+        {
+            this.metadata = metadata;
+            this.dispatch = dispatch;
+        }
+    }
+
+    /**
+     * The resolved observers of a single context lifecycle event.
+     */
+    private static final class ContextLifecycleObservers
+    {
+        private final Annotation lifecycleEvent;
+        private final boolean hasObservers;
+
+        /**
+         * The payload classes are usually just a handful, e.g. the ServletRequest implementation of the container.
+         */
+        private final ConcurrentMap<Class<?>, ContextLifecycleDispatch> dispatches = new ConcurrentHashMap<>();
+
+        private ContextLifecycleObservers(Annotation lifecycleEvent, boolean hasObservers)
+        {
+            this.lifecycleEvent = lifecycleEvent;
+            this.hasObservers = hasObservers;
+        }
+    }
+
+    private static final class ContextLifecycleDispatch
+    {
+        private final EventMetadataImpl metadata;
+        private final List<ObserverMethod<? super Object>> observerMethods;
+
+        private ContextLifecycleDispatch(EventMetadataImpl metadata, List<ObserverMethod<? super Object>> observerMethods)
+        {
+            this.metadata = metadata;
+            this.observerMethods = observerMethods;
+        }
+    }
+
+    /**
+     * Key of the dispatch table.
+     */
+    private static final class DispatchKey
+    {
+        private final Class<?> eventClass;
+        private final Type eventType;
+        private final int qualifiersId;
+        private final int hash;
+
+        private DispatchKey(Class<?> eventClass, Type eventType, int qualifiersId)
+        {
+            this.eventClass = eventClass;
+            this.eventType = eventType;
+            this.qualifiersId = qualifiersId;
+            this.hash = 31 * (31 * eventClass.hashCode() + eventType.hashCode()) + qualifiersId;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof DispatchKey))
+            {
+                return false;
+            }
+            DispatchKey that = (DispatchKey) o;
+            return qualifiersId == that.qualifiersId && eventClass == that.eventClass && eventType.equals(that.eventType);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+    }
+
     // this behaves as a future aggregator, we don't strictly need to represent it but found it more expressive
     private static final class CDICompletionFuture<T> extends CompletableFuture<T>
     {
@@ -1242,25 +2013,48 @@ public class NotificationManager
         }
     }
 
+    /**
+     * Executor used if no Executor SPI got registered.
+     * Runs the tasks either on the {@link ForkJoinPool#commonPool()} or on the given delegate.
+     * Tasks which did not yet start get executed on the closing thread when shutting down.
+     */
     private static final class CloseableExecutor implements Executor, Closeable
     {
-        private final Collection<Runnable> tracker = new CopyOnWriteArrayList<>();
+        private final ExecutorService delegate;
+        private final Semaphore inFlight;
+
+        // lock-free and O(1) in contrast to a CopyOnWriteArrayList
+        private final Set<TrackedTask> tracker = ConcurrentHashMap.newKeySet();
+
+        // tasks which wait for a free inFlight slot, the firing thread never blocks
+        // as an async observer firing another async event would otherwise deadlock once all slots are taken
+        private final Queue<TrackedTask> waiting = new ConcurrentLinkedQueue<>();
         private volatile boolean reject;
 
+        private CloseableExecutor(ExecutorService delegate, int maxInFlight)
+        {
+            this.delegate = delegate;
+            this.inFlight = maxInFlight > 0 ? new Semaphore(maxInFlight) : null;
+        }
+
         @Override
         public void close() throws IOException
         {
             reject = true;
-            tracker.forEach(r -> {
+            tracker.forEach(task -> {
                 try
                 {
-                    r.run();
+                    task.run();
                 }
                 catch (RuntimeException re)
                 {
                     WebBeansLoggerFacade.getLogger(NotificationManager.class).warning(re.getMessage());
                 }
             });
+            if (delegate != null)
+            {
+                delegate.shutdown();
+            }
         }
 
         @Override
@@ -1271,18 +2065,96 @@ public class NotificationManager
                 throw new RejectedExecutionException("CDI executor is shutdown");
             }
 
-            tracker.add(command);
-            ForkJoinPool.commonPool().execute(() ->
+            TrackedTask task = new TrackedTask(command);
+            tracker.add(task);
+            if (inFlight == null)
+            {
+                submit(task);
+                return;
+            }
+
+            waiting.add(task);
+            startWaitingTasks();
+        }
+
+        /**
+         * Starts the waiting tasks as long as there are free inFlight slots.
+         */
+        private void startWaitingTasks()
+        {
+            while (!reject && !waiting.isEmpty() && inFlight.tryAcquire())
             {
+                TrackedTask task = waiting.poll();
+                if (task == null)
+                {
+                    // another thread took it in the meantime
+                    inFlight.release();
+                    continue;
+                }
+                task.holdsSlot = true;
+                submit(task);
+            }
+        }
+
+        private void submit(TrackedTask task)
+        {
+            try
+            {
+                if (delegate != null)
+                {
+                    delegate.execute(task);
+                }
+                else
+                {
+                    ForkJoinPool.commonPool().execute(task);
+                }
+            }
+            catch (RuntimeException re)
+            {
+                task.release();
+                throw re;
+            }
+        }
+
+        private final class TrackedTask implements Runnable
+        {
+            private final Runnable command;
+            private final AtomicBoolean started = new AtomicBoolean();
+
+            // whether the task took one of the inFlight slots, tasks still waiting for one can get run by close()
+            private volatile boolean holdsSlot;
+
+            private TrackedTask(Runnable command)
+            {
+                this.command = command;
+            }
+
+            @Override
+            public void run()
+            {
+                if (!started.compareAndSet(false, true))
+                {
+                    // already got executed during close()
+                    return;
+                }
                 try
                 {
                     command.run();
                 }
                 finally
                 {
-                    tracker.remove(command);
+                    release();
                 }
-            });
+            }
+
+            private void release()
+            {
+                if (tracker.remove(this) && holdsSlot)
+                {
+                    inFlight.release();
+                    startWaitingTasks();
+                }
+            }
         }
     }
 }
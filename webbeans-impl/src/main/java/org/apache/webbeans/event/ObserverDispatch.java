@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.enterprise.inject.spi.ObserverMethod;
+
+/**
+ * Immutable entry of the {@link NotificationManager} dispatch table.
+ * Contains the already sorted synchronous and asynchronous observer methods
+ * for a single combination of event class, event type and qualifiers.
+ */
+public final class ObserverDispatch
+{
+    private final List<ObserverMethod<? super Object>> syncObservers;
+    private final List<ObserverMethod<? super Object>> asyncObservers;
+
+    ObserverDispatch(List<ObserverMethod<? super Object>> sortedObservers)
+    {
+        ArrayList<ObserverMethod<? super Object>> sync = new ArrayList<>(sortedObservers.size());
+        ArrayList<ObserverMethod<? super Object>> async = new ArrayList<>(sortedObservers.size());
+        for (ObserverMethod<? super Object> observerMethod : sortedObservers)
+        {
+            if (observerMethod.isAsync())
+            {
+                async.add(observerMethod);
+            }
+            else
+            {
+                sync.add(observerMethod);
+            }
+        }
+        syncObservers = asImmutableList(sync);
+        asyncObservers = asImmutableList(async);
+    }
+
+    /**
+     * @return the synchronous observer methods ordered by priority
+     */
+    public List<ObserverMethod<? super Object>> getSyncObservers()
+    {
+        return syncObservers;
+    }
+
+    /**
+     * @return the asynchronous observer methods ordered by priority
+     */
+    public List<ObserverMethod<? super Object>> getAsyncObservers()
+    {
+        return asyncObservers;
+    }
+
+    public List<ObserverMethod<? super Object>> getObservers(boolean async)
+    {
+        return async ? asyncObservers : syncObservers;
+    }
+
+    private static List<ObserverMethod<? super Object>> asImmutableList(ArrayList<ObserverMethod<? super Object>> observerMethods)
+    {
+        if (observerMethods.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+        observerMethods.trimToSize();
+        return Collections.unmodifiableList(observerMethods);
+    }
+}
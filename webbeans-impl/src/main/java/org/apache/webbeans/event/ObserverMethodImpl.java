@@ -19,6 +19,9 @@
 package org.apache.webbeans.event;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
@@ -110,6 +113,18 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
 
     private final Method view;
 
+    /**
+     * MethodHandle for the {@link #view} with the generic signature {@code (Object instance, Object event)}
+     * if the event is the only parameter, otherwise {@code (Object instance, Object[] args)}.
+     * {@code null} if the method cannot be unreflected, in that case we fall back to reflection.
+     */
+    private final MethodHandle invoker;
+
+    /**
+     * {@code true} if the event is the only parameter of the observer method
+     */
+    private final boolean eventParameterOnly;
+
     /**Annotated method*/
     private AnnotatedMethod<T> annotatedObserverMethod;
     
@@ -206,6 +221,32 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
         {
             ownerBean.getWebBeansContext().getSecurityService().doPrivilegedSetAccessible(view, true);
         }
+
+        eventParameterOnly = view.getParameterCount() == 1;
+        invoker = createInvoker(view);
+    }
+
+    private static MethodHandle createInvoker(Method method)
+    {
+        try
+        {
+            MethodHandle handle = MethodHandles.lookup().unreflect(method);
+            if (Modifier.isStatic(method.getModifiers()))
+            {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            if (method.getParameterCount() == 1)
+            {
+                return handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+            }
+            return handle.asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(void.class, Object.class, Object[].class));
+        }
+        catch (IllegalAccessException | RuntimeException e)
+        {
+            logger.log(Level.FINE, "Using reflection to invoke observer method " + method, e);
+            return null;
+        }
     }
 
     protected void checkObserverCondition(AnnotatedParameter<T> annotatedObservesParameter)
@@ -275,22 +316,15 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
         List<ObserverParams> methodArgsMap = getMethodArguments(event, metadata);
         
         BeanManagerImpl manager = ownerBean.getWebBeansContext().getBeanManagerImpl();
-        CreationalContextImpl<Object> creationalContext = manager.createCreationalContext(component);
-        if (metadata != null)
-        {
-            creationalContext.putInjectionPoint(metadata.getInjectionPoint());
-            creationalContext.putEventMetadata(metadata);
-        }
+
+        // only needed if the contextual instance of the observer bean gets created
+        CreationalContextImpl<Object> creationalContext = null;
         
         ObserverParams[] obargs = null;
         try
         {
-            Object[] args;
-            if (methodArgsMap == null)
-            {
-                args = new Object[]{event};
-            }
-            else
+            Object[] args = null;
+            if (methodArgsMap != null)
             {
                 args = new Object[methodArgsMap.size()];
                 obargs = new ObserverParams[args.length];
@@ -306,7 +340,7 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
             if (Modifier.isStatic(view.getModifiers()))
             {
                 //Invoke Method
-                view.invoke(null, args);
+                invoke(null, event, args);
             }
             else
             {
@@ -337,6 +371,13 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
 
                 if (object == null)
                 {
+                    creationalContext = manager.createCreationalContext(component);
+                    if (metadata != null)
+                    {
+                        creationalContext.putInjectionPoint(metadata.getInjectionPoint());
+                        creationalContext.putEventMetadata(metadata);
+                    }
+
                     object = context.get(component, creationalContext);
                 }
 
@@ -368,7 +409,7 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
                     }
 
                     //Invoke Method
-                    invoke(object, args);
+                    invoke(object, event, args);
                 }
             }                        
         }
@@ -382,12 +423,15 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
         }
         finally
         {
-            creationalContext.removeEventMetadata();
-            creationalContext.removeInjectionPoint();
-            //Destory bean instance
-            if (component.getScope().equals(Dependent.class) && object != null)
+            if (creationalContext != null)
             {
-                component.destroy(object, creationalContext);
+                creationalContext.removeEventMetadata();
+                creationalContext.removeInjectionPoint();
+                //Destory bean instance
+                if (component.getScope().equals(Dependent.class) && object != null)
+                {
+                    component.destroy(object, creationalContext);
+                }
             }
             
             //Destroy observer method dependent instances
@@ -405,9 +449,71 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
 
     }
 
+    private void invoke(Object object, Object event, Object[] args) throws IllegalAccessException, InvocationTargetException
+    {
+        if (args == null)
+        {
+            invokeWithEvent(object, event);
+        }
+        else
+        {
+            invoke(object, args);
+        }
+    }
+
+    /**
+     * Invoke an observer method which has the event as only parameter.
+     * This avoids creating an argument array for each notification.
+     */
+    protected void invokeWithEvent(Object object, Object event) throws IllegalAccessException, InvocationTargetException
+    {
+        if (invoker == null || !eventParameterOnly)
+        {
+            invoke(object, new Object[]{event});
+            return;
+        }
+        try
+        {
+            invoker.invokeExact(object, event);
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            // only checked exceptions get wrapped, like the reflective invocation does
+            throw new InvocationTargetException(t);
+        }
+    }
+
     protected void invoke(Object object, Object[] args) throws IllegalAccessException, InvocationTargetException
     {
-        view.invoke(object, args);
+        if (invoker == null)
+        {
+            view.invoke(object, args);
+            return;
+        }
+        try
+        {
+            if (eventParameterOnly)
+            {
+                invoker.invokeExact(object, args[0]);
+            }
+            else
+            {
+                invoker.invokeExact(object, args);
+            }
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            // only checked exceptions get wrapped, like the reflective invocation does
+            throw new InvocationTargetException(t);
+        }
     }
 
     /**
@@ -0,0 +1,309 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.exception.WebBeansConfigurationException;
+import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.SecurityService;
+import org.apache.webbeans.spi.api.PartitionKey;
+
+/**
+ * Ordered delivery of asynchronous events with a partition key.
+ *
+ * The partition key gets taken from the {@link PartitionKey} field or method of the event
+ * or from a function registered via {@link #registerPartitionKey(Class, Function)}.
+ * Each key gets mapped to one of a fixed number of serial lanes, similar to the partitions of a Kafka topic.
+ * A lane runs its tasks one after the other, each on the Executor of its event, so different lanes run
+ * in parallel without any global lock.
+ *
+ * The number of lanes gets configured via {@link OpenWebBeansConfiguration#ASYNC_EVENT_PARTITIONS}.
+ */
+public class PartitionedEventDelivery
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(PartitionedEventDelivery.class);
+
+    /**
+     * Maximum number of tasks a lane runs before it gives the thread back to the Executor
+     */
+    private static final int MAX_TASKS_PER_DRAIN = 64;
+
+    private static final Function<Object, Object> NO_PARTITION_KEY = event -> null;
+
+    private final SecurityService securityService;
+    private final Lane[] lanes;
+
+    private final Map<Class<?>, Function<Object, Object>> registeredKeyFunctions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, Function<Object, Object>> keyFunctions = new ConcurrentHashMap<>();
+
+    public PartitionedEventDelivery(WebBeansContext webBeansContext)
+    {
+        securityService = webBeansContext.getSecurityService();
+
+        String partitionsValue = webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.ASYNC_EVENT_PARTITIONS);
+        int partitions = partitionsValue != null ? Integer.parseInt(partitionsValue.trim()) : Runtime.getRuntime().availableProcessors() * 4;
+        if (partitions < 1)
+        {
+            throw new WebBeansConfigurationException(OpenWebBeansConfiguration.ASYNC_EVENT_PARTITIONS + " must be at least 1");
+        }
+        lanes = new Lane[partitions];
+        for (int i = 0; i < partitions; i++)
+        {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * Use the given function to get the partition key of all events which are instances of the given class.
+     * This takes precedence over a {@link PartitionKey} annotation.
+     * If functions got registered for several types of an event, the one of the most specific type gets used.
+     */
+    public <T> void registerPartitionKey(Class<T> eventClass, Function<? super T, ?> keyFunction)
+    {
+        registeredKeyFunctions.put(eventClass, (Function<Object, Object>) keyFunction);
+        keyFunctions.clear();
+    }
+
+    /**
+     * @return the partition key of the event or {@code null} if the event has none
+     */
+    public Object getPartitionKey(Object event)
+    {
+        Function<Object, Object> keyFunction = keyFunctions.get(event.getClass());
+        if (keyFunction == null)
+        {
+            keyFunction = keyFunctions.computeIfAbsent(event.getClass(), this::resolveKeyFunction);
+        }
+        return keyFunction == NO_PARTITION_KEY ? null : keyFunction.apply(event);
+    }
+
+    /**
+     * Run the task after all tasks which got submitted before for the same partition.
+     */
+    public void execute(Object partitionKey, Runnable task, Executor executor)
+    {
+        int hash = partitionKey.hashCode();
+        hash ^= hash >>> 16;
+        lanes[(hash & 0x7fffffff) % lanes.length].execute(task, executor);
+    }
+
+    private Function<Object, Object> resolveKeyFunction(Class<?> eventClass)
+    {
+        if (!registeredKeyFunctions.isEmpty())
+        {
+            // breadth first, thus the closest registered type wins and the superclass before the interfaces
+            Queue<Class<?>> types = new ArrayDeque<>();
+            Set<Class<?>> visited = new HashSet<>();
+            types.add(eventClass);
+            while (!types.isEmpty())
+            {
+                Class<?> type = types.poll();
+                if (!visited.add(type))
+                {
+                    continue;
+                }
+                Function<Object, Object> registered = registeredKeyFunctions.get(type);
+                if (registered != null)
+                {
+                    return registered;
+                }
+                if (type.getSuperclass() != null)
+                {
+                    types.add(type.getSuperclass());
+                }
+                Collections.addAll(types, type.getInterfaces());
+            }
+        }
+
+        for (Class<?> clazz = eventClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass())
+        {
+            for (Field field : securityService.doPrivilegedGetDeclaredFields(clazz))
+            {
+                if (field.isAnnotationPresent(PartitionKey.class) && !Modifier.isStatic(field.getModifiers()))
+                {
+                    securityService.doPrivilegedSetAccessible(field, true);
+                    return createKeyFunction(field, unreflect(() -> MethodHandles.lookup().unreflectGetter(field), field.toString()));
+                }
+            }
+            for (Method method : securityService.doPrivilegedGetDeclaredMethods(clazz))
+            {
+                if (method.isAnnotationPresent(PartitionKey.class))
+                {
+                    if (method.getParameterCount() != 0 || Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class)
+                    {
+                        throw new WebBeansConfigurationException("@PartitionKey method must be a non-static method without parameters: " + method);
+                    }
+                    securityService.doPrivilegedSetAccessible(method, true);
+                    return createKeyFunction(method, unreflect(() -> MethodHandles.lookup().unreflect(method), method.toString()));
+                }
+            }
+        }
+        return NO_PARTITION_KEY;
+    }
+
+    private static Function<Object, Object> createKeyFunction(Object member, MethodHandle handle)
+    {
+        MethodHandle getter = handle.asType(MethodType.methodType(Object.class, Object.class));
+        return event ->
+        {
+            try
+            {
+                return getter.invokeExact(event);
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable t)
+            {
+                throw new WebBeansException("Cannot read the partition key " + member, t);
+            }
+        };
+    }
+
+    private static MethodHandle unreflect(HandleSupplier supplier, String member)
+    {
+        try
+        {
+            return supplier.get();
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new WebBeansConfigurationException("Cannot access the partition key " + member, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface HandleSupplier
+    {
+        MethodHandle get() throws IllegalAccessException;
+    }
+
+    /**
+     * Runs the submitted tasks one after the other.
+     */
+    private static final class Lane
+    {
+        private final Queue<LaneTask> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private void execute(Runnable task, Executor executor)
+        {
+            tasks.add(new LaneTask(task, executor));
+            schedule();
+        }
+
+        /**
+         * Drains the lane on the Executor of the next task, unless it is scheduled already.
+         */
+        private void schedule()
+        {
+            while (!tasks.isEmpty() && scheduled.compareAndSet(false, true))
+            {
+                LaneTask next = tasks.peek();
+                if (next == null)
+                {
+                    // another drain took the tasks meanwhile
+                    scheduled.set(false);
+                    continue;
+                }
+                Executor executor = next.executor;
+                try
+                {
+                    executor.execute(() -> drain(executor));
+                }
+                catch (RejectedExecutionException e)
+                {
+                    // e.g. during shutdown, we must not lose the queued tasks
+                    drain(executor);
+                }
+                return;
+            }
+        }
+
+        private void drain(Executor executor)
+        {
+            try
+            {
+                for (int i = 0; i < MAX_TASKS_PER_DRAIN; i++)
+                {
+                    // only the scheduled drain takes tasks, thus the peeked task is the polled one
+                    LaneTask task = tasks.peek();
+                    if (task == null || task.executor != executor)
+                    {
+                        // a task of another Executor continues on its own Executor
+                        break;
+                    }
+                    tasks.poll();
+                    try
+                    {
+                        task.task.run();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        logger.log(Level.WARNING, "Exception in partitioned asynchronous event delivery", e);
+                    }
+                }
+            }
+            finally
+            {
+                scheduled.set(false);
+            }
+
+            // tasks which got added while we finished, which exceed MAX_TASKS_PER_DRAIN or need another Executor
+            schedule();
+        }
+    }
+
+    private static final class LaneTask
+    {
+        private final Runnable task;
+        private final Executor executor;
+
+        private LaneTask(Runnable task, Executor executor)
+        {
+            this.task = task;
+            this.executor = executor;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.exception;
+
+/**
+ * The name picked for a proxy class got used by a class which OpenWebBeans did not generate for this proxy,
+ * e.g. by another container which defines its proxies in the same ClassLoader.
+ * The proxy has to get generated for another name.
+ */
+public class ProxyClassNameTakenException extends ProxyGenerationException
+{
+    private final String proxyClassName;
+
+    public ProxyClassNameTakenException(String proxyClassName)
+    {
+        super("The proxy class name " + proxyClassName + " is used by another class already");
+        this.proxyClassName = proxyClassName;
+    }
+
+    public String getProxyClassName()
+    {
+        return proxyClassName;
+    }
+}
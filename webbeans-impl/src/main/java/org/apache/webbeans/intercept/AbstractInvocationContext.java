@@ -28,6 +28,7 @@ import java.util.Map;
 import jakarta.inject.Provider;
 import jakarta.interceptor.InvocationContext;
 
+import org.apache.webbeans.proxy.OwbInterceptedSubclass;
 import org.apache.webbeans.util.ExceptionUtil;
 
 public abstract class AbstractInvocationContext<T> implements InvocationContext
@@ -108,9 +109,15 @@ public abstract class AbstractInvocationContext<T> implements InvocationContext
 
     public Object directProceed() throws Exception
     {
+        T instance = target.get();
+        if (instance instanceof OwbInterceptedSubclass)
+        {
+            // the instance itself is intercepted, so we must not dispatch to its overridden method again
+            return ((OwbInterceptedSubclass) instance).owbInvokeSuper(getMethod(), parameters);
+        }
         try
         {
-            return getMethod().invoke(target.get(), parameters);
+            return getMethod().invoke(instance, parameters);
         }
         catch (InvocationTargetException ite)
         {
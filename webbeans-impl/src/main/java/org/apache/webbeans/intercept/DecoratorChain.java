@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.intercept;
+
+import org.apache.webbeans.exception.WebBeansConfigurationException;
+import org.apache.webbeans.spi.SecurityService;
+import org.apache.webbeans.util.ExceptionUtil;
+
+import jakarta.enterprise.inject.spi.Decorator;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The decorator chain of a single business method of a bean.
+ *
+ * For each position in the Decorator list of the bean it holds the position of the next Decorator
+ * which decorates the method and a MethodHandle calling its decorating method, respectively
+ * the decorated method of the bean instance at the end of the chain.
+ * Thus a hop through the chain neither needs Map lookups nor reflection.
+ */
+public final class DecoratorChain
+{
+    private static final MethodType HOP_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+    /**
+     * the position of the next decorating Decorator or -1 for the bean instance, indexed by the position in the chain
+     */
+    private final int[] nextDecorators;
+
+    /**
+     * the MethodHandles of type {@code (Object instance, Object[] parameters)Object}, indexed by the position in the chain
+     */
+    private final MethodHandle[] hops;
+
+    /**
+     * @param decorators all Decorators of the bean
+     * @param decoratingMethods the decorating methods of the Decorators which decorate the method
+     * @param decoratedMethod the method of the bean instance
+     */
+    public DecoratorChain(List<Decorator<?>> decorators, Map<Decorator<?>, Method> decoratingMethods, Method decoratedMethod,
+                          SecurityService securityService)
+    {
+        int size = decorators.size();
+        nextDecorators = new int[size + 1];
+        hops = new MethodHandle[size + 1];
+
+        nextDecorators[size] = -1;
+        hops[size] = createHop(decoratedMethod, securityService);
+        for (int i = size - 1; i >= 0; i--)
+        {
+            Method decoratingMethod = decoratingMethods.get(decorators.get(i));
+            if (decoratingMethod == null)
+            {
+                nextDecorators[i] = nextDecorators[i + 1];
+                hops[i] = hops[i + 1];
+            }
+            else
+            {
+                nextDecorators[i] = i;
+                hops[i] = createHop(decoratingMethod, securityService);
+            }
+        }
+    }
+
+    /**
+     * @return the position of the first Decorator at or after the given position which decorates the method
+     *         or -1 if the bean instance is next
+     */
+    public int getNextDecorator(int position)
+    {
+        return nextDecorators[position];
+    }
+
+    /**
+     * Invokes the next hop of the chain.
+     *
+     * @param position the position in the chain
+     * @param instance the Decorator instance at {@link #getNextDecorator(int)} respectively the bean instance
+     * @param parameters the parameters of the method
+     * @return the return value of the method or {@code null} for void methods
+     */
+    public Object invoke(int position, Object instance, Object[] parameters)
+    {
+        try
+        {
+            return hops[position].invokeExact(instance, parameters);
+        }
+        catch (Throwable t)
+        {
+            return ExceptionUtil.throwAsRuntimeException(t);
+        }
+    }
+
+    private static MethodHandle createHop(Method method, SecurityService securityService)
+    {
+        if (!Modifier.isPublic(method.getModifiers()) || !Modifier.isPublic(method.getDeclaringClass().getModifiers()))
+        {
+            securityService.doPrivilegedSetAccessible(method, true);
+        }
+        try
+        {
+            return MethodHandles.lookup().unreflect(method)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(HOP_TYPE);
+        }
+        catch (IllegalAccessException e)
+        {
+            throw new WebBeansConfigurationException("Cannot access the decorated method " + method, e);
+        }
+    }
+}
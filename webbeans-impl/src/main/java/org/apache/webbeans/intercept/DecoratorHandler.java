@@ -20,6 +20,7 @@ package org.apache.webbeans.intercept;
 
 import org.apache.webbeans.component.OwbBean;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BusinessMethodInterceptorInfo;
 import org.apache.webbeans.portable.AbstractProducer;
@@ -59,6 +60,12 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
     private Object target;
     private String passivationId;
 
+    /**
+     * The Decorator instances by their position in the {@link DecoratorChain}s of the bean
+     * or {@code null} if the decorators got filtered and don't match the chains.
+     */
+    private transient Object[] chainInstances;
+
     public DecoratorHandler(BeanInterceptorInfo interceptorInfo, List<Decorator<?>> decorators, Map<Decorator<?>, ?> instances, int index, Object target, String passivationId)
     {
         this.interceptorInfo = interceptorInfo;
@@ -67,6 +74,7 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
         this.index = index;
         this.target = target;
         this.passivationId = passivationId;
+        chainInstances = createChainInstances();
     }
 
     public DecoratorHandler()
@@ -78,6 +86,14 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
     public Object invoke(Method method, Object[] args)
     {
         BusinessMethodInterceptorInfo methodInterceptorInfo = interceptorInfo.getBusinessMethodsInfo().get(method);
+        DecoratorChain decoratorChain = methodInterceptorInfo.getDecoratorChain();
+        if (decoratorChain != null && chainInstances != null)
+        {
+            // the chain knows the next decorator respectively the instance and calls it via its MethodHandle
+            int next = decoratorChain.getNextDecorator(index);
+            return decoratorChain.invoke(index, next < 0 ? target : chainInstances[next], args);
+        }
+
         LinkedHashMap<Decorator<?>, Method> methodDecorators = methodInterceptorInfo.getMethodDecorators();
         if (methodDecorators != null)
         {
@@ -124,9 +140,29 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
         }
     }
 
+    /**
+     * The positions of the {@link DecoratorChain}s are the ones of all Decorators of the bean,
+     * thus they only can get used if the Decorators didn't get filtered for this instance.
+     */
+    private Object[] createChainInstances()
+    {
+        if (interceptorInfo == null || !decorators.equals(interceptorInfo.getDecorators()))
+        {
+            return null;
+        }
+        Object[] chainInstances = new Object[decorators.size()];
+        for (int i = index; i < chainInstances.length; i++)
+        {
+            chainInstances[i] = instances.get(decorators.get(i));
+        }
+        return chainInstances;
+    }
+
     @Override
     public void writeExternal(ObjectOutput out) throws IOException
     {
+        BeanManagerImpl beanManager = WebBeansContext.getInstance().getBeanManagerImpl();
+
         out.writeInt(index);
         out.writeObject(target);
 
@@ -134,17 +170,17 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
         for (Map.Entry<Decorator<?>, ?> entry : instances.entrySet())
         {
             Decorator<?> key = entry.getKey();
-            serializeDecorator(out, key);
+            serializeDecorator(out, key, beanManager);
             out.writeObject(entry.getValue());
         }
 
         out.writeInt(decorators.size());
         for (Decorator<?> decorator : decorators)
         {
-            serializeDecorator(out, decorator);
+            serializeDecorator(out, decorator, beanManager);
         }
 
-        out.writeUTF(passivationId);
+        out.writeUTF(beanManager.getSerializablePassivationId(passivationId));
     }
 
     Object readResolve() throws ObjectStreamException
@@ -196,15 +232,17 @@ public class DecoratorHandler implements InterceptorHandler, Externalizable
                 interceptorInfo = ((AbstractProducer<?>)producer).getInterceptorInfo();
             }
         }
+        chainInstances = createChainInstances();
     }
 
-    private static void serializeDecorator(ObjectOutput out, Decorator<?> key) throws IOException
+    private static void serializeDecorator(ObjectOutput out, Decorator<?> key, BeanManagerImpl beanManager)
+            throws IOException
     {
         String id = WebBeansUtil.getPassivationId(key);
         if (id == null)
         {
             throw new NotSerializableException(key + " is not serializable");
         }
-        out.writeUTF(id);
+        out.writeUTF(beanManager.getSerializablePassivationId(id));
     }
 }
@@ -22,8 +22,10 @@ import org.apache.webbeans.component.InjectionTargetBean;
 import org.apache.webbeans.component.SelfInterceptorBean;
 import org.apache.webbeans.component.WebBeansType;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.portable.InjectionTargetImpl;
 import org.apache.webbeans.proxy.InterceptorHandler;
+import org.apache.webbeans.proxy.OwbInterceptorProxy;
 import org.apache.webbeans.util.ExceptionUtil;
 import org.apache.webbeans.util.WebBeansUtil;
 
@@ -64,6 +66,12 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
      */
     private T delegate;
 
+    /**
+     * The InterceptorHandler of the outermost Decorator if the bean is decorated.
+     * Methods without Interceptors directly enter the decorator chain through it.
+     */
+    private transient InterceptorHandler decoratorHandler;
+
     /**
      * The passivation if in case this is a
      * {@link jakarta.enterprise.inject.spi.PassivationCapable} bean.
@@ -89,9 +97,24 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
                                      Map<Method, List<Interceptor<?>>> interceptors,
                                      Map<Interceptor<?>, ?> instances,
                                      String beanPassivationId)
+    {
+        this(target, delegate, null, interceptors, instances, beanPassivationId);
+    }
+
+    /**
+     * @param decoratorHandler the InterceptorHandler of the outermost Decorator proxy or {@code null}
+     * @see #DefaultInterceptorHandler(Object, Object, Map, Map, String)
+     */
+    public DefaultInterceptorHandler(T target,
+                                     T delegate,
+                                     InterceptorHandler decoratorHandler,
+                                     Map<Method, List<Interceptor<?>>> interceptors,
+                                     Map<Interceptor<?>, ?> instances,
+                                     String beanPassivationId)
     {
         this.target = target;
         this.delegate = delegate;
+        this.decoratorHandler = decoratorHandler;
         this.instances = instances;
         this.interceptors = interceptors;
         this.beanPassivationId = beanPassivationId;
@@ -128,8 +151,13 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         try
         {
             List<Interceptor<?>> methodInterceptors = interceptors.get(method);
-            if (methodInterceptors == null)
+            if (methodInterceptors == null || methodInterceptors.isEmpty())
             {
+                if (decoratorHandler != null)
+                {
+                    // no need to invoke the outermost Decorator proxy via reflection
+                    return decoratorHandler.invoke(method, parameters);
+                }
                 methodInterceptors = Collections.emptyList();
             }
 
@@ -175,6 +203,8 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     @Override
     public void writeExternal(ObjectOutput out) throws IOException
     {
+        BeanManagerImpl beanManager = WebBeansContext.getInstance().getBeanManagerImpl();
+
         out.writeObject(target);
 
         boolean noDecorator = target == delegate;
@@ -188,7 +218,7 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         for (Map.Entry<Interceptor<?>, ?> entry : instances.entrySet())
         {
             Interceptor<?> key = entry.getKey();
-            if (serializeInterceptor(out, key))
+            if (serializeInterceptor(out, key, beanManager))
             {
                 out.writeObject(entry.getValue());
             }
@@ -206,11 +236,11 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
             out.writeInt(value.size());
             for (Interceptor<?> i : value)
             {
-                serializeInterceptor(out, i);
+                serializeInterceptor(out, i, beanManager);
             }
         }
 
-        out.writeUTF(beanPassivationId);
+        out.writeUTF(beanManager.getSerializablePassivationId(beanPassivationId));
     }
 
     @Override
@@ -228,6 +258,10 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
 
         int instancesSize = in.readInt();
         WebBeansContext webBeansContext = WebBeansContext.getInstance();
+        if (delegate != target && delegate instanceof OwbInterceptorProxy)
+        {
+            decoratorHandler = webBeansContext.getInterceptorDecoratorProxyFactory().getInterceptorHandler((OwbInterceptorProxy) delegate);
+        }
         BeanManager beanManager = webBeansContext.getBeanManagerImpl();
 
         Map<Interceptor<?>, Object> tmpInstances = new HashMap<>();
@@ -278,13 +312,14 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     /**
      * @return false if the interceptor value can be ignored
      */
-    private static boolean serializeInterceptor(ObjectOutput out, Interceptor<?> key) throws IOException
+    private static boolean serializeInterceptor(ObjectOutput out, Interceptor<?> key, BeanManagerImpl beanManager)
+            throws IOException
     {
         if (SelfInterceptorBean.class.isInstance(key))
         {
             String beanName = WebBeansUtil.getPassivationId(key)
                 .replace(WebBeansType.INTERCEPTOR.name(), WebBeansType.MANAGED.name());
-            out.writeUTF(SELF_KEY + beanName);
+            out.writeUTF(SELF_KEY + beanManager.getSerializablePassivationId(beanName));
             return false;
         }
 
@@ -293,7 +328,7 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         {
             throw new NotSerializableException(key + " is not serializable");
         }
-        out.writeUTF(id);
+        out.writeUTF(beanManager.getSerializablePassivationId(id));
         return true;
     }
 
@@ -31,6 +31,7 @@ import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
 import org.apache.webbeans.proxy.InterceptorHandler;
+import org.apache.webbeans.proxy.OwbInterceptedSubclass;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ClassUtil;
@@ -492,6 +493,9 @@ public class InterceptorResolutionService
         if (appliedDecorators.size() > 0)
         {
             methodInterceptorInfo.setMethodDecorators(appliedDecorators);
+
+            methodInterceptorInfo.setDecoratorChain(new DecoratorChain(
+                    decorators, appliedDecorators, annotatedMethod.getJavaMember(), webBeansContext.getSecurityService()));
         }
     }
 
@@ -847,6 +851,7 @@ public class InterceptorResolutionService
         }
 
         T delegate = instance;
+        InterceptorHandler decoratorHandler = null;
         if (interceptorInfo.getDecorators() != null && !isDelegateInjection.apply(creationalContextImpl))
         {
             List<Decorator<?>> decorators = filterDecorators.apply(instance, interceptorInfo.getDecorators());
@@ -858,11 +863,19 @@ public class InterceptorResolutionService
                 creationalContextImpl.putDelegate(delegate);
                 Object decoratorInstance = decorator.create(creationalContext);
                 instances.put(decorator, decoratorInstance);
-                delegate = webBeansContext.getInterceptorDecoratorProxyFactory().createProxyInstance(proxyClass, instance,
-                        new DecoratorHandler(interceptorInfo, decorators, instances, i - 1, instance, passivationId));
+                decoratorHandler = new DecoratorHandler(interceptorInfo, decorators, instances, i - 1, instance, passivationId);
+                delegate = webBeansContext.getInterceptorDecoratorProxyFactory().createProxyInstance(proxyClass, instance, decoratorHandler);
             }
         }
-        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, methodInterceptors, interceptorInstances, passivationId);
+        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, decoratorHandler,
+                methodInterceptors, interceptorInstances, passivationId);
+
+        if (instance instanceof OwbInterceptedSubclass)
+        {
+            // the instance invokes the interceptors itself, no need for a separate proxy
+            webBeansContext.getInterceptedSubclassFactory().setInterceptorHandler((OwbInterceptedSubclass) instance, interceptorHandler);
+            return instance;
+        }
 
         return webBeansContext.getInterceptorDecoratorProxyFactory().createProxyInstance(proxyClass, instance, interceptorHandler);
     }
@@ -1005,6 +1018,7 @@ public class InterceptorResolutionService
         private Interceptor<?>[] ejbInterceptors;
         private Interceptor<?>[] cdiInterceptors;
         private LinkedHashMap<Decorator<?>, Method> methodDecorators;
+        private DecoratorChain decoratorChain;
 
         public BusinessMethodInterceptorInfo()
         {
@@ -1042,6 +1056,20 @@ public class InterceptorResolutionService
             return methodDecorators;
         }
 
+        /**
+         * The {@link DecoratorChain} of the {@link #getMethodDecorators()}
+         * or <code>null</code> if it didn't get resolved.
+         */
+        public DecoratorChain getDecoratorChain()
+        {
+            return decoratorChain;
+        }
+
+        public void setDecoratorChain(DecoratorChain decoratorChain)
+        {
+            this.decoratorChain = decoratorChain;
+        }
+
         public void setCdiInterceptors(List<Interceptor<?>> cdiInterceptors)
         {
             if (cdiInterceptors == null || cdiInterceptors.isEmpty())
@@ -25,11 +25,14 @@ import jakarta.enterprise.inject.spi.Bean;
 import jakarta.enterprise.inject.spi.BeanManager;
 import jakarta.enterprise.inject.spi.PassivationCapable;
 import jakarta.inject.Provider;
+import java.io.IOException;
 import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
 import java.io.ObjectStreamException;
 import java.io.Serializable;
 
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
 
 /**
  * <p>A Provider which handles all NormalScoped proxying.
@@ -71,6 +74,16 @@ public class NormalScopedBeanInterceptorHandler implements Provider, Serializabl
         return getContextualInstance();
     }
 
+    /**
+     * Resolve the Contextual Instance for invoking a method which is marked as
+     * {@link org.apache.webbeans.spi.api.ReadOnly}.
+     * By default this is the same as {@link #get()}.
+     */
+    public Object getReadOnly()
+    {
+        return get();
+    }
+
     public Bean<?> getBean()
     {
         return bean;
@@ -107,6 +120,15 @@ public class NormalScopedBeanInterceptorHandler implements Provider, Serializabl
         return webbeansInstance;
     }
 
+    private void writeObject(ObjectOutputStream out) throws IOException
+    {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("beanPassivationId", beanManager instanceof BeanManagerImpl
+                ? ((BeanManagerImpl) beanManager).getSerializablePassivationId(beanPassivationId)
+                : beanPassivationId);
+        out.writeFields();
+    }
+
     /**
      * The following code gets generated into the proxy:
      *
@@ -18,10 +18,13 @@
  */
 package org.apache.webbeans.intercept;
 
+import jakarta.enterprise.context.spi.Context;
 import jakarta.enterprise.inject.spi.Bean;
 import jakarta.enterprise.inject.spi.BeanManager;
 import java.util.HashMap;
 
+import org.apache.webbeans.context.SessionContext;
+
 
 /**
  * <p>This is a {@link jakarta.inject.Provider} especially
@@ -41,11 +44,20 @@ public class SessionScopedBeanInterceptorHandler extends NormalScopedBeanInterce
      */
     private static ThreadLocal<HashMap<Bean<?>, Object>> cachedInstances = new ThreadLocal<>();
 
+    /**
+     * Cached bean instances for each thread which only got resolved
+     * for invoking {@link org.apache.webbeans.spi.api.ReadOnly} methods.
+     * Those did not mark the instance as dirty in the SessionContext.
+     */
+    private static ThreadLocal<HashMap<Bean<?>, Object>> readOnlyInstances = new ThreadLocal<>();
+
 
     public static void removeThreadLocals()
     {
         cachedInstances.set(null);
         cachedInstances.remove();
+        readOnlyInstances.set(null);
+        readOnlyInstances.remove();
     }
 
     /**
@@ -80,4 +92,48 @@ public class SessionScopedBeanInterceptorHandler extends NormalScopedBeanInterce
         return cachedInstance;
     }
 
+    /**
+     * Resolves the Contextual Instance without marking it dirty
+     * if the SessionContext has dirty tracking enabled.
+     */
+    @Override
+    public Object getReadOnly()
+    {
+        HashMap<Bean<?>, Object> beanMap = cachedInstances.get();
+        if (beanMap != null)
+        {
+            Object cachedInstance = beanMap.get(bean);
+            if (cachedInstance != null)
+            {
+                return cachedInstance;
+            }
+        }
+
+        HashMap<Bean<?>, Object> readOnlyMap = readOnlyInstances.get();
+        if (readOnlyMap == null)
+        {
+            readOnlyMap = new HashMap<>();
+            readOnlyInstances.set(readOnlyMap);
+        }
+
+        Object readOnlyInstance = readOnlyMap.get(bean);
+        if (readOnlyInstance == null)
+        {
+            Context context = getBeanManager().getContext(bean.getScope());
+            if (context instanceof SessionContext)
+            {
+                readOnlyInstance = ((SessionContext) context).getReadOnly(bean);
+            }
+
+            if (readOnlyInstance == null)
+            {
+                // not yet created or a custom Context, so it gets marked dirty anyway
+                return getContextualInstance();
+            }
+            readOnlyMap.put(bean, readOnlyInstance);
+        }
+
+        return readOnlyInstance;
+    }
+
 }
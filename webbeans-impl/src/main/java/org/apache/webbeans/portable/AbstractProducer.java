@@ -18,11 +18,13 @@
  */
 package org.apache.webbeans.portable;
 
+import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import jakarta.decorator.Delegate;
 import jakarta.enterprise.context.spi.Contextual;
@@ -36,9 +38,11 @@ import jakarta.enterprise.inject.spi.PassivationCapable;
 import jakarta.enterprise.inject.spi.Producer;
 
 import org.apache.webbeans.component.BeanManagerBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
+import org.apache.webbeans.proxy.InterceptedSubclassFactory;
 import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.OwbInterceptorProxy;
 
@@ -48,7 +52,13 @@ public abstract class AbstractProducer<T> implements Producer<T>
 {
 
     protected Set<InjectionPoint> injectionPoints;
-    protected Class<? extends T> proxyClass;
+    protected volatile Class<? extends T> proxyClass;
+
+    /**
+     * Generates the {@link #proxyClass} if it got deferred to the parallel proxy generation phase,
+     * {@code null} otherwise.
+     */
+    private volatile Supplier<Class<? extends T>> proxyClassGenerator;
     protected String passivationId;
     protected BeanInterceptorInfo interceptorInfo;
     protected InterceptorDecoratorProxyFactory proxyFactory;
@@ -108,13 +118,72 @@ public abstract class AbstractProducer<T> implements Producer<T>
                     .sorted(comparing(Method::getName).thenComparing(Method::getParameterCount).thenComparing(Method::toGenericString))
                     .toArray(Method[]::new);
 
-            proxyClass = (Class<? extends T>) pf.createProxyClass(bean, classLoader, annotatedType.getJavaClass(), businessMethods, nonInterceptedMethods);
+            Supplier<Class<? extends T>> generator;
+            Constructor<T> subclassConstructor = getInterceptedSubclassConstructor(annotatedType, webBeansContext);
+            InterceptedSubclassFactory isf = webBeansContext.getInterceptedSubclassFactory();
+            if (subclassConstructor != null &&
+                    isf.isSubclassable(classLoader, annotatedType.getJavaClass(), subclassConstructor, businessMethods))
+            {
+                // the instances get created as subclass which invokes the interceptors itself
+                generator = () -> isf.createInterceptedSubclass(classLoader, annotatedType.getJavaClass(), subclassConstructor, businessMethods);
+            }
+            else
+            {
+                generator = () ->
+                        (Class<? extends T>) pf.createProxyClass(bean, classLoader, annotatedType.getJavaClass(), businessMethods, nonInterceptedMethods);
+            }
+            if (isDeferProxyGeneration(webBeansContext))
+            {
+                // gets generated by the BeansDeployer together with the other proxy classes, see #defineProxyClass()
+                proxyClassGenerator = generator;
+            }
+            else
+            {
+                proxyClass = generator.get();
+            }
 
             // now we collect the post-construct and pre-destroy interceptors
 
         }
     }
 
+    /**
+     * Generates the interceptor and decorator proxy class if {@link #defineInterceptorStack} deferred it
+     * to the parallel proxy generation phase. Does nothing otherwise.
+     */
+    public void defineProxyClass()
+    {
+        if (proxyClassGenerator != null)
+        {
+            synchronized (this)
+            {
+                Supplier<Class<? extends T>> generator = proxyClassGenerator;
+                if (generator != null)
+                {
+                    proxyClass = generator.get();
+                    proxyClassGenerator = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the constructor an intercepted subclass has to mirror if the instances of this producer
+     *         can get created as {@link org.apache.webbeans.proxy.OwbInterceptedSubclass},
+     *         {@code null} if they need a separate interceptor proxy
+     */
+    protected Constructor<T> getInterceptedSubclassConstructor(AnnotatedType<T> annotatedType, WebBeansContext webBeansContext)
+    {
+        return null;
+    }
+
+    private boolean isDeferProxyGeneration(WebBeansContext webBeansContext)
+    {
+        return !webBeansContext.getBeanManagerImpl().isAfterDeploymentValidationFired() &&
+                Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration().getProperty(
+                        OpenWebBeansConfiguration.PARALLEL_PROXY_GENERATION));
+    }
+
     @Override
     public Set<InjectionPoint> getInjectionPoints()
     {
@@ -141,6 +210,7 @@ public abstract class AbstractProducer<T> implements Producer<T>
 
         if (hasInterceptorInfo() && !(instance instanceof OwbInterceptorProxy))
         {
+            defineProxyClass();
             instance = creationalContextImpl.getWebBeansContext().getInterceptorResolutionService()
                 .createProxiedInstance(instance, creationalContextImpl, creationalContext,
                         interceptorInfo, proxyClass, methodInterceptors, passivationId, interceptorInstances,
@@ -180,7 +250,7 @@ public abstract class AbstractProducer<T> implements Producer<T>
 
     protected boolean hasInterceptorInfo()
     {
-        return interceptorInfo != null && proxyClass != null;
+        return interceptorInfo != null && (proxyClass != null || proxyClassGenerator != null);
     }
 
     protected boolean isDelegateInjection(CreationalContextImpl<?> cc)
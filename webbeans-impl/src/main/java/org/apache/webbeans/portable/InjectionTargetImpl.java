@@ -19,6 +19,7 @@
 package org.apache.webbeans.portable;
 
 import org.apache.webbeans.config.OWBLogConst;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.exception.WebBeansCreationException;
@@ -32,9 +33,10 @@ import org.apache.webbeans.intercept.InterceptorResolutionService;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
 import org.apache.webbeans.intercept.LifecycleInterceptorInvocationContext;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
-import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
+import org.apache.webbeans.portable.AbstractDecoratorInjectionTarget.AbstractDecoratorInjectableConstructor;
 import org.apache.webbeans.proxy.InterceptorHandler;
 import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.proxy.OwbInterceptedSubclass;
 import org.apache.webbeans.proxy.OwbInterceptorProxy;
 import org.apache.webbeans.proxy.OwbNormalScopeProxy;
 import org.apache.webbeans.spi.ResourceInjectionService;
@@ -51,6 +53,7 @@ import jakarta.enterprise.inject.spi.AnnotatedMethod;
 import jakarta.enterprise.inject.spi.AnnotatedParameter;
 import jakarta.enterprise.inject.spi.AnnotatedType;
 import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.Decorator;
 import jakarta.enterprise.inject.spi.InjectionPoint;
 import jakarta.enterprise.inject.spi.InjectionTarget;
 import jakarta.enterprise.inject.spi.InterceptionType;
@@ -59,12 +62,14 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.interceptor.InvocationContext;
 
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -114,6 +119,11 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
 
     private List<Interceptor<?>> aroundConstructInterceptors;
 
+    /**
+     * The constructor of the {@link OwbInterceptedSubclass} if the instances get created as intercepted subclass.
+     */
+    private volatile Constructor<T> interceptedSubclassConstructor;
+
     public InjectionTargetImpl(AnnotatedType<T> annotatedType, Set<InjectionPoint> injectionPoints, WebBeansContext webBeansContext,
                                List<AnnotatedMethod<?>> postConstructMethods, List<AnnotatedMethod<?>> preDestroyMethods)
     {
@@ -198,9 +208,43 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
     
     protected T newInstance(CreationalContextImpl<T> creationalContext)
     {
+        Constructor<T> subclassConstructor = getSubclassConstructor();
+        if (subclassConstructor != null)
+        {
+            return new AbstractDecoratorInjectableConstructor<>(
+                getConstructor().getJavaMember(), subclassConstructor, this, creationalContext).doInjection();
+        }
         return new InjectableConstructor<>(getConstructor().getJavaMember(), this, creationalContext).doInjection();
     }
 
+    private Constructor<T> getSubclassConstructor()
+    {
+        if (interceptedSubclassConstructor == null)
+        {
+            defineProxyClass();
+            Class<? extends T> clazz = proxyClass;
+            if (clazz == null || !OwbInterceptedSubclass.class.isAssignableFrom(clazz))
+            {
+                return null;
+            }
+            interceptedSubclassConstructor = (Constructor<T>) webBeansContext.getSecurityService().doPrivilegedGetDeclaredConstructors(clazz)[0];
+        }
+        return interceptedSubclassConstructor;
+    }
+
+    @Override
+    protected Constructor<T> getInterceptedSubclassConstructor(AnnotatedType<T> annotatedType, WebBeansContext webBeansContext)
+    {
+        Class<T> beanClass = annotatedType.getJavaClass();
+        if (!Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.INTERCEPTED_SUBCLASS))
+                || Modifier.isAbstract(beanClass.getModifiers()) || Serializable.class.isAssignableFrom(beanClass)
+                || hasDecorators() || hasAroundConstruct())
+        {
+            return null;
+        }
+        return getConstructor().getJavaMember();
+    }
+
     @Override
     public void inject(T instance, CreationalContext<T> context)
     {
@@ -302,9 +346,9 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
         Map<Interceptor<?>, ?> interceptorInstances = null;
         T internalInstance = instance;
 
-        if (getInterceptorInfo() != null && instance instanceof OwbInterceptorProxy)
+        if (getInterceptorInfo() != null && (instance instanceof OwbInterceptorProxy || instance instanceof OwbInterceptedSubclass))
         {
-            InterceptorHandler ih = getProxyFactory().getInterceptorHandler((OwbInterceptorProxy) instance);
+            InterceptorHandler ih = getInterceptorHandler(instance);
             if (ih instanceof DefaultInterceptorHandler)
             {
                 DefaultInterceptorHandler dih = (DefaultInterceptorHandler) ih;
@@ -329,6 +373,15 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
         }
     }
 
+    /**
+     * @return {@code true} if destroying an instance triggers a &#064;PreDestroy method or interceptor
+     */
+    public boolean hasPreDestroy()
+    {
+        return (preDestroyMethods != null && !preDestroyMethods.isEmpty())
+            || (preDestroyInterceptors != null && !preDestroyInterceptors.isEmpty());
+    }
+
     @Override
     public void preDestroy(T instance)
     {
@@ -340,10 +393,9 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
         Map<Interceptor<?>, ?> interceptorInstances = null;
         T internalInstance = instance;
 
-        if (getInterceptorInfo() != null && instance instanceof OwbInterceptorProxy)
+        if (getInterceptorInfo() != null && (instance instanceof OwbInterceptorProxy || instance instanceof OwbInterceptedSubclass))
         {
-            InterceptorDecoratorProxyFactory pf = webBeansContext.getInterceptorDecoratorProxyFactory();
-            InterceptorHandler ih = pf.getInterceptorHandler((OwbInterceptorProxy) instance);
+            InterceptorHandler ih = getInterceptorHandler(instance);
             if (ih instanceof DefaultInterceptorHandler)
             {
                 DefaultInterceptorHandler dih = (DefaultInterceptorHandler) ih;
@@ -368,6 +420,21 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
         }
     }
 
+    private boolean hasDecorators()
+    {
+        List<Decorator<?>> decorators = getInterceptorInfo().getDecorators();
+        return decorators != null && !decorators.isEmpty();
+    }
+
+    private InterceptorHandler getInterceptorHandler(T instance)
+    {
+        if (instance instanceof OwbInterceptedSubclass)
+        {
+            return webBeansContext.getInterceptedSubclassFactory().getInterceptorHandler((OwbInterceptedSubclass) instance);
+        }
+        return webBeansContext.getInterceptorDecoratorProxyFactory().getInterceptorHandler((OwbInterceptorProxy) instance);
+    }
+
     protected AnnotatedConstructor<T> getConstructor()
     {
         if (constructor == null)
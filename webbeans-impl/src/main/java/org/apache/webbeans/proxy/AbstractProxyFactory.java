@@ -23,18 +23,27 @@ import static org.apache.xbean.asm9.ClassReader.SKIP_CODE;
 import static org.apache.xbean.asm9.ClassReader.SKIP_DEBUG;
 import static org.apache.xbean.asm9.ClassReader.SKIP_FRAMES;
 
+import java.io.File;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.exception.ProxyClassNameTakenException;
 import org.apache.webbeans.exception.ProxyGenerationException;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.hash.XxHash64;
+import org.apache.webbeans.service.ClassLoaderProxyService;
+import org.apache.webbeans.service.HiddenClassProxyService;
 import org.apache.webbeans.spi.DefiningClassService;
 import org.apache.webbeans.spi.InstantiatingClassService;
 import org.apache.xbean.asm9.ClassReader;
@@ -72,6 +81,21 @@ public abstract class AbstractProxyFactory
 
     private final int javaVersion;
 
+    /**
+     * {@code null} if {@link OpenWebBeansConfiguration#PROXY_CACHE_DIRECTORY} is not set
+     */
+    private final ProxyClassCache proxyClassCache;
+
+    /**
+     * Monitors guarding the name lookup and definition of the proxies for a given class.
+     * Proxies of different classes can get generated in parallel.
+     */
+    private final ConcurrentMap<Class<?>, Object> proxyClassLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Proxy classes which get reused for all beans with the same proxied class and method sets.
+     */
+    private final ConcurrentMap<SharedProxyKey, Class<?>> sharedProxyClasses = new ConcurrentHashMap<>();
 
     /**
      * The name of the field which stores the passivationID of the Bean this proxy serves.
@@ -99,6 +123,12 @@ public abstract class AbstractProxyFactory
 
         // we have fallbacks bellow to try Unsafe anyways if we can't do otherwise
         unsafe = definingService == null || instantiatingService == null ? new Unsafe() : null;
+
+        String cacheDirectory = webBeansContext.getOpenWebBeansConfiguration()
+                .getProperty(OpenWebBeansConfiguration.PROXY_CACHE_DIRECTORY);
+        proxyClassCache = cacheDirectory != null && !cacheDirectory.trim().isEmpty()
+                ? new ProxyClassCache(new File(cacheDirectory.trim()), getClass(), javaVersion)
+                : null;
     }
 
     private int determineDefaultJavaVersion()
@@ -165,6 +195,85 @@ public abstract class AbstractProxyFactory
         return webBeansContext.getApplicationBoundaryService().getBoundaryClassLoader(beanClass);
     }
 
+    /**
+     * @return {@code true} if the proxy of the given class gets defined in the runtime package
+     *         (same package name and ClassLoader) of the class, thus it can directly call
+     *         the protected and package private methods declared in this package
+     */
+    protected boolean isProxyInSameRuntimePackage(ClassLoader classLoader, Class<?> classToProxy)
+    {
+        if (classToProxy.getSigners() != null || classToProxy.getClassLoader() == null
+                || !fixPreservedPackages(classToProxy.getName()).equals(classToProxy.getName()))
+        {
+            // the proxy gets moved to another package
+            return false;
+        }
+        if (definingService == null)
+        {
+            // Unsafe defines the proxy in the given ClassLoader or via a Lookup on the proxied class
+            return classLoader == classToProxy.getClassLoader();
+        }
+        return definingService instanceof HiddenClassProxyService
+                && ((HiddenClassProxyService) definingService).isHiddenClass(classToProxy.getName());
+    }
+
+    protected boolean isSameRuntimePackage(Class<?> a, Class<?> b)
+    {
+        return a.getClassLoader() == b.getClassLoader() && getPackageName(a).equals(getPackageName(b));
+    }
+
+    private String getPackageName(Class<?> clazz)
+    {
+        String className = clazz.getName();
+        int lastDot = className.lastIndexOf('.');
+        return lastDot < 0 ? "" : className.substring(0, lastDot);
+    }
+
+    /**
+     * @return the monitor to hold while looking up a free proxy class name for the given class and defining the proxy
+     */
+    protected Object getProxyClassLock(Class<?> classToProxy)
+    {
+        return proxyClassLocks.computeIfAbsent(classToProxy, c -> new Object());
+    }
+
+    /**
+     * @param classLoader the ClassLoader the proxy gets defined in
+     * @param proxyClassName the proxy class name without the unique suffix
+     * @param interceptedMethods the intercepted methods of the proxy
+     * @param nonInterceptedMethods the directly delegated methods of the proxy
+     * @param constructor the constructor the proxy mirrors, if any
+     * @return the proxy class which got generated before for the very same methods, {@code null} if there is none
+     */
+    protected <T> Class<T> getSharedProxyClass(ClassLoader classLoader, String proxyClassName,
+                                               Method[] interceptedMethods, Method[] nonInterceptedMethods, Constructor<?> constructor)
+    {
+        return (Class<T>) sharedProxyClasses.get(
+                new SharedProxyKey(classLoader, proxyClassName, methodsHash(interceptedMethods, nonInterceptedMethods), constructor));
+    }
+
+    /**
+     * Makes the given fully initialised proxy class available via {@link #getSharedProxyClass}.
+     */
+    protected void registerSharedProxyClass(ClassLoader classLoader, String proxyClassName,
+                                            Method[] interceptedMethods, Method[] nonInterceptedMethods, Constructor<?> constructor,
+                                            Class<?> proxyClass)
+    {
+        sharedProxyClasses.putIfAbsent(
+                new SharedProxyKey(classLoader, proxyClassName, methodsHash(interceptedMethods, nonInterceptedMethods), constructor),
+                proxyClass);
+    }
+
+    /**
+     * Drops all references to the generated proxy classes, so they can get unloaded
+     * together with their ClassLoader.
+     */
+    public void clear()
+    {
+        sharedProxyClasses.clear();
+        proxyClassLocks.clear();
+    }
+
     /**
      * @return the marker interface which should be used for this proxy.
      */
@@ -249,29 +358,77 @@ public abstract class AbstractProxyFactory
         {
             return proxyClassName + uniqueHash(proxiedMethods, notProxiedMethods);
         }
+        if (definingService instanceof HiddenClassProxyService
+                && ((HiddenClassProxyService) definingService).isHiddenClass(proxyClassName))
+        {
+            // the JVM makes the names of hidden classes unique, no need to probe for a free one
+            return proxyClassName + 0;
+        }
+        if (definingService instanceof ClassLoaderProxyService)
+        {
+            return ((ClassLoaderProxyService) definingService).getUnusedProxyClassName(proxyClassName);
+        }
+        if (definingService == null)
+        {
+            return unsafe.getUnusedProxyClassName(proxyClassName);
+        }
+        // we don't know which names a custom DefiningClassService already used
         return getUnusedProxyClassName(classLoader, proxyClassName);
     }
 
+    /**
+     * Creates a class for an unused name of the given prefix.
+     * Unsafe defines the classes in ClassLoaders which are not owned by OpenWebBeans,
+     * thus if the picked name turns out to be taken the class gets created for the next name
+     * instead of handing out the other class.
+     *
+     * @param createClass creates the class for the given name
+     */
+    protected <T> Class<T> createWithUnusedName(ClassLoader classLoader, String proxyClassNamePrefix,
+                                                Method[] proxiedMethods, Method[] notProxiedMethods,
+                                                Function<String, Class<T>> createClass)
+    {
+        for (int i = 0; i < MAX_CLASSLOAD_TRIES; i++)
+        {
+            String proxyClassName = getUnusedProxyClassName(classLoader, proxyClassNamePrefix, proxiedMethods, notProxiedMethods);
+            try
+            {
+                return createClass.apply(proxyClassName);
+            }
+            catch (ProxyClassNameTakenException e)
+            {
+                // the next try gets the next suffix
+            }
+        }
+
+        throw new WebBeansException("Unable to detect a free proxy class name based on: " + proxyClassNamePrefix);
+    }
+
     protected String uniqueHash(Method[] proxiedMethods, Method[] notProxiedMethods)
     {
         if (useXXhash64)
         {
             // xxhash64 has very low collision so for this kind of has it is safe enough
             // and enables to avoid a big concatenation for names
-            return Long.toString(Math.abs(XxHash64.apply(Stream.concat(
-                    proxiedMethods == null ? Stream.empty() :
-                            Stream.of(proxiedMethods).map(Method::toGenericString).sorted(),
-                    notProxiedMethods == null ? Stream.empty() :
-                            Stream.of(notProxiedMethods)
-                                    .filter(it -> it.getDeclaringClass() != Object.class)
-                                    .map(Method::toGenericString)
-                                    .map(it -> "<NOT>" + it).sorted()
-            ).collect(joining("_")))));
+            return Long.toString(Math.abs(methodsHash(proxiedMethods, notProxiedMethods)));
         }
         // else unsafe - 1 proxy per class max!
         return "0";
     }
 
+    private long methodsHash(Method[] proxiedMethods, Method[] notProxiedMethods)
+    {
+        return XxHash64.apply(Stream.concat(
+                proxiedMethods == null ? Stream.empty() :
+                        Stream.of(proxiedMethods).map(Method::toGenericString).sorted(),
+                notProxiedMethods == null ? Stream.empty() :
+                        Stream.of(notProxiedMethods)
+                                .filter(it -> it.getDeclaringClass() != Object.class)
+                                .map(Method::toGenericString)
+                                .map(it -> "<NOT>" + it).sorted()
+        ).collect(joining("_")));
+    }
+
     protected  <T> String getSignedClassProxyName(final Class<T> classToProxy)
     {
         // avoid java.lang.SecurityException: class's signer information
@@ -330,20 +487,62 @@ public abstract class AbstractProxyFactory
             throws ProxyGenerationException
     {
         String proxyClassFileName = proxyClassName.replace('.', '/');
+        Method[] proxiedMethods = sortOutDuplicateMethods(interceptedMethods);
+        Method[] notProxiedMethods = sortOutDuplicateMethods(nonInterceptedMethods);
+
+        byte[] proxyBytes = null;
+        String cacheKey = null;
+        if (proxyClassCache != null)
+        {
+            cacheKey = proxyClassCache.createKey(
+                    proxyClassName, classToProxy, methodsHash(proxiedMethods, notProxiedMethods), constructor);
+            if (cacheKey != null)
+            {
+                proxyBytes = proxyClassCache.load(proxyClassName, cacheKey);
+            }
+        }
 
-        byte[] proxyBytes = generateProxy(classLoader,
-                classToProxy,
-                proxyClassName,
-                proxyClassFileName,
-                sortOutDuplicateMethods(interceptedMethods),
-                sortOutDuplicateMethods(nonInterceptedMethods),
-                constructor);
+        if (proxyBytes == null)
+        {
+            proxyBytes = generateProxy(classLoader,
+                    classToProxy,
+                    proxyClassName,
+                    proxyClassFileName,
+                    proxiedMethods,
+                    notProxiedMethods,
+                    constructor);
+
+            if (cacheKey != null)
+            {
+                proxyClassCache.store(proxyClassName, cacheKey, proxyBytes);
+            }
+        }
+
+        return defineAndLoad(classLoader, proxyClassName, proxyBytes, classToProxy);
+    }
 
+    /**
+     * Defines a generated class via the configured {@link DefiningClassService} or Unsafe.
+     *
+     * @param classLoader to use for creating the class in
+     * @param className the name of the generated class
+     * @param bytecode the bytecode of the generated class
+     * @param forClass the class the generated class belongs to
+     */
+    protected <T> Class<T> defineAndLoad(ClassLoader classLoader, String className, byte[] bytecode, Class<T> forClass)
+    {
+        Class<T> definedClass;
         if (definingService != null)
         {
-            return definingService.defineAndLoad(proxyClassName, proxyBytes, classToProxy);
+            definedClass = definingService.defineAndLoad(className, bytecode, forClass);
         }
-        return unsafe.defineAndLoadClass(classLoader, proxyClassName, proxyBytes, classToProxy);
+        else
+        {
+            // static names are always generated for the same class, other names might be taken by a foreign class
+            definedClass = unsafe.defineAndLoadClass(classLoader, className, bytecode, forClass, useStaticNames);
+        }
+        webBeansContext.getProxyClassStatistics().register(definedClass, forClass, bytecode.length);
+        return definedClass;
     }
 
     protected <T> T newInstance(final Class<? extends T> proxyClass)
@@ -595,7 +794,7 @@ public abstract class AbstractProxyFactory
         {
             mv.visitInsn(Opcodes.ICONST_5);
         }
-        else if (i > 5 && i <= 255)
+        else if (i > 5 && i <= Byte.MAX_VALUE)
         {
             mv.visitIntInsn(Opcodes.BIPUSH, i);
         }
@@ -811,4 +1010,46 @@ public abstract class AbstractProxyFactory
             this.version = version;
         }
     }
+
+    private static final class SharedProxyKey
+    {
+        private final ClassLoader classLoader;
+        private final String proxyClassName;
+        private final long methodsHash;
+        private final Constructor<?> constructor;
+        private final int hashCode;
+
+        private SharedProxyKey(ClassLoader classLoader, String proxyClassName, long methodsHash, Constructor<?> constructor)
+        {
+            this.classLoader = classLoader;
+            this.proxyClassName = proxyClassName;
+            this.methodsHash = methodsHash;
+            this.constructor = constructor;
+            this.hashCode = 31 * (31 * proxyClassName.hashCode() + Long.hashCode(methodsHash)) + System.identityHashCode(classLoader);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof SharedProxyKey))
+            {
+                return false;
+            }
+            SharedProxyKey other = (SharedProxyKey) o;
+            return classLoader == other.classLoader
+                    && methodsHash == other.methodsHash
+                    && proxyClassName.equals(other.proxyClassName)
+                    && Objects.equals(constructor, other.constructor);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+    }
 }
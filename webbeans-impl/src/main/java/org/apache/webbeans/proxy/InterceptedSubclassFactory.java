@@ -0,0 +1,402 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.exception.ProxyGenerationException;
+import org.apache.webbeans.exception.WebBeansConfigurationException;
+import org.apache.webbeans.util.ExceptionUtil;
+import org.apache.xbean.asm9.ClassWriter;
+import org.apache.xbean.asm9.Label;
+import org.apache.xbean.asm9.MethodVisitor;
+import org.apache.xbean.asm9.Opcodes;
+import org.apache.xbean.asm9.Type;
+
+/**
+ * <p>This factory creates subclasses of intercepted beans which are the bean instance themselves.
+ * In contrast to the proxies of the {@link InterceptorDecoratorProxyFactory} there is no separate
+ * internal instance. Each intercepted method hands over to the {@link InterceptorHandler} and the end
+ * of the interceptor chain invokes the original method via {@link OwbInterceptedSubclass#owbInvokeSuper}.</p>
+ *
+ * <p>As long as no InterceptorHandler is set, e.g. while the constructor runs, all methods
+ * directly invoke the original implementation.</p>
+ */
+public class InterceptedSubclassFactory extends AbstractProxyFactory
+{
+    private static final String SUB_CLASS_NAME_SUFFIX = "$$OwbInterceptSubclass";
+
+    public InterceptedSubclassFactory(WebBeansContext webBeansContext)
+    {
+        super(webBeansContext);
+    }
+
+    @Override
+    protected Class getMarkerInterface()
+    {
+        return OwbInterceptedSubclass.class;
+    }
+
+    /**
+     * @param classLoader the ClassLoader the subclass would get defined in
+     * @param classToProxy the bean class
+     * @param constructor the constructor used to create the bean instances
+     * @param interceptedMethods the intercepted business methods
+     * @return {@code true} if the generated subclass is able to call the given constructor
+     *         and to override all the intercepted methods
+     */
+    public boolean isSubclassable(ClassLoader classLoader, Class<?> classToProxy, Constructor<?> constructor, Method[] interceptedMethods)
+    {
+        int classModifiers = classToProxy.getModifiers();
+        if (classToProxy.isInterface() || Modifier.isAbstract(classModifiers) || Modifier.isFinal(classModifiers)
+                || Modifier.isPrivate(constructor.getModifiers()))
+        {
+            return false;
+        }
+        if (isProxyInSameRuntimePackage(classLoader, classToProxy))
+        {
+            return true;
+        }
+
+        // the subclass lives in another runtime package, so it only sees public and protected members
+        if (!Modifier.isPublic(classModifiers) || !isVisibleFromSubclass(constructor.getModifiers()))
+        {
+            return false;
+        }
+        for (Method interceptedMethod : interceptedMethods)
+        {
+            if (!isVisibleFromSubclass(interceptedMethod.getModifiers()))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isVisibleFromSubclass(int modifiers)
+    {
+        return Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers);
+    }
+
+    /**
+     * @param classLoader to use for creating the class in
+     * @param classToProxy the bean class which gets subclassed
+     * @param constructor the constructor of the bean class the subclass constructor mirrors
+     * @param interceptedMethods the intercepted business methods
+     * @return the intercepted subclass
+     */
+    public <T> Class<T> createInterceptedSubclass(ClassLoader classLoader, Class<T> classToProxy, Constructor<T> constructor,
+                                                 Method[] interceptedMethods)
+            throws ProxyGenerationException
+    {
+        synchronized (getProxyClassLock(classToProxy))
+        {
+            String proxyClassNamePrefix =
+                    (classToProxy.getSigners() != null ? getSignedClassProxyName(classToProxy) : classToProxy.getName()) + SUB_CLASS_NAME_SUFFIX;
+            Class<T> clazz = getSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, null, constructor);
+            if (clazz != null)
+            {
+                return clazz;
+            }
+
+            clazz = createWithUnusedName(classLoader, proxyClassNamePrefix, interceptedMethods, null,
+                    proxyClassName -> createProxyClass(classLoader, proxyClassName, classToProxy, interceptedMethods, null, constructor));
+
+            try
+            {
+                Field interceptedMethodsField = clazz.getDeclaredField(InterceptorDecoratorProxyFactory.FIELD_INTERCEPTED_METHODS);
+                interceptedMethodsField.setAccessible(true);
+                interceptedMethodsField.set(null, interceptedMethods);
+            }
+            catch (Exception e)
+            {
+                throw new ProxyGenerationException(e);
+            }
+
+            registerSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, null, constructor, clazz);
+            return clazz;
+        }
+    }
+
+    /**
+     * Activates the interceptors for the given instance of an intercepted subclass.
+     */
+    public void setInterceptorHandler(OwbInterceptedSubclass instance, InterceptorHandler interceptorHandler)
+    {
+        try
+        {
+            Field invocationHandlerField = instance.getClass().getDeclaredField(InterceptorDecoratorProxyFactory.FIELD_INTERCEPTOR_HANDLER);
+            invocationHandlerField.setAccessible(true);
+            invocationHandlerField.set(instance, interceptorHandler);
+        }
+        catch (IllegalAccessException | NoSuchFieldException e)
+        {
+            throw new ProxyGenerationException(e);
+        }
+    }
+
+    /**
+     * @return the InterceptorHandler of the given instance or {@code null} if not yet set
+     */
+    public InterceptorHandler getInterceptorHandler(OwbInterceptedSubclass instance)
+    {
+        try
+        {
+            Field invocationHandlerField = instance.getClass().getDeclaredField(InterceptorDecoratorProxyFactory.FIELD_INTERCEPTOR_HANDLER);
+            invocationHandlerField.setAccessible(true);
+            return (InterceptorHandler) invocationHandlerField.get(instance);
+        }
+        catch (Exception e)
+        {
+            throw ExceptionUtil.throwAsRuntimeException(e);
+        }
+    }
+
+    @Override
+    protected void createInstanceVariables(ClassWriter cw, Class<?> classToProxy, String classFileName)
+    {
+        // variable #1, the invocation handler
+        cw.visitField(Opcodes.ACC_PRIVATE,
+                InterceptorDecoratorProxyFactory.FIELD_INTERCEPTOR_HANDLER, Type.getDescriptor(InterceptorHandler.class), null, null).visitEnd();
+
+        // variable #2, the Method[] of all intercepted methods.
+        cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC,
+                InterceptorDecoratorProxyFactory.FIELD_INTERCEPTED_METHODS, Type.getDescriptor(Method[].class), null, null).visitEnd();
+    }
+
+    @Override
+    protected void createSerialisation(ClassWriter cw, String proxyClassFileName, Class<?> classToProxy, String classFileName)
+    {
+        // nothing to do, Serializable beans don't get subclassed
+    }
+
+    /**
+     * The subclass has exactly 1 constructor with the same parameters as the given constructor of the bean class.
+     */
+    @Override
+    protected void createConstructor(ClassWriter cw, String proxyClassFileName, Class<?> classToProxy, String classFileName, Constructor<?> constructor)
+            throws ProxyGenerationException
+    {
+        Class<?>[] exceptionTypes = constructor.getExceptionTypes();
+        String[] exceptions = exceptionTypes.length == 0 ? null : new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++)
+        {
+            exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+
+        String descriptor = Type.getConstructorDescriptor(constructor);
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", descriptor, null, exceptions);
+        mv.visitCode();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        int offset = 1;
+        for (Class<?> parameterType : constructor.getParameterTypes())
+        {
+            Type type = Type.getType(parameterType);
+            mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), offset);
+            offset += type.getSize();
+        }
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, classFileName, "<init>", descriptor, false);
+
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    /**
+     * Non intercepted methods simply get inherited.
+     */
+    @Override
+    protected void delegateNonInterceptedMethods(ClassLoader classLoader, ClassWriter cw, String proxyClassFileName, Class<?> classToProxy,
+                                                 Method[] noninterceptedMethods)
+    {
+    }
+
+    @Override
+    protected void delegateInterceptedMethods(ClassLoader classLoader, ClassWriter cw, String proxyClassFileName, Class<?> classToProxy,
+                                              Method[] interceptedMethods)
+            throws ProxyGenerationException
+    {
+        String classFileName = Type.getInternalName(classToProxy);
+        for (int i = 0; i < interceptedMethods.length; i++)
+        {
+            generateInterceptedMethod(cw, interceptedMethods[i], i, classToProxy, classFileName, proxyClassFileName);
+        }
+        generateInvokeSuper(cw, interceptedMethods, classFileName, proxyClassFileName);
+    }
+
+    /**
+     * Generates the bytecode for
+     * <pre>
+     * if (owbIntDecHandler == null)
+     * {
+     *     return super.method(params);
+     * }
+     * return owbIntDecHandler.invoke(owbIntDecMethods[methodIndex], new Object[] { params });
+     * </pre>
+     */
+    private void generateInterceptedMethod(ClassWriter cw, Method method, int methodIndex, Class<?> classToProxy,
+                                           String classFileName, String proxyClassFileName)
+            throws ProxyGenerationException
+    {
+        int modifiers = method.getModifiers();
+        if (Modifier.isFinal(modifiers) || Modifier.isStatic(modifiers))
+        {
+            throw new WebBeansConfigurationException("It's not possible to proxy a final or static method: " + classToProxy.getName() +
+                                                     " " + method.getName());
+        }
+
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        String[] exceptionTypeNames = new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++)
+        {
+            exceptionTypeNames[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+
+        String methodDescriptor = Type.getMethodDescriptor(method);
+        int modifier = modifiers & (Opcodes.ACC_PUBLIC | Opcodes.ACC_PROTECTED | Opcodes.ACC_VARARGS);
+        MethodVisitor mv = cw.visitMethod(modifier, method.getName(), methodDescriptor, null, exceptionTypeNames);
+        mv.visitCode();
+
+        Label intercepted = new Label();
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, proxyClassFileName,
+                InterceptorDecoratorProxyFactory.FIELD_INTERCEPTOR_HANDLER, Type.getDescriptor(InterceptorHandler.class));
+        mv.visitJumpInsn(Opcodes.IFNONNULL, intercepted);
+
+        // no InterceptorHandler set yet, directly invoke the original method
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        int offset = 1;
+        for (Class<?> parameterType : method.getParameterTypes())
+        {
+            Type type = Type.getType(parameterType);
+            mv.visitVarInsn(type.getOpcode(Opcodes.ILOAD), offset);
+            offset += type.getSize();
+        }
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, classFileName, method.getName(), methodDescriptor, false);
+        generateReturn(mv, method);
+
+        mv.visitLabel(intercepted);
+        mv.visitVarInsn(Opcodes.ALOAD, 0);
+        mv.visitFieldInsn(Opcodes.GETFIELD, proxyClassFileName,
+                InterceptorDecoratorProxyFactory.FIELD_INTERCEPTOR_HANDLER, Type.getDescriptor(InterceptorHandler.class));
+        mv.visitFieldInsn(Opcodes.GETSTATIC, proxyClassFileName,
+                InterceptorDecoratorProxyFactory.FIELD_INTERCEPTED_METHODS, Type.getDescriptor(Method[].class));
+        pushIntOntoStack(mv, methodIndex);
+        mv.visitInsn(Opcodes.AALOAD);
+        pushMethodParameterArray(mv, method.getParameterTypes());
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(InterceptorHandler.class), "invoke",
+                "(Ljava/lang/reflect/Method;[Ljava/lang/Object;)Ljava/lang/Object;", true);
+
+        Class<?> returnType = method.getReturnType();
+        if (Void.TYPE.equals(returnType))
+        {
+            mv.visitInsn(Opcodes.POP);
+        }
+        else
+        {
+            mv.visitTypeInsn(Opcodes.CHECKCAST, getCastType(returnType));
+            if (returnType.isPrimitive())
+            {
+                mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, getWrapperType(returnType), getPrimitiveMethod(returnType),
+                        "()" + Type.getDescriptor(returnType), false);
+            }
+        }
+        generateReturn(mv, method);
+
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+
+    /**
+     * Generates {@link OwbInterceptedSubclass#owbInvokeSuper(Method, Object[])} which looks up
+     * the given Method in the static Method[] and invokes the implementation of the superclass.
+     */
+    private void generateInvokeSuper(ClassWriter cw, Method[] interceptedMethods, String classFileName, String proxyClassFileName)
+    {
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "owbInvokeSuper",
+                Type.getMethodDescriptor(Type.getType(Object.class), Type.getType(Method.class), Type.getType(Object[].class)),
+                null, new String[]{Type.getInternalName(Exception.class)});
+        mv.visitCode();
+
+        for (int i = 0; i < interceptedMethods.length; i++)
+        {
+            Method method = interceptedMethods[i];
+
+            Label next = new Label();
+            mv.visitVarInsn(Opcodes.ALOAD, 1);
+            mv.visitFieldInsn(Opcodes.GETSTATIC, proxyClassFileName,
+                    InterceptorDecoratorProxyFactory.FIELD_INTERCEPTED_METHODS, Type.getDescriptor(Method[].class));
+            pushIntOntoStack(mv, i);
+            mv.visitInsn(Opcodes.AALOAD);
+            mv.visitJumpInsn(Opcodes.IF_ACMPNE, next);
+
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++)
+            {
+                mv.visitVarInsn(Opcodes.ALOAD, 2);
+                pushIntOntoStack(mv, j);
+                mv.visitInsn(Opcodes.AALOAD);
+
+                Class<?> parameterType = parameterTypes[j];
+                if (parameterType.isPrimitive())
+                {
+                    String wrapperType = getWrapperType(parameterType);
+                    mv.visitTypeInsn(Opcodes.CHECKCAST, wrapperType);
+                    mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, wrapperType, getPrimitiveMethod(parameterType),
+                            "()" + Type.getDescriptor(parameterType), false);
+                }
+                else if (!Object.class.equals(parameterType))
+                {
+                    mv.visitTypeInsn(Opcodes.CHECKCAST, getCastType(parameterType));
+                }
+            }
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, classFileName, method.getName(), Type.getMethodDescriptor(method), false);
+
+            Class<?> returnType = method.getReturnType();
+            if (Void.TYPE.equals(returnType))
+            {
+                mv.visitInsn(Opcodes.ACONST_NULL);
+            }
+            else if (returnType.isPrimitive())
+            {
+                String wrapperType = getWrapperType(returnType);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, wrapperType, "valueOf",
+                        "(" + Type.getDescriptor(returnType) + ")L" + wrapperType + ";", false);
+            }
+            mv.visitInsn(Opcodes.ARETURN);
+
+            mv.visitLabel(next);
+        }
+
+        // not one of our intercepted methods
+        String exceptionName = Type.getInternalName(IllegalArgumentException.class);
+        mv.visitTypeInsn(Opcodes.NEW, exceptionName);
+        mv.visitInsn(Opcodes.DUP);
+        mv.visitMethodInsn(Opcodes.INVOKESPECIAL, exceptionName, "<init>", "()V", false);
+        mv.visitInsn(Opcodes.ATHROW);
+
+        mv.visitMaxs(-1, -1);
+        mv.visitEnd();
+    }
+}
@@ -172,8 +172,8 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
      * @param <T>
      * @return the proxy class
      */
-    public synchronized <T> Class<T> createProxyClass(Bean<T> bean, ClassLoader classLoader, Class<T> classToProxy,
-                                                      Method[] interceptedMethods, Method[] nonInterceptedMethods)
+    public <T> Class<T> createProxyClass(Bean<T> bean, ClassLoader classLoader, Class<T> classToProxy,
+                                         Method[] interceptedMethods, Method[] nonInterceptedMethods)
             throws ProxyGenerationException
     {
         Class<T> proxyClass = createProxyClass(classLoader, classToProxy, interceptedMethods, nonInterceptedMethods);
@@ -181,8 +181,8 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
         return proxyClass;
     }
 
-    public synchronized <T> Class<T> createProxyClass(InterceptorResolutionService.BeanInterceptorInfo interceptorInfo,
-                                                      AnnotatedType<T> at, ClassLoader classLoader)
+    public <T> Class<T> createProxyClass(InterceptorResolutionService.BeanInterceptorInfo interceptorInfo,
+                                         AnnotatedType<T> at, ClassLoader classLoader)
             throws ProxyGenerationException
     {
         Collection<Method> intercepted = interceptorInfo.getBusinessMethodsInfo().keySet();
@@ -199,26 +199,41 @@ public class InterceptorDecoratorProxyFactory extends AbstractProxyFactory
                                           Method[] interceptedMethods, Method[] nonInterceptedMethods)
             throws ProxyGenerationException
     {
-        String proxyClassName = getUnusedProxyClassName(
-                classLoader,
-                (classToProxy.getSigners() != null ? getSignedClassProxyName(classToProxy) : classToProxy.getName()) + "$$OwbInterceptProxy",
-                interceptedMethods, nonInterceptedMethods);
+        synchronized (getProxyClassLock(classToProxy))
+        {
+            String proxyClassNamePrefix =
+                    (classToProxy.getSigners() != null ? getSignedClassProxyName(classToProxy) : classToProxy.getName()) + "$$OwbInterceptProxy";
+            Class<T> clazz = getSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods, null);
+            if (clazz != null)
+            {
+                return clazz;
+            }
 
+            clazz = createWithUnusedName(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods,
+                    proxyClassName -> createProxyClass(classLoader, proxyClassName, classToProxy, interceptedMethods, nonInterceptedMethods));
 
-        Class<T> clazz = createProxyClass(classLoader, proxyClassName, classToProxy, interceptedMethods, nonInterceptedMethods);
+            try
+            {
+                Field interceptedMethodsField = clazz.getDeclaredField(FIELD_INTERCEPTED_METHODS);
+                interceptedMethodsField.setAccessible(true);
+                interceptedMethodsField.set(null, interceptedMethods);
+            }
+            catch (Exception e)
+            {
+                throw new ProxyGenerationException(e);
+            }
 
-        try
-        {
-            Field interceptedMethodsField = clazz.getDeclaredField(FIELD_INTERCEPTED_METHODS);
-            interceptedMethodsField.setAccessible(true);
-            interceptedMethodsField.set(null, interceptedMethods);
-        }
-        catch (Exception e)
-        {
-            throw new ProxyGenerationException(e);
+            registerSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods, null, clazz);
+            return clazz;
         }
+    }
 
-        return clazz;
+    @Override
+    public void clear()
+    {
+        super.clear();
+        cachedProxyClasses.clear();
+        cachedProxyClassesByAt.clear();
     }
 
     public <T> Class<T> getCachedProxyClass(InterceptorResolutionService.BeanInterceptorInfo interceptorInfo,
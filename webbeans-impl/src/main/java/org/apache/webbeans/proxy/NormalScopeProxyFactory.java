@@ -38,6 +38,7 @@ import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.ProxyGenerationException;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.intercept.NormalScopedBeanInterceptorHandler;
+import org.apache.webbeans.spi.api.ReadOnly;
 import org.apache.webbeans.util.ClassUtil;
 import org.apache.webbeans.util.ExceptionUtil;
 import org.apache.webbeans.util.WebBeansUtil;
@@ -117,39 +118,68 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
 
     public <T> T createNormalScopeProxy(Bean<T> bean)
     {
-        ClassLoader classLoader;
+        ClassLoader classLoader = getProxyClassLoader(bean);
+
+        Class<? extends T> proxyClass = (Class<? extends T>) cachedProxyClasses.get(bean);
+
+        if (proxyClass == null)
+        {
+            proxyClass = createProxyClass(bean, classLoader, getClassToProxy(bean));
+        }
+
+        return createProxyInstance(proxyClass, getInstanceProvider(classLoader, bean));
+    }
+
+    /**
+     * Creates the proxy class for the given normal-scoped bean upfront,
+     * e.g. to avoid generating it on the first invocation of {@link #createNormalScopeProxy(Bean)}.
+     *
+     * @return the cached or freshly generated proxy class
+     */
+    public <T> Class<T> createProxyClass(Bean<T> bean)
+    {
+        Class<T> proxyClass = (Class<T>) cachedProxyClasses.get(bean);
+
+        if (proxyClass == null)
+        {
+            proxyClass = createProxyClass(bean, getProxyClassLoader(bean), getClassToProxy(bean));
+        }
+
+        return proxyClass;
+    }
+
+    public <T> Class<T> getCachedProxyClass(Bean<T> bean)
+    {
+        return (Class<T>) cachedProxyClasses.get(bean);
+    }
+
+    private ClassLoader getProxyClassLoader(Bean<?> bean)
+    {
         if (bean.getBeanClass() != null)
         {
-            classLoader = getProxyClassLoader(bean.getBeanClass());
+            return getProxyClassLoader(bean.getBeanClass());
         }
         else if (OwbBean.class.isInstance(bean) && OwbBean.class.cast(bean).getReturnType() != null)
         {
-            classLoader = getProxyClassLoader(OwbBean.class.cast(bean).getReturnType());
+            return getProxyClassLoader(OwbBean.class.cast(bean).getReturnType());
         }
         else
         {
-            classLoader = WebBeansUtil.getCurrentClassLoader();
+            return WebBeansUtil.getCurrentClassLoader();
         }
+    }
 
-        Class<T> classToProxy;
+    private <T> Class<T> getClassToProxy(Bean<T> bean)
+    {
         if (bean instanceof OwbBean)
         {
-            classToProxy = ((OwbBean<T>) bean).getReturnType();
+            return ((OwbBean<T>) bean).getReturnType();
         }
         else
         {
             // TODO: that might be wrong sometimes
-            classToProxy = (Class<T>) bean.getBeanClass();
-        }
-
-        Class<? extends T> proxyClass = (Class<? extends T>) cachedProxyClasses.get(bean);
-
-        if (proxyClass == null)
-        {
-            proxyClass = createProxyClass(bean, classLoader, classToProxy);
+            return (Class<T>) bean.getBeanClass();
         }
-
-        return createProxyInstance(proxyClass, getInstanceProvider(classLoader, bean));
     }
 
     public Provider getInstanceProvider(ClassLoader classLoader, Bean<?> bean)
@@ -183,14 +213,22 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
         }
     }
 
-    public synchronized <T> Class<T> createProxyClass(Bean<T> bean, ClassLoader classLoader, Class<T> classToProxy)
+    public <T> Class<T> createProxyClass(Bean<T> bean, ClassLoader classLoader, Class<T> classToProxy)
     {
         Class<T> proxyClass = (Class<T>) cachedProxyClasses.get(bean);
 
         if (proxyClass == null)
         {
-            proxyClass = createProxyClass(classLoader, classToProxy);
-            cachedProxyClasses.putIfAbsent(bean, proxyClass);
+            // only beans proxying the same class have to wait for each other
+            synchronized (getProxyClassLock(classToProxy))
+            {
+                proxyClass = (Class<T>) cachedProxyClasses.get(bean);
+                if (proxyClass == null)
+                {
+                    proxyClass = createProxyClass(classLoader, classToProxy);
+                    cachedProxyClasses.put(bean, proxyClass);
+                }
+            }
         }
 
         return proxyClass;
@@ -225,16 +263,19 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
             throws ProxyGenerationException
     {
         Method[] nonInterceptedMethods;
-        Method[] interceptedMethods = null;
+        Method[] interceptedMethods;
         if (classToProxy.isInterface())
         {
             nonInterceptedMethods = classToProxy.getMethods();
+            interceptedMethods = null;
         }
         else
         {
             List<Method> methods = new ArrayList<>();
             List<Method> protectedMethods = new ArrayList<>();
 
+            // a proxy in the runtime package of the proxied class can call its protected methods directly
+            boolean samePackageProxy = isProxyInSameRuntimePackage(classLoader, classToProxy);
 
             for (Method method : ClassUtil.getNonPrivateMethods(classToProxy, true))
             {
@@ -242,7 +283,8 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
                 {
                     continue;
                 }
-                if (Modifier.isProtected(method.getModifiers()))
+                if (Modifier.isProtected(method.getModifiers()) &&
+                        !(samePackageProxy && isSameRuntimePackage(classToProxy, method.getDeclaringClass())))
                 {
                     protectedMethods.add(method);
                 }
@@ -256,27 +298,43 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
             interceptedMethods = protectedMethods.toArray(new Method[protectedMethods.size()]);
         }
 
-        String proxyClassName = getUnusedProxyClassName(
-                classLoader,
-                (classToProxy.getSigners() != null ? getSignedClassProxyName(classToProxy) : classToProxy.getName()) + "$$OwbNormalScopeProxy",
-                interceptedMethods, nonInterceptedMethods);
-
-        Class<T> clazz = createProxyClass(classLoader, proxyClassName, classToProxy, interceptedMethods, nonInterceptedMethods);
-
-        if (interceptedMethods != null && interceptedMethods.length > 0)
+        synchronized (getProxyClassLock(classToProxy))
         {
-            try
+            String proxyClassNamePrefix =
+                    (classToProxy.getSigners() != null ? getSignedClassProxyName(classToProxy) : classToProxy.getName()) + "$$OwbNormalScopeProxy";
+            Class<T> clazz = getSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods, null);
+            if (clazz != null)
             {
-                Field protectedMethodsField = clazz.getDeclaredField(FIELD_PROTECTED_METHODS);
-                protectedMethodsField.setAccessible(true);
-                protectedMethodsField.set(null, interceptedMethods);
+                return clazz;
             }
-            catch (Exception e)
+
+            clazz = createWithUnusedName(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods,
+                    proxyClassName -> createProxyClass(classLoader, proxyClassName, classToProxy, interceptedMethods, nonInterceptedMethods));
+
+            if (interceptedMethods != null && interceptedMethods.length > 0)
             {
-                throw new ProxyGenerationException(e);
+                try
+                {
+                    Field protectedMethodsField = clazz.getDeclaredField(FIELD_PROTECTED_METHODS);
+                    protectedMethodsField.setAccessible(true);
+                    protectedMethodsField.set(null, interceptedMethods);
+                }
+                catch (Exception e)
+                {
+                    throw new ProxyGenerationException(e);
+                }
             }
+
+            registerSharedProxyClass(classLoader, proxyClassNamePrefix, interceptedMethods, nonInterceptedMethods, null, clazz);
+            return clazz;
         }
-        return clazz;
+    }
+
+    @Override
+    public void clear()
+    {
+        super.clear();
+        cachedProxyClasses.clear();
     }
 
     public <T> T createProxyInstance(Class<T> proxyClass, Provider provider)
@@ -353,7 +411,7 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
 
     /**
      * In the NormalScope proxying case this is used for all the protected methods
-     * as they need to get invoked via reflection.
+     * which need to get invoked via reflection, as the proxy is not in their runtime package.
      */
     @Override
     protected void delegateInterceptedMethods(ClassLoader classLoader, ClassWriter cw, String proxyClassFileName,
@@ -406,8 +464,17 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
             mv.visitVarInsn(Opcodes.ALOAD, 0);
             mv.visitFieldInsn(Opcodes.GETFIELD, proxyClassFileName, FIELD_INSTANCE_PROVIDER, Type.getDescriptor(Provider.class));
 
-            // invoke the get() method on the Provider
-            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(Provider.class), "get", "()Ljava/lang/Object;", true);
+            if (delegatedMethod.isAnnotationPresent(ReadOnly.class))
+            {
+                // resolve the instance via NormalScopeProxyFactory.getReadOnlyInstance
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, Type.getInternalName(NormalScopeProxyFactory.class), "getReadOnlyInstance",
+                        "(Ljakarta/inject/Provider;)Ljava/lang/Object;", false);
+            }
+            else
+            {
+                // invoke the get() method on the Provider
+                mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, Type.getInternalName(Provider.class), "get", "()Ljava/lang/Object;", true);
+            }
 
             // and convert the Object to the target class type
             mv.visitTypeInsn(Opcodes.CHECKCAST, Type.getInternalName(classToProxy));
@@ -508,6 +575,22 @@ public class NormalScopeProxyFactory extends AbstractProxyFactory
 
 
 
+    /**
+     * This method get invoked via generated ASM code for all methods
+     * which are annotated with {@link ReadOnly}.
+     * It allows the {@link NormalScopedBeanInterceptorHandler} to resolve the
+     * Contextual Instance without marking it as dirty.
+     */
+    @SuppressWarnings("unused")
+    public static Object getReadOnlyInstance(Provider provider)
+    {
+        if (provider instanceof NormalScopedBeanInterceptorHandler)
+        {
+            return ((NormalScopedBeanInterceptorHandler) provider).getReadOnly();
+        }
+        return provider.get();
+    }
+
     /**
      * This method get invoked via generated ASM code.
      * It delegates to the underlying protected Method so we don't need to do
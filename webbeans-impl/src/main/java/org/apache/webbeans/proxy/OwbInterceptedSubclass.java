@@ -0,0 +1,38 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.lang.reflect.Method;
+
+/**
+ * Interface for all OpenWebBeans intercepted subclasses.
+ * Such a subclass is the bean instance itself and invokes the interceptors
+ * before it finally calls the original method of its superclass.
+ *
+ * @see InterceptedSubclassFactory
+ */
+public interface OwbInterceptedSubclass
+{
+    /**
+     * Invokes the implementation of the superclass for the given intercepted method
+     * without triggering the interceptors again.
+     * This gets used at the end of the interceptor chain.
+     */
+    Object owbInvokeSuper(Method method, Object[] parameters) throws Exception;
+}
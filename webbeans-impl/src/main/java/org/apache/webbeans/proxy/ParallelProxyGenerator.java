@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.component.ManagedBean;
+import org.apache.webbeans.component.OwbBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.portable.AbstractProducer;
+import org.apache.webbeans.util.ExceptionUtil;
+
+/**
+ * Generates the proxy classes of all beans in parallel once the deployment got validated.
+ *
+ * The interceptor and decorator proxies got resolved during the validation already,
+ * see {@link AbstractProducer#defineProxyClass()}, so only the bytecode generation and the class definition
+ * happens here. The normal-scope proxies get generated for all enabled normal-scoped beans.
+ * The factories only lock per proxied class, so proxies of different classes get generated concurrently.
+ *
+ * Only gets used if {@link OpenWebBeansConfiguration#PARALLEL_PROXY_GENERATION} is enabled.
+ */
+public class ParallelProxyGenerator
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ParallelProxyGenerator.class);
+
+    private final WebBeansContext webBeansContext;
+    private final int threads;
+
+    public ParallelProxyGenerator(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+
+        String threadCount = webBeansContext.getOpenWebBeansConfiguration().getProperty(OpenWebBeansConfiguration.PROXY_GENERATION_THREADS);
+        threads = threadCount != null ? Integer.parseInt(threadCount.trim()) : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Generate the proxy classes of the given beans.
+     * Failures of interceptor and decorator proxies get rethrown as they would have failed the validation otherwise.
+     * A normal-scope proxy which cannot get generated only gets logged, it will fail on first use as before.
+     */
+    public void generate(Collection<Bean<?>> beans)
+    {
+        List<Runnable> tasks = new ArrayList<>();
+        for (Bean<?> bean : beans)
+        {
+            if (bean instanceof OwbBean && !((OwbBean<?>) bean).isEnabled())
+            {
+                continue;
+            }
+
+            AbstractProducer<?> producer = getProducer(bean);
+            if (producer != null)
+            {
+                tasks.add(() ->
+                {
+                    try
+                    {
+                        producer.defineProxyClass();
+                    }
+                    catch (RuntimeException e)
+                    {
+                        throw ExceptionUtil.addInformation(e, "Problem while generating the proxy class of bean " + bean);
+                    }
+                });
+            }
+
+            if (webBeansContext.getBeanManagerImpl().isNormalScope(bean.getScope()))
+            {
+                tasks.add(() -> createNormalScopeProxyClass(bean));
+            }
+        }
+
+        if (tasks.size() < 2 || threads < 2)
+        {
+            tasks.forEach(Runnable::run);
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new GeneratorThreadFactory());
+        try
+        {
+            generateInParallel(executor, tasks);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void generateInParallel(ExecutorService executor, List<Runnable> tasks)
+    {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        List<Future<?>> futures = new ArrayList<>(tasks.size());
+        for (Runnable task : tasks)
+        {
+            futures.add(executor.submit(() ->
+            {
+                Thread thread = Thread.currentThread();
+                ClassLoader oldClassLoader = thread.getContextClassLoader();
+                thread.setContextClassLoader(classLoader);
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    thread.setContextClassLoader(oldClassLoader);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                throw ExceptionUtil.throwAsRuntimeException(e.getCause());
+            }
+            catch (InterruptedException e)
+            {
+                // whatever did not get generated yet will get generated lazily
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void createNormalScopeProxyClass(Bean<?> bean)
+    {
+        try
+        {
+            webBeansContext.getNormalScopeProxyFactory().createProxyClass(bean);
+        }
+        catch (RuntimeException e)
+        {
+            logger.log(Level.FINE, "Could not generate the normal-scope proxy class of bean " + bean, e);
+        }
+    }
+
+    private AbstractProducer<?> getProducer(Bean<?> bean)
+    {
+        if (ManagedBean.class.isInstance(bean)) // in this case don't use producer which can be wrapped
+        {
+            AbstractProducer<?> producer = ManagedBean.class.cast(bean).getOriginalInjectionTarget();
+            if (producer != null)
+            {
+                return producer;
+            }
+        }
+        if (bean instanceof OwbBean && ((OwbBean<?>) bean).getProducer() instanceof AbstractProducer)
+        {
+            return (AbstractProducer<?>) ((OwbBean<?>) bean).getProducer();
+        }
+        return null;
+    }
+
+    private static final class GeneratorThreadFactory implements ThreadFactory
+    {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable)
+        {
+            Thread thread = new Thread(runnable, "OwbProxyGenerator-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
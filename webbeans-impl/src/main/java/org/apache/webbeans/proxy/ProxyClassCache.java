@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.hash.XxHash64;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * Stores the bytecode of generated proxies on disk, so a restart doesn't need to generate them again.
+ *
+ * Each entry is keyed by the bytecode of the proxied class and all its superclasses and interfaces
+ * outside of {@code java.*}, the signatures of the proxied methods, the bytecode of the proxy factory
+ * and the targeted class file version. Thus any change of the bean hierarchy or of the proxy generation
+ * leads to a new key and outdated entries of a proxy get removed when the new bytecode gets stored.
+ * Proxied classes with a type in their hierarchy which has no bytecode resource (e.g. generated classes)
+ * don't get cached.
+ *
+ * @see org.apache.webbeans.config.OpenWebBeansConfiguration#PROXY_CACHE_DIRECTORY
+ */
+final class ProxyClassCache
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ProxyClassCache.class);
+
+    private static final String SUFFIX = ".class";
+
+    private final Path directory;
+
+    /**
+     * Hash of the bytecode of the proxy factory classes and of the targeted class file version,
+     * changes with each change of the proxy generation
+     */
+    private final long generatorHash;
+
+    ProxyClassCache(File directory, Class<? extends AbstractProxyFactory> factoryClass, int javaVersion)
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IllegalArgumentException("Cannot create proxy cache directory " + directory.getAbsolutePath());
+        }
+        this.directory = directory.toPath();
+
+        long hash = 17 + javaVersion;
+        for (Class<?> clazz = factoryClass; clazz != Object.class; clazz = clazz.getSuperclass())
+        {
+            byte[] bytes = readClassBytes(clazz);
+            hash = 31 * hash + (bytes == null ? clazz.getName().hashCode() : XxHash64.apply(ByteBuffer.wrap(bytes)));
+        }
+        generatorHash = hash;
+    }
+
+    /**
+     * @return the key of the proxy or {@code null} if the proxy can't be cached
+     */
+    String createKey(String proxyClassName, Class<?> classToProxy, long methodsHash, Constructor<?> constructor)
+    {
+        // inherited methods get delegated as well, so each type of the hierarchy is part of the key
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        collectHierarchy(classToProxy, hierarchy);
+
+        StringBuilder key = new StringBuilder().append(generatorHash).append(':').append(proxyClassName);
+        for (Class<?> clazz : hierarchy)
+        {
+            byte[] classBytes = readClassBytes(clazz);
+            if (classBytes == null)
+            {
+                return null;
+            }
+            key.append(':').append(XxHash64.apply(ByteBuffer.wrap(classBytes)));
+        }
+        key.append(':').append(methodsHash).append(':').append(constructor == null ? "" : constructor.toGenericString());
+        return Long.toHexString(XxHash64.apply(key.toString()));
+    }
+
+    private static void collectHierarchy(Class<?> clazz, Set<Class<?>> hierarchy)
+    {
+        if (clazz == null || clazz.getName().startsWith("java.") || !hierarchy.add(clazz))
+        {
+            return;
+        }
+        collectHierarchy(clazz.getSuperclass(), hierarchy);
+        for (Class<?> iface : clazz.getInterfaces())
+        {
+            collectHierarchy(iface, hierarchy);
+        }
+    }
+
+    /**
+     * @return the cached bytecode or {@code null} if there is none for the key
+     */
+    byte[] load(String proxyClassName, String key)
+    {
+        Path file = directory.resolve(proxyClassName + '.' + key + SUFFIX);
+        if (!Files.isRegularFile(file))
+        {
+            return null;
+        }
+        try
+        {
+            return Files.readAllBytes(file);
+        }
+        catch (IOException e)
+        {
+            logger.log(Level.WARNING, "Can't read cached proxy " + file, e);
+            return null;
+        }
+    }
+
+    void store(String proxyClassName, String key, byte[] proxyBytes)
+    {
+        String fileName = proxyClassName + '.' + key + SUFFIX;
+        try
+        {
+            // remove the entries for outdated versions of the proxied class
+            try (DirectoryStream<Path> outdated = Files.newDirectoryStream(directory, proxyClassName + ".*" + SUFFIX))
+            {
+                for (Path file : outdated)
+                {
+                    if (!file.getFileName().toString().equals(fileName))
+                    {
+                        Files.deleteIfExists(file);
+                    }
+                }
+            }
+
+            // write to a temporary file first, so concurrently starting applications never read partial entries
+            Path tmp = Files.createTempFile(directory, proxyClassName, ".tmp");
+            Files.write(tmp, proxyBytes);
+            Files.move(tmp, directory.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            logger.log(Level.WARNING, "Can't store proxy " + proxyClassName + " in " + directory, e);
+        }
+    }
+
+    private static byte[] readClassBytes(Class<?> clazz)
+    {
+        ClassLoader classLoader = clazz.getClassLoader();
+        if (classLoader == null)
+        {
+            classLoader = ClassLoader.getSystemClassLoader();
+        }
+        try (InputStream stream = classLoader.getResourceAsStream(clazz.getName().replace('.', '/') + SUFFIX))
+        {
+            if (stream == null)
+            {
+                return null;
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read = stream.read(buffer);
+            while (read >= 0)
+            {
+                bytes.write(buffer, 0, read);
+                read = stream.read(buffer);
+            }
+            return bytes.toByteArray();
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out unique proxy class names by counting the names allocated per proxy class name prefix.
+ * This replaces probing the ClassLoader via {@code Class.forName} until a name is not taken,
+ * which throws a {@link ClassNotFoundException} for each free name.
+ *
+ * The registry must only be used for classes which get defined in a ClassLoader
+ * whose proxy class names all got allocated by the same registry.
+ */
+public class ProxyClassNameRegistry
+{
+    private final ConcurrentMap<String, AtomicInteger> nextIndex = new ConcurrentHashMap<>();
+
+    /**
+     * @param proxyClassName the proxy class name without the unique suffix
+     * @return a name which did not get allocated by this registry so far
+     */
+    public String allocate(String proxyClassName)
+    {
+        return proxyClassName + nextIndex.computeIfAbsent(proxyClassName, n -> new AtomicInteger()).getAndIncrement();
+    }
+}
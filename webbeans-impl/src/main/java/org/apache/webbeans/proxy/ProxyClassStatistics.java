@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.proxy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of all the classes the proxy factories of a single
+ * {@link org.apache.webbeans.config.WebBeansContext} generated, together with the size of their bytecode.
+ * This allows to find out which beans contribute most to the metaspace footprint of a deployment.
+ *
+ * Only the names get stored, thus this class does not prevent the proxy classes from getting unloaded.
+ */
+public class ProxyClassStatistics
+{
+    private final ConcurrentMap<String, ProxyClassInfo> proxyClasses = new ConcurrentHashMap<>();
+
+    public void register(Class<?> proxyClass, Class<?> proxiedClass, int bytecodeSize)
+    {
+        proxyClasses.putIfAbsent(proxyClass.getName(),
+                new ProxyClassInfo(proxyClass.getName(), proxiedClass != null ? proxiedClass.getName() : null, bytecodeSize));
+    }
+
+    /**
+     * @return all generated proxy classes, ordered by their name
+     */
+    public List<ProxyClassInfo> getProxyClasses()
+    {
+        List<ProxyClassInfo> infos = new ArrayList<>(proxyClasses.values());
+        infos.sort(Comparator.comparing(ProxyClassInfo::getName));
+        return infos;
+    }
+
+    /**
+     * @return the number of bytes of all generated proxy classes
+     */
+    public long getTotalBytecodeSize()
+    {
+        long size = 0;
+        for (ProxyClassInfo info : proxyClasses.values())
+        {
+            size += info.getBytecodeSize();
+        }
+        return size;
+    }
+
+    public void clear()
+    {
+        proxyClasses.clear();
+    }
+
+    public static final class ProxyClassInfo
+    {
+        private final String name;
+        private final String proxiedClassName;
+        private final int bytecodeSize;
+
+        private ProxyClassInfo(String name, String proxiedClassName, int bytecodeSize)
+        {
+            this.name = name;
+            this.proxiedClassName = proxiedClassName;
+            this.bytecodeSize = bytecodeSize;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getProxiedClassName()
+        {
+            return proxiedClassName;
+        }
+
+        public int getBytecodeSize()
+        {
+            return bytecodeSize;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + " (" + bytecodeSize + " bytes)";
+        }
+    }
+}
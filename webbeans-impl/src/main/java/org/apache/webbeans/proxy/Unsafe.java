@@ -32,11 +32,20 @@ import java.util.stream.Stream;
 
 import org.apache.webbeans.custom.CustomProxyPackageMarker;
 import org.apache.webbeans.custom.signed.CustomSignedProxyPackageMarker;
+import org.apache.webbeans.exception.ProxyClassNameTakenException;
 import org.apache.webbeans.exception.ProxyGenerationException;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 
 public class Unsafe
 {
+    /**
+     * Depending on the JVM the proxies get defined in the given ClassLoader, the ClassLoader of the proxied class
+     * or the one of OpenWebBeans, thus the names get allocated once for all ClassLoaders.
+     * Those ClassLoaders are not owned by OpenWebBeans, so an allocated name is only a guess,
+     * see {@link #defineAndLoadClass(ClassLoader, String, byte[], Class, boolean)}.
+     */
+    private static final ProxyClassNameRegistry PROXY_CLASS_NAMES = new ProxyClassNameRegistry();
+
     /**
      * contains the instance of sun.misc.Unsafe.
      * We use it for creating the proxy instance without fully
@@ -168,6 +177,15 @@ public class Unsafe
         }
     }
 
+    /**
+     * @param proxyClassName the proxy class name without the unique suffix
+     * @return a name which is not used by any other proxy defined through Unsafe in this JVM
+     */
+    public String getUnusedProxyClassName(String proxyClassName)
+    {
+        return PROXY_CLASS_NAMES.allocate(proxyClassName);
+    }
+
     /**
      * The 'defineClass' method on the ClassLoader is protected, thus we need to invoke it via reflection.
      * @return the Class which got loaded in the classloader
@@ -175,6 +193,20 @@ public class Unsafe
     public <T> Class<T> defineAndLoadClass(ClassLoader classLoader, String proxyName, byte[] proxyBytes,
                                            Class<?> parent)
             throws ProxyGenerationException
+    {
+        return defineAndLoadClass(classLoader, proxyName, proxyBytes, parent, true);
+    }
+
+    /**
+     * @param reuseExisting whether an existing class of the same name is the requested class as well,
+     *                      e.g. for static proxy names
+     * @return the Class which got loaded in the classloader
+     * @throws ProxyClassNameTakenException if {@code reuseExisting} is {@code false} and the ClassLoader
+     *                                      has another class of the same name
+     */
+    public <T> Class<T> defineAndLoadClass(ClassLoader classLoader, String proxyName, byte[] proxyBytes,
+                                           Class<?> parent, boolean reuseExisting)
+            throws ProxyGenerationException
     {
         Class<?> definedClass = null;
         try
@@ -223,7 +255,7 @@ public class Unsafe
                         }
                         catch (final Throwable t)
                         {
-                            definedClass = handleLinkageError(t, proxyName, classLoader);
+                            definedClass = handleLinkageError(t, proxyName, classLoader, reuseExisting);
                             if (definedClass != null)
                             {
                                 defineClassImpl = 1;
@@ -273,7 +305,7 @@ public class Unsafe
                         }
                         catch (final Exception e)
                         {
-                            definedClass = handleLinkageError(e, proxyName, classLoader);
+                            definedClass = handleLinkageError(e, proxyName, classLoader, reuseExisting);
                             if (definedClass != null)
                             {
                                 defineClassImpl = 2;
@@ -291,7 +323,7 @@ public class Unsafe
                     }
                     catch (final Throwable t)
                     {
-                        definedClass = handleLinkageError(t, proxyName, classLoader);
+                        definedClass = handleLinkageError(t, proxyName, classLoader, reuseExisting);
                     }
                     break;
                 default:
@@ -304,17 +336,28 @@ public class Unsafe
                 throw new IllegalStateException("Can't define proxy " + proxyName);
             }
 
-            return (Class<T>) Class.forName(definedClass.getName(), true, classLoader);
+            Class<T> loadedClass = (Class<T>) Class.forName(definedClass.getName(), true, classLoader);
+            if (loadedClass != definedClass && !reuseExisting)
+            {
+                // a parent ClassLoader has a class of the same name
+                throw new ProxyClassNameTakenException(proxyName);
+            }
+            return loadedClass;
+        }
+        catch (final ProxyClassNameTakenException e)
+        {
+            throw e;
         }
         catch (final Throwable e)
         {
-            return onProxyGenerationError(e, proxyName, classLoader);
+            return onProxyGenerationError(e, proxyName, classLoader, reuseExisting);
         }
     }
 
-    private <T> Class<T> onProxyGenerationError(final Throwable throwable, final String name, final ClassLoader loader)
+    private <T> Class<T> onProxyGenerationError(final Throwable throwable, final String name, final ClassLoader loader,
+                                                final boolean reuseExisting)
     {
-        final Class<T> clazz = handleLinkageError(throwable, name, loader);
+        final Class<T> clazz = handleLinkageError(throwable, name, loader, reuseExisting);
         if (clazz != null)
         {
             return clazz;
@@ -325,18 +368,26 @@ public class Unsafe
                 throwable.getCause());
     }
 
-    private <T> Class<T> handleLinkageError(final Throwable throwable, final String name, final ClassLoader loader)
+    private <T> Class<T> handleLinkageError(final Throwable throwable, final String name, final ClassLoader loader,
+                                            final boolean reuseExisting)
     {
         if (LinkageError.class.isInstance(throwable) || LinkageError.class.isInstance(throwable.getCause()))
         {
+            final Class<T> existing;
             try
             {
-                return (Class<T>) Class.forName(name.replace('/', '.'), true, loader);
+                existing = (Class<T>) Class.forName(name.replace('/', '.'), reuseExisting, loader);
             }
             catch (ClassNotFoundException e)
             {
                 // default error handling
+                return null;
+            }
+            if (!reuseExisting)
+            {
+                throw new ProxyClassNameTakenException(name);
             }
+            return existing;
         }
         return null;
     }
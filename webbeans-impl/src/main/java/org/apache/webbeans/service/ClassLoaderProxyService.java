@@ -18,6 +18,7 @@
  */
 package org.apache.webbeans.service;
 
+import java.io.Closeable;
 import java.security.ProtectionDomain;
 import java.util.HashMap;
 import java.util.Map;
@@ -27,12 +28,13 @@ import java.util.concurrent.ConcurrentMap;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.proxy.ProxyClassNameRegistry;
 import org.apache.webbeans.spi.DefiningClassService;
 import org.apache.webbeans.spi.InstantiatingClassService;
 
-public class ClassLoaderProxyService implements DefiningClassService, InstantiatingClassService
+public class ClassLoaderProxyService implements DefiningClassService, InstantiatingClassService, Closeable
 {
-    private final ProxiesClassLoader loader;
+    private volatile ProxiesClassLoader loader;
 
     public ClassLoaderProxyService(final WebBeansContext context)
     {
@@ -73,6 +75,26 @@ public class ClassLoaderProxyService implements DefiningClassService, Instantiat
         }
     }
 
+    /**
+     * All proxy classes get defined in our own ClassLoader, thus it knows all taken names.
+     * @param proxyClassName the proxy class name without the unique suffix
+     * @return a name which is not used by any class defined in the proxy ClassLoader
+     */
+    public String getUnusedProxyClassName(final String proxyClassName)
+    {
+        return loader.proxyClassNames.allocate(proxyClassName);
+    }
+
+    /**
+     * Replaces the ClassLoader holding all proxy classes defined so far by an empty one.
+     * Once the deployment does not use them anymore, the proxies get unloaded together with the old ClassLoader.
+     */
+    @Override
+    public void close()
+    {
+        loader = loader.renew();
+    }
+
     // for build tools - @Experimental
     public static class Spy extends ClassLoaderProxyService
     {
@@ -165,6 +187,7 @@ public class ClassLoaderProxyService implements DefiningClassService, Instantiat
     {
         private final boolean skipPackages;
         private final ConcurrentMap<String, Class<?>> classes = new ConcurrentHashMap<>();
+        private final ProxyClassNameRegistry proxyClassNames = new ProxyClassNameRegistry();
 
         private ProxiesClassLoader(final WebBeansContext context, boolean skipPackages)
         {
@@ -172,6 +195,12 @@ public class ClassLoaderProxyService implements DefiningClassService, Instantiat
             this.skipPackages = skipPackages;
         }
 
+        private ProxiesClassLoader(final ClassLoader parent, final boolean skipPackages)
+        {
+            super(parent);
+            this.skipPackages = skipPackages;
+        }
+
 
         @Override
         protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException
@@ -184,6 +213,11 @@ public class ClassLoaderProxyService implements DefiningClassService, Instantiat
             return clazz;
         }
 
+        private ProxiesClassLoader renew()
+        {
+            return new ProxiesClassLoader(getParent(), skipPackages);
+        }
+
         private Class<?> getOrRegister(final String proxyClassName, final byte[] proxyBytes,
                                        final Package pck, final ProtectionDomain protectionDomain)
         {
@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import jakarta.enterprise.inject.spi.ObserverMethod;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.event.ObserverMethodImpl;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.ObserverMetricsService;
+
+/**
+ * Keeps the observer method statistics in lock-free counters and registers
+ * an {@link ObserverMetricsMXBean} unless {@code org.apache.webbeans.service.DefaultObserverMetricsService.jmx}
+ * is set to {@code false}.
+ */
+public class DefaultObserverMetricsService implements ObserverMetricsService, ObserverMetricsMXBean, Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DefaultObserverMetricsService.class);
+
+    private final ConcurrentMap<ObserverMethod<?>, Counters> counters = new ConcurrentHashMap<>();
+    private final Function<ObserverMethod<?>, Counters> counterFactory = observer -> new Counters(describe(observer));
+
+    private ObjectName objectName;
+
+    public DefaultObserverMetricsService(WebBeansContext webBeansContext)
+    {
+        if (!"false".equalsIgnoreCase(webBeansContext.getOpenWebBeansConfiguration()
+                .getProperty(DefaultObserverMetricsService.class.getName() + ".jmx")))
+        {
+            registerMBean(webBeansContext);
+        }
+    }
+
+    @Override
+    public void recordInvocation(ObserverMethod<?> observerMethod, long durationNanos, Throwable failure)
+    {
+        Counters observerCounters = counters.get(observerMethod);
+        if (observerCounters == null)
+        {
+            observerCounters = counters.computeIfAbsent(observerMethod, counterFactory);
+        }
+        observerCounters.record(durationNanos, failure != null);
+    }
+
+    @Override
+    public List<ObserverMetrics> getObserverMetrics()
+    {
+        return new ArrayList<>(counters.values());
+    }
+
+    @Override
+    public void reset()
+    {
+        counters.clear();
+    }
+
+    @Override
+    public Map<String, Long> getInvocationCounts()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        counters.values().forEach(c -> result.merge(c.getObserver(), c.getInvocationCount(), Long::sum));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getExceptionCounts()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        counters.values().forEach(c -> result.merge(c.getObserver(), c.getExceptionCount(), Long::sum));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getAverageLatencyMillis()
+    {
+        // observers sharing a name get combined, so sum up the invocations and latencies first
+        Map<String, long[]> totals = new TreeMap<>();
+        counters.values().forEach(c -> totals.merge(c.getObserver(), new long[]{c.getInvocationCount(), c.getTotalLatencyNanos()},
+            (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]}));
+
+        Map<String, Double> result = new TreeMap<>();
+        totals.forEach((observer, total) -> result.put(observer, total[0] == 0 ? 0 : toMillis(total[1]) / total[0]));
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getMaxLatencyMillis()
+    {
+        Map<String, Double> result = new TreeMap<>();
+        counters.values().forEach(c -> result.merge(c.getObserver(), toMillis(c.getMaxLatencyNanos()), Math::max));
+        return result;
+    }
+
+    @Override
+    public void close()
+    {
+        if (objectName != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            }
+            catch (Exception e)
+            {
+                logger.log(Level.FINE, "Cannot unregister " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private void registerMBean(WebBeansContext webBeansContext)
+    {
+        try
+        {
+            // there might be multiple applications in the same JVM
+            ObjectName name = new ObjectName("org.apache.webbeans:type=ObserverMetrics,context="
+                    + Integer.toHexString(System.identityHashCode(webBeansContext)));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, name);
+            objectName = name;
+        }
+        catch (Exception e)
+        {
+            logger.log(Level.WARNING, "Cannot register the observer metrics MBean", e);
+        }
+    }
+
+    private static double toMillis(long nanos)
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static String describe(ObserverMethod<?> observer)
+    {
+        if (observer instanceof ObserverMethodImpl)
+        {
+            Method method = ((ObserverMethodImpl<?>) observer).getObserverMethod().getJavaMember();
+            return method.getDeclaringClass().getName() + '#' + method.getName() + '(' + observer.getObservedType().getTypeName() + ')';
+        }
+        return observer.getBeanClass().getName() + "#<synthetic>(" + observer.getObservedType().getTypeName() + ')';
+    }
+
+    private static final class Counters implements ObserverMetrics
+    {
+        private final String observer;
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder exceptions = new LongAdder();
+        private final LongAdder totalLatency = new LongAdder();
+        private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+
+        private Counters(String observer)
+        {
+            this.observer = observer;
+        }
+
+        private void record(long durationNanos, boolean failed)
+        {
+            invocations.increment();
+            totalLatency.add(durationNanos);
+            maxLatency.accumulate(durationNanos);
+            if (failed)
+            {
+                exceptions.increment();
+            }
+        }
+
+        @Override
+        public String getObserver()
+        {
+            return observer;
+        }
+
+        @Override
+        public long getInvocationCount()
+        {
+            return invocations.sum();
+        }
+
+        @Override
+        public long getExceptionCount()
+        {
+            return exceptions.sum();
+        }
+
+        @Override
+        public long getTotalLatencyNanos()
+        {
+            return totalLatency.sum();
+        }
+
+        @Override
+        public long getMaxLatencyNanos()
+        {
+            return maxLatency.get();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.proxy.Unsafe;
+
+/**
+ * Defines the proxies as hidden classes (Java 15+) through a {@link MethodHandles.Lookup} on the proxied class.
+ *
+ * The proxies live in the classloader and package of the proxied class, thus they can also call
+ * package private methods and get unloaded together with the bean class. The JVM gives each hidden class
+ * a unique name, so there is no need to probe for a free proxy class name.
+ * Hidden classes can not be found via their name though, so tools relying on {@code Class.forName}
+ * for proxies (like {@link ClassLoaderProxyService.LoadFirst}) can't be combined with this service.
+ *
+ * Setting {@code org.apache.webbeans.service.HiddenClassProxyService.nestmate=true} additionally
+ * adds the proxies to the nest of the proxied class.
+ *
+ * Proxies which can not be defined in the package of the proxied class (e.g. for signed jars or
+ * {@code java.*} classes) and all proxies on older JVMs are defined by the {@link ClassLoaderProxyService}.
+ * The proxied classes must be in a package which is open to OpenWebBeans, which is always the case on the classpath.
+ */
+public class HiddenClassProxyService extends ClassLoaderProxyService
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(HiddenClassProxyService.class);
+
+    private static final String CUSTOM_PROXY_PACKAGE = "org.apache.webbeans.custom.";
+
+    /**
+     * (Class) -> Lookup, {@code null} if hidden classes are not supported by the JVM
+     */
+    private final MethodHandle privateLookupIn;
+
+    /**
+     * (Lookup, byte[]) -> Class
+     */
+    private final MethodHandle defineHiddenClass;
+
+    private final Unsafe unsafe = new Unsafe();
+
+    public HiddenClassProxyService(final WebBeansContext context)
+    {
+        super(context);
+
+        final boolean nestmate = Boolean.parseBoolean(context.getOpenWebBeansConfiguration()
+                .getProperty(HiddenClassProxyService.class.getName() + ".nestmate"));
+
+        MethodHandle lookupIn = null;
+        MethodHandle define = null;
+        try
+        {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            lookupIn = MethodHandles.insertArguments(
+                    lookup.findStatic(MethodHandles.class, "privateLookupIn",
+                            MethodType.methodType(MethodHandles.Lookup.class, Class.class, MethodHandles.Lookup.class)),
+                    1, lookup);
+
+            final Class<?> classOptionType = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            final Object classOptions = Array.newInstance(classOptionType, nestmate ? 1 : 0);
+            if (nestmate)
+            {
+                Array.set(classOptions, 0, classOptionType.getField("NESTMATE").get(null));
+            }
+
+            define = MethodHandles.filterReturnValue(
+                    MethodHandles.insertArguments(
+                            lookup.findVirtual(MethodHandles.Lookup.class, "defineHiddenClass",
+                                    MethodType.methodType(MethodHandles.Lookup.class, byte[].class, boolean.class,
+                                            classOptions.getClass())).asFixedArity(),
+                            2, true, classOptions),
+                    lookup.findVirtual(MethodHandles.Lookup.class, "lookupClass", MethodType.methodType(Class.class)));
+        }
+        catch (final Exception e)
+        {
+            logger.warning("Hidden classes are not supported by this JVM, falling back to " +
+                    ClassLoaderProxyService.class.getName() + ": " + e.getMessage());
+            lookupIn = null;
+            define = null;
+        }
+        privateLookupIn = lookupIn;
+        defineHiddenClass = define;
+    }
+
+    /**
+     * @param proxyClassName the name of the proxy to define
+     * @return whether the proxy will get defined as hidden class which gets its unique name from the JVM
+     */
+    public boolean isHiddenClass(final String proxyClassName)
+    {
+        return defineHiddenClass != null && !proxyClassName.startsWith(CUSTOM_PROXY_PACKAGE);
+    }
+
+    @Override
+    public <T> Class<T> defineAndLoad(final String name, final byte[] bytecode, final Class<T> proxiedClass)
+    {
+        if (!isHiddenClass(name))
+        {
+            return super.defineAndLoad(name, bytecode, proxiedClass);
+        }
+
+        try
+        {
+            final MethodHandles.Lookup lookup = (MethodHandles.Lookup) privateLookupIn.invokeExact((Class<?>) proxiedClass);
+            return (Class<T>) (Class<?>) defineHiddenClass.invokeExact(lookup, bytecode);
+        }
+        catch (final Throwable e)
+        {
+            // no fallback as the name of hidden classes didn't get checked for conflicts
+            throw new WebBeansException("Can't define the hidden proxy class " + name +
+                    ", the package of " + proxiedClass.getName() + " must be opened to OpenWebBeans", e);
+        }
+    }
+
+    @Override
+    public <T> T newInstance(final Class<? extends T> proxyClass)
+    {
+        // like the default proxy handling we don't call the constructor, e.g. there is none for beans with constructor injection
+        return unsafe.unsafeNewInstance(proxyClass);
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A simple hierarchical timing wheel.
+ *
+ * Items get scheduled with an absolute deadline in milliseconds. The wheel consists of
+ * {@link #LEVELS} levels with {@link #SLOTS} slots each. The slots of the first level
+ * cover a single tick, the slots of each further level cover all the slots of the
+ * level below. Items in the upper levels get cascaded down once their slot becomes current.
+ * Scheduling and expiring an item is thus O(1) regardless of the number of scheduled items.
+ *
+ * Items which are scheduled further away than the wheel can cover get parked in the slot
+ * of the top level which gets cascaded last and are re-placed from there.
+ * Items are never returned before their deadline. Callers which move the deadline of an item
+ * without re-scheduling it are expected to verify it once the item expired.
+ *
+ * This class is thread safe.
+ *
+ * @param <T> the type of the scheduled items
+ */
+public class TimingWheel<T>
+{
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+
+    /**
+     * [level][slot]
+     */
+    private final List<Entry<T>>[][] wheels;
+
+    /**
+     * The last tick which got fully processed.
+     */
+    private long currentTick;
+
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis)
+    {
+        if (tickMillis <= 0)
+        {
+            throw new IllegalArgumentException("tickMillis must be > 0 but is " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        this.wheels = new List[LEVELS][SLOTS];
+    }
+
+    /**
+     * Schedule the given item to expire at the given deadline.
+     * @param item the item to schedule
+     * @param deadlineMillis absolute time in milliseconds
+     */
+    public synchronized void schedule(T item, long deadlineMillis)
+    {
+        // round up, we must never expire an item too early
+        long deadlineTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        place(new Entry<>(item, deadlineTick));
+        size++;
+    }
+
+    /**
+     * Advance the wheel to the given time.
+     * @return all items whose deadline has been reached, never {@code null}
+     */
+    public synchronized List<T> advance(long nowMillis)
+    {
+        long nowTick = nowMillis / tickMillis;
+        if (size == 0)
+        {
+            currentTick = Math.max(currentTick, nowTick);
+            return Collections.emptyList();
+        }
+
+        List<T> expired = null;
+        while (currentTick < nowTick && size > 0)
+        {
+            currentTick++;
+
+            // cascade the upper levels first, so items can fall through multiple levels
+            for (int level = LEVELS - 1; level > 0; level--)
+            {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0)
+                {
+                    int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    List<Entry<T>> entries = wheels[level][slot];
+                    if (entries != null)
+                    {
+                        wheels[level][slot] = null;
+                        for (Entry<T> entry : entries)
+                        {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            List<Entry<T>> entries = wheels[0][slot];
+            if (entries != null)
+            {
+                wheels[0][slot] = null;
+                if (expired == null)
+                {
+                    expired = new ArrayList<>(entries.size());
+                }
+                for (Entry<T> entry : entries)
+                {
+                    expired.add(entry.item);
+                }
+                size -= entries.size();
+            }
+        }
+
+        currentTick = Math.max(currentTick, nowTick);
+        return expired != null ? expired : Collections.<T>emptyList();
+    }
+
+    /**
+     * @return the number of currently scheduled items
+     */
+    public synchronized int size()
+    {
+        return size;
+    }
+
+    /**
+     * Remove all scheduled items.
+     * @return all items which have been scheduled
+     */
+    public synchronized List<T> clear()
+    {
+        List<T> items = new ArrayList<>(size);
+        for (List<Entry<T>>[] level : wheels)
+        {
+            for (int slot = 0; slot < SLOTS; slot++)
+            {
+                if (level[slot] != null)
+                {
+                    for (Entry<T> entry : level[slot])
+                    {
+                        items.add(entry.item);
+                    }
+                    level[slot] = null;
+                }
+            }
+        }
+        size = 0;
+        return items;
+    }
+
+    private void place(Entry<T> entry)
+    {
+        long deadlineTick = Math.max(entry.deadlineTick, currentTick + 1);
+        long delta = deadlineTick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1))))
+        {
+            level++;
+        }
+
+        int slot;
+        if (delta >= (1L << (SLOT_BITS * LEVELS)))
+        {
+            // too far in the future, park it in the slot which gets cascaded last
+            slot = (int) (((currentTick >>> (SLOT_BITS * level)) - 1) & SLOT_MASK);
+        }
+        else
+        {
+            slot = (int) ((deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        }
+
+        List<Entry<T>> entries = wheels[level][slot];
+        if (entries == null)
+        {
+            entries = new ArrayList<>();
+            wheels[level][slot] = entries;
+        }
+        entries.add(entry);
+    }
+
+    private static final class Entry<T>
+    {
+        private final T item;
+        private final long deadlineTick;
+
+        private Entry(T item, long deadlineTick)
+        {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.enterprise.context.ConversationScoped;
+import jakarta.enterprise.context.NonexistentConversationException;
+import jakarta.enterprise.context.RequestScoped;
+
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.ConversationService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BoundedConversationStorageTest extends AbstractUnitTest
+{
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicReference<String> conversationId = new AtomicReference<>();
+
+    @Test
+    public void testLeastRecentlyUsedGetsEvicted()
+    {
+        start(null);
+
+        beginConversation("a");
+        beginConversation("b");
+        assertEquals("a", resumeConversation("a").getId());
+        beginConversation("c");
+
+        try
+        {
+            resumeConversation("b");
+            fail("conversation b should have been evicted");
+        }
+        catch (NonexistentConversationException expected)
+        {
+            getWebBeansContext().getContextsService().endContext(RequestScoped.class, null);
+        }
+        assertEquals("a", resumeConversation("a").getId());
+        assertEquals("c", resumeConversation("c").getId());
+    }
+
+    @Test
+    public void testEvictedConversationsGetSpilled() throws Exception
+    {
+        File spillDirectory = temporaryFolder.newFolder();
+        start(spillDirectory);
+
+        beginConversation("a");
+        beginConversation("b");
+        beginConversation("c");
+        assertEquals(1, spillDirectory.list().length);
+
+        ConversationImpl restored = resumeConversation("a");
+        assertFalse(restored.isTransient());
+        assertEquals("a", restored.getId());
+
+        // restoring 'a' evicted 'b'
+        assertEquals(1, spillDirectory.list().length);
+        assertEquals("b", resumeConversation("b").getId());
+    }
+
+    private void start(File spillDirectory)
+    {
+        addService(ConversationService.class, new DefaultConversationService()
+        {
+            @Override
+            public String getConversationId()
+            {
+                return conversationId.get();
+            }
+        });
+        addConfiguration("org.apache.webbeans.application.supportsConversation", "true");
+        addConfiguration(ConversationStorage.class.getName(), BoundedConversationStorage.class.getName());
+        addConfiguration(BoundedConversationStorage.MAX_CONVERSATIONS_PER_SESSION, "2");
+        if (spillDirectory != null)
+        {
+            addConfiguration(BoundedConversationStorage.SPILL_DIRECTORY, spillDirectory.getAbsolutePath());
+        }
+        startContainer();
+    }
+
+    private void beginConversation(String id)
+    {
+        conversationId.set(null);
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        contextsService.startContext(RequestScoped.class, null);
+        ConversationContext.class.cast(contextsService.getCurrentContext(ConversationScoped.class)).getConversation().begin(id);
+        contextsService.endContext(RequestScoped.class, null);
+    }
+
+    private ConversationImpl resumeConversation(String id)
+    {
+        conversationId.set(id);
+        ContextsService contextsService = getWebBeansContext().getContextsService();
+        contextsService.startContext(RequestScoped.class, null);
+        ConversationImpl conversation = ConversationContext.class.cast(contextsService.getCurrentContext(ConversationScoped.class)).getConversation();
+        contextsService.endContext(RequestScoped.class, null);
+        return conversation;
+    }
+}
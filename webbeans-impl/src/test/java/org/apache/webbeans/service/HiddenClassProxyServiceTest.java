@@ -0,0 +1,84 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.service;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.spi.DefiningClassService;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class HiddenClassProxyServiceTest
+{
+    @Test
+    public void defineHidden() throws Exception
+    {
+        Assume.assumeTrue(isHiddenClassSupported());
+
+        final Properties config = new Properties();
+        config.setProperty(DefiningClassService.class.getName(), HiddenClassProxyService.class.getName());
+        final WebBeansContext context = new WebBeansContext(emptyMap(), config);
+        final NormalScopeProxyFactory factory = new NormalScopeProxyFactory(context);
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        final Class<MyBean> proxyClass = factory.createProxyClass(contextClassLoader, MyBean.class);
+        assertTrue((Boolean) Class.class.getMethod("isHidden").invoke(proxyClass));
+        assertEquals(MyBean.class.getClassLoader(), proxyClass.getClassLoader());
+        assertEquals(MyBean.class.getPackage().getName(), proxyClass.getPackage().getName());
+        assertTrue(MyBean.class.isAssignableFrom(proxyClass));
+        proxyClass.getMethod("ok", String.class);
+
+        // same methods, so the proxy class gets reused
+        assertSame(proxyClass, factory.createProxyClass(contextClassLoader, MyBean.class));
+
+        // the JVM makes the names unique, so defining a second proxy with the same name works
+        factory.clear();
+        final Class<MyBean> secondProxyClass = factory.createProxyClass(contextClassLoader, MyBean.class);
+        assertNotSame(proxyClass, secondProxyClass);
+    }
+
+    private static boolean isHiddenClassSupported()
+    {
+        try
+        {
+            Class.class.getMethod("isHidden");
+            return true;
+        }
+        catch (final NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+
+    public static class MyBean
+    {
+        public String ok(final String value)
+        {
+            return ">" + value + "<";
+        }
+    }
+}
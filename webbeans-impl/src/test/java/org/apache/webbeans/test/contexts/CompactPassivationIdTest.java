@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts;
+
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InterceptorBinding;
+import jakarta.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.configurator.BeanConfiguratorImpl;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.container.PassivationIdIndex;
+import org.apache.webbeans.proxy.OwbInterceptorProxy;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.util.Serializations;
+import org.apache.webbeans.util.WebBeansUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactPassivationIdTest extends AbstractUnitTest
+{
+    @Test
+    public void testCompactPassivationIds() throws Exception
+    {
+        startContainer(SessionCart.class, Logged.class, LoggedInterceptor.class);
+        byte[] fullIds = serializeCart();
+        shutDownContainer();
+
+        addConfiguration(OpenWebBeansConfiguration.COMPACT_PASSIVATION_IDS, "true");
+        startContainer(SessionCart.class, Logged.class, LoggedInterceptor.class);
+        byte[] compactIds = serializeCart();
+        Assert.assertTrue(compactIds.length + " < " + fullIds.length, compactIds.length < fullIds.length);
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Bean<?> bean = beanManager.getBeans(SessionCart.class).iterator().next();
+        String passivationId = WebBeansUtil.getPassivationId(bean);
+        String compactId = beanManager.getSerializablePassivationId(passivationId);
+        Assert.assertTrue(PassivationIdIndex.isCompactId(compactId));
+        Assert.assertTrue(compactId.length() < passivationId.length());
+        Assert.assertSame(bean, beanManager.getPassivationCapableBean(compactId));
+
+        // the normal scoping proxy and the interceptor proxy of the contextual instance
+        SessionCart proxy = getInstance(SessionCart.class);
+        proxy.add("apple");
+        SessionCart proxyCopy = (SessionCart) Serializations.deserialize(Serializations.serialize(proxy));
+        Assert.assertEquals(1, proxyCopy.size());
+
+        SessionCart instance = (SessionCart) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class).get(bean);
+        Assert.assertTrue(instance instanceof OwbInterceptorProxy);
+        SessionCart instanceCopy = (SessionCart) Serializations.deserialize(Serializations.serialize(instance));
+        Assert.assertEquals(1, instanceCopy.size());
+        Assert.assertNotSame(instance, instanceCopy);
+    }
+
+    @Test
+    public void testBeansAddedAfterDeployment()
+    {
+        addConfiguration(OpenWebBeansConfiguration.COMPACT_PASSIVATION_IDS, "true");
+        startContainer(SessionCart.class, Logged.class, LoggedInterceptor.class);
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        Bean<?> bean = beanManager.getBeans(SessionCart.class).iterator().next();
+        String compactId = beanManager.getSerializablePassivationId(WebBeansUtil.getPassivationId(bean));
+
+        // sorts before all other ids, so it would move the index of every bean
+        BeanConfiguratorImpl<SessionCart> configurator = new BeanConfiguratorImpl<>(getWebBeansContext());
+        configurator.beanClass(SessionCart.class)
+                .types(SessionCart.class)
+                .scope(SessionScoped.class)
+                .id("!late")
+                .createWith(c -> new SessionCart());
+        Bean<?> lateBean = configurator.getBean();
+        beanManager.addPassivationInfo(lateBean);
+
+        Assert.assertSame(bean, beanManager.getPassivationCapableBean(compactId));
+        Assert.assertEquals(compactId, beanManager.getSerializablePassivationId(WebBeansUtil.getPassivationId(bean)));
+        Assert.assertEquals("!late", beanManager.getSerializablePassivationId("!late"));
+        Assert.assertSame(lateBean, beanManager.getPassivationCapableBean("!late"));
+    }
+
+    @Test
+    public void testCompactIdsOfOtherDeployments()
+    {
+        PassivationIdIndex index = new PassivationIdIndex(Arrays.asList("b", "a", "c"));
+        String compactId = index.toCompactId("b");
+        Assert.assertEquals("b", index.toPassivationId(compactId));
+        Assert.assertEquals("unknown", index.toCompactId("unknown"));
+
+        // a deployment with other beans resolves the id via its hash
+        Assert.assertEquals("b", new PassivationIdIndex(Arrays.asList("0", "a", "b", "c")).toPassivationId(compactId));
+        Assert.assertEquals("b", new PassivationIdIndex(Arrays.asList("b", "c")).toPassivationId(compactId));
+
+        // but never to another bean
+        Assert.assertNull(new PassivationIdIndex(Arrays.asList("a", "c")).toPassivationId(compactId));
+        Assert.assertNull(new PassivationIdIndex(Arrays.asList("a", "c", "d")).toPassivationId(compactId));
+    }
+
+    private byte[] serializeCart() throws Exception
+    {
+        return Serializations.serialize(getInstance(SessionCart.class));
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Logged
+    {
+    }
+
+    @Logged
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION)
+    public static class LoggedInterceptor implements Serializable
+    {
+        @AroundInvoke
+        public Object log(InvocationContext context) throws Exception
+        {
+            return context.proceed();
+        }
+    }
+
+    @Logged
+    @SessionScoped
+    public static class SessionCart implements Serializable
+    {
+        private final List<String> items = new ArrayList<>();
+
+        public void add(String item)
+        {
+            items.add(item);
+        }
+
+        public int size()
+        {
+            return items.size();
+        }
+    }
+}
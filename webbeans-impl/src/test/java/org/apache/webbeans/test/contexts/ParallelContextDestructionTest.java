@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelContextDestructionTest extends AbstractUnitTest
+{
+    private static final List<String> DESTROYED = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void testDependentsGetDestroyedFirst()
+    {
+        DESTROYED.clear();
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS, "4");
+        startContainer(Front.class, Middle.class, Back.class, Independent.class, NoPreDestroy.class);
+
+        Assert.assertEquals("back", getInstance(Front.class).call());
+        Assert.assertEquals("independent", getInstance(Independent.class).call());
+        Assert.assertEquals("none", getInstance(NoPreDestroy.class).call());
+
+        shutDownContainer();
+
+        Assert.assertEquals(4, DESTROYED.size());
+        Assert.assertTrue(DESTROYED.contains("independent"));
+        Assert.assertTrue(DESTROYED.indexOf("front") < DESTROYED.indexOf("middle"));
+        Assert.assertTrue(DESTROYED.indexOf("middle") < DESTROYED.indexOf("back"));
+    }
+
+    @Test
+    public void testIndirectDependencies()
+    {
+        DESTROYED.clear();
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS, "4");
+        startContainer(ViaDependent.class, DependentHelper.class, ViaInstance.class, Shared.class, Target.class);
+
+        Assert.assertEquals("shared", getInstance(ViaDependent.class).call());
+        Assert.assertEquals("target", getInstance(ViaInstance.class).call());
+
+        shutDownContainer();
+
+        Assert.assertEquals(4, DESTROYED.size());
+        Assert.assertTrue(DESTROYED.indexOf("viaDependent") < DESTROYED.indexOf("shared"));
+        Assert.assertTrue(DESTROYED.indexOf("viaInstance") < DESTROYED.indexOf("target"));
+    }
+
+    @Test
+    public void testBeansUsedByTimedOutBeanGetDestroyedAfterIt() throws InterruptedException
+    {
+        DESTROYED.clear();
+        Stuck.RELEASE = new CountDownLatch(1);
+        Stuck.DONE = new CountDownLatch(1);
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS, "4");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_TIMEOUT, "200");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_DEADLINE, "400");
+        startContainer(Stuck.class, Back.class, Independent.class);
+
+        Assert.assertEquals("back", getInstance(Stuck.class).call());
+        Assert.assertEquals("independent", getInstance(Independent.class).call());
+
+        shutDownContainer();
+
+        // the shutdown doesn't wait for the stuck bean after the deadline, but the bean it uses must not get destroyed meanwhile
+        Assert.assertEquals(Collections.singletonList("independent"), DESTROYED);
+
+        Stuck.RELEASE.countDown();
+        Assert.assertTrue(Stuck.DONE.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 100 && DESTROYED.size() < 3; i++)
+        {
+            Thread.sleep(50L);
+        }
+        Assert.assertEquals(Arrays.asList("independent", "stuck", "back"), DESTROYED);
+    }
+
+    @Test
+    public void testTimedOutBeansGetAwaitedUntilTheDeadline()
+    {
+        DESTROYED.clear();
+        Stuck.RELEASE = new CountDownLatch(1);
+        Stuck.DONE = new CountDownLatch(1);
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS, "4");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_TIMEOUT, "200");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_DEADLINE, "10000");
+        startContainer(Stuck.class, Back.class, Independent.class);
+
+        Assert.assertEquals("back", getInstance(Stuck.class).call());
+        Assert.assertEquals("independent", getInstance(Independent.class).call());
+
+        Thread releaser = new Thread(() ->
+        {
+            sleep(500L);
+            Stuck.RELEASE.countDown();
+        });
+        releaser.start();
+        shutDownContainer();
+
+        // the bean exceeded the timeout but finished before the deadline
+        Assert.assertEquals(Arrays.asList("independent", "stuck", "back"), DESTROYED);
+    }
+
+    @Test
+    public void testPreDestroyOfDependentInstancesCounts()
+    {
+        DESTROYED.clear();
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_CONTEXT_DESTRUCTION, "true");
+        addConfiguration(OpenWebBeansConfiguration.CONTEXT_DESTRUCTION_THREADS, "4");
+        startContainer(CleanupOwner.class, Cleanup.class, Independent.class);
+
+        Assert.assertEquals("cleanup", getInstance(CleanupOwner.class).call());
+        Assert.assertEquals("independent", getInstance(Independent.class).call());
+
+        shutDownContainer();
+
+        // the owner has no @PreDestroy itself but must not get destroyed on the calling thread without a timeout
+        Assert.assertTrue(DESTROYED.toString(), DESTROYED.contains("cleanup"));
+        Assert.assertTrue(Cleanup.thread, Cleanup.thread.startsWith("OwbContextDestroyer-"));
+    }
+
+    @ApplicationScoped
+    public static class CleanupOwner
+    {
+        @Inject
+        private Cleanup cleanup;
+
+        public String call()
+        {
+            return cleanup.call();
+        }
+    }
+
+    @Dependent
+    public static class Cleanup
+    {
+        private static volatile String thread;
+
+        public String call()
+        {
+            return "cleanup";
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            thread = Thread.currentThread().getName();
+            DESTROYED.add("cleanup");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Front
+    {
+        @Inject
+        private Middle middle;
+
+        public String call()
+        {
+            return middle.call();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            // the injected bean must still be usable
+            middle.call();
+            DESTROYED.add("front");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Middle
+    {
+        @Inject
+        private Back back;
+
+        public String call()
+        {
+            return back.call();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            back.call();
+            DESTROYED.add("middle");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Back
+    {
+        public String call()
+        {
+            return "back";
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("back");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Independent
+    {
+        public String call()
+        {
+            return "independent";
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("independent");
+        }
+    }
+
+    @ApplicationScoped
+    public static class ViaDependent
+    {
+        @Inject
+        private DependentHelper helper;
+
+        public String call()
+        {
+            return helper.call();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            // give the used bean a chance to get destroyed first if the dependency got missed
+            sleep(100L);
+            helper.call();
+            DESTROYED.add("viaDependent");
+        }
+    }
+
+    @Dependent
+    public static class DependentHelper
+    {
+        @Inject
+        private Shared shared;
+
+        public String call()
+        {
+            return shared.call();
+        }
+    }
+
+    @ApplicationScoped
+    public static class Shared
+    {
+        public String call()
+        {
+            return "shared";
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("shared");
+        }
+    }
+
+    @ApplicationScoped
+    public static class ViaInstance
+    {
+        @Inject
+        private Instance<Target> target;
+
+        public String call()
+        {
+            return target.get().call();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            sleep(100L);
+            target.get().call();
+            DESTROYED.add("viaInstance");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Target
+    {
+        public String call()
+        {
+            return "target";
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            DESTROYED.add("target");
+        }
+    }
+
+    @ApplicationScoped
+    public static class Stuck
+    {
+        private static CountDownLatch RELEASE;
+        private static CountDownLatch DONE;
+
+        @Inject
+        private Back back;
+
+        public String call()
+        {
+            return back.call();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            // ignores interrupts like many real world cleanups do
+            long giveUp = System.currentTimeMillis() + 10000L;
+            boolean released = false;
+            while (!released && System.currentTimeMillis() < giveUp)
+            {
+                try
+                {
+                    released = RELEASE.await(giveUp - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                }
+                catch (InterruptedException e)
+                {
+                    // keep waiting
+                }
+            }
+            back.call();
+            DESTROYED.add("stuck");
+            DONE.countDown();
+        }
+    }
+
+    @ApplicationScoped
+    public static class NoPreDestroy
+    {
+        public String call()
+        {
+            return "none";
+        }
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
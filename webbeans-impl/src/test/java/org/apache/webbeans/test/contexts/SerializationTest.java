@@ -25,6 +25,7 @@ import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.container.SerializableBean;
 import org.apache.webbeans.context.SessionContext;
 import org.apache.webbeans.service.ClassLoaderProxyService;
+import org.apache.webbeans.service.HiddenClassProxyService;
 import org.apache.webbeans.spi.DefiningClassService;
 import org.apache.webbeans.test.AbstractUnitTest;
 import org.apache.webbeans.test.contexts.serialize.AppScopedBean;
@@ -176,6 +177,15 @@ public class SerializationTest extends AbstractUnitTest
                 getWebBeansContext().getService(DefiningClassService.class)));
     }
 
+    @Test
+    public void testProxySerializationWithHiddenClassProxy() throws Exception
+    {
+        addService(DefiningClassService.class, HiddenClassProxyService.class);
+        doProxySerialization();
+        assertTrue(HiddenClassProxyService.class.isInstance(
+                getWebBeansContext().getService(DefiningClassService.class)));
+    }
+
     private void doProxySerialization() throws IOException, ClassNotFoundException
     {
         Collection<Class<?>> classes = new ArrayList<Class<?>>();
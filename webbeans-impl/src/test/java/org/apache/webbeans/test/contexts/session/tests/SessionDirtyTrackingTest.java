@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts.session.tests;
+
+import java.util.Collections;
+
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.contexts.session.common.DirtyTrackedSessionBean;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SessionDirtyTrackingTest extends AbstractUnitTest
+{
+    @Test
+    public void testDirtyTracking()
+    {
+        startContainer(DirtyTrackedSessionBean.class);
+
+        SessionContext sessionContext = (SessionContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        sessionContext.setDirtyTracking(true);
+
+        Bean<?> bean = getBeanManager().resolve(getBeanManager().getBeans(DirtyTrackedSessionBean.class));
+        DirtyTrackedSessionBean instance = getInstance(DirtyTrackedSessionBean.class);
+
+        instance.setValue("a");
+        Assert.assertEquals(Collections.singleton(bean), sessionContext.consumeDirtyContextuals());
+        Assert.assertTrue(sessionContext.consumeDirtyContextuals().isEmpty());
+
+        // simulate a new request
+        SessionScopedBeanInterceptorHandler.removeThreadLocals();
+
+        Assert.assertEquals("a", instance.getValue());
+        Assert.assertTrue(sessionContext.consumeDirtyContextuals().isEmpty());
+
+        instance.setValue("b");
+        Assert.assertEquals(Collections.singleton(bean), sessionContext.consumeDirtyContextuals());
+        Assert.assertEquals("b", instance.getValue());
+    }
+}
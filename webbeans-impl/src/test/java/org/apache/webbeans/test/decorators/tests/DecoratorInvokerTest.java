@@ -0,0 +1,294 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.decorators.tests;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.component.InjectionTargetBean;
+import org.apache.webbeans.intercept.DecoratorChain;
+import org.apache.webbeans.intercept.InterceptorResolutionService.BusinessMethodInterceptorInfo;
+import org.apache.webbeans.portable.AbstractProducer;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DecoratorInvokerTest extends AbstractUnitTest
+{
+    @Test
+    public void testDecoratorChain() throws Exception
+    {
+        startContainer(Repository.class, RepositoryImpl.class, OuterDecorator.class, InnerDecorator.class, HiddenDecorator.class);
+
+        Repository repository = getInstance(Repository.class);
+        Assert.assertEquals("outer(inner(hidden(entity1)))", repository.find(1));
+        Assert.assertEquals(42L + 3, repository.count());
+
+        repository.store("ok");
+        try
+        {
+            repository.store("fail");
+            Assert.fail("the checked exception must get propagated");
+        }
+        catch (IOException expected)
+        {
+            Assert.assertEquals("fail", expected.getMessage());
+        }
+    }
+
+    @Test
+    public void testDecoratorChainKnowsTheNextHop() throws Exception
+    {
+        startContainer(Repository.class, RepositoryImpl.class, OuterDecorator.class, InnerDecorator.class, HiddenDecorator.class);
+
+        DecoratorChain find = getDecoratorChain(RepositoryImpl.class.getMethod("find", int.class));
+        Assert.assertEquals(0, find.getNextDecorator(0));
+        Assert.assertEquals(1, find.getNextDecorator(1));
+        Assert.assertEquals(2, find.getNextDecorator(2));
+        Assert.assertEquals(-1, find.getNextDecorator(3));
+        Assert.assertEquals("entity7", find.invoke(3, new RepositoryImpl(), new Object[]{7}));
+
+        // the outer decorator doesn't decorate store, so the chain starts with the inner one
+        DecoratorChain store = getDecoratorChain(RepositoryImpl.class.getMethod("store", String.class));
+        Assert.assertEquals(1, store.getNextDecorator(0));
+        Assert.assertEquals(1, store.getNextDecorator(1));
+        Assert.assertNull(store.invoke(3, new RepositoryImpl(), new Object[]{"ok"}));
+    }
+
+    @Test
+    public void testNoReflectiveHopForNonPublicDecorators()
+    {
+        startContainer(Tracer.class, TracerImpl.class, FirstTracerDecorator.class, HiddenTracerDecorator.class);
+
+        assertNoReflectiveHop(getInstance(Tracer.class).trace(), HiddenTracerDecorator.class);
+    }
+
+    @Test
+    public void testNoReflectiveHopInDecoratorChain()
+    {
+        startContainer(Tracer.class, TracerImpl.class, FirstTracerDecorator.class, SecondTracerDecorator.class);
+
+        assertNoReflectiveHop(getInstance(Tracer.class).trace(), SecondTracerDecorator.class);
+    }
+
+    private void assertNoReflectiveHop(StackTraceElement[] stackTrace, Class<?> secondDecoratorClass)
+    {
+        boolean firstDecorator = false;
+        boolean secondDecorator = false;
+        for (StackTraceElement element : stackTrace)
+        {
+            if (element.getClassName().equals(DecoratorInvokerTest.class.getName()))
+            {
+                // everything below is the test runner
+                break;
+            }
+            Assert.assertFalse("reflective hop in the decorator chain: " + element,
+                    element.getClassName().startsWith("java.lang.reflect.") || element.getClassName().startsWith("jdk.internal.reflect."));
+
+            firstDecorator |= element.getClassName().startsWith(FirstTracerDecorator.class.getName());
+            secondDecorator |= element.getClassName().startsWith(secondDecoratorClass.getName());
+        }
+        Assert.assertTrue(firstDecorator);
+        Assert.assertTrue(secondDecorator);
+    }
+
+    private DecoratorChain getDecoratorChain(Method method)
+    {
+        Bean<?> bean = getBeanManager().resolve(getBeanManager().getBeans(RepositoryImpl.class));
+        AbstractProducer<?> producer = (AbstractProducer<?>) ((InjectionTargetBean<?>) bean).getProducer();
+        BusinessMethodInterceptorInfo methodInfo = producer.getInterceptorInfo().getBusinessMethodsInfo().get(method);
+        return methodInfo.getDecoratorChain();
+    }
+
+    public interface Tracer
+    {
+        StackTraceElement[] trace();
+    }
+
+    @ApplicationScoped
+    public static class TracerImpl implements Tracer
+    {
+        @Override
+        public StackTraceElement[] trace()
+        {
+            return new Throwable().getStackTrace();
+        }
+    }
+
+    @Decorator
+    @Priority(10)
+    public abstract static class FirstTracerDecorator implements Tracer
+    {
+        @Inject
+        @Delegate
+        private Tracer delegate;
+
+        @Override
+        public StackTraceElement[] trace()
+        {
+            return delegate.trace();
+        }
+    }
+
+    @Decorator
+    @Priority(20)
+    public static class SecondTracerDecorator implements Tracer
+    {
+        @Inject
+        @Delegate
+        private Tracer delegate;
+
+        @Override
+        public StackTraceElement[] trace()
+        {
+            return delegate.trace();
+        }
+    }
+
+    @Decorator
+    @Priority(20)
+    static class HiddenTracerDecorator implements Tracer
+    {
+        @Inject
+        @Delegate
+        private Tracer delegate;
+
+        @Override
+        public StackTraceElement[] trace()
+        {
+            return delegate.trace();
+        }
+    }
+
+    public interface Repository
+    {
+        String find(int id);
+
+        long count();
+
+        void store(String entity) throws IOException;
+    }
+
+    @ApplicationScoped
+    public static class RepositoryImpl implements Repository
+    {
+        @Override
+        public String find(int id)
+        {
+            return "entity" + id;
+        }
+
+        @Override
+        public long count()
+        {
+            return 42L;
+        }
+
+        @Override
+        public void store(String entity) throws IOException
+        {
+            if ("fail".equals(entity))
+            {
+                throw new IOException(entity);
+            }
+        }
+    }
+
+    @Decorator
+    @Priority(10)
+    public abstract static class OuterDecorator implements Repository
+    {
+        @Inject
+        @Delegate
+        private Repository delegate;
+
+        @Override
+        public String find(int id)
+        {
+            return "outer(" + delegate.find(id) + ")";
+        }
+
+        @Override
+        public long count()
+        {
+            return delegate.count() + 1;
+        }
+    }
+
+    @Decorator
+    @Priority(20)
+    public static class InnerDecorator implements Repository
+    {
+        @Inject
+        @Delegate
+        private Repository delegate;
+
+        @Override
+        public String find(int id)
+        {
+            return "inner(" + delegate.find(id) + ")";
+        }
+
+        @Override
+        public long count()
+        {
+            return delegate.count() + 1;
+        }
+
+        @Override
+        public void store(String entity) throws IOException
+        {
+            delegate.store(entity);
+        }
+    }
+
+    @Decorator
+    @Priority(30)
+    static class HiddenDecorator implements Repository
+    {
+        @Inject
+        @Delegate
+        private Repository delegate;
+
+        @Override
+        public String find(int id)
+        {
+            return "hidden(" + delegate.find(id) + ")";
+        }
+
+        @Override
+        public long count()
+        {
+            return delegate.count() + 1;
+        }
+
+        @Override
+        public void store(String entity) throws IOException
+        {
+            delegate.store(entity);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.async;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.event.AsyncEventBackpressure;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncEventBackpressureTest extends AbstractUnitTest
+{
+    private final QueueingExecutor executor = new QueueingExecutor();
+
+    @Test
+    public void testFail() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING, "2");
+        startContainer(LimitedObserver.class);
+
+        CompletableFuture<?> first = fire(new LimitedEvent("a"));
+        CompletableFuture<?> second = fire(new LimitedEvent("b"));
+        CompletableFuture<?> third = fire(new LimitedEvent("c"));
+        assertRejected(third);
+
+        AsyncEventBackpressure.Channel channel = getChannel("");
+        Assert.assertEquals(2, channel.getQueueDepth());
+        Assert.assertEquals(2, channel.getPending());
+        Assert.assertEquals(1, channel.getRejectedCount());
+
+        executor.runAll();
+        first.get(1, TimeUnit.MINUTES);
+        second.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(0, channel.getQueueDepth());
+        Assert.assertEquals(0, channel.getPending());
+        Assert.assertEquals(Arrays.asList("a", "b"), getInstance(LimitedObserver.class).getObserved());
+    }
+
+    @Test
+    public void testDropOldest() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING, "2");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY, "drop_oldest");
+        startContainer(LimitedObserver.class);
+
+        CompletableFuture<?> first = fire(new LimitedEvent("a"));
+        CompletableFuture<?> second = fire(new LimitedEvent("b"));
+        CompletableFuture<?> third = fire(new LimitedEvent("c"));
+        assertRejected(first);
+        Assert.assertEquals(1, getChannel("").getDroppedCount());
+
+        executor.runAll();
+        second.get(1, TimeUnit.MINUTES);
+        third.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(Arrays.asList("b", "c"), getInstance(LimitedObserver.class).getObserved());
+    }
+
+    @Test
+    public void testCallerRunsPerEventType() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING + '.' + LimitedEvent.class.getName(), "1");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY + '.' + LimitedEvent.class.getName(), "caller_runs");
+        startContainer(LimitedObserver.class);
+
+        fire(new LimitedEvent("a"));
+        CompletableFuture<?> second = fire(new LimitedEvent("b"));
+        second.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(Collections.singletonList("b"), getInstance(LimitedObserver.class).getObserved());
+        Assert.assertEquals(1, getChannel(LimitedEvent.class.getName()).getCallerRunsCount());
+
+        // other events are not limited
+        int queued = executor.size();
+        for (int i = 0; i < 5; i++)
+        {
+            getBeanManager().getEvent().fireAsync(new UnlimitedEvent());
+        }
+        Assert.assertEquals(queued + 5, executor.size());
+        Assert.assertNull(getWebBeansContext().getNotificationManager().getAsyncEventBackpressure().getChannels().get(""));
+    }
+
+    @Test
+    public void testBlockTimesOut() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING, "1");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY, "block");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_BLOCK_TIMEOUT, "100");
+        startContainer(LimitedObserver.class);
+
+        CompletableFuture<?> first = fire(new LimitedEvent("a"));
+        CompletableFuture<?> second = CompletableFuture.supplyAsync(() -> fire(new LimitedEvent("b")))
+                .get(1, TimeUnit.MINUTES);
+        assertRejected(second);
+        Assert.assertEquals(1, getChannel("").getRejectedCount());
+
+        executor.runAll();
+        first.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(Collections.singletonList("a"), getInstance(LimitedObserver.class).getObserved());
+    }
+
+    @Test
+    public void testBlockDoesNotWaitForItself() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_PENDING, "1");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_OVERFLOW_POLICY, "block");
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_BLOCK_TIMEOUT, "0");
+        startContainer(LimitedObserver.class, ChainObserver.class);
+
+        CompletableFuture<?> first = getBeanManager().getEvent().fireAsync(new ChainEvent(2)).toCompletableFuture();
+
+        // the observer fires into its own full channel and waits for the result
+        CompletableFuture.runAsync(executor::runAll).get(1, TimeUnit.MINUTES);
+        first.get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(Arrays.asList(2, 1, 0), getInstance(ChainObserver.class).getObserved());
+        Assert.assertEquals(2, getChannel("").getCallerRunsCount());
+        Assert.assertEquals(0, getChannel("").getPending());
+    }
+
+    private CompletableFuture<?> fire(LimitedEvent event)
+    {
+        return getBeanManager().getEvent().fireAsync(event).toCompletableFuture();
+    }
+
+    private AsyncEventBackpressure.Channel getChannel(String name)
+    {
+        return getWebBeansContext().getNotificationManager().getAsyncEventBackpressure().getChannels().get(name);
+    }
+
+    private static void assertRejected(CompletableFuture<?> future) throws Exception
+    {
+        try
+        {
+            future.get(1, TimeUnit.MINUTES);
+            Assert.fail("RejectedExecutionException expected");
+        }
+        catch (ExecutionException e)
+        {
+            Throwable cause = e.getCause();
+            while (cause != null && !(cause instanceof RejectedExecutionException))
+            {
+                cause = cause.getCause();
+            }
+            Assert.assertNotNull(cause);
+        }
+    }
+
+    @Override
+    protected void startContainer(Class<?>... beanClasses)
+    {
+        addService(Executor.class, executor);
+        super.startContainer(beanClasses);
+    }
+
+    public static class LimitedEvent
+    {
+        private final String value;
+
+        public LimitedEvent(String value)
+        {
+            this.value = value;
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+    }
+
+    public static class UnlimitedEvent
+    {
+    }
+
+    @ApplicationScoped
+    public static class LimitedObserver
+    {
+        private final List<String> observed = Collections.synchronizedList(new ArrayList<>());
+
+        public void observe(@ObservesAsync LimitedEvent event)
+        {
+            observed.add(event.getValue());
+        }
+
+        public void observe(@ObservesAsync UnlimitedEvent event)
+        {
+            // nothing to do
+        }
+
+        public List<String> getObserved()
+        {
+            return observed;
+        }
+    }
+
+    public static class ChainEvent
+    {
+        private final int remaining;
+
+        public ChainEvent(int remaining)
+        {
+            this.remaining = remaining;
+        }
+
+        public int getRemaining()
+        {
+            return remaining;
+        }
+    }
+
+    @ApplicationScoped
+    public static class ChainObserver
+    {
+        private final List<Integer> observed = Collections.synchronizedList(new ArrayList<>());
+
+        @Inject
+        private Event<ChainEvent> event;
+
+        public void observe(@ObservesAsync ChainEvent chainEvent) throws Exception
+        {
+            observed.add(chainEvent.getRemaining());
+            if (chainEvent.getRemaining() > 0)
+            {
+                event.fireAsync(new ChainEvent(chainEvent.getRemaining() - 1)).toCompletableFuture().get(1, TimeUnit.MINUTES);
+            }
+        }
+
+        public List<Integer> getObserved()
+        {
+            return observed;
+        }
+    }
+
+    /**
+     * Only runs the tasks when told to do so.
+     */
+    public static class QueueingExecutor implements Executor
+    {
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public synchronized void execute(Runnable command)
+        {
+            tasks.add(command);
+        }
+
+        public synchronized int size()
+        {
+            return tasks.size();
+        }
+
+        public void runAll()
+        {
+            List<Runnable> toRun;
+            synchronized (this)
+            {
+                toRun = new ArrayList<>(tasks);
+                tasks.clear();
+            }
+            toRun.forEach(Runnable::run);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.async;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncEventExecutorTest extends AbstractUnitTest
+{
+    @Test
+    public void testVirtualThreadExecutor() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_EXECUTOR, "virtual");
+        startContainer(AsyncObserver.class);
+
+        AsyncObserver observer = getInstance(AsyncObserver.class);
+        getBeanManager().getEvent().fireAsync(new AsyncEvent()).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        Assert.assertEquals(3, observer.getThreads().size());
+
+        Method isVirtual = getIsVirtualMethod();
+        if (isVirtual != null)
+        {
+            for (Thread thread : observer.getThreads())
+            {
+                Assert.assertTrue((Boolean) isVirtual.invoke(thread));
+            }
+        }
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_IN_FLIGHT, "1");
+        startContainer(AsyncObserver.class);
+
+        AsyncObserver observer = getInstance(AsyncObserver.class);
+        for (int i = 0; i < 5; i++)
+        {
+            getBeanManager().getEvent().fireAsync(new AsyncEvent()).toCompletableFuture().get(1, TimeUnit.MINUTES);
+        }
+        Assert.assertEquals(15, observer.getThreads().size());
+        Assert.assertEquals(1, observer.getMaxConcurrent());
+    }
+
+    @Test
+    public void testNestedAsyncEventWithMaxInFlight() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.ASYNC_EVENT_MAX_IN_FLIGHT, "1");
+        startContainer(NestingObserver.class);
+
+        NestingObserver observer = getInstance(NestingObserver.class);
+        getBeanManager().getEvent().fireAsync(new AsyncEvent()).toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        // the outer observer holds the only slot while firing, thus the nested event must get queued
+        Assert.assertTrue(observer.getNestedDelivered().await(1, TimeUnit.MINUTES));
+    }
+
+    private static Method getIsVirtualMethod()
+    {
+        try
+        {
+            return Thread.class.getMethod("isVirtual");
+        }
+        catch (NoSuchMethodException e)
+        {
+            return null;
+        }
+    }
+
+    public static class AsyncEvent
+    {
+    }
+
+    public static class NestedEvent
+    {
+    }
+
+    @ApplicationScoped
+    public static class NestingObserver
+    {
+        @Inject
+        private Event<NestedEvent> nestedEvent;
+
+        private final CountDownLatch nestedDelivered = new CountDownLatch(1);
+
+        public void outer(@ObservesAsync AsyncEvent event)
+        {
+            nestedEvent.fireAsync(new NestedEvent());
+        }
+
+        public void nested(@ObservesAsync NestedEvent event)
+        {
+            nestedDelivered.countDown();
+        }
+
+        public CountDownLatch getNestedDelivered()
+        {
+            return nestedDelivered;
+        }
+    }
+
+    @ApplicationScoped
+    public static class AsyncObserver
+    {
+        private final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        public void first(@ObservesAsync AsyncEvent event) throws InterruptedException
+        {
+            observe();
+        }
+
+        public void second(@ObservesAsync AsyncEvent event) throws InterruptedException
+        {
+            observe();
+        }
+
+        public void third(@ObservesAsync AsyncEvent event) throws InterruptedException
+        {
+            observe();
+        }
+
+        private void observe() throws InterruptedException
+        {
+            int current = running.incrementAndGet();
+            maxConcurrent.accumulateAndGet(current, Math::max);
+            try
+            {
+                threads.add(Thread.currentThread());
+                Thread.sleep(20);
+            }
+            finally
+            {
+                running.decrementAndGet();
+            }
+        }
+
+        public List<Thread> getThreads()
+        {
+            return threads;
+        }
+
+        public int getMaxConcurrent()
+        {
+            return maxConcurrent.get();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.async;
+
+import static java.util.Arrays.asList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.event.ObservesAsync;
+
+import org.apache.webbeans.event.PartitionedEventDelivery;
+import org.apache.webbeans.spi.api.PartitionKey;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionedAsyncEventTest extends AbstractUnitTest
+{
+    @Test
+    public void testOrderPerPartitionKey() throws Exception
+    {
+        startContainer(OrderObserver.class);
+
+        List<CompletableFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++)
+        {
+            futures.add(getBeanManager().getEvent().fireAsync(new OrderChanged("order-" + (i % 3), i)).toCompletableFuture());
+        }
+        for (CompletableFuture<?> future : futures)
+        {
+            future.get(1, TimeUnit.MINUTES);
+        }
+
+        OrderObserver observer = getInstance(OrderObserver.class);
+        Assert.assertFalse(observer.isOverlapping());
+        Assert.assertEquals(3, observer.getSequences().size());
+        for (List<String> sequence : observer.getSequences().values())
+        {
+            Assert.assertEquals(40, sequence.size());
+            for (int i = 0; i < sequence.size(); i += 2)
+            {
+                // the first observer and then the second one for each event, events in firing order
+                String[] first = sequence.get(i).split(":");
+                String[] second = sequence.get(i + 1).split(":");
+                Assert.assertEquals("first", first[0]);
+                Assert.assertEquals("second", second[0]);
+                Assert.assertEquals(first[1], second[1]);
+                if (i > 0)
+                {
+                    Assert.assertTrue(Integer.parseInt(first[1]) > Integer.parseInt(sequence.get(i - 1).split(":")[1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionKeyResolution()
+    {
+        startContainer();
+
+        PartitionedEventDelivery delivery = getWebBeansContext().getNotificationManager().getPartitionedEventDelivery();
+        Assert.assertEquals("order-1", delivery.getPartitionKey(new OrderChanged("order-1", 0)));
+        Assert.assertEquals("order-2", delivery.getPartitionKey(new SpecialOrderChanged("order-2")));
+        Assert.assertNull(delivery.getPartitionKey(new Object()));
+
+        delivery.registerPartitionKey(CustomerChanged.class, CustomerChanged::getCustomerId);
+        Assert.assertEquals(42L, delivery.getPartitionKey(new CustomerChanged(42L)));
+    }
+
+    @Test
+    public void testMostSpecificRegisteredPartitionKey()
+    {
+        startContainer();
+
+        PartitionedEventDelivery delivery = getWebBeansContext().getNotificationManager().getPartitionedEventDelivery();
+        delivery.registerPartitionKey(Object.class, event -> "object");
+        delivery.registerPartitionKey(OrderChanged.class, event -> "order");
+        delivery.registerPartitionKey(SpecialOrderChanged.class, event -> "special");
+        Assert.assertEquals("special", delivery.getPartitionKey(new VerySpecialOrderChanged("order-3")));
+        Assert.assertEquals("order", delivery.getPartitionKey(new OrderChanged("order-1", 0)));
+        Assert.assertEquals("object", delivery.getPartitionKey(new CustomerChanged(42L)));
+    }
+
+    @Test
+    public void testEachEventRunsOnItsOwnExecutor() throws Exception
+    {
+        ExecutorService first = Executors.newSingleThreadExecutor(r -> new Thread(r, "partition-first"));
+        ExecutorService second = Executors.newSingleThreadExecutor(r -> new Thread(r, "partition-second"));
+        try
+        {
+            startContainer(LaneObserver.class);
+
+            LaneChanged blocking = new LaneChanged("lane", new CountDownLatch(1));
+            CompletableFuture<?> firstFuture = getBeanManager().getEvent()
+                    .fireAsync(blocking, NotificationOptions.ofExecutor(first)).toCompletableFuture();
+            LaneObserver observer = getInstance(LaneObserver.class);
+            Assert.assertTrue(observer.getStarted().await(1, TimeUnit.MINUTES));
+
+            // the lane is still busy on the first Executor when the second event arrives
+            CompletableFuture<?> secondFuture = getBeanManager().getEvent()
+                    .fireAsync(new LaneChanged("lane", null), NotificationOptions.ofExecutor(second)).toCompletableFuture();
+            blocking.release.countDown();
+            firstFuture.get(1, TimeUnit.MINUTES);
+            secondFuture.get(1, TimeUnit.MINUTES);
+
+            Assert.assertEquals(asList("partition-first", "partition-second"), observer.getThreads());
+        }
+        finally
+        {
+            first.shutdownNow();
+            second.shutdownNow();
+        }
+    }
+
+    public static class OrderChanged
+    {
+        @PartitionKey
+        private final String orderId;
+        private final int sequence;
+
+        public OrderChanged(String orderId, int sequence)
+        {
+            this.orderId = orderId;
+            this.sequence = sequence;
+        }
+
+        public String getOrderId()
+        {
+            return orderId;
+        }
+
+        public int getSequence()
+        {
+            return sequence;
+        }
+    }
+
+    public static class SpecialOrderChanged extends OrderChanged
+    {
+        public SpecialOrderChanged(String orderId)
+        {
+            super(orderId, 0);
+        }
+    }
+
+    public static class VerySpecialOrderChanged extends SpecialOrderChanged
+    {
+        public VerySpecialOrderChanged(String orderId)
+        {
+            super(orderId);
+        }
+    }
+
+    public static class LaneChanged
+    {
+        @PartitionKey
+        private final String lane;
+        private final CountDownLatch release;
+
+        public LaneChanged(String lane, CountDownLatch release)
+        {
+            this.lane = lane;
+            this.release = release;
+        }
+    }
+
+    @ApplicationScoped
+    public static class LaneObserver
+    {
+        private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        public void observe(@ObservesAsync LaneChanged event) throws InterruptedException
+        {
+            threads.add(Thread.currentThread().getName());
+            started.countDown();
+            if (event.release != null)
+            {
+                event.release.await(1, TimeUnit.MINUTES);
+            }
+        }
+
+        public List<String> getThreads()
+        {
+            return threads;
+        }
+
+        public CountDownLatch getStarted()
+        {
+            return started;
+        }
+    }
+
+    public static class CustomerChanged
+    {
+        private final Long customerId;
+
+        public CustomerChanged(Long customerId)
+        {
+            this.customerId = customerId;
+        }
+
+        public Long getCustomerId()
+        {
+            return customerId;
+        }
+    }
+
+    @ApplicationScoped
+    public static class OrderObserver
+    {
+        private final Map<String, List<String>> sequences = new ConcurrentHashMap<>();
+        private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+        private volatile boolean overlapping;
+
+        public void first(@ObservesAsync @Priority(1) OrderChanged event) throws InterruptedException
+        {
+            record("first", event);
+        }
+
+        public void second(@ObservesAsync @Priority(2) OrderChanged event) throws InterruptedException
+        {
+            record("second", event);
+        }
+
+        private void record(String observer, OrderChanged event) throws InterruptedException
+        {
+            if (!inProgress.add(event.getOrderId()))
+            {
+                overlapping = true;
+            }
+            try
+            {
+                sequences.computeIfAbsent(event.getOrderId(), k -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(observer + ":" + event.getSequence());
+                Thread.sleep(1);
+            }
+            finally
+            {
+                inProgress.remove(event.getOrderId());
+            }
+        }
+
+        public Map<String, List<String>> getSequences()
+        {
+            return sequences;
+        }
+
+        public boolean isOverlapping()
+        {
+            return overlapping;
+        }
+    }
+}
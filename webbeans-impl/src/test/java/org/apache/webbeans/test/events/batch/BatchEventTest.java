@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.batch;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.NotificationOptions;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.ObservesAsync;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.event.EventCoalescer;
+import org.apache.webbeans.event.EventMetadataImpl;
+import org.apache.webbeans.spi.api.BatchEvent;
+import org.apache.webbeans.spi.api.Batched;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BatchEventTest extends AbstractUnitTest
+{
+    @Test
+    public void testFireAll()
+    {
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchObserver observer = getInstance(BatchObserver.class);
+        getInstance(EventSource.class).getEvent().fireAll(Arrays.asList(new Invalidation("a"), new SpecialInvalidation("b"), new Invalidation("c")));
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), observer.getSingle());
+        Assert.assertEquals(Collections.singletonList("b"), observer.getSpecial());
+        Assert.assertEquals(1, observer.getBatches().size());
+        Assert.assertEquals(Arrays.asList("a", "b", "c"), observer.getBatches().get(0));
+    }
+
+    @Test
+    public void testFireAllAsync() throws Exception
+    {
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchObserver observer = getInstance(BatchObserver.class);
+        getInstance(EventSource.class).getEvent().fireAllAsync(Arrays.asList(new Invalidation("a"), new Invalidation("b")))
+                .toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        Assert.assertEquals(Arrays.asList("a", "b"), observer.getAsyncSingle());
+        Assert.assertEquals(1, observer.getAsyncBatches().size());
+        Assert.assertEquals(Arrays.asList("a", "b"), observer.getAsyncBatches().get(0));
+        Assert.assertTrue(observer.getSingle().isEmpty());
+    }
+
+    @Test
+    public void testFireCoalesced() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_WINDOW, "60000");
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_MAX_SIZE, "3");
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchObserver observer = getInstance(BatchObserver.class);
+        BatchEvent<Invalidation> event = getInstance(EventSource.class).getEvent();
+        List<CompletableFuture<Invalidation>> futures = new ArrayList<>();
+        for (String id : Arrays.asList("a", "b", "c", "d"))
+        {
+            futures.add(event.fireCoalesced(new Invalidation(id)).toCompletableFuture());
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertEquals(Arrays.asList("a", "b", "c").get(i), futures.get(i).get(1, TimeUnit.MINUTES).getId());
+        }
+        Assert.assertFalse(futures.get(3).isDone());
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("a", "b", "c")), observer.getAsyncBatches());
+
+        // pending batches get delivered on shutdown
+        shutDownContainer();
+        Assert.assertEquals("d", futures.get(3).get(1, TimeUnit.MINUTES).getId());
+    }
+
+    @Test
+    public void testNullEventsGetRejected()
+    {
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchEvent<Invalidation> event = getInstance(EventSource.class).getEvent();
+        try
+        {
+            event.fireAll(Arrays.asList(new Invalidation("a"), null));
+            Assert.fail("null events must get rejected");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // ok
+        }
+        try
+        {
+            event.fireAllAsync(Arrays.asList(new Invalidation("a"), null));
+            Assert.fail("null events must get rejected");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // ok
+        }
+        try
+        {
+            event.fireCoalesced(null);
+            Assert.fail("null events must get rejected");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            // ok
+        }
+        Assert.assertTrue(getInstance(BatchObserver.class).getSingle().isEmpty());
+    }
+
+    @Test
+    public void testCloseWhileFiringCoalesced() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_WINDOW, "60000");
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_MAX_SIZE, "100000");
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchEvent<Invalidation> event = getInstance(EventSource.class).getEvent();
+        List<CompletableFuture<Invalidation>> futures = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch firing = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++)
+        {
+            Thread thread = new Thread(() ->
+            {
+                firing.countDown();
+                try
+                {
+                    for (int i = 0; i < 100000; i++)
+                    {
+                        futures.add(event.fireCoalesced(new Invalidation("e" + i)).toCompletableFuture());
+                    }
+                }
+                catch (RejectedExecutionException expected)
+                {
+                    // closed
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        firing.await();
+        getWebBeansContext().getNotificationManager().getEventCoalescer().close();
+        for (Thread thread : threads)
+        {
+            thread.join();
+        }
+
+        // every accepted event got flushed by close()
+        for (CompletableFuture<Invalidation> future : new ArrayList<>(futures))
+        {
+            future.handle((result, error) -> null).get(1, TimeUnit.MINUTES);
+        }
+    }
+
+    @Test
+    public void testFireCoalescedTimeWindow() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_WINDOW, "20");
+        startContainer(EventSource.class, BatchObserver.class);
+
+        BatchObserver observer = getInstance(BatchObserver.class);
+        BatchEvent<Invalidation> event = getInstance(EventSource.class).getEvent();
+        CompletableFuture<Invalidation> first = event.fireCoalesced(new Invalidation("a")).toCompletableFuture();
+        CompletableFuture<Invalidation> second = event.fireCoalesced(new Invalidation("b")).toCompletableFuture();
+
+        Assert.assertEquals("a", first.get(1, TimeUnit.MINUTES).getId());
+        Assert.assertEquals("b", second.get(1, TimeUnit.MINUTES).getId());
+        Assert.assertEquals(Collections.singletonList(Arrays.asList("a", "b")), observer.getAsyncBatches());
+    }
+
+    @Test
+    public void testFireCoalescedKeepsTheExecutor() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_WINDOW, "60000");
+        addConfiguration(OpenWebBeansConfiguration.EVENT_COALESCE_MAX_SIZE, "2");
+        startContainer(EventSource.class, BatchObserver.class);
+
+        EventCoalescer coalescer = getWebBeansContext().getNotificationManager().getEventCoalescer();
+        EventMetadataImpl metadata = new EventMetadataImpl(null, Invalidation.class, null, new Annotation[0], getWebBeansContext());
+        CountingExecutor first = new CountingExecutor();
+        CountingExecutor second = new CountingExecutor();
+        List<CompletableFuture<Invalidation>> futures = new ArrayList<>();
+        futures.add(coalescer.fire(new Invalidation("a"), metadata, NotificationOptions.ofExecutor(first)).toCompletableFuture());
+        futures.add(coalescer.fire(new Invalidation("b"), metadata, NotificationOptions.ofExecutor(second)).toCompletableFuture());
+        futures.add(coalescer.fire(new Invalidation("c"), metadata, NotificationOptions.ofExecutor(first)).toCompletableFuture());
+        futures.add(coalescer.fire(new Invalidation("d"), metadata, NotificationOptions.ofExecutor(second)).toCompletableFuture());
+        for (CompletableFuture<Invalidation> future : futures)
+        {
+            future.get(1, TimeUnit.MINUTES);
+        }
+
+        List<List<String>> batches = getInstance(BatchObserver.class).getAsyncBatches();
+        Assert.assertEquals(2, batches.size());
+        Assert.assertTrue(batches.contains(Arrays.asList("a", "c")));
+        Assert.assertTrue(batches.contains(Arrays.asList("b", "d")));
+        Assert.assertTrue(first.getExecutions() > 0);
+        Assert.assertTrue(second.getExecutions() > 0);
+    }
+
+    @Test
+    public void testBatchOnlyGetsDeliveredToBatchedObservers() throws Exception
+    {
+        startContainer(EventSource.class, BatchObserver.class, CatchAllObserver.class);
+
+        BatchEvent<Invalidation> event = getInstance(EventSource.class).getEvent();
+        event.fireAll(Arrays.asList(new Invalidation("a"), new Invalidation("b")));
+        event.fireAllAsync(Arrays.asList(new Invalidation("c"), new Invalidation("d"))).toCompletableFuture().get(1, TimeUnit.MINUTES);
+
+        CatchAllObserver catchAll = getInstance(CatchAllObserver.class);
+        Assert.assertEquals(Arrays.asList("a", "b"), catchAll.getSync());
+        Assert.assertEquals(Arrays.asList("c", "d"), catchAll.getAsync());
+        Assert.assertEquals(1, getInstance(BatchObserver.class).getBatches().size());
+        Assert.assertEquals(1, getInstance(BatchObserver.class).getAsyncBatches().size());
+    }
+
+    public static class CountingExecutor implements Executor
+    {
+        private final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public void execute(Runnable command)
+        {
+            executions.incrementAndGet();
+            ForkJoinPool.commonPool().execute(command);
+        }
+
+        public int getExecutions()
+        {
+            return executions.get();
+        }
+    }
+
+    public static class Invalidation
+    {
+        private final String id;
+
+        public Invalidation(String id)
+        {
+            this.id = id;
+        }
+
+        public String getId()
+        {
+            return id;
+        }
+    }
+
+    public static class SpecialInvalidation extends Invalidation
+    {
+        public SpecialInvalidation(String id)
+        {
+            super(id);
+        }
+    }
+
+    @ApplicationScoped
+    public static class EventSource
+    {
+        @Inject
+        private Event<Invalidation> event;
+
+        public BatchEvent<Invalidation> getEvent()
+        {
+            return (BatchEvent<Invalidation>) event;
+        }
+    }
+
+    @ApplicationScoped
+    public static class CatchAllObserver
+    {
+        private final List<Object> sync = Collections.synchronizedList(new ArrayList<>());
+        private final List<Object> async = Collections.synchronizedList(new ArrayList<>());
+
+        public void onAnything(@Observes Object event)
+        {
+            record(sync, event);
+        }
+
+        public void onAnyList(@Observes List<?> events)
+        {
+            record(sync, events);
+        }
+
+        public void onAnythingAsync(@ObservesAsync Object event)
+        {
+            record(async, event);
+        }
+
+        private static void record(List<Object> events, Object event)
+        {
+            if (event instanceof Invalidation)
+            {
+                events.add(((Invalidation) event).getId());
+            }
+            else if (event instanceof List)
+            {
+                events.add(event);
+            }
+        }
+
+        public List<Object> getSync()
+        {
+            return sync;
+        }
+
+        public List<Object> getAsync()
+        {
+            return async;
+        }
+    }
+
+    @ApplicationScoped
+    public static class BatchObserver
+    {
+        private final List<String> single = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> special = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        private final List<String> asyncSingle = Collections.synchronizedList(new ArrayList<>());
+        private final List<List<String>> asyncBatches = Collections.synchronizedList(new ArrayList<>());
+
+        public void onInvalidation(@Observes Invalidation invalidation)
+        {
+            single.add(invalidation.getId());
+        }
+
+        public void onSpecialInvalidation(@Observes SpecialInvalidation invalidation)
+        {
+            special.add(invalidation.getId());
+        }
+
+        public void onInvalidations(@Observes @Batched List<Invalidation> invalidations)
+        {
+            batches.add(ids(invalidations));
+        }
+
+        public void onInvalidationAsync(@ObservesAsync Invalidation invalidation)
+        {
+            asyncSingle.add(invalidation.getId());
+        }
+
+        public void onInvalidationsAsync(@ObservesAsync @Batched List<Invalidation> invalidations)
+        {
+            asyncBatches.add(ids(invalidations));
+        }
+
+        private static List<String> ids(List<Invalidation> invalidations)
+        {
+            List<String> ids = new ArrayList<>();
+            for (Invalidation invalidation : invalidations)
+            {
+                ids.add(invalidation.getId());
+            }
+            return ids;
+        }
+
+        public List<String> getSingle()
+        {
+            return single;
+        }
+
+        public List<String> getSpecial()
+        {
+            return special;
+        }
+
+        public List<List<String>> getBatches()
+        {
+            return batches;
+        }
+
+        public List<String> getAsyncSingle()
+        {
+            return asyncSingle;
+        }
+
+        public List<List<String>> getAsyncBatches()
+        {
+            return asyncBatches;
+        }
+    }
+}
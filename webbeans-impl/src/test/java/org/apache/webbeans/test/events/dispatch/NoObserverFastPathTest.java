@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.dispatch;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.spi.Extension;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+import jakarta.enterprise.inject.spi.ProcessAnnotatedType;
+import jakarta.enterprise.inject.spi.ProcessBean;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NoObserverFastPathTest extends AbstractUnitTest
+{
+    @Test
+    public void testPossibleObservers()
+    {
+        startContainer(HookObserver.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        Assert.assertTrue(notificationManager.hasPossibleObservers(ObservedHook.class));
+        Assert.assertTrue(notificationManager.hasPossibleObservers(SpecialObservedHook.class));
+        Assert.assertTrue(notificationManager.hasPossibleObservers(Object.class));
+
+        // a subclass of the event type might implement Observable
+        Assert.assertTrue(notificationManager.hasPossibleObservers(UnobservedHook.class));
+
+        Assert.assertFalse(notificationManager.hasPossibleObservers(FinalHook.class));
+    }
+
+    @Test
+    public void testContainerEventObserversOfExtensions()
+    {
+        addExtension(new LifecycleExtension());
+        startContainer(HookSource.class);
+
+        // the lifecycle event interfaces could otherwise be implemented by a subclass of any event type
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        Assert.assertFalse(notificationManager.hasPossibleObservers(UnobservedHook.class));
+        Assert.assertFalse(notificationManager.hasPossibleObservers(HookSource.class));
+    }
+
+    @Test
+    public void testObserverAddedLater() throws Exception
+    {
+        startContainer(HookSource.class);
+
+        HookSource source = getInstance(HookSource.class);
+        source.fire(new FinalHook());
+        Assert.assertSame(source, source.fireAsync(source).toCompletableFuture().get(1, TimeUnit.MINUTES));
+
+        List<Object> received = new ArrayList<>();
+        getWebBeansContext().getNotificationManager().addObserver(new RecordingObserverMethod(received));
+
+        FinalHook hook = new FinalHook();
+        source.fire(hook);
+        Assert.assertEquals(Collections.singletonList(hook), received);
+    }
+
+    public interface Observable
+    {
+    }
+
+    public static class ObservedHook implements Observable
+    {
+    }
+
+    public static class SpecialObservedHook extends ObservedHook
+    {
+    }
+
+    public static class UnobservedHook
+    {
+    }
+
+    public static final class FinalHook
+    {
+    }
+
+    public static class LifecycleExtension implements Extension
+    {
+        void onProcessAnnotatedType(@Observes ProcessAnnotatedType<?> pat)
+        {
+            // only used to register the observer
+        }
+
+        void onProcessBean(@Observes ProcessBean<?> processBean)
+        {
+            // only used to register the observer
+        }
+    }
+
+    @ApplicationScoped
+    public static class HookObserver
+    {
+        public void onHook(@Observes Observable hook)
+        {
+            // only used to register the observer
+        }
+    }
+
+    @ApplicationScoped
+    public static class HookSource
+    {
+        @Inject
+        private Event<FinalHook> finalHookEvent;
+
+        @Inject
+        private Event<HookSource> sourceEvent;
+
+        public void fire(FinalHook hook)
+        {
+            finalHookEvent.fire(hook);
+        }
+
+        public CompletionStage<HookSource> fireAsync(HookSource source)
+        {
+            return sourceEvent.fireAsync(source);
+        }
+    }
+
+    private static final class RecordingObserverMethod implements ObserverMethod<FinalHook>
+    {
+        private final List<Object> received;
+
+        private RecordingObserverMethod(List<Object> received)
+        {
+            this.received = received;
+        }
+
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return NoObserverFastPathTest.class;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return FinalHook.class;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return Collections.singleton(Any.Literal.INSTANCE);
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return TransactionPhase.IN_PROGRESS;
+        }
+
+        @Override
+        public void notify(FinalHook event)
+        {
+            received.add(event);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.dispatch;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Annotation;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.util.AnnotationLiteral;
+import jakarta.inject.Inject;
+import jakarta.inject.Qualifier;
+
+import org.apache.webbeans.event.EventMetadataImpl;
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.event.ObserverDispatch;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObserverDispatchTableTest extends AbstractUnitTest
+{
+    @Test
+    public void testObserversGetNotifiedInOrder()
+    {
+        startContainer(EventSource.class, EventObserver.class);
+
+        EventSource source = getInstance(EventSource.class);
+        EventObserver observer = getInstance(EventObserver.class);
+
+        source.fire("a");
+        source.fire("b");
+        Assert.assertEquals(Arrays.asList("late:a", "all:a", "late:b", "all:b"), observer.getEvents());
+
+        observer.getEvents().clear();
+        source.fireImportant("c");
+        source.fireImportant("d");
+        Assert.assertEquals(Arrays.asList("important:c", "late:c", "all:c", "important:d", "late:d", "all:d"), observer.getEvents());
+
+        observer.getEvents().clear();
+        getBeanManager().getEvent().select(String.class, new ImportantLiteral()).fire("e");
+        Assert.assertEquals(Arrays.asList("important:e", "late:e", "all:e"), observer.getEvents());
+
+        observer.getEvents().clear();
+        getBeanManager().getEvent().select(Integer.class).fire(1);
+        Assert.assertTrue(observer.getEvents().isEmpty());
+    }
+
+    @Test
+    public void testDispatchGetsReused()
+    {
+        startContainer(EventObserver.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+
+        ObserverDispatch plain = notificationManager.getObserverDispatch("x", metadata());
+        Assert.assertSame(plain, notificationManager.getObserverDispatch("y", metadata()));
+        Assert.assertEquals(2, plain.getSyncObservers().size());
+        Assert.assertTrue(plain.getAsyncObservers().isEmpty());
+
+        ObserverDispatch important = notificationManager.getObserverDispatch("x", metadata(new ImportantLiteral()));
+        Assert.assertNotSame(plain, important);
+        Assert.assertEquals(3, important.getSyncObservers().size());
+
+        notificationManager.clearCaches();
+        Assert.assertNotSame(plain, notificationManager.getObserverDispatch("x", metadata()));
+    }
+
+    @Test
+    public void testQualifierSetIds()
+    {
+        startContainer();
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        int importantId = notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(new ImportantLiteral())));
+        Assert.assertEquals(importantId,
+                notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(new ImportantLiteral()))));
+        Assert.assertNotEquals(importantId,
+                notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(Default.Literal.INSTANCE))));
+
+        EventMetadataImpl metadata = metadata(new ImportantLiteral());
+        int metadataId = metadata.getQualifiersId();
+        Assert.assertEquals(metadataId, metadata(new ImportantLiteral()).getQualifiersId());
+        Assert.assertEquals(metadataId, metadata.select(String.class).getQualifiersId());
+        Assert.assertNotEquals(metadataId, metadata().getQualifiersId());
+    }
+
+    @Test
+    public void testQualifierSetIdsAreBounded()
+    {
+        startContainer(EventObserver.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        int importantId = notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(new ImportantLiteral())));
+
+        int lastId = 0;
+        for (int i = 0; i < 5000; i++)
+        {
+            lastId = notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(new TaggedLiteral("tag" + i))));
+        }
+        Assert.assertEquals(NotificationManager.UNCACHED_QUALIFIER_SET_ID, lastId);
+        Assert.assertEquals(importantId,
+                notificationManager.getQualifierSetId(new HashSet<>(Collections.<Annotation>singletonList(new ImportantLiteral()))));
+
+        // events with qualifier sets without an id still get resolved, but not cached
+        EventMetadataImpl metadata = metadata(new ImportantLiteral(), new TaggedLiteral("new"));
+        Assert.assertEquals(NotificationManager.UNCACHED_QUALIFIER_SET_ID, metadata.getQualifiersId());
+        ObserverDispatch dispatch = notificationManager.getObserverDispatch("x", metadata);
+        Assert.assertEquals(3, dispatch.getSyncObservers().size());
+        Assert.assertNotSame(dispatch, notificationManager.getObserverDispatch("x", metadata));
+    }
+
+    private EventMetadataImpl metadata(Annotation... qualifiers)
+    {
+        return new EventMetadataImpl(null, String.class, null, qualifiers, getWebBeansContext());
+    }
+
+    @Qualifier
+    @Retention(RUNTIME)
+    @Target({TYPE, METHOD, PARAMETER, FIELD})
+    public @interface Important
+    {
+    }
+
+    public static class ImportantLiteral extends AnnotationLiteral<Important> implements Important
+    {
+    }
+
+    @Qualifier
+    @Retention(RUNTIME)
+    @Target({TYPE, METHOD, PARAMETER, FIELD})
+    public @interface Tagged
+    {
+        String value();
+    }
+
+    public static class TaggedLiteral extends AnnotationLiteral<Tagged> implements Tagged
+    {
+        private final String value;
+
+        public TaggedLiteral(String value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public String value()
+        {
+            return value;
+        }
+    }
+
+    @ApplicationScoped
+    public static class EventSource
+    {
+        @Inject
+        private Event<String> event;
+
+        @Inject
+        @Important
+        private Event<String> importantEvent;
+
+        public void fire(String value)
+        {
+            event.fire(value);
+        }
+
+        public void fireImportant(String value)
+        {
+            importantEvent.fire(value);
+        }
+    }
+
+    @ApplicationScoped
+    public static class EventObserver
+    {
+        private final List<String> events = new ArrayList<>();
+
+        public void all(@Observes @Priority(200) String value)
+        {
+            events.add("all:" + value);
+        }
+
+        public void late(@Observes @Priority(100) String value)
+        {
+            events.add("late:" + value);
+        }
+
+        public void important(@Observes @Priority(10) @Important String value)
+        {
+            events.add("important:" + value);
+        }
+
+        public List<String> getEvents()
+        {
+            return events;
+        }
+    }
+}
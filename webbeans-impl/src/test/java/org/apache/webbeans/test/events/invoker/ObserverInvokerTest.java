@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.invoker;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.event.ObserverException;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.EventMetadata;
+
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObserverInvokerTest extends AbstractUnitTest
+{
+    private static final List<String> NOTIFICATIONS = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    public void testObserverMethodVariants()
+    {
+        NOTIFICATIONS.clear();
+        startContainer(InvokedObserver.class, DependentObserver.class, Helper.class);
+
+        getBeanManager().getEvent().fire(new Ping("x"));
+
+        Collections.sort(NOTIFICATIONS);
+        Assert.assertEquals(Arrays.asList(
+                "dependent-destroyed", "dependent:x",
+                "helper-destroyed", "private:x", "public:x", "static:x", "with-injection:x:" + Ping.class.getName()),
+                NOTIFICATIONS);
+    }
+
+    @Test
+    public void testCheckedException()
+    {
+        startContainer(FailingObserver.class);
+
+        try
+        {
+            getBeanManager().getEvent().fire(new Failure());
+            Assert.fail("observer exception expected");
+        }
+        catch (ObserverException e)
+        {
+            // checked exceptions get wrapped
+            Throwable cause = e.getCause();
+            while (cause != null && !(cause instanceof IOException))
+            {
+                cause = cause.getCause();
+            }
+            Assert.assertNotNull(cause);
+        }
+    }
+
+    @Test
+    public void testErrorsDoNotGetWrapped()
+    {
+        startContainer(ErrorObserver.class);
+
+        try
+        {
+            getBeanManager().getEvent().fire(new Fatal());
+            Assert.fail("error expected");
+        }
+        catch (FatalError e)
+        {
+            // expected, Errors get rethrown unchanged
+        }
+    }
+
+    public static class Ping
+    {
+        private final String value;
+
+        public Ping(String value)
+        {
+            this.value = value;
+        }
+
+        public String getValue()
+        {
+            return value;
+        }
+    }
+
+    public static class Failure
+    {
+    }
+
+    @ApplicationScoped
+    public static class InvokedObserver
+    {
+        public void onPublic(@Observes Ping ping)
+        {
+            NOTIFICATIONS.add("public:" + ping.getValue());
+        }
+
+        private void onPrivate(@Observes Ping ping)
+        {
+            NOTIFICATIONS.add("private:" + ping.getValue());
+        }
+
+        public static void onStatic(@Observes Ping ping)
+        {
+            NOTIFICATIONS.add("static:" + ping.getValue());
+        }
+
+        public String onWithInjection(Helper helper, @Observes Ping ping, EventMetadata metadata, BeanManager beanManager)
+        {
+            Assert.assertNotNull(beanManager);
+            NOTIFICATIONS.add("with-injection:" + ping.getValue() + ":" + helper.describe(metadata));
+            return "ignored return value";
+        }
+    }
+
+    @Dependent
+    public static class DependentObserver
+    {
+        public void onPing(@Observes Ping ping)
+        {
+            NOTIFICATIONS.add("dependent:" + ping.getValue());
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            NOTIFICATIONS.add("dependent-destroyed");
+        }
+    }
+
+    @Dependent
+    public static class Helper
+    {
+        public String describe(EventMetadata metadata)
+        {
+            return metadata.getType().getTypeName();
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            NOTIFICATIONS.add("helper-destroyed");
+        }
+    }
+
+    public static class Fatal
+    {
+    }
+
+    public static class FatalError extends Error
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
+    @ApplicationScoped
+    public static class ErrorObserver
+    {
+        public void onFatal(@Observes Fatal fatal)
+        {
+            throw new FatalError();
+        }
+    }
+
+    @ApplicationScoped
+    public static class FailingObserver
+    {
+        public void onFailure(@Observes Failure failure) throws IOException
+        {
+            throw new IOException("expected");
+        }
+    }
+}
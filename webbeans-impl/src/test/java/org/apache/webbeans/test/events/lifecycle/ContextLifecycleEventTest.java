@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.lifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Destroyed;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.event.Observes;
+
+import org.apache.webbeans.annotation.DestroyedLiteral;
+import org.apache.webbeans.annotation.InitializedLiteral;
+import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContextLifecycleEventTest extends AbstractUnitTest
+{
+    @Test
+    public void testRequestLifecycleEvents()
+    {
+        startContainer(RequestObserver.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        Assert.assertTrue(notificationManager.hasContextLifecycleObserver(InitializedLiteral.INSTANCE_REQUEST_SCOPED));
+        Assert.assertTrue(notificationManager.hasContextLifecycleObserver(DestroyedLiteral.INSTANCE_REQUEST_SCOPED));
+        Assert.assertFalse(notificationManager.hasContextLifecycleObserver(InitializedLiteral.INSTANCE_SESSION_SCOPED));
+
+        RequestObserver observer = getInstance(RequestObserver.class);
+        observer.getEvents().clear();
+
+        BeanManagerImpl beanManager = getWebBeansContext().getBeanManagerImpl();
+        for (int i = 0; i < 2; i++)
+        {
+            beanManager.fireContextLifecyleEvent("request" + i, InitializedLiteral.INSTANCE_REQUEST_SCOPED);
+            beanManager.fireContextLifecyleEvent(() -> "request" + 10, DestroyedLiteral.INSTANCE_REQUEST_SCOPED);
+        }
+        Assert.assertEquals(4, observer.getEvents().size());
+        Assert.assertEquals("initialized:request0", observer.getEvents().get(0));
+        Assert.assertEquals("destroyed:request10", observer.getEvents().get(3));
+
+        // a payload of another type must only reach matching observers
+        beanManager.fireContextLifecyleEvent(1, InitializedLiteral.INSTANCE_REQUEST_SCOPED);
+        Assert.assertEquals(5, observer.getEvents().size());
+        Assert.assertEquals("initialized:1", observer.getEvents().get(4));
+
+        beanManager.fireContextLifecyleEvent(Boolean.TRUE, DestroyedLiteral.INSTANCE_REQUEST_SCOPED);
+        Assert.assertEquals(5, observer.getEvents().size());
+    }
+
+    @Test
+    public void testPayloadSkippedWithoutObservers()
+    {
+        startContainer(RequestObserver.class);
+
+        getWebBeansContext().getBeanManagerImpl().fireContextLifecyleEvent(() ->
+        {
+            throw new IllegalStateException("payload must not get created");
+        }, InitializedLiteral.INSTANCE_SESSION_SCOPED);
+    }
+
+    @ApplicationScoped
+    public static class RequestObserver
+    {
+        private final List<String> events = new ArrayList<>();
+
+        public void initialized(@Observes @Initialized(RequestScoped.class) Object payload)
+        {
+            events.add("initialized:" + payload);
+        }
+
+        public void destroyed(@Observes @Destroyed(RequestScoped.class) String payload)
+        {
+            events.add("destroyed:" + payload);
+        }
+
+        public List<String> getEvents()
+        {
+            return events;
+        }
+    }
+}
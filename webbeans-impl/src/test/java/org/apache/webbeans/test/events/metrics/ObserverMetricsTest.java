@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.metrics;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.TabularData;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.Reception;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.spi.ObserverMethod;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.service.ObserverMetricsMXBean;
+import org.apache.webbeans.spi.ObserverMetricsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ObserverMetricsTest extends AbstractUnitTest
+{
+    @Test
+    public void testMetrics() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.OBSERVER_METRICS, "true");
+        startContainer(MeasuredObserver.class);
+
+        for (int i = 0; i < 3; i++)
+        {
+            getBeanManager().getEvent().fire(new Measured(false));
+        }
+        try
+        {
+            getBeanManager().getEvent().fire(new Measured(true));
+            Assert.fail("IllegalStateException expected");
+        }
+        catch (IllegalStateException e)
+        {
+            // expected
+        }
+
+        ObserverMetricsService.ObserverMetrics metrics = getMetrics("onMeasured");
+        Assert.assertEquals(4, metrics.getInvocationCount());
+        Assert.assertEquals(1, metrics.getExceptionCount());
+        Assert.assertTrue(metrics.getTotalLatencyNanos() >= metrics.getMaxLatencyNanos());
+        Assert.assertTrue(metrics.getMaxLatencyNanos() > 0);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Set<ObjectName> names = server.queryNames(new ObjectName("org.apache.webbeans:type=ObserverMetrics,*"), null);
+        Assert.assertEquals(1, names.size());
+        TabularData invocationCounts = (TabularData) server.getAttribute(names.iterator().next(), "InvocationCounts");
+        Assert.assertFalse(invocationCounts.isEmpty());
+
+        getWebBeansContext().getService(ObserverMetricsService.class).reset();
+        Assert.assertNull(getMetrics("onMeasured"));
+
+        shutDownContainer();
+        Assert.assertTrue(server.queryNames(new ObjectName("org.apache.webbeans:type=ObserverMetrics,*"), null).isEmpty());
+    }
+
+    @Test
+    public void testAverageLatencyOfObserversSharingAName()
+    {
+        addConfiguration(OpenWebBeansConfiguration.OBSERVER_METRICS, "true");
+        startContainer();
+
+        ObserverMetricsService metricsService = getWebBeansContext().getService(ObserverMetricsService.class);
+        SyntheticObserver first = new SyntheticObserver();
+        SyntheticObserver second = new SyntheticObserver();
+        metricsService.recordInvocation(first, TimeUnit.MILLISECONDS.toNanos(10), null);
+        for (int i = 0; i < 3; i++)
+        {
+            metricsService.recordInvocation(second, TimeUnit.MILLISECONDS.toNanos(2), null);
+        }
+
+        String name = SyntheticObserver.class.getName() + "#<synthetic>(" + Measured.class.getName() + ')';
+        ObserverMetricsMXBean mxBean = (ObserverMetricsMXBean) metricsService;
+        Assert.assertEquals(Long.valueOf(4), mxBean.getInvocationCounts().get(name));
+        Assert.assertEquals(4.0d, mxBean.getAverageLatencyMillis().get(name), 0.0001d);
+    }
+
+    private ObserverMetricsService.ObserverMetrics getMetrics(String method)
+    {
+        List<ObserverMetricsService.ObserverMetrics> allMetrics = getWebBeansContext().getService(ObserverMetricsService.class).getObserverMetrics();
+        for (ObserverMetricsService.ObserverMetrics metrics : allMetrics)
+        {
+            if (metrics.getObserver().contains(MeasuredObserver.class.getName() + '#' + method))
+            {
+                return metrics;
+            }
+        }
+        return null;
+    }
+
+    public static class Measured
+    {
+        private final boolean fail;
+
+        public Measured(boolean fail)
+        {
+            this.fail = fail;
+        }
+
+        public boolean isFail()
+        {
+            return fail;
+        }
+    }
+
+    @ApplicationScoped
+    public static class MeasuredObserver
+    {
+        public void onMeasured(@Observes Measured event) throws InterruptedException
+        {
+            Thread.sleep(1);
+            if (event.isFail())
+            {
+                throw new IllegalStateException("expected");
+            }
+        }
+    }
+
+    public static class SyntheticObserver implements ObserverMethod<Measured>
+    {
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return SyntheticObserver.class;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return Measured.class;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return TransactionPhase.IN_PROGRESS;
+        }
+
+        @Override
+        public void notify(Measured event)
+        {
+            // only used for recording metrics
+        }
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.proxy.OwbNormalScopeProxy;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DirectApplicationScopedInjectionTest extends AbstractUnitTest
+{
+    @Test
+    public void testDirectInjection()
+    {
+        Service.created = false;
+        addConfiguration(OpenWebBeansConfiguration.DIRECT_APPLICATION_SCOPED_INJECTION, "true");
+        startContainer(Service.class, Consumer.class, CycleA.class, CycleB.class, LookupService.class);
+
+        // created eagerly after the deployment got validated
+        Assert.assertTrue(Service.created);
+
+        Consumer consumer = getInstance(Consumer.class);
+        Assert.assertFalse(consumer.getService() instanceof OwbNormalScopeProxy);
+        Assert.assertSame(consumer.getService(), getInstance(Consumer.class).getService());
+        Assert.assertEquals("ok", consumer.getService().ping());
+
+        // programmatic lookups still return the proxy
+        Assert.assertTrue(getInstance(Service.class) instanceof OwbNormalScopeProxy);
+
+        // circular dependencies need the proxy to get resolved
+        Assert.assertTrue(consumer.getCycleA() instanceof OwbNormalScopeProxy);
+        Assert.assertTrue(consumer.getCycleA().getCycleB() instanceof OwbNormalScopeProxy);
+
+        // dynamic lookups might lead to a cycle as well
+        Assert.assertTrue(consumer.getLookupService() instanceof OwbNormalScopeProxy);
+    }
+
+    @Test
+    public void testCycleViaProxiedBean()
+    {
+        CallbackService.created = 0;
+        addConfiguration(OpenWebBeansConfiguration.DIRECT_APPLICATION_SCOPED_INJECTION, "true");
+        startContainer(CallbackService.class, RequestCallback.class, CallbackConsumer.class);
+
+        // the RequestScoped bean would otherwise receive the instance which is still getting created
+        CallbackConsumer consumer = getInstance(CallbackConsumer.class);
+        Assert.assertTrue(consumer.getCallbackService() instanceof OwbNormalScopeProxy);
+        Assert.assertTrue(consumer.getCallbackService().getCallback().getCallbackService() instanceof OwbNormalScopeProxy);
+        Assert.assertEquals(1, CallbackService.created);
+    }
+
+    @Test
+    public void testSelectedBeansOnly()
+    {
+        addConfiguration(OpenWebBeansConfiguration.DIRECT_APPLICATION_SCOPED_INJECTION, LookupService.class.getName());
+        startContainer(Service.class, Consumer.class, CycleA.class, CycleB.class, LookupService.class);
+
+        Consumer consumer = getInstance(Consumer.class);
+        Assert.assertTrue(consumer.getService() instanceof OwbNormalScopeProxy);
+        Assert.assertTrue(consumer.getLookupService() instanceof OwbNormalScopeProxy);
+    }
+
+    @Test
+    public void testProxyByDefault()
+    {
+        startContainer(Service.class, Consumer.class, CycleA.class, CycleB.class, LookupService.class);
+
+        Assert.assertTrue(getInstance(Consumer.class).getService() instanceof OwbNormalScopeProxy);
+    }
+
+    @ApplicationScoped
+    public static class Service
+    {
+        static boolean created;
+
+        @PostConstruct
+        public void init()
+        {
+            created = true;
+        }
+
+        public String ping()
+        {
+            return "ok";
+        }
+    }
+
+    @ApplicationScoped
+    public static class CycleA
+    {
+        @Inject
+        private CycleB cycleB;
+
+        public CycleB getCycleB()
+        {
+            return cycleB;
+        }
+    }
+
+    @ApplicationScoped
+    public static class CycleB
+    {
+        @Inject
+        private CycleA cycleA;
+
+        public CycleA getCycleA()
+        {
+            return cycleA;
+        }
+    }
+
+    @ApplicationScoped
+    public static class LookupService
+    {
+        @Inject
+        private Instance<Service> services;
+
+        public Service getService()
+        {
+            return services.get();
+        }
+    }
+
+    @ApplicationScoped
+    public static class CallbackService
+    {
+        static int created;
+
+        @Inject
+        private RequestCallback callback;
+
+        @PostConstruct
+        public void init()
+        {
+            created++;
+            callback.ping();
+        }
+
+        public RequestCallback getCallback()
+        {
+            return callback;
+        }
+    }
+
+    @RequestScoped
+    public static class RequestCallback
+    {
+        @Inject
+        private CallbackService callbackService;
+
+        public void ping()
+        {
+            // creating this bean must not resolve the CallbackService which is still getting created
+        }
+
+        public CallbackService getCallbackService()
+        {
+            return callbackService;
+        }
+    }
+
+    @Dependent
+    public static class CallbackConsumer
+    {
+        @Inject
+        private CallbackService callbackService;
+
+        public CallbackService getCallbackService()
+        {
+            return callbackService;
+        }
+    }
+
+    @Dependent
+    public static class Consumer
+    {
+        @Inject
+        private Service service;
+
+        @Inject
+        private CycleA cycleA;
+
+        @Inject
+        private LookupService lookupService;
+
+        public Service getService()
+        {
+            return service;
+        }
+
+        public CycleA getCycleA()
+        {
+            return cycleA;
+        }
+
+        public LookupService getLookupService()
+        {
+            return lookupService;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.Dependent;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InterceptorBinding;
+import jakarta.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.proxy.OwbInterceptedSubclass;
+import org.apache.webbeans.proxy.OwbInterceptorProxy;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InterceptedSubclassTest extends AbstractUnitTest
+{
+    @Test
+    public void testInterceptedSubclass() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.INTERCEPTED_SUBCLASS, "true");
+        startContainer(Calculator.class, Helper.class, CountingInterceptor.class);
+
+        Calculator calculator = getInstance(Calculator.class);
+        Assert.assertTrue(calculator instanceof OwbInterceptedSubclass);
+        Assert.assertFalse(calculator instanceof OwbInterceptorProxy);
+
+        // constructor and field injection happened on the instance itself
+        Assert.assertNotNull(calculator.getConstructorHelper());
+        Assert.assertNotNull(calculator.getFieldHelper());
+        Assert.assertTrue(calculator.isPostConstructed());
+
+        CountingInterceptor.INVOCATIONS.clear();
+
+        Assert.assertEquals(5L, calculator.add(2, 3L));
+        Assert.assertEquals("[add]", CountingInterceptor.INVOCATIONS.toString());
+
+        calculator.reset();
+        Assert.assertEquals("[add, reset]", CountingInterceptor.INVOCATIONS.toString());
+
+        try
+        {
+            calculator.fail();
+            Assert.fail("the checked exception must get propagated");
+        }
+        catch (IOException expected)
+        {
+            Assert.assertEquals("failed", expected.getMessage());
+        }
+        Assert.assertEquals("[add, reset, fail]", CountingInterceptor.INVOCATIONS.toString());
+    }
+
+    @Test
+    public void testProxyGetsUsedByDefault()
+    {
+        startContainer(Calculator.class, Helper.class, CountingInterceptor.class);
+
+        Calculator calculator = getInstance(Calculator.class);
+        Assert.assertTrue(calculator instanceof OwbInterceptorProxy);
+        Assert.assertEquals(5L, calculator.add(2, 3L));
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Counted
+    {
+    }
+
+    @Counted
+    @Interceptor
+    @Priority(100)
+    public static class CountingInterceptor
+    {
+        static final List<String> INVOCATIONS = new ArrayList<>();
+
+        @AroundInvoke
+        public Object count(InvocationContext ctx) throws Exception
+        {
+            INVOCATIONS.add(ctx.getMethod().getName());
+            return ctx.proceed();
+        }
+    }
+
+    @Dependent
+    public static class Helper
+    {
+    }
+
+    @Counted
+    @Dependent
+    public static class Calculator
+    {
+        private final Helper constructorHelper;
+
+        @Inject
+        private Helper fieldHelper;
+
+        private boolean postConstructed;
+
+        private long total;
+
+        protected Calculator()
+        {
+            constructorHelper = null;
+        }
+
+        @Inject
+        public Calculator(Helper constructorHelper)
+        {
+            this.constructorHelper = constructorHelper;
+        }
+
+        @PostConstruct
+        private void init()
+        {
+            postConstructed = true;
+        }
+
+        public long add(int a, long b)
+        {
+            total += a + b;
+            return total;
+        }
+
+        public void reset()
+        {
+            total = 0;
+        }
+
+        public void fail() throws IOException
+        {
+            throw new IOException("failed");
+        }
+
+        public Helper getConstructorHelper()
+        {
+            return constructorHelper;
+        }
+
+        public Helper getFieldHelper()
+        {
+            return fieldHelper;
+        }
+
+        public boolean isPostConstructed()
+        {
+            return postConstructed;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import jakarta.annotation.Priority;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InterceptorBinding;
+import jakarta.interceptor.InvocationContext;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ParallelProxyGenerationTest extends AbstractUnitTest
+{
+    @Test
+    public void testProxiesGetGeneratedDuringDeployment()
+    {
+        addConfiguration(OpenWebBeansConfiguration.PARALLEL_PROXY_GENERATION, "true");
+        addConfiguration(OpenWebBeansConfiguration.PROXY_GENERATION_THREADS, "4");
+        startContainer(TracingInterceptor.class, TracedService.class, RequestService.class, OtherService.class, DependentService.class);
+
+        NormalScopeProxyFactory normalScopeProxyFactory = getWebBeansContext().getNormalScopeProxyFactory();
+        Assert.assertNotNull(normalScopeProxyFactory.getCachedProxyClass(getBean(TracedService.class)));
+        Assert.assertNotNull(normalScopeProxyFactory.getCachedProxyClass(getBean(RequestService.class)));
+        Assert.assertNotNull(normalScopeProxyFactory.getCachedProxyClass(getBean(OtherService.class)));
+        Assert.assertNull(normalScopeProxyFactory.getCachedProxyClass(getBean(DependentService.class)));
+
+        Assert.assertNotNull(getWebBeansContext().getInterceptorDecoratorProxyFactory().getCachedProxyClass(getBean(TracedService.class)));
+        Assert.assertNotNull(getWebBeansContext().getInterceptorDecoratorProxyFactory().getCachedProxyClass(getBean(DependentService.class)));
+
+        Assert.assertEquals("traced:hello", getInstance(TracedService.class).hello());
+        Assert.assertEquals("traced:dependent", getInstance(DependentService.class).hello());
+        Assert.assertEquals("pong", getInstance(RequestService.class).ping());
+        Assert.assertEquals("other", getInstance(OtherService.class).hello());
+    }
+
+    @Test
+    public void testProxiesGetGeneratedLazilyByDefault()
+    {
+        startContainer(TracingInterceptor.class, TracedService.class, RequestService.class);
+
+        NormalScopeProxyFactory normalScopeProxyFactory = getWebBeansContext().getNormalScopeProxyFactory();
+        Assert.assertNull(normalScopeProxyFactory.getCachedProxyClass(getBean(RequestService.class)));
+
+        Assert.assertEquals("pong", getInstance(RequestService.class).ping());
+        Assert.assertNotNull(normalScopeProxyFactory.getCachedProxyClass(getBean(RequestService.class)));
+        Assert.assertEquals("traced:hello", getInstance(TracedService.class).hello());
+    }
+
+    private Bean<?> getBean(Class<?> type)
+    {
+        return getBeanManager().resolve(getBeanManager().getBeans(type));
+    }
+
+    @InterceptorBinding
+    @Retention(RUNTIME)
+    @Target({TYPE, METHOD})
+    public @interface Traced
+    {
+    }
+
+    @Traced
+    @Interceptor
+    @Priority(100)
+    public static class TracingInterceptor
+    {
+        @AroundInvoke
+        public Object trace(InvocationContext context) throws Exception
+        {
+            return "traced:" + context.proceed();
+        }
+    }
+
+    @Traced
+    @ApplicationScoped
+    public static class TracedService
+    {
+        public String hello()
+        {
+            return "hello";
+        }
+    }
+
+    @Traced
+    @Dependent
+    public static class DependentService
+    {
+        public String hello()
+        {
+            return "dependent";
+        }
+    }
+
+    @RequestScoped
+    public static class RequestService
+    {
+        public String ping()
+        {
+            return "pong";
+        }
+    }
+
+    @ApplicationScoped
+    public static class OtherService
+    {
+        public String hello()
+        {
+            return "other";
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.proxy.OwbNormalScopeProxy;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProtectedMethodDelegationTest extends AbstractUnitTest
+{
+    @Test
+    public void testProtectedMethodsGetDelegatedDirectly() throws Exception
+    {
+        startContainer(CounterBean.class);
+
+        CounterBean counter = getInstance(CounterBean.class);
+        Assert.assertTrue(counter instanceof OwbNormalScopeProxy);
+
+        counter.increment(2);
+        Assert.assertEquals(2, counter.current());
+        Assert.assertEquals("count=2", counter.describe());
+
+        // the proxy lives in the package of the bean, so no protected method needs reflection
+        Field protectedMethods = counter.getClass().getDeclaredField(NormalScopeProxyFactory.FIELD_PROTECTED_METHODS);
+        protectedMethods.setAccessible(true);
+        Method[] reflectiveMethods = (Method[]) protectedMethods.get(null);
+        Assert.assertTrue(reflectiveMethods == null || reflectiveMethods.length == 0);
+    }
+
+    @ApplicationScoped
+    public static class CounterBean
+    {
+        private int count;
+
+        protected void increment(int delta)
+        {
+            count += delta;
+        }
+
+        protected int current()
+        {
+            return count;
+        }
+
+        protected String describe()
+        {
+            return "count=" + count;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import static java.util.Collections.emptyMap;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Properties;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.service.ClassLoaderProxyService;
+import org.apache.webbeans.spi.DefiningClassService;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ProxyClassCacheTest
+{
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testProxyBytecodeGetsReused() throws Exception
+    {
+        File cacheDirectory = tempFolder.newFolder("proxies");
+
+        Class<CachedBean> proxyClass = createProxyClass(cacheDirectory);
+        File[] entries = cacheDirectory.listFiles();
+        Assert.assertNotNull(entries);
+        Assert.assertEquals(1, entries.length);
+        Assert.assertTrue(entries[0].getName().startsWith(proxyClass.getName() + '.'));
+        Assert.assertTrue(entries[0].getName().endsWith(".class"));
+
+        // replace the cached bytecode by a marker, the next start must use it instead of generating the proxy
+        byte[] bytecode = Files.readAllBytes(entries[0].toPath());
+        Files.write(entries[0].toPath(), new byte[] {1, 2, 3});
+        try
+        {
+            createProxyClass(cacheDirectory);
+            Assert.fail("the cached bytecode must get used");
+        }
+        catch (Throwable expected)
+        {
+            // the marker is no valid class
+        }
+
+        Files.write(entries[0].toPath(), bytecode);
+        Class<CachedBean> cachedProxyClass = createProxyClass(cacheDirectory);
+        Assert.assertEquals(proxyClass.getName(), cachedProxyClass.getName());
+        Assert.assertNotSame(proxyClass, cachedProxyClass);
+        Assert.assertSame(cachedProxyClass, cachedProxyClass.getMethod("ok").getDeclaringClass());
+    }
+
+    @Test
+    public void testOutdatedEntriesGetRemoved() throws Exception
+    {
+        File cacheDirectory = tempFolder.newFolder("proxies");
+
+        Class<CachedBean> proxyClass = createProxyClass(cacheDirectory);
+        File[] entries = cacheDirectory.listFiles();
+        Assert.assertNotNull(entries);
+        Assert.assertEquals(1, entries.length);
+
+        // simulates the entry of a previous version of the bean class
+        File outdated = new File(cacheDirectory, proxyClass.getName() + ".0.class");
+        Assert.assertTrue(entries[0].renameTo(outdated));
+
+        createProxyClass(cacheDirectory);
+        Assert.assertFalse(outdated.exists());
+        Assert.assertEquals(1, cacheDirectory.listFiles().length);
+    }
+
+    @Test
+    public void testJavaVersionIsPartOfTheKey() throws Exception
+    {
+        File cacheDirectory = tempFolder.newFolder("proxies");
+
+        createProxyClass(cacheDirectory, "11");
+        String entry = singleEntry(cacheDirectory);
+
+        createProxyClass(cacheDirectory, "17");
+        Assert.assertNotEquals(entry, singleEntry(cacheDirectory));
+    }
+
+    @Test
+    public void testSuperclassIsPartOfTheKey() throws Exception
+    {
+        File cacheDirectory = tempFolder.newFolder("proxies");
+
+        createSubclassProxyClass(cacheDirectory, new HierarchyClassLoader(false));
+        String entry = singleEntry(cacheDirectory);
+
+        // same bean class, but its superclass changed
+        createSubclassProxyClass(cacheDirectory, new HierarchyClassLoader(true));
+        Assert.assertNotEquals(entry, singleEntry(cacheDirectory));
+    }
+
+    private String singleEntry(File cacheDirectory)
+    {
+        File[] entries = cacheDirectory.listFiles();
+        Assert.assertNotNull(entries);
+        Assert.assertEquals(1, entries.length);
+        return entries[0].getName();
+    }
+
+    private Class<CachedBean> createProxyClass(File cacheDirectory)
+    {
+        return createProxyClass(cacheDirectory, null);
+    }
+
+    private Class<CachedBean> createProxyClass(File cacheDirectory, String javaVersion)
+    {
+        Properties config = new Properties();
+        config.setProperty(DefiningClassService.class.getName(), ClassLoaderProxyService.class.getName());
+        config.setProperty(OpenWebBeansConfiguration.PROXY_CACHE_DIRECTORY, cacheDirectory.getAbsolutePath());
+        if (javaVersion != null)
+        {
+            config.setProperty(OpenWebBeansConfiguration.GENERATOR_JAVA_VERSION, javaVersion);
+        }
+        WebBeansContext context = new WebBeansContext(emptyMap(), config);
+        return new NormalScopeProxyFactory(context)
+                .createProxyClass(Thread.currentThread().getContextClassLoader(), CachedBean.class);
+    }
+
+    private void createSubclassProxyClass(File cacheDirectory, ClassLoader classLoader) throws Exception
+    {
+        Properties config = new Properties();
+        config.setProperty(OpenWebBeansConfiguration.PROXY_CACHE_DIRECTORY, cacheDirectory.getAbsolutePath());
+        config.setProperty("org.apache.webbeans.proxy.useStaticNames", "true");
+        WebBeansContext context = new WebBeansContext(emptyMap(), config);
+        Class<?> classToProxy = classLoader.loadClass(CachedSubBean.class.getName());
+        Assert.assertNotSame(CachedSubBean.class, classToProxy);
+        new NormalScopeProxyFactory(context).createProxyClass(classLoader, classToProxy);
+    }
+
+    /**
+     * Defines its own version of the bean hierarchy and optionally serves changed bytecode of the superclass.
+     */
+    private static class HierarchyClassLoader extends ClassLoader
+    {
+        private final boolean changedSuperclass;
+
+        HierarchyClassLoader(boolean changedSuperclass)
+        {
+            super(ProxyClassCacheTest.class.getClassLoader());
+            this.changedSuperclass = changedSuperclass;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (!name.equals(CachedBean.class.getName()) && !name.equals(CachedSubBean.class.getName()))
+            {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name))
+            {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null)
+                {
+                    try (InputStream stream = getParent().getResourceAsStream(resourceName(name)))
+                    {
+                        byte[] bytes = readAll(stream);
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return clazz;
+            }
+        }
+
+        @Override
+        public InputStream getResourceAsStream(String name)
+        {
+            if (changedSuperclass && name.equals(resourceName(CachedBean.class.getName())))
+            {
+                return new ByteArrayInputStream(new byte[] {1, 2, 3});
+            }
+            return super.getResourceAsStream(name);
+        }
+
+        private static String resourceName(String className)
+        {
+            return className.replace('.', '/') + ".class";
+        }
+
+        private static byte[] readAll(InputStream stream) throws IOException
+        {
+            byte[] buffer = new byte[8192];
+            int length = 0;
+            int read = stream.read(buffer);
+            while (read >= 0)
+            {
+                length += read;
+                if (length == buffer.length)
+                {
+                    byte[] bigger = new byte[buffer.length * 2];
+                    System.arraycopy(buffer, 0, bigger, 0, length);
+                    buffer = bigger;
+                }
+                read = stream.read(buffer, length, buffer.length - length);
+            }
+            byte[] bytes = new byte[length];
+            System.arraycopy(buffer, 0, bytes, 0, length);
+            return bytes;
+        }
+    }
+
+    public static class CachedBean
+    {
+        public String ok()
+        {
+            return "ok";
+        }
+    }
+
+    public static class CachedSubBean extends CachedBean
+    {
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.proxy;
+
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+
+import jakarta.enterprise.context.RequestScoped;
+
+import org.apache.webbeans.proxy.NormalScopeProxyFactory;
+import org.apache.webbeans.proxy.ProxyClassStatistics;
+import org.apache.webbeans.proxy.ProxyClassStatistics.ProxyClassInfo;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.xbean.asm9.ClassWriter;
+import org.apache.xbean.asm9.Opcodes;
+import org.apache.xbean.asm9.Type;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ProxyClassSharingTest extends AbstractUnitTest
+{
+    @Test
+    public void testProxyClassesGetSharedAndReported()
+    {
+        startContainer(SharedBean.class);
+
+        NormalScopeProxyFactory factory = getWebBeansContext().getNormalScopeProxyFactory();
+        ClassLoader classLoader = SharedBean.class.getClassLoader();
+
+        Class<SharedBean> first = factory.createProxyClass(classLoader, SharedBean.class);
+        Class<SharedBean> second = factory.createProxyClass(classLoader, SharedBean.class);
+        Assert.assertSame(first, second);
+
+        ProxyClassStatistics statistics = getWebBeansContext().getProxyClassStatistics();
+        List<ProxyClassInfo> proxyClasses = statistics.getProxyClasses();
+
+        ProxyClassInfo info = proxyClasses.stream()
+                .filter(proxyClass -> proxyClass.getName().equals(first.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("proxy class not reported: " + proxyClasses));
+        Assert.assertEquals(SharedBean.class.getName(), info.getProxiedClassName());
+        Assert.assertTrue(info.getBytecodeSize() > 0);
+        Assert.assertTrue(statistics.getTotalBytecodeSize() >= info.getBytecodeSize());
+
+        getWebBeansContext().clear();
+        Assert.assertTrue(statistics.getProxyClasses().isEmpty());
+    }
+
+    @Test
+    public void testProxyClassNamesGetAllocatedUniquely()
+    {
+        startContainer(SharedBean.class);
+
+        NormalScopeProxyFactory factory = getWebBeansContext().getNormalScopeProxyFactory();
+        ClassLoader classLoader = SharedBean.class.getClassLoader();
+
+        Class<SharedBean> first = factory.createProxyClass(classLoader, SharedBean.class);
+        factory.clear();
+        Class<SharedBean> second = factory.createProxyClass(classLoader, SharedBean.class);
+
+        Assert.assertNotSame(first, second);
+        Assert.assertNotEquals(first.getName(), second.getName());
+        String prefix = SharedBean.class.getName() + "$$OwbNormalScopeProxy";
+        Assert.assertTrue(first.getName(), first.getName().startsWith(prefix));
+        Assert.assertTrue(second.getName(), second.getName().startsWith(prefix));
+    }
+
+    @Test
+    public void testProxyClassNamesTakenByOtherClassesGetSkipped() throws Exception
+    {
+        startContainer(ForeignNamedBean.class);
+
+        // e.g. another container which defines its proxies in the same ClassLoader
+        String takenName = ForeignNamedBean.class.getName() + "$$OwbNormalScopeProxy0";
+        ClassWriter cw = new ClassWriter(0);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, takenName.replace('.', '/'), null,
+                Type.getInternalName(Object.class), null);
+        cw.visitEnd();
+        Class<?> foreignClass = MethodHandles.privateLookupIn(ForeignNamedBean.class, MethodHandles.lookup()).defineClass(cw.toByteArray());
+
+        Class<ForeignNamedBean> proxyClass = getWebBeansContext().getNormalScopeProxyFactory()
+                .createProxyClass(ForeignNamedBean.class.getClassLoader(), ForeignNamedBean.class);
+
+        Assert.assertNotSame(foreignClass, proxyClass);
+        Assert.assertNotEquals(takenName, proxyClass.getName());
+        Assert.assertTrue(ForeignNamedBean.class.isAssignableFrom(proxyClass));
+        Assert.assertEquals("pong", getInstance(ForeignNamedBean.class).ping());
+    }
+
+    @RequestScoped
+    public static class ForeignNamedBean
+    {
+        public String ping()
+        {
+            return "pong";
+        }
+    }
+
+    @RequestScoped
+    public static class SharedBean
+    {
+        public String ping()
+        {
+            return "pong";
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.webbeans.util.TimingWheel;
+import org.junit.Test;
+
+public class TimingWheelTest
+{
+    @Test
+    public void testExpiry()
+    {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        wheel.schedule("a", 25);
+        wheel.schedule("b", 50);
+        wheel.schedule("c", 50);
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.advance(20).isEmpty());
+        assertEquals(Arrays.asList("a"), wheel.advance(30));
+        assertTrue(wheel.advance(49).isEmpty());
+        assertEquals(Arrays.asList("b", "c"), wheel.advance(50));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testNeverExpiresEarly()
+    {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        List<Long> deadlines = new ArrayList<>();
+        for (long deadline = 1; deadline < 20_000_000L; deadline = deadline * 3 + 7)
+        {
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<Long> expired = new ArrayList<>();
+        long now = 0;
+        while (wheel.size() > 0)
+        {
+            now += 997;
+            for (Long deadline : wheel.advance(now))
+            {
+                assertTrue(deadline <= now);
+                assertTrue(deadline > now - 997);
+                expired.add(deadline);
+            }
+        }
+        assertEquals(deadlines, expired);
+    }
+
+    @Test
+    public void testClear()
+    {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 0);
+        wheel.schedule("a", 1000);
+        wheel.schedule("b", 100_000_000L);
+        assertEquals(2, wheel.clear().size());
+        assertEquals(0, wheel.size());
+        assertTrue(wheel.advance(200_000_000L).isEmpty());
+    }
+}
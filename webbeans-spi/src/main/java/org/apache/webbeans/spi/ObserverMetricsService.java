@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi;
+
+import java.util.List;
+
+import jakarta.enterprise.inject.spi.ObserverMethod;
+
+/**
+ * Collects the invocation statistics of observer methods.
+ *
+ * Only gets used if {@code org.apache.webbeans.event.observerMetrics} is enabled.
+ * The default implementation keeps the statistics in memory and exposes them via JMX.
+ * Other implementations might forward them to a metrics library.
+ */
+public interface ObserverMetricsService
+{
+    /**
+     * Record a single invocation of the observer method.
+     * This gets called for each notification, so implementations must be fast and thread safe.
+     *
+     * @param observerMethod the observer method which got notified
+     * @param durationNanos the time the notification took
+     * @param failure the exception thrown by the observer method or {@code null}
+     */
+    void recordInvocation(ObserverMethod<?> observerMethod, long durationNanos, Throwable failure);
+
+    /**
+     * @return a snapshot of the statistics of all observer methods which got invoked so far
+     */
+    List<ObserverMetrics> getObserverMetrics();
+
+    /**
+     * Reset all statistics.
+     */
+    void reset();
+
+    /**
+     * Statistics of a single observer method.
+     */
+    interface ObserverMetrics
+    {
+        /**
+         * @return a human readable description of the observer method
+         */
+        String getObserver();
+
+        long getInvocationCount();
+
+        long getExceptionCount();
+
+        long getTotalLatencyNanos();
+
+        long getMaxLatencyNanos();
+    }
+}
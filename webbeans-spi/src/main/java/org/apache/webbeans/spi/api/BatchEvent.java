@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi.api;
+
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+
+import jakarta.enterprise.event.NotificationOptions;
+
+/**
+ * OpenWebBeans specific extension of {@link jakarta.enterprise.event.Event}
+ * to fire many events at once. Every {@code Event} provided by OpenWebBeans implements
+ * this interface, so an injected {@code Event<T>} can simply be cast to {@code BatchEvent<T>}.
+ *
+ * The observer methods get resolved only once per event class of the batch.
+ * Observer methods qualified with {@link Batched} receive the whole batch as one {@code List},
+ * all other observer methods get notified for each single event.
+ *
+ * @param <T> event type
+ */
+public interface BatchEvent<T>
+{
+    /**
+     * Fires all the given events synchronously in the given order.
+     */
+    void fireAll(Collection<? extends T> events);
+
+    /**
+     * Fires all the given events asynchronously.
+     * Each asynchronous observer method gets invoked with a single executor task for all events it observes.
+     * @return a CompletionStage which completes when all observer methods got notified
+     */
+    CompletionStage<Void> fireAllAsync(Collection<? extends T> events);
+
+    /**
+     * @see #fireAllAsync(Collection)
+     */
+    CompletionStage<Void> fireAllAsync(Collection<? extends T> events, NotificationOptions notificationOptions);
+
+    /**
+     * Fires the given event asynchronously, but collects it together with other events of the
+     * same type and qualifiers which got fired within a short time window.
+     * The whole batch gets delivered like with {@link #fireAllAsync(Collection)} once the configured
+     * time window elapsed or the maximum batch size is reached.
+     * @return a CompletionStage which completes when the batch containing this event got delivered
+     */
+    <U extends T> CompletionStage<U> fireCoalesced(U event);
+}
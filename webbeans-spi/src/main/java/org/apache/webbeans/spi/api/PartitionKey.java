@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi.api;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the field or no-arg method of an event class which provides the partition key
+ * for asynchronous delivery.
+ *
+ * All asynchronous events with equal partition keys get delivered sequentially in the order
+ * they got fired, e.g. all events of the same aggregate. Events with different keys
+ * still get delivered in parallel. All asynchronous observer methods of a single event get
+ * invoked one after the other, ordered by their priority.
+ *
+ * <pre>
+ * public class OrderChanged
+ * {
+ *     &#064;PartitionKey
+ *     private final String orderId;
+ *     ...
+ * }
+ * </pre>
+ *
+ * If the key is {@code null} the event gets delivered without any ordering guarantees.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PartitionKey
+{
+}
@@ -19,8 +19,11 @@
 package org.apache.webbeans.web.context;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
 
+import org.apache.webbeans.context.ConversationContext;
 import org.apache.webbeans.context.RequestContext;
+import org.apache.webbeans.context.SessionContext;
 
 /**
  * RequestContext which additionally holds the current servletRequest
@@ -34,6 +37,29 @@ public class ServletRequestContext extends RequestContext
     // this can only be accessed when the context is active
     private transient HttpServletRequest servletRequest;
 
+    /**
+     * The SessionContext once it got resolved for this request.
+     * The HttpSession attribute round trip, which also triggers the session replication,
+     * thus only happens once per request, even if other threads of the request or
+     * the HttpSessionListener resolve the SessionContext again.
+     */
+    private transient volatile SessionContext sessionContext;
+
+    /**
+     * The HttpSession {@link #sessionContext} belongs to.
+     */
+    private transient volatile HttpSession session;
+
+    /**
+     * The ConversationContext of the request while the request is suspended.
+     */
+    private transient volatile ConversationContext suspendedConversationContext;
+
+    /**
+     * Whether the AsyncListener which destroys this context got registered already.
+     */
+    private transient volatile boolean asyncListenerRegistered;
+
 
     public ServletRequestContext()
     {
@@ -63,11 +89,65 @@ public class ServletRequestContext extends RequestContext
         this.servletRequest = servletRequest;
     }
 
+    /**
+     * @return the SessionContext which got resolved for this request or {@code null} if not yet resolved
+     */
+    public SessionContext getSessionContext()
+    {
+        return sessionContext;
+    }
+
+    /**
+     * @return the SessionContext which got resolved for the given HttpSession during this request
+     *         or {@code null} if it got not resolved yet or is not active anymore
+     */
+    public SessionContext getSessionContext(HttpSession session)
+    {
+        SessionContext context = sessionContext;
+        if (context == null || this.session != session || !context.isActive())
+        {
+            return null;
+        }
+        return context;
+    }
+
+    public void setSessionContext(SessionContext sessionContext, HttpSession session)
+    {
+        this.sessionContext = sessionContext;
+        this.session = sessionContext != null ? session : null;
+    }
+
+    /**
+     * @return the ConversationContext to restore when the request gets resumed
+     */
+    public ConversationContext getSuspendedConversationContext()
+    {
+        return suspendedConversationContext;
+    }
+
+    public void setSuspendedConversationContext(ConversationContext suspendedConversationContext)
+    {
+        this.suspendedConversationContext = suspendedConversationContext;
+    }
+
+    public boolean isAsyncListenerRegistered()
+    {
+        return asyncListenerRegistered;
+    }
+
+    public void setAsyncListenerRegistered(boolean asyncListenerRegistered)
+    {
+        this.asyncListenerRegistered = asyncListenerRegistered;
+    }
+
     @Override
     public void destroy()
     {
         super.destroy();
         servletRequest = null;
+        sessionContext = null;
+        session = null;
+        suspendedConversationContext = null;
     }
 
 }
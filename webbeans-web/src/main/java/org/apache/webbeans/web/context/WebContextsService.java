@@ -31,11 +31,13 @@ import org.apache.webbeans.context.DependentContext;
 import org.apache.webbeans.context.RequestContext;
 import org.apache.webbeans.context.SessionContext;
 import org.apache.webbeans.context.SingletonContext;
+import org.apache.webbeans.context.creational.BeanInstanceBag;
 import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.el.ELContextStore;
 import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.intercept.RequestScopedBeanInterceptorHandler;
+import org.apache.webbeans.util.WebBeansUtil;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.context.ContextException;
@@ -44,12 +46,19 @@ import jakarta.enterprise.context.Dependent;
 import jakarta.enterprise.context.RequestScoped;
 import jakarta.enterprise.context.SessionScoped;
 import jakarta.enterprise.context.spi.Context;
+import jakarta.enterprise.context.spi.Contextual;
 import jakarta.inject.Singleton;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletRequestEvent;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import java.lang.annotation.Annotation;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -67,6 +76,18 @@ public class WebContextsService extends AbstractContextsService
 
     private static final String OWB_SESSION_CONTEXT_ATTRIBUTE_NAME = "openWebBeansSessionContext";
 
+    /**
+     * Prefix for the HttpSession attributes which contain single dirty tracked beans.
+     * The prefix is followed by the passivation id of the bean.
+     */
+    private static final String OWB_SESSION_BEAN_ATTRIBUTE_PREFIX = OWB_SESSION_CONTEXT_ATTRIBUTE_NAME + ".";
+
+    /**
+     * ServletRequest attribute which contains the ServletRequestContext.
+     * This is used to resume the RequestContext of async requests on other threads.
+     */
+    public static final String OWB_REQUEST_CONTEXT_ATTRIBUTE_NAME = "openWebBeansRequestContext";
+
     /**
      * TODO implement later: optional immediate destroy
      */
@@ -97,6 +118,11 @@ public class WebContextsService extends AbstractContextsService
     protected Boolean eagerSessionInitialisation;
     protected Pattern eagerSessionPattern;
 
+    /**
+     * @see OpenWebBeansConfiguration#SESSION_DIRTY_TRACKING
+     */
+    protected boolean sessionDirtyTracking;
+
 
     /**
      * Creates a new instance.
@@ -108,6 +134,7 @@ public class WebContextsService extends AbstractContextsService
 
         applicationContext = new ApplicationContext();
         applicationContext.setActive(true);
+        applicationContext.setContextDestroyer(contextDestroyer);
 
         requestContexts = new ThreadLocal<>();
         sessionContexts = new ThreadLocal<>();
@@ -118,6 +145,9 @@ public class WebContextsService extends AbstractContextsService
         dependentContext.setActive(true);
 
         configureEagerSessionInitialisation(webBeansContext);
+
+        sessionDirtyTracking = Boolean.parseBoolean(webBeansContext.getOpenWebBeansConfiguration()
+            .getProperty(OpenWebBeansConfiguration.SESSION_DIRTY_TRACKING));
     }
 
     protected void configureEagerSessionInitialisation(WebBeansContext webBeansContext)
@@ -345,7 +375,16 @@ public class WebContextsService extends AbstractContextsService
      */
     protected void initRequestContext(Object startupObject )
     {
-        
+        if (startupObject instanceof ServletRequestEvent)
+        {
+            ServletRequest servletRequest = ((ServletRequestEvent) startupObject).getServletRequest();
+            if (servletRequest != null && resumeRequestContext(servletRequest))
+            {
+                // this is an AsyncContext#dispatch of a request which already has a RequestContext
+                return;
+            }
+        }
+
         ServletRequestContext requestContext = new ServletRequestContext();
         requestContext.setActive(true);
 
@@ -361,6 +400,7 @@ public class WebContextsService extends AbstractContextsService
             if (request != null)
             {
                 payload = request;
+                request.setAttribute(OWB_REQUEST_CONTEXT_ATTRIBUTE_NAME, requestContext);
 
                 if (shouldEagerlyInitializeSession(request))
                 {
@@ -400,12 +440,35 @@ public class WebContextsService extends AbstractContextsService
             return;
         }
 
+        HttpServletRequest servletRequest = context.getServletRequest();
+        if (servletRequest != null && isAsyncStarted(servletRequest))
+        {
+            // the request continues on another thread, it gets destroyed once the AsyncContext completes
+            if (!context.isAsyncListenerRegistered())
+            {
+                servletRequest.getAsyncContext().addListener(new RequestContextAsyncListener(context));
+                context.setAsyncListenerRegistered(true);
+            }
+            suspendRequestContext();
+            return;
+        }
+
+        if (servletRequest != null)
+        {
+            servletRequest.removeAttribute(OWB_REQUEST_CONTEXT_ATTRIBUTE_NAME);
+        }
+
             // cleanup open conversations first
         if (supportsConversation)
         {
             destroyOutdatedConversations(conversationContexts.get());
         }
 
+        if (sessionDirtyTracking)
+        {
+            storeDirtySessionBeans(context);
+        }
+
         if (context.getPropagatedSessionContext() != null)
         {
             SessionContext sessionContext = context.getPropagatedSessionContext();
@@ -470,6 +533,119 @@ public class WebContextsService extends AbstractContextsService
     }
 
 
+    /**
+     * Attach the RequestContext of the given request to the current thread.
+     * This can be used to continue the work of an async request on another thread.
+     * Call {@link #suspendRequestContext()} once the thread does not work for this request anymore.
+     *
+     * @param servletRequest the request which got started via {@link WebContextsService#startContext(Class, Object)}
+     * @return {@code true} if there is an active RequestContext for the request
+     */
+    public boolean resumeRequestContext(ServletRequest servletRequest)
+    {
+        Object attribute = servletRequest.getAttribute(OWB_REQUEST_CONTEXT_ATTRIBUTE_NAME);
+        return attribute instanceof ServletRequestContext && resumeRequestContext((ServletRequestContext) attribute);
+    }
+
+    private boolean resumeRequestContext(ServletRequestContext requestContext)
+    {
+        if (!requestContext.isActive())
+        {
+            return false;
+        }
+
+        requestContexts.set(requestContext);
+
+        SessionContext sessionContext = requestContext.getSessionContext();
+        if (sessionContext != null && sessionContext.isActive())
+        {
+            sessionContexts.set(sessionContext);
+        }
+
+        ConversationContext conversationContext = requestContext.getSuspendedConversationContext();
+        if (conversationContext != null)
+        {
+            requestContext.setSuspendedConversationContext(null);
+            conversationContext.getConversation().iUseIt();
+            conversationContexts.set(conversationContext);
+        }
+
+        return true;
+    }
+
+    /**
+     * Detach the RequestContext from the current thread without destroying it.
+     * The RequestContext can get resumed on another thread via {@link #resumeRequestContext(ServletRequest)}.
+     */
+    public void suspendRequestContext()
+    {
+        ServletRequestContext requestContext = requestContexts.get();
+        ConversationContext conversationContext = conversationContexts.get();
+        if (requestContext != null && conversationContext != null)
+        {
+            // the conversation tracks the threads which use it
+            conversationContext.getConversation().iDontUseItAnymore();
+            requestContext.setSuspendedConversationContext(conversationContext);
+        }
+
+        requestContexts.remove();
+        sessionContexts.remove();
+        conversationContexts.remove();
+        RequestScopedBeanInterceptorHandler.removeThreadLocals();
+        SessionScopedBeanInterceptorHandler.removeThreadLocals();
+    }
+
+    /**
+     * Destroy the suspended RequestContext of an async request once it is done.
+     */
+    protected void destroySuspendedRequestContext(ServletRequestContext requestContext)
+    {
+        // the container might call us on a thread which currently serves another request
+        ServletRequestContext previousRequestContext = requestContexts.get();
+        SessionContext previousSessionContext = sessionContexts.get();
+        ConversationContext previousConversationContext = conversationContexts.get();
+
+        try
+        {
+            HttpServletRequest servletRequest = requestContext.getServletRequest();
+            if (resumeRequestContext(requestContext))
+            {
+                ServletContext servletContext = servletRequest != null ? servletRequest.getServletContext() : null;
+                destroyRequestContext(servletContext != null ? new ServletRequestEvent(servletContext, servletRequest) : null);
+            }
+        }
+        finally
+        {
+            removeThreadLocals();
+            SessionScopedBeanInterceptorHandler.removeThreadLocals();
+            if (previousRequestContext != null)
+            {
+                requestContexts.set(previousRequestContext);
+            }
+            if (previousSessionContext != null)
+            {
+                sessionContexts.set(previousSessionContext);
+            }
+            if (previousConversationContext != null)
+            {
+                conversationContexts.set(previousConversationContext);
+            }
+        }
+    }
+
+    private boolean isAsyncStarted(HttpServletRequest servletRequest)
+    {
+        try
+        {
+            return servletRequest.isAsyncStarted();
+        }
+        catch (RuntimeException e)
+        {
+            // e.g. request objects which got recycled already
+            return false;
+        }
+    }
+
     /**
      * Creates the session context at the session start.
      * @param startupObject HttpSession object
@@ -482,6 +658,15 @@ public class WebContextsService extends AbstractContextsService
 
         if (session != null)
         {
+            ServletRequestContext requestContext = requestContexts.get();
+            currentSessionContext = requestContext != null ? requestContext.getSessionContext(session) : null;
+            if (currentSessionContext != null)
+            {
+                // this request did the round trip to the HttpSession already
+                sessionContexts.set(currentSessionContext);
+                return;
+            }
+
             // we need to get it latest here to make sure we work on the same instance
             currentSessionContext = (SessionContext) session.getAttribute(OWB_SESSION_CONTEXT_ATTRIBUTE_NAME);
 
@@ -495,11 +680,16 @@ public class WebContextsService extends AbstractContextsService
                     {
                         currentSessionContext = new SessionContext();
                         currentSessionContext.setActive(true);
+                        currentSessionContext.setDirtyTracking(sessionDirtyTracking);
                         
                         // init context before fire @Initialized(SessionScoped)
                         // so that SessionScoped beans are already available inside the observer
                         session.setAttribute(OWB_SESSION_CONTEXT_ATTRIBUTE_NAME, currentSessionContext);
                         sessionContexts.set(currentSessionContext);
+                        if (requestContext != null)
+                        {
+                            requestContext.setSessionContext(currentSessionContext, session);
+                        }
                         
                         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
                             session, InitializedLiteral.INSTANCE_SESSION_SCOPED);
@@ -508,15 +698,136 @@ public class WebContextsService extends AbstractContextsService
             }
             else
             {
-                // we do that in any case.
-                // This is needed to trigger delta-replication on most servers
-                session.setAttribute(OWB_SESSION_CONTEXT_ATTRIBUTE_NAME, currentSessionContext);
+                if (sessionDirtyTracking)
+                {
+                    if (!currentSessionContext.isDirtyTracking())
+                    {
+                        // the context got created in another JVM, e.g. after a failover
+                        restoreDirtySessionBeans(session, currentSessionContext);
+                    }
+                }
+                else
+                {
+                    // we do that in any case.
+                    // This is needed to trigger delta-replication on most servers
+                    session.setAttribute(OWB_SESSION_CONTEXT_ATTRIBUTE_NAME, currentSessionContext);
+                }
                 currentSessionContext.setActive(true);
 
                 //Set thread local
                 sessionContexts.set(currentSessionContext);
+                if (requestContext != null)
+                {
+                    requestContext.setSessionContext(currentSessionContext, session);
+                }
+            }
+        }
+    }
+
+    /**
+     * Store all &#064;SessionScoped beans which got touched during the current request
+     * as separate HttpSession attributes. This triggers the delta-replication of the
+     * servlet container for exactly those beans.
+     * @see OpenWebBeansConfiguration#SESSION_DIRTY_TRACKING
+     */
+    protected void storeDirtySessionBeans(ServletRequestContext requestContext)
+    {
+        SessionContext sessionContext = sessionContexts.get();
+        if (sessionContext == null || !sessionContext.isActive() || requestContext.getServletRequest() == null)
+        {
+            return;
+        }
+
+        Set<Contextual<?>> dirtyContextuals = sessionContext.consumeDirtyContextuals();
+        if (dirtyContextuals.isEmpty())
+        {
+            return;
+        }
+
+        try
+        {
+            HttpSession session = requestContext.getServletRequest().getSession(false);
+            if (session == null)
+            {
+                return;
+            }
+
+            for (Contextual<?> contextual : dirtyContextuals)
+            {
+                String passivationId = WebBeansUtil.getPassivationId(contextual);
+                if (passivationId == null)
+                {
+                    continue;
+                }
+
+                String attributeName = OWB_SESSION_BEAN_ATTRIBUTE_PREFIX + passivationId;
+                BeanInstanceBag<?> bag = sessionContext.getBeanInstanceBag(contextual);
+                if (bag != null)
+                {
+                    session.setAttribute(attributeName, bag);
+                }
+                else
+                {
+                    // the bean got destroyed
+                    session.removeAttribute(attributeName);
+                }
             }
         }
+        catch (IllegalStateException ise)
+        {
+            // the session got invalidated in the meantime, nothing to replicate anymore
+            logger.log(Level.FINE, "Could not store dirty session beans", ise);
+        }
+    }
+
+    /**
+     * Merge the separately replicated &#064;SessionScoped beans back into the given SessionContext.
+     * Those are always more recent than the ones inside the SessionContext attribute itself.
+     *
+     * Every passivation capable bean gets stored as separate attribute once it got created,
+     * and that attribute gets removed once it got destroyed. The SessionContext attribute
+     * itself only gets set when the session starts, so passivation capable beans in it without
+     * a matching attribute are stale and got destroyed already. Those get dropped.
+     */
+    protected void restoreDirtySessionBeans(HttpSession session, SessionContext sessionContext)
+    {
+        synchronized (sessionContext)
+        {
+            if (sessionContext.isDirtyTracking())
+            {
+                return;
+            }
+
+            Set<Contextual<?>> restored = new HashSet<>();
+            Enumeration<String> attributeNames = session.getAttributeNames();
+            while (attributeNames.hasMoreElements())
+            {
+                String attributeName = attributeNames.nextElement();
+                if (!attributeName.startsWith(OWB_SESSION_BEAN_ATTRIBUTE_PREFIX))
+                {
+                    continue;
+                }
+
+                Contextual<?> contextual = webBeansContext.getBeanManagerImpl().getPassivationCapableBean(
+                    attributeName.substring(OWB_SESSION_BEAN_ATTRIBUTE_PREFIX.length()));
+                Object bag = session.getAttribute(attributeName);
+                if (contextual != null && bag instanceof BeanInstanceBag)
+                {
+                    sessionContext.restoreBeanInstanceBag(contextual, (BeanInstanceBag<?>) bag);
+                    restored.add(contextual);
+                }
+            }
+
+            for (Contextual<?> contextual : sessionContext.getContextuals())
+            {
+                if (!restored.contains(contextual) && WebBeansUtil.getPassivationId(contextual) != null)
+                {
+                    sessionContext.discardBeanInstanceBag(contextual);
+                }
+            }
+
+            sessionContext.setDirtyTracking(true);
+        }
     }
 
     /**
@@ -554,6 +865,11 @@ public class WebContextsService extends AbstractContextsService
         {
             // we need to mark the conversation to get destroyed at the end of the request
             ServletRequestContext requestContext = getRequestContext(true);
+            if (requestContext != null && requestContext.getSessionContext() == context)
+            {
+                // a new session might get created in the same request
+                requestContext.setSessionContext(null, null);
+            }
 
             if (destroySessionImmediately
                 || requestContext == null || requestContext.getServletRequest() == null
@@ -617,6 +933,7 @@ public class WebContextsService extends AbstractContextsService
 
         ApplicationContext newApplicationContext = new ApplicationContext();
         newApplicationContext.setActive(true);
+        newApplicationContext.setContextDestroyer(contextDestroyer);
 
         if (applicationContext == null)
         {
@@ -665,6 +982,7 @@ public class WebContextsService extends AbstractContextsService
             {
                 singletonContext = new SingletonContext();
                 singletonContext.setActive(true);
+                singletonContext.setContextDestroyer(contextDestroyer);
                 Object payLoad = startupObject instanceof ServletContext
                     ? (ServletContext) startupObject : new Object();
                 webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
@@ -761,10 +1079,26 @@ public class WebContextsService extends AbstractContextsService
     public SessionContext getSessionContext(boolean forceCreate)
     {
         SessionContext context = sessionContexts.get();
-        if (null == context && forceCreate)
+        if (null == context)
         {
-            lazyStartSessionContext(true);
-            context = sessionContexts.get();
+            // another thread of the same request might already have resolved it
+            ServletRequestContext requestContext = getRequestContext(false);
+            if (requestContext != null)
+            {
+                context = requestContext.getSessionContext();
+                if (context != null && context.isActive())
+                {
+                    sessionContexts.set(context);
+                    return context;
+                }
+                context = null;
+            }
+
+            if (forceCreate)
+            {
+                lazyStartSessionContext(true);
+                context = sessionContexts.get();
+            }
         }
 
         return context;
@@ -788,8 +1122,9 @@ public class WebContextsService extends AbstractContextsService
 
                 if (conversationContext.getConversation().isTransient())
                 {
+                    ConversationContext initializedContext = conversationContext;
                     webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
-                        conversationManager.getLifecycleEventPayload(conversationContext),
+                        () -> conversationManager.getLifecycleEventPayload(initializedContext),
                         InitializedLiteral.INSTANCE_CONVERSATION_SCOPED);
                 }
 
@@ -856,4 +1191,42 @@ public class WebContextsService extends AbstractContextsService
         }
     }
 
+
+    /**
+     * Destroys the RequestContext once an async request completed.
+     */
+    private class RequestContextAsyncListener implements AsyncListener
+    {
+        private final ServletRequestContext requestContext;
+
+        private RequestContextAsyncListener(ServletRequestContext requestContext)
+        {
+            this.requestContext = requestContext;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event)
+        {
+            destroySuspendedRequestContext(requestContext);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event)
+        {
+            // the container completes the request afterwards
+        }
+
+        @Override
+        public void onError(AsyncEvent event)
+        {
+            // the container completes the request afterwards
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event)
+        {
+            // listeners need to get re-registered for each new async cycle
+            event.getAsyncContext().addListener(this);
+        }
+    }
 }
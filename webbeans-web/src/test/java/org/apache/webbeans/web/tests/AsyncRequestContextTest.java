@@ -0,0 +1,256 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.web.tests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.ServletResponse;
+
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.web.context.WebContextsService;
+import org.apache.webbeans.web.lifecycle.test.MockServletContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test suspending and resuming the RequestContext of async requests.
+ */
+public class AsyncRequestContextTest extends AbstractUnitTest
+{
+    @Test
+    public void testRequestContextSurvivesAsyncProcessing() throws Exception
+    {
+        startContainer(AsyncBean.class);
+        AsyncBean.destroyed = 0;
+
+        final AsyncRequest request = new AsyncRequest();
+        final ServletRequestEvent requestEvent = new ServletRequestEvent(request.getServletContext(), request);
+        final WebContextsService contextsService = (WebContextsService) getWebBeansContext().getContextsService();
+
+        contextsService.startContext(RequestScoped.class, requestEvent);
+        getInstance(AsyncBean.class).setValue("started");
+
+        // the servlet started async processing and returns
+        request.asyncStarted = true;
+        contextsService.endContext(RequestScoped.class, requestEvent);
+        Assert.assertNull(contextsService.getRequestContext(false));
+        Assert.assertEquals(0, AsyncBean.destroyed);
+        Assert.assertEquals(1, request.asyncContext.listeners.size());
+
+        // the work continues on another thread
+        final AtomicReference<String> value = new AtomicReference<>();
+        Thread worker = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                Assert.assertTrue(contextsService.resumeRequestContext(request));
+                try
+                {
+                    value.set(getInstance(AsyncBean.class).getValue());
+                }
+                finally
+                {
+                    contextsService.suspendRequestContext();
+                }
+            }
+        };
+        worker.start();
+        worker.join();
+        Assert.assertEquals("started", value.get());
+
+        // and finally the async request completes
+        request.asyncStarted = false;
+        for (AsyncListener listener : request.asyncContext.listeners)
+        {
+            listener.onComplete(new AsyncEvent(request.asyncContext));
+        }
+        Assert.assertEquals(1, AsyncBean.destroyed);
+        Assert.assertFalse(contextsService.resumeRequestContext(request));
+    }
+
+    @RequestScoped
+    public static class AsyncBean
+    {
+        public static int destroyed;
+
+        private String value;
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public void setValue(String value)
+        {
+            this.value = value;
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            destroyed++;
+        }
+    }
+
+    private static class AsyncRequest extends MockServletRequest
+    {
+        private final Map<String, Object> attributes = new HashMap<>();
+        private final ServletContext servletContext = new MockServletContext();
+        private final MockAsyncContext asyncContext = new MockAsyncContext(this);
+        private volatile boolean asyncStarted;
+
+        @Override
+        public Object getAttribute(String name)
+        {
+            return attributes.get(name);
+        }
+
+        @Override
+        public void setAttribute(String name, Object o)
+        {
+            attributes.put(name, o);
+        }
+
+        @Override
+        public void removeAttribute(String name)
+        {
+            attributes.remove(name);
+        }
+
+        @Override
+        public ServletContext getServletContext()
+        {
+            return servletContext;
+        }
+
+        @Override
+        public boolean isAsyncStarted()
+        {
+            return asyncStarted;
+        }
+
+        @Override
+        public AsyncContext getAsyncContext()
+        {
+            return asyncContext;
+        }
+    }
+
+    private static class MockAsyncContext implements AsyncContext
+    {
+        private final List<AsyncListener> listeners = new ArrayList<>();
+        private final ServletRequest request;
+
+        private MockAsyncContext(ServletRequest request)
+        {
+            this.request = request;
+        }
+
+        @Override
+        public ServletRequest getRequest()
+        {
+            return request;
+        }
+
+        @Override
+        public ServletResponse getResponse()
+        {
+            return null;
+        }
+
+        @Override
+        public boolean hasOriginalRequestAndResponse()
+        {
+            return true;
+        }
+
+        @Override
+        public void dispatch()
+        {
+            // not needed
+        }
+
+        @Override
+        public void dispatch(String path)
+        {
+            // not needed
+        }
+
+        @Override
+        public void dispatch(ServletContext context, String path)
+        {
+            // not needed
+        }
+
+        @Override
+        public void complete()
+        {
+            // not needed
+        }
+
+        @Override
+        public void start(Runnable run)
+        {
+            run.run();
+        }
+
+        @Override
+        public void addListener(AsyncListener listener)
+        {
+            listeners.add(listener);
+        }
+
+        @Override
+        public void addListener(AsyncListener listener, ServletRequest servletRequest, ServletResponse servletResponse)
+        {
+            listeners.add(listener);
+        }
+
+        @Override
+        public <T extends AsyncListener> T createListener(Class<T> clazz)
+        {
+            return null;
+        }
+
+        @Override
+        public void setTimeout(long timeout)
+        {
+            // not needed
+        }
+
+        @Override
+        public long getTimeout()
+        {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.web.tests;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.http.HttpSession;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.web.context.ServletRequestContext;
+import org.apache.webbeans.web.context.WebContextsService;
+import org.apache.webbeans.web.lifecycle.test.MockServletContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test that the SessionContext gets cached on the ServletRequestContext.
+ */
+public class SessionContextCachingTest extends AbstractUnitTest
+{
+    @Test
+    public void testSessionContextGetsCachedOnRequest()
+    {
+        addService(ContextsService.class, ThreadLocalClearingContextsService.class);
+        startContainer();
+
+        final MockHttpSession session = new MockHttpSession();
+        final AtomicInteger sessionLookups = new AtomicInteger();
+        final MockServletRequest request = new MockServletRequest()
+        {
+            @Override
+            public HttpSession getSession(boolean create)
+            {
+                sessionLookups.incrementAndGet();
+                return session;
+            }
+        };
+        final ServletRequestEvent requestEvent = new ServletRequestEvent(new MockServletContext(), request);
+
+        WebContextsService contextsService = (WebContextsService) getWebBeansContext().getContextsService();
+        contextsService.startContext(RequestScoped.class, requestEvent);
+
+        SessionContext sessionContext = (SessionContext) contextsService.getCurrentContext(SessionScoped.class);
+        Assert.assertNotNull(sessionContext);
+        Assert.assertEquals(1, sessionLookups.get());
+
+        ServletRequestContext requestContext = contextsService.getRequestContext(false);
+        Assert.assertSame(sessionContext, requestContext.getSessionContext());
+
+        // like another thread working for the same request, only the ServletRequestContext knows the SessionContext
+        ((ThreadLocalClearingContextsService) contextsService).clearSessionContextThreadLocal();
+        Assert.assertSame(sessionContext, contextsService.getCurrentContext(SessionScoped.class));
+        Assert.assertEquals(1, sessionLookups.get());
+
+        // invalidating the session must not leave a stale SessionContext on the request
+        contextsService.endContext(SessionScoped.class, session);
+        Assert.assertNull(requestContext.getSessionContext());
+
+        contextsService.endContext(RequestScoped.class, requestEvent);
+    }
+
+    @Test
+    public void testSessionContextAttributeGetsWrittenOncePerRequest()
+    {
+        addService(ContextsService.class, ThreadLocalClearingContextsService.class);
+        startContainer();
+
+        ThreadLocalClearingContextsService contextsService = (ThreadLocalClearingContextsService) getWebBeansContext().getContextsService();
+        final AtomicInteger attributeWrites = new AtomicInteger();
+        final MockHttpSession session = new MockHttpSession()
+        {
+            @Override
+            public void setAttribute(String name, Object value)
+            {
+                attributeWrites.incrementAndGet();
+                super.setAttribute(name, value);
+            }
+        };
+        final AtomicBoolean sessionCreated = new AtomicBoolean();
+        final MockServletRequest request = new MockServletRequest()
+        {
+            @Override
+            public HttpSession getSession(boolean create)
+            {
+                if (!create && !sessionCreated.get())
+                {
+                    return null;
+                }
+                if (sessionCreated.compareAndSet(false, true))
+                {
+                    // like the HttpSessionListener of WebBeansConfigurationListener
+                    contextsService.startContext(SessionScoped.class, session);
+                }
+                return session;
+            }
+        };
+        final ServletRequestEvent requestEvent = new ServletRequestEvent(new MockServletContext(), request);
+
+        // the request which creates the session
+        contextsService.startContext(RequestScoped.class, requestEvent);
+        SessionContext sessionContext = (SessionContext) contextsService.getCurrentContext(SessionScoped.class);
+        Assert.assertNotNull(sessionContext);
+        Assert.assertEquals(1, attributeWrites.get());
+        contextsService.clearSessionContextThreadLocal();
+        contextsService.startContext(SessionScoped.class, session);
+        Assert.assertSame(sessionContext, contextsService.getCurrentContext(SessionScoped.class));
+        Assert.assertEquals(1, attributeWrites.get());
+        contextsService.endContext(RequestScoped.class, requestEvent);
+        contextsService.removeThreadLocals();
+
+        // a following request writes it once to trigger the session replication
+        contextsService.startContext(RequestScoped.class, requestEvent);
+        Assert.assertSame(sessionContext, contextsService.getCurrentContext(SessionScoped.class));
+        Assert.assertEquals(2, attributeWrites.get());
+        contextsService.clearSessionContextThreadLocal();
+        contextsService.startContext(SessionScoped.class, session);
+        Assert.assertSame(sessionContext, contextsService.getCurrentContext(SessionScoped.class));
+        Assert.assertEquals(2, attributeWrites.get());
+        contextsService.endContext(RequestScoped.class, requestEvent);
+        contextsService.removeThreadLocals();
+    }
+
+    public static class ThreadLocalClearingContextsService extends WebContextsService
+    {
+        public ThreadLocalClearingContextsService(WebBeansContext webBeansContext)
+        {
+            super(webBeansContext);
+        }
+
+        public void clearSessionContextThreadLocal()
+        {
+            sessionContexts.remove();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.web.tests.session;
+
+import java.util.Collections;
+
+import jakarta.enterprise.context.RequestScoped;
+import jakarta.enterprise.context.SessionScoped;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.servlet.ServletRequestEvent;
+import jakarta.servlet.http.HttpSession;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.util.Serializations;
+import org.apache.webbeans.web.context.WebContextsService;
+import org.apache.webbeans.web.lifecycle.test.MockServletContext;
+import org.apache.webbeans.web.tests.MockHttpSession;
+import org.apache.webbeans.web.tests.MockServletRequest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Replicates the HttpSession attributes like a servlet container with delta replication
+ * would do and restores them in a new HttpSession.
+ */
+public class SessionDirtyTrackingFailoverTest extends AbstractUnitTest
+{
+    private static final String SESSION_CONTEXT_ATTRIBUTE = "openWebBeansSessionContext";
+
+    @Test
+    public void testBeansDestroyedAfterReplicationDoNotGetRestored() throws Exception
+    {
+        addConfiguration(OpenWebBeansConfiguration.SESSION_DIRTY_TRACKING, "true");
+        startContainer(Cart.class, Wishlist.class);
+
+        MockHttpSession session = new MockHttpSession();
+
+        ServletRequestEvent request = startRequest(session);
+        getInstance(Cart.class).setValue("cart-1");
+        getInstance(Wishlist.class).setValue("wishlist-1");
+        endRequest(request);
+
+        // the SessionContext attribute itself only gets replicated once
+        byte[] replicatedSessionContext = Serializations.serialize(session.getAttribute(SESSION_CONTEXT_ATTRIBUTE));
+
+        request = startRequest(session);
+        getInstance(Cart.class).setValue("cart-2");
+        Bean<?> wishlistBean = getBean(Wishlist.class);
+        ((SessionContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class)).destroy(wishlistBean);
+        endRequest(request);
+
+        MockHttpSession failoverSession = new MockHttpSession();
+        failoverSession.setAttribute(SESSION_CONTEXT_ATTRIBUTE, Serializations.deserialize(replicatedSessionContext));
+        for (String attributeName : Collections.list(session.getAttributeNames()))
+        {
+            if (attributeName.startsWith(SESSION_CONTEXT_ATTRIBUTE + "."))
+            {
+                failoverSession.setAttribute(attributeName,
+                    Serializations.deserialize(Serializations.serialize(session.getAttribute(attributeName))));
+            }
+        }
+
+        request = startRequest(failoverSession);
+        SessionContext sessionContext = (SessionContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        Assert.assertNotSame(session.getAttribute(SESSION_CONTEXT_ATTRIBUTE), sessionContext);
+
+        Assert.assertNull(sessionContext.getBeanInstanceBag(wishlistBean));
+        Assert.assertEquals("cart-2", getInstance(Cart.class).getValue());
+        Assert.assertNull(getInstance(Wishlist.class).getValue());
+        endRequest(request);
+    }
+
+    private Bean<?> getBean(Class<?> type)
+    {
+        return getBeanManager().resolve(getBeanManager().getBeans(type));
+    }
+
+    private ServletRequestEvent startRequest(HttpSession session)
+    {
+        MockServletRequest request = new MockServletRequest()
+        {
+            @Override
+            public HttpSession getSession(boolean create)
+            {
+                return session;
+            }
+
+            @Override
+            public HttpSession getSession()
+            {
+                return session;
+            }
+        };
+        ServletRequestEvent requestEvent = new ServletRequestEvent(new MockServletContext(), request);
+        getWebBeansContext().getContextsService().startContext(RequestScoped.class, requestEvent);
+        return requestEvent;
+    }
+
+    private void endRequest(ServletRequestEvent requestEvent)
+    {
+        getWebBeansContext().getContextsService().endContext(RequestScoped.class, requestEvent);
+
+        // like the WebBeansConfigurationListener does
+        getWebBeansContext().getContextsService().removeThreadLocals();
+    }
+}